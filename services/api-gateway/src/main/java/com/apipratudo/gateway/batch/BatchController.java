@@ -0,0 +1,45 @@
+package com.apipratudo.gateway.batch;
+
+import com.apipratudo.gateway.batch.dto.BatchRequest;
+import com.apipratudo.gateway.batch.dto.BatchResponse;
+import com.apipratudo.gateway.error.BadRequestException;
+import com.apipratudo.gateway.error.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class BatchController {
+
+  private final BatchDispatcher dispatcher;
+  private final BatchProperties properties;
+
+  public BatchController(BatchDispatcher dispatcher, BatchProperties properties) {
+    this.dispatcher = dispatcher;
+    this.properties = properties;
+  }
+
+  @PostMapping(BatchDispatcher.BATCH_PATH)
+  public ResponseEntity<BatchResponse> batch(
+      @Valid @RequestBody BatchRequest batchRequest,
+      HttpServletRequest request,
+      HttpServletResponse response
+  ) {
+    if (!properties.isEnabled()) {
+      throw new ResourceNotFoundException("Batch endpoint disabled");
+    }
+    int items = batchRequest.requests().size();
+    if (items > properties.getMaxItems()) {
+      String message = "requests must have at most " + properties.getMaxItems() + " items";
+      throw new BadRequestException(message, List.of(message));
+    }
+    BatchResponse body = new BatchResponse(dispatcher.dispatch(batchRequest.requests(), request, response));
+    return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(body);
+  }
+}
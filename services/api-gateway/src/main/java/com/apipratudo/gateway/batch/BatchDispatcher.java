@@ -0,0 +1,356 @@
+package com.apipratudo.gateway.batch;
+
+import com.apipratudo.gateway.batch.dto.BatchOperation;
+import com.apipratudo.gateway.batch.dto.BatchOperationResult;
+import com.apipratudo.gateway.error.ErrorResponse;
+import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Runs batch items in-process through the same servlet filters and {@link DispatcherServlet} as a regular
+ * request, so quota, idempotency, load shedding and validation apply to every item. Items run on virtual
+ * threads, bounded per batch and globally, so a single batch cannot take over the gateway. Items that are still
+ * running at the batch deadline are not interrupted (the downstream call would carry on regardless); they finish
+ * in the background and are reported as timed out, or as of unknown outcome when retrying them is not safe.
+ */
+@Component
+public class BatchDispatcher {
+
+  public static final String BATCH_PATH = "/v1/batch";
+
+  private static final Logger log = LoggerFactory.getLogger(BatchDispatcher.class);
+  private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+  private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "PUT", "DELETE");
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private static final List<String> INHERITED_HEADERS = List.of(
+      "X-Api-Key",
+      "X-Cloud-Trace-Context",
+      "X-B3-TraceId",
+      "traceparent"
+  );
+
+  private final BatchProperties properties;
+  private final ObjectProvider<Filter> filters;
+  private final ObjectProvider<DispatcherServlet> dispatcherServlet;
+  private final ObjectMapper objectMapper;
+  private final Semaphore globalPermits;
+  private final Counter rejected;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private volatile List<Filter> orderedFilters;
+
+  public BatchDispatcher(
+      BatchProperties properties,
+      ObjectProvider<Filter> filters,
+      ObjectProvider<DispatcherServlet> dispatcherServlet,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry
+  ) {
+    this.properties = properties;
+    this.filters = filters;
+    this.dispatcherServlet = dispatcherServlet;
+    this.objectMapper = objectMapper;
+    this.globalPermits = new Semaphore(properties.getMaxConcurrentItems());
+    this.rejected = Counter.builder("gateway.batch.items.rejected").register(meterRegistry);
+    Gauge.builder("gateway.batch.items.in_flight", globalPermits,
+            permits -> properties.getMaxConcurrentItems() - permits.availablePermits())
+        .register(meterRegistry);
+  }
+
+  public List<BatchOperationResult> dispatch(
+      List<BatchOperation> operations,
+      HttpServletRequest batchRequest,
+      HttpServletResponse batchResponse
+  ) {
+    Semaphore batchPermits = new Semaphore(properties.getMaxParallelPerBatch());
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    String traceId = TraceIdUtils.resolveTraceId(batchRequest);
+    List<Item> items = new ArrayList<>(operations.size());
+    for (int i = 0; i < operations.size(); i++) {
+      BatchOperation operation = operations.get(i);
+      String id = StringUtils.hasText(operation.id()) ? operation.id() : String.valueOf(i);
+      Item item = prepare(id, operation, batchRequest, batchResponse, traceId);
+      if (item.future == null) {
+        item.future = executor.submit(() -> {
+          if (mdc != null) {
+            MDC.setContextMap(mdc);
+          }
+          try {
+            return runBounded(item, batchPermits);
+          } finally {
+            MDC.clear();
+          }
+        });
+      }
+      items.add(item);
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMs());
+    List<BatchOperationResult> results = new ArrayList<>(items.size());
+    for (Item item : items) {
+      results.add(await(item, deadline));
+    }
+    return results;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Validates the operation and copies everything the item needs from the batch request, on the batch's own
+   * thread, so the item never touches the batch request once it runs.
+   */
+  private Item prepare(
+      String id,
+      BatchOperation operation,
+      HttpServletRequest batchRequest,
+      HttpServletResponse batchResponse,
+      String traceId
+  ) {
+    String method = operation.method().toUpperCase(Locale.ROOT);
+    if (!METHODS.contains(method)) {
+      return Item.done(id, traceId, error(id, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR",
+          "Unsupported method " + operation.method(), traceId));
+    }
+    if (!operation.path().startsWith("/v1/") || operation.path().startsWith(BATCH_PATH)) {
+      return Item.done(id, traceId, error(id, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR",
+          "Path must start with /v1/ and not be " + BATCH_PATH, traceId));
+    }
+
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    for (String name : INHERITED_HEADERS) {
+      String value = batchRequest.getHeader(name);
+      if (value != null) {
+        headers.put(name, List.of(value));
+      }
+    }
+    if (operation.headers() != null) {
+      operation.headers().forEach((name, value) -> headers.put(name, List.of(value)));
+    }
+    byte[] body = new byte[0];
+    if (operation.body() != null && !operation.body().isNull()) {
+      try {
+        body = objectMapper.writeValueAsBytes(operation.body());
+      } catch (IOException ex) {
+        throw new IllegalStateException("Failed to serialize batch item body", ex);
+      }
+      if (headers.keySet().stream().noneMatch(HttpHeaders.CONTENT_TYPE::equalsIgnoreCase)) {
+        headers.put(HttpHeaders.CONTENT_TYPE, List.of(MediaType.APPLICATION_JSON_VALUE));
+      }
+    }
+
+    boolean idempotent = IDEMPOTENT_METHODS.contains(method)
+        || headers.keySet().stream().anyMatch(IDEMPOTENCY_KEY_HEADER::equalsIgnoreCase);
+    BatchItemRequest request = new BatchItemRequest(batchRequest, method, operation.path(), headers, body);
+    return new Item(id, operation.path(), traceId, idempotent, request, new BatchItemResponse(batchResponse));
+  }
+
+  private BatchOperationResult runBounded(Item item, Semaphore batchPermits) throws InterruptedException {
+    batchPermits.acquire();
+    try {
+      if (!globalPermits.tryAcquire(properties.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+        rejected.increment();
+        return error(item.id, HttpStatus.SERVICE_UNAVAILABLE, "BATCH_SATURATED",
+            "Too many batch items in flight, retry later", item.traceId);
+      }
+      try {
+        if (!item.state.compareAndSet(Item.PENDING, Item.RUNNING)) {
+          return null;
+        }
+        return execute(item);
+      } finally {
+        globalPermits.release();
+      }
+    } finally {
+      batchPermits.release();
+    }
+  }
+
+  private BatchOperationResult execute(Item item) {
+    try {
+      new ItemFilterChain(filters(), dispatcherServlet.getObject()).doFilter(item.request, item.response);
+    } catch (IOException | ServletException | RuntimeException ex) {
+      log.warn("Batch item failed id={} path={} error={}", item.id, item.path, ex.getMessage());
+      return error(item.id, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "Batch item failed", item.traceId);
+    }
+    return toResult(item.id, item.response, item.traceId);
+  }
+
+  private BatchOperationResult await(Item item, long deadline) {
+    try {
+      return item.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException ex) {
+      return timedOut(item, HttpStatus.GATEWAY_TIMEOUT, "BATCH_TIMEOUT", "Batch deadline exceeded");
+    } catch (ExecutionException ex) {
+      log.warn("Batch item failed id={} error={}", item.id, ex.getCause().getMessage());
+      return error(item.id, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "Batch item failed", item.traceId);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return timedOut(item, HttpStatus.SERVICE_UNAVAILABLE, "BATCH_INTERRUPTED", "Batch interrupted");
+    }
+  }
+
+  /**
+   * An item that had not started is abandoned and never runs. One that is already running is left to finish:
+   * a retry is safe when it is idempotent, otherwise the caller is told its outcome is unknown.
+   */
+  private BatchOperationResult timedOut(Item item, HttpStatus status, String code, String message) {
+    if (item.state.compareAndSet(Item.PENDING, Item.ABANDONED) || item.idempotent) {
+      return error(item.id, status, code, message, item.traceId);
+    }
+    log.warn("Batch item still running at deadline id={} path={}", item.id, item.path);
+    return error(item.id, status, "BATCH_OUTCOME_UNKNOWN",
+        message + " while the item was running; it may still complete", item.traceId);
+  }
+
+  private BatchOperationResult toResult(String id, BatchItemResponse response, String traceId) {
+    int status = response.statusCode();
+    byte[] body = response.body();
+    Map<String, String> headers = new LinkedHashMap<>();
+    response.headers().forEach((name, values) -> {
+      if (!values.isEmpty()) {
+        headers.put(name, values.get(0));
+      }
+    });
+    if (body.length == 0) {
+      HttpStatus resolved = HttpStatus.resolve(status);
+      if (status >= 400 && resolved != null) {
+        ErrorResponse error = new ErrorResponse(resolved.name(), resolved.getReasonPhrase(),
+            Collections.emptyList(), traceId);
+        return new BatchOperationResult(id, status, headers, objectMapper.valueToTree(error));
+      }
+      return new BatchOperationResult(id, status, headers, null);
+    }
+    return new BatchOperationResult(id, status, headers, readBody(body, response.getContentType()));
+  }
+
+  private JsonNode readBody(byte[] body, String contentType) {
+    if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+      try {
+        return objectMapper.readTree(body);
+      } catch (IOException ex) {
+        log.debug("Batch item body is not valid JSON, returning as text");
+      }
+    }
+    return TextNode.valueOf(new String(body, StandardCharsets.UTF_8));
+  }
+
+  private BatchOperationResult error(String id, HttpStatus status, String code, String message, String traceId) {
+    ErrorResponse body = new ErrorResponse(code, message, Collections.emptyList(), traceId);
+    return new BatchOperationResult(id, status.value(),
+        Map.of(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE), objectMapper.valueToTree(body));
+  }
+
+  private List<Filter> filters() {
+    List<Filter> ordered = orderedFilters;
+    if (ordered == null) {
+      List<Filter> all = new ArrayList<>(filters.stream().toList());
+      AnnotationAwareOrderComparator.sort(all);
+      ordered = List.copyOf(all);
+      orderedFilters = ordered;
+    }
+    return ordered;
+  }
+
+  private static final class Item {
+
+    static final int PENDING = 0;
+    static final int RUNNING = 1;
+    static final int ABANDONED = 2;
+
+    final String id;
+    final String path;
+    final String traceId;
+    final boolean idempotent;
+    final BatchItemRequest request;
+    final BatchItemResponse response;
+    final AtomicInteger state = new AtomicInteger(PENDING);
+    Future<BatchOperationResult> future;
+
+    Item(
+        String id,
+        String path,
+        String traceId,
+        boolean idempotent,
+        BatchItemRequest request,
+        BatchItemResponse response
+    ) {
+      this.id = id;
+      this.path = path;
+      this.traceId = traceId;
+      this.idempotent = idempotent;
+      this.request = request;
+      this.response = response;
+    }
+
+    static Item done(String id, String traceId, BatchOperationResult result) {
+      Item item = new Item(id, null, traceId, true, null, null);
+      item.future = CompletableFuture.completedFuture(result);
+      return item;
+    }
+  }
+
+  private static final class ItemFilterChain implements FilterChain {
+
+    private final List<Filter> filters;
+    private final DispatcherServlet servlet;
+    private int position;
+
+    ItemFilterChain(List<Filter> filters, DispatcherServlet servlet) {
+      this.filters = filters;
+      this.servlet = servlet;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+      if (position < filters.size()) {
+        filters.get(position++).doFilter(request, response, this);
+        return;
+      }
+      servlet.service(request, response);
+    }
+  }
+}
@@ -0,0 +1,442 @@
+package com.apipratudo.gateway.batch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * A sub-request of a batch. Connection-level details (remote address, scheme, host, context path, locale) are
+ * copied from the batch request when the item is created, and the item owns its method, URI, headers, body and
+ * attributes, so filters and the dispatcher treat it as an independent request. Nothing is read from the batch
+ * request afterwards: an item can outlive the batch response, by which time the container may have recycled it.
+ */
+class BatchItemRequest extends HttpServletRequestWrapper {
+
+  private final String method;
+  private final String path;
+  private final String queryString;
+  private final Map<String, List<String>> headers;
+  private final byte[] body;
+  private final Map<String, String[]> parameters;
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+  private final ServletContext servletContext;
+  private final String contextPath;
+  private final String scheme;
+  private final String serverName;
+  private final int serverPort;
+  private final String protocol;
+  private final boolean secure;
+  private final String remoteAddr;
+  private final String remoteHost;
+  private final int remotePort;
+  private final String localAddr;
+  private final String localName;
+  private final int localPort;
+  private final List<Locale> locales;
+
+  BatchItemRequest(
+      HttpServletRequest batchRequest,
+      String method,
+      String pathAndQuery,
+      Map<String, List<String>> headers,
+      byte[] body
+  ) {
+    super(batchRequest);
+    this.method = method;
+    int query = pathAndQuery.indexOf('?');
+    this.path = query < 0 ? pathAndQuery : pathAndQuery.substring(0, query);
+    this.queryString = query < 0 ? null : pathAndQuery.substring(query + 1);
+    this.headers = new LinkedCaseInsensitiveMap<>(Locale.ROOT);
+    this.headers.putAll(headers);
+    this.body = body;
+    this.parameters = parseParameters(queryString);
+    this.servletContext = batchRequest.getServletContext();
+    this.contextPath = batchRequest.getContextPath();
+    this.scheme = batchRequest.getScheme();
+    this.serverName = batchRequest.getServerName();
+    this.serverPort = batchRequest.getServerPort();
+    this.protocol = batchRequest.getProtocol();
+    this.secure = batchRequest.isSecure();
+    this.remoteAddr = batchRequest.getRemoteAddr();
+    this.remoteHost = batchRequest.getRemoteHost();
+    this.remotePort = batchRequest.getRemotePort();
+    this.localAddr = batchRequest.getLocalAddr();
+    this.localName = batchRequest.getLocalName();
+    this.localPort = batchRequest.getLocalPort();
+    this.locales = Collections.list(batchRequest.getLocales());
+  }
+
+  @Override
+  public ServletContext getServletContext() {
+    return servletContext;
+  }
+
+  @Override
+  public String getContextPath() {
+    return contextPath;
+  }
+
+  @Override
+  public String getScheme() {
+    return scheme;
+  }
+
+  @Override
+  public String getServerName() {
+    return serverName;
+  }
+
+  @Override
+  public int getServerPort() {
+    return serverPort;
+  }
+
+  @Override
+  public String getProtocol() {
+    return protocol;
+  }
+
+  @Override
+  public boolean isSecure() {
+    return secure;
+  }
+
+  @Override
+  public String getRemoteAddr() {
+    return remoteAddr;
+  }
+
+  @Override
+  public String getRemoteHost() {
+    return remoteHost;
+  }
+
+  @Override
+  public int getRemotePort() {
+    return remotePort;
+  }
+
+  @Override
+  public String getLocalAddr() {
+    return localAddr;
+  }
+
+  @Override
+  public String getLocalName() {
+    return localName;
+  }
+
+  @Override
+  public int getLocalPort() {
+    return localPort;
+  }
+
+  @Override
+  public Locale getLocale() {
+    return locales.isEmpty() ? Locale.getDefault() : locales.get(0);
+  }
+
+  @Override
+  public Enumeration<Locale> getLocales() {
+    return Collections.enumeration(locales.isEmpty() ? List.of(Locale.getDefault()) : locales);
+  }
+
+  @Override
+  public Cookie[] getCookies() {
+    return null;
+  }
+
+  @Override
+  public HttpSession getSession(boolean create) {
+    if (create) {
+      throw new IllegalStateException("Batch items have no session");
+    }
+    return null;
+  }
+
+  @Override
+  public HttpSession getSession() {
+    return getSession(true);
+  }
+
+  @Override
+  public String getRequestedSessionId() {
+    return null;
+  }
+
+  @Override
+  public boolean isRequestedSessionIdValid() {
+    return false;
+  }
+
+  @Override
+  public Principal getUserPrincipal() {
+    return null;
+  }
+
+  @Override
+  public String getRemoteUser() {
+    return null;
+  }
+
+  @Override
+  public boolean isUserInRole(String role) {
+    return false;
+  }
+
+  @Override
+  public String getMethod() {
+    return method;
+  }
+
+  @Override
+  public String getRequestURI() {
+    return getContextPath() + path;
+  }
+
+  @Override
+  public StringBuffer getRequestURL() {
+    StringBuffer url = new StringBuffer();
+    url.append(getScheme()).append("://").append(getServerName());
+    int port = getServerPort();
+    if (port > 0 && port != 80 && port != 443) {
+      url.append(':').append(port);
+    }
+    return url.append(getRequestURI());
+  }
+
+  @Override
+  public String getServletPath() {
+    return path;
+  }
+
+  @Override
+  public String getPathInfo() {
+    return null;
+  }
+
+  @Override
+  public String getQueryString() {
+    return queryString;
+  }
+
+  @Override
+  public DispatcherType getDispatcherType() {
+    return DispatcherType.REQUEST;
+  }
+
+  @Override
+  public String getHeader(String name) {
+    List<String> values = headers.get(name);
+    return values == null || values.isEmpty() ? null : values.get(0);
+  }
+
+  @Override
+  public Enumeration<String> getHeaders(String name) {
+    List<String> values = headers.get(name);
+    return Collections.enumeration(values == null ? List.of() : values);
+  }
+
+  @Override
+  public Enumeration<String> getHeaderNames() {
+    return Collections.enumeration(headers.keySet());
+  }
+
+  @Override
+  public int getIntHeader(String name) {
+    String value = getHeader(name);
+    return value == null ? -1 : Integer.parseInt(value);
+  }
+
+  @Override
+  public long getDateHeader(String name) {
+    String value = getHeader(name);
+    if (value == null) {
+      return -1;
+    }
+    try {
+      SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+      return format.parse(value).getTime();
+    } catch (ParseException ex) {
+      throw new IllegalArgumentException("Invalid date header " + name, ex);
+    }
+  }
+
+  @Override
+  public String getContentType() {
+    return getHeader("Content-Type");
+  }
+
+  @Override
+  public int getContentLength() {
+    return body.length;
+  }
+
+  @Override
+  public long getContentLengthLong() {
+    return body.length;
+  }
+
+  @Override
+  public String getCharacterEncoding() {
+    String contentType = getContentType();
+    if (contentType != null) {
+      int charset = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+      if (charset >= 0) {
+        return contentType.substring(charset + "charset=".length()).trim();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void setCharacterEncoding(String encoding) {
+  }
+
+  @Override
+  public ServletInputStream getInputStream() {
+    ByteArrayInputStream in = new ByteArrayInputStream(body);
+    return new ServletInputStream() {
+      @Override
+      public int read() {
+        return in.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        return in.read(b, off, len);
+      }
+
+      @Override
+      public boolean isFinished() {
+        return in.available() == 0;
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setReadListener(ReadListener readListener) {
+        throw new UnsupportedOperationException("Batch items are read synchronously");
+      }
+    };
+  }
+
+  @Override
+  public BufferedReader getReader() {
+    String encoding = getCharacterEncoding();
+    Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+  }
+
+  @Override
+  public String getParameter(String name) {
+    String[] values = parameters.get(name);
+    return values == null || values.length == 0 ? null : values[0];
+  }
+
+  @Override
+  public Map<String, String[]> getParameterMap() {
+    return Collections.unmodifiableMap(parameters);
+  }
+
+  @Override
+  public Enumeration<String> getParameterNames() {
+    return Collections.enumeration(parameters.keySet());
+  }
+
+  @Override
+  public String[] getParameterValues(String name) {
+    return parameters.get(name);
+  }
+
+  @Override
+  public Object getAttribute(String name) {
+    return attributes.get(name);
+  }
+
+  @Override
+  public Enumeration<String> getAttributeNames() {
+    return Collections.enumeration(attributes.keySet());
+  }
+
+  @Override
+  public void setAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void removeAttribute(String name) {
+    attributes.remove(name);
+  }
+
+  @Override
+  public boolean isAsyncSupported() {
+    return false;
+  }
+
+  @Override
+  public boolean isAsyncStarted() {
+    return false;
+  }
+
+  @Override
+  public AsyncContext startAsync() {
+    throw new IllegalStateException("Async processing is not supported for batch items");
+  }
+
+  @Override
+  public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+    throw new IllegalStateException("Async processing is not supported for batch items");
+  }
+
+  private static Map<String, String[]> parseParameters(String queryString) {
+    Map<String, String[]> parameters = new LinkedHashMap<>();
+    if (queryString == null || queryString.isEmpty()) {
+      return parameters;
+    }
+    MultiValueMap<String, String> raw = UriComponentsBuilder.newInstance().query(queryString).build()
+        .getQueryParams();
+    raw.forEach((name, values) -> parameters.put(decode(name), values.stream()
+        .map(value -> value == null ? "" : decode(value))
+        .toArray(String[]::new)));
+    return parameters;
+  }
+
+  private static String decode(String value) {
+    return UriUtils.decode(value.replace('+', ' '), StandardCharsets.UTF_8);
+  }
+}
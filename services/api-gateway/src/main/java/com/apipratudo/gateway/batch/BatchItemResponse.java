@@ -0,0 +1,271 @@
+package com.apipratudo.gateway.batch;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Captures status, headers and body of a batch item in memory. Nothing reaches the batch response, which
+ * is only wrapped to satisfy the servlet API.
+ */
+class BatchItemResponse extends HttpServletResponseWrapper {
+
+  private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>(Locale.ROOT);
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+  private int status = SC_OK;
+  private String characterEncoding;
+  private Locale locale = Locale.getDefault();
+  private boolean committed;
+  private ServletOutputStream outputStream;
+  private PrintWriter writer;
+
+  BatchItemResponse(HttpServletResponse batchResponse) {
+    super(batchResponse);
+  }
+
+  int statusCode() {
+    return status;
+  }
+
+  Map<String, List<String>> headers() {
+    return headers;
+  }
+
+  byte[] body() {
+    if (writer != null) {
+      writer.flush();
+    }
+    return body.toByteArray();
+  }
+
+  @Override
+  public void setStatus(int sc) {
+    if (!committed) {
+      status = sc;
+    }
+  }
+
+  @Override
+  public int getStatus() {
+    return status;
+  }
+
+  @Override
+  public void sendError(int sc) {
+    sendError(sc, null);
+  }
+
+  @Override
+  public void sendError(int sc, String msg) {
+    status = sc;
+    committed = true;
+  }
+
+  @Override
+  public void sendRedirect(String location) {
+    status = SC_FOUND;
+    setHeader(HttpHeaders.LOCATION, location);
+    committed = true;
+  }
+
+  @Override
+  public boolean containsHeader(String name) {
+    return headers.containsKey(name);
+  }
+
+  @Override
+  public String getHeader(String name) {
+    List<String> values = headers.get(name);
+    return values == null || values.isEmpty() ? null : values.get(0);
+  }
+
+  @Override
+  public Collection<String> getHeaders(String name) {
+    List<String> values = headers.get(name);
+    return values == null ? List.of() : List.copyOf(values);
+  }
+
+  @Override
+  public Collection<String> getHeaderNames() {
+    return List.copyOf(headers.keySet());
+  }
+
+  @Override
+  public void setHeader(String name, String value) {
+    if (value == null) {
+      headers.remove(name);
+      return;
+    }
+    List<String> values = new ArrayList<>();
+    values.add(value);
+    headers.put(name, values);
+  }
+
+  @Override
+  public void addHeader(String name, String value) {
+    if (value != null) {
+      headers.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+    }
+  }
+
+  @Override
+  public void setIntHeader(String name, int value) {
+    setHeader(name, String.valueOf(value));
+  }
+
+  @Override
+  public void addIntHeader(String name, int value) {
+    addHeader(name, String.valueOf(value));
+  }
+
+  @Override
+  public void setDateHeader(String name, long date) {
+    HttpHeaders formatted = new HttpHeaders();
+    formatted.setDate(name, date);
+    setHeader(name, formatted.getFirst(name));
+  }
+
+  @Override
+  public void addDateHeader(String name, long date) {
+    HttpHeaders formatted = new HttpHeaders();
+    formatted.setDate(name, date);
+    addHeader(name, formatted.getFirst(name));
+  }
+
+  @Override
+  public void setContentType(String type) {
+    setHeader(HttpHeaders.CONTENT_TYPE, type);
+    if (type != null) {
+      int charset = type.toLowerCase(Locale.ROOT).indexOf("charset=");
+      if (charset >= 0) {
+        characterEncoding = type.substring(charset + "charset=".length()).trim();
+      }
+    }
+  }
+
+  @Override
+  public String getContentType() {
+    return getHeader(HttpHeaders.CONTENT_TYPE);
+  }
+
+  @Override
+  public void setCharacterEncoding(String charset) {
+    characterEncoding = charset;
+  }
+
+  @Override
+  public String getCharacterEncoding() {
+    return characterEncoding == null ? StandardCharsets.ISO_8859_1.name() : characterEncoding;
+  }
+
+  @Override
+  public void setContentLength(int len) {
+  }
+
+  @Override
+  public void setContentLengthLong(long len) {
+  }
+
+  @Override
+  public void setLocale(Locale locale) {
+    this.locale = locale;
+  }
+
+  @Override
+  public Locale getLocale() {
+    return locale;
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() {
+    if (outputStream == null) {
+      outputStream = new ServletOutputStream() {
+        @Override
+        public void write(int b) {
+          body.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+          body.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+          throw new UnsupportedOperationException("Batch items are written synchronously");
+        }
+      };
+    }
+    return outputStream;
+  }
+
+  @Override
+  public PrintWriter getWriter() {
+    if (writer == null) {
+      writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(getCharacterEncoding())));
+    }
+    return writer;
+  }
+
+  @Override
+  public void flushBuffer() {
+    if (writer != null) {
+      writer.flush();
+    }
+    committed = true;
+  }
+
+  @Override
+  public boolean isCommitted() {
+    return committed;
+  }
+
+  @Override
+  public void reset() {
+    if (committed) {
+      throw new IllegalStateException("Response already committed");
+    }
+    headers.clear();
+    status = SC_OK;
+    characterEncoding = null;
+    resetBuffer();
+  }
+
+  @Override
+  public void resetBuffer() {
+    if (committed) {
+      throw new IllegalStateException("Response already committed");
+    }
+    if (writer != null) {
+      writer.flush();
+    }
+    body.reset();
+  }
+
+  @Override
+  public void setBufferSize(int size) {
+  }
+
+  @Override
+  public int getBufferSize() {
+    return body.size();
+  }
+}
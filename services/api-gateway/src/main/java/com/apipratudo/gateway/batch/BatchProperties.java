@@ -0,0 +1,77 @@
+package com.apipratudo.gateway.batch;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+@Validated
+public class BatchProperties {
+
+  private boolean enabled = true;
+
+  @Min(1)
+  private int maxItems = 20;
+
+  @Min(1)
+  private int maxParallelPerBatch = 4;
+
+  @Min(1)
+  private int maxConcurrentItems = 64;
+
+  @Min(0)
+  private long acquireTimeoutMs = 2000;
+
+  @Min(100)
+  private long timeoutMs = 30000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxItems() {
+    return maxItems;
+  }
+
+  public void setMaxItems(int maxItems) {
+    this.maxItems = maxItems;
+  }
+
+  public int getMaxParallelPerBatch() {
+    return maxParallelPerBatch;
+  }
+
+  public void setMaxParallelPerBatch(int maxParallelPerBatch) {
+    this.maxParallelPerBatch = maxParallelPerBatch;
+  }
+
+  public int getMaxConcurrentItems() {
+    return maxConcurrentItems;
+  }
+
+  public void setMaxConcurrentItems(int maxConcurrentItems) {
+    this.maxConcurrentItems = maxConcurrentItems;
+  }
+
+  public long getAcquireTimeoutMs() {
+    return acquireTimeoutMs;
+  }
+
+  public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+    this.acquireTimeoutMs = acquireTimeoutMs;
+  }
+
+  public long getTimeoutMs() {
+    return timeoutMs;
+  }
+
+  public void setTimeoutMs(long timeoutMs) {
+    this.timeoutMs = timeoutMs;
+  }
+}
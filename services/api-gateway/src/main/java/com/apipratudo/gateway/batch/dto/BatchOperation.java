@@ -0,0 +1,14 @@
+package com.apipratudo.gateway.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import java.util.Map;
+
+public record BatchOperation(
+    String id,
+    @NotBlank String method,
+    @NotBlank String path,
+    Map<String, String> headers,
+    JsonNode body
+) {
+}
@@ -0,0 +1,14 @@
+package com.apipratudo.gateway.batch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchOperationResult(
+    String id,
+    int status,
+    Map<String, String> headers,
+    JsonNode body
+) {
+}
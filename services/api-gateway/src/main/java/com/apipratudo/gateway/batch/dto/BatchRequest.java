@@ -0,0 +1,10 @@
+package com.apipratudo.gateway.batch.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public record BatchRequest(
+    @NotEmpty @Valid List<BatchOperation> requests
+) {
+}
@@ -0,0 +1,8 @@
+package com.apipratudo.gateway.batch.dto;
+
+import java.util.List;
+
+public record BatchResponse(
+    List<BatchOperationResult> responses
+) {
+}
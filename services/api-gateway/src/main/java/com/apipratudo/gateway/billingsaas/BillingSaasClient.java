@@ -4,6 +4,7 @@ import com.apipratudo.gateway.billingsaas.dto.ChargeCreateRequest;
 import com.apipratudo.gateway.billingsaas.dto.CustomerCreateRequest;
 import com.apipratudo.gateway.billingsaas.dto.PagbankConnectRequest;
 import com.apipratudo.gateway.billingsaas.dto.PixGenerateRequest;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import java.time.Duration;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -17,8 +18,14 @@ public class BillingSaasClient {
   private final Duration timeout;
   private final BillingSaasClientProperties properties;
 
-  public BillingSaasClient(WebClient.Builder builder, BillingSaasClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public BillingSaasClient(
+      WebClient.Builder builder,
+      BillingSaasClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("billing-saas", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.properties = properties;
   }
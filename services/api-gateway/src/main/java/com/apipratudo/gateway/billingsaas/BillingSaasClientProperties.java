@@ -1,5 +1,7 @@
 package com.apipratudo.gateway.billingsaas;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -17,6 +19,9 @@ public class BillingSaasClientProperties {
   @Min(100)
   private long timeoutMs = 3000;
 
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
+
   private String serviceToken;
   private String webhookSecret;
 
@@ -51,4 +56,12 @@ public class BillingSaasClientProperties {
   public void setWebhookSecret(String webhookSecret) {
     this.webhookSecret = webhookSecret;
   }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
@@ -5,10 +5,11 @@ import com.apipratudo.gateway.billingsaas.dto.CustomerCreateRequest;
 import com.apipratudo.gateway.billingsaas.dto.PagbankConnectRequest;
 import com.apipratudo.gateway.billingsaas.dto.PixGenerateRequest;
 import com.apipratudo.gateway.error.ErrorResponse;
-import com.apipratudo.gateway.idempotency.HashingUtils;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.Collections;
 import org.slf4j.Logger;
@@ -17,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,8 +27,6 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/v1")
@@ -37,9 +37,11 @@ public class BillingSaasController {
   private static final Logger log = LoggerFactory.getLogger(BillingSaasController.class);
 
   private final BillingSaasClient billingSaasClient;
+  private final TenantIdResolver tenantIdResolver;
 
-  public BillingSaasController(BillingSaasClient billingSaasClient) {
+  public BillingSaasController(BillingSaasClient billingSaasClient, TenantIdResolver tenantIdResolver) {
     this.billingSaasClient = billingSaasClient;
+    this.tenantIdResolver = tenantIdResolver;
   }
 
   @PostMapping("/clientes")
@@ -251,7 +253,7 @@ public class BillingSaasController {
   }
 
   private String tenantId(String apiKey) {
-    return HashingUtils.sha256Hex(apiKey);
+    return tenantIdResolver.tenantId(apiKey);
   }
 
   private ResponseEntity<?> mapResult(BillingSaasClient.BillingSaasClientResult result, String traceId) {
@@ -0,0 +1,56 @@
+package com.apipratudo.gateway.coalescing;
+
+import jakarta.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.coalescing")
+@Validated
+public class CoalescingProperties {
+
+  private boolean enabled = false;
+
+  private List<String> pathPrefixes = new ArrayList<>(List.of("/v1/"));
+
+  @Min(100)
+  private long waitTimeoutMs = 10000;
+
+  @Min(1)
+  private int maxBodyBytes = 1048576;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getPathPrefixes() {
+    return pathPrefixes;
+  }
+
+  public void setPathPrefixes(List<String> pathPrefixes) {
+    this.pathPrefixes = pathPrefixes;
+  }
+
+  public long getWaitTimeoutMs() {
+    return waitTimeoutMs;
+  }
+
+  public void setWaitTimeoutMs(long waitTimeoutMs) {
+    this.waitTimeoutMs = waitTimeoutMs;
+  }
+
+  public int getMaxBodyBytes() {
+    return maxBodyBytes;
+  }
+
+  public void setMaxBodyBytes(int maxBodyBytes) {
+    this.maxBodyBytes = maxBodyBytes;
+  }
+}
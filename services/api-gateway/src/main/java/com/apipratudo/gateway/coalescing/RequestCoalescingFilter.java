@@ -0,0 +1,316 @@
+package com.apipratudo.gateway.coalescing;
+
+import com.apipratudo.gateway.tenant.TenantIdResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Identical concurrent GETs share the first request's response. The leader's response is streamed to its own
+ * client as it is written; a copy is kept only when followers are already waiting by the time the body starts,
+ * and is dropped (followers then run their own request) once it passes {@code max-body-bytes}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+  private static final String API_KEY_HEADER = "X-Api-Key";
+  private static final Set<String> UNSHARED_HEADERS = Set.of(
+      HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+      HttpHeaders.CONTENT_TYPE.toLowerCase(),
+      HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+      HttpHeaders.CONNECTION.toLowerCase(),
+      HttpHeaders.DATE.toLowerCase(),
+      HttpHeaders.SET_COOKIE.toLowerCase()
+  );
+
+  private final CoalescingProperties properties;
+  private final TenantIdResolver tenantIdResolver;
+  private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+  private final Counter leaders;
+  private final Counter followers;
+  private final Counter fallbacks;
+
+  public RequestCoalescingFilter(
+      CoalescingProperties properties,
+      TenantIdResolver tenantIdResolver,
+      MeterRegistry meterRegistry
+  ) {
+    this.properties = properties;
+    this.tenantIdResolver = tenantIdResolver;
+    this.leaders = Counter.builder("gateway.coalescing.requests").tag("role", "leader").register(meterRegistry);
+    this.followers = Counter.builder("gateway.coalescing.requests").tag("role", "follower")
+        .register(meterRegistry);
+    this.fallbacks = Counter.builder("gateway.coalescing.requests").tag("role", "fallback")
+        .register(meterRegistry);
+    Gauge.builder("gateway.coalescing.in_flight", inFlight, Map::size).register(meterRegistry);
+    Gauge.builder("gateway.coalescing.ratio", this, RequestCoalescingFilter::coalescedRatio)
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    String method = request.getMethod();
+    if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+      return true;
+    }
+    if (!StringUtils.hasText(request.getHeader(API_KEY_HEADER))) {
+      return true;
+    }
+    String path = request.getRequestURI();
+    return properties.getPathPrefixes().stream().noneMatch(path::startsWith);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain
+  ) throws ServletException, IOException {
+    String key = coalescingKey(request);
+    Flight created = new Flight();
+    Flight existing = inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      SharedResponse shared = existing.join() ? await(existing.result) : null;
+      if (shared != null) {
+        followers.increment();
+        shared.writeTo(response);
+        return;
+      }
+      fallbacks.increment();
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    leaders.increment();
+    TeeResponse tee = new TeeResponse(response, created, properties.getMaxBodyBytes());
+    try {
+      filterChain.doFilter(request, tee);
+      created.result.complete(tee.share());
+    } finally {
+      tee.finish();
+      created.result.complete(null);
+      inFlight.remove(key, created);
+    }
+  }
+
+  private SharedResponse await(CompletableFuture<SharedResponse> leader) {
+    try {
+      return leader.get(properties.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException | TimeoutException ex) {
+      return null;
+    }
+  }
+
+  private double coalescedRatio() {
+    double shared = followers.count();
+    double total = shared + leaders.count() + fallbacks.count();
+    return total == 0 ? 0 : shared / total;
+  }
+
+  private String coalescingKey(HttpServletRequest request) {
+    String query = request.getQueryString();
+    return tenantIdResolver.tenantId(request.getHeader(API_KEY_HEADER))
+        + ' ' + request.getMethod().toUpperCase()
+        + ' ' + request.getRequestURI()
+        + (query == null ? "" : "?" + query);
+  }
+
+  /**
+   * A leader's request in progress. Followers can join until its body starts streaming without a copy.
+   */
+  private static final class Flight {
+
+    private final CompletableFuture<SharedResponse> result = new CompletableFuture<>();
+    private int followers;
+    private boolean closed;
+
+    synchronized boolean join() {
+      if (closed) {
+        return false;
+      }
+      followers++;
+      return true;
+    }
+
+    synchronized boolean startBody() {
+      closed = followers == 0;
+      return !closed;
+    }
+  }
+
+  /**
+   * Writes through to the leader's response, copying the body only while the flight has followers and the copy
+   * stays within {@code maxBodyBytes}.
+   */
+  private static final class TeeResponse extends HttpServletResponseWrapper {
+
+    private final Flight flight;
+    private final int maxBodyBytes;
+    private ByteArrayOutputStream copy;
+    private boolean started;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    TeeResponse(HttpServletResponse response, Flight flight, int maxBodyBytes) {
+      super(response);
+      this.flight = flight;
+      this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new TeeOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+        writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if (writer != null) {
+        writer.flush();
+      }
+      startBody();
+      super.flushBuffer();
+    }
+
+    SharedResponse share() {
+      finish();
+      startBody();
+      if (copy == null) {
+        return null;
+      }
+      Map<String, List<String>> headers = new LinkedHashMap<>();
+      for (String name : getHeaderNames()) {
+        if (!UNSHARED_HEADERS.contains(name.toLowerCase())) {
+          headers.put(name, new ArrayList<>(getHeaders(name)));
+        }
+      }
+      return new SharedResponse(getStatus(), getContentType(), headers, copy.toByteArray());
+    }
+
+    void finish() {
+      if (writer != null) {
+        writer.flush();
+      }
+    }
+
+    private void startBody() {
+      if (!started) {
+        started = true;
+        if (flight.startBody()) {
+          copy = new ByteArrayOutputStream();
+        }
+      }
+    }
+
+    private void copy(byte[] bytes, int offset, int length) {
+      startBody();
+      if (copy == null) {
+        return;
+      }
+      if (copy.size() + length > maxBodyBytes) {
+        copy = null;
+        return;
+      }
+      copy.write(bytes, offset, length);
+    }
+
+    private final class TeeOutputStream extends ServletOutputStream {
+
+      private final ServletOutputStream delegate;
+
+      TeeOutputStream(ServletOutputStream delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        copy(new byte[] {(byte) b}, 0, 1);
+        delegate.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        copy(b, off, len);
+        delegate.write(b, off, len);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        startBody();
+        delegate.flush();
+      }
+
+      @Override
+      public boolean isReady() {
+        return delegate.isReady();
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+        delegate.setWriteListener(writeListener);
+      }
+    }
+  }
+
+  private record SharedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+
+    void writeTo(HttpServletResponse response) throws IOException {
+      response.setStatus(status);
+      headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+      if (contentType != null) {
+        response.setContentType(contentType);
+      }
+      response.setContentLength(body.length);
+      response.getOutputStream().write(body);
+    }
+  }
+}
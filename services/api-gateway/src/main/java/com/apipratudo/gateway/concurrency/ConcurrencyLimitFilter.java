@@ -0,0 +1,85 @@
+package com.apipratudo.gateway.concurrency;
+
+import com.apipratudo.gateway.error.ErrorResponse;
+import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.quota.QuotaEnforcementFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+@Order(ConcurrencyLimitFilter.ORDER)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  public static final int ORDER = QuotaEnforcementFilter.ORDER - 10;
+
+  private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+  private final ConcurrencyLimitProperties properties;
+  private final ConcurrencyLimiters limiters;
+  private final ObjectMapper objectMapper;
+
+  public ConcurrencyLimitFilter(
+      ConcurrencyLimitProperties properties,
+      ConcurrencyLimiters limiters,
+      ObjectMapper objectMapper
+  ) {
+    this.properties = properties;
+    this.limiters = limiters;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!properties.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+      return true;
+    }
+    return !request.getRequestURI().startsWith("/v1/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain
+  ) throws ServletException, IOException {
+    ConcurrencyLimiters.RouteLimiter route = limiters.forPath(request.getRequestURI());
+    GradientLimiter limiter = route.limiter();
+    if (!limiter.tryAcquire()) {
+      route.rejections().increment();
+      log.debug("Request shed route={} limit={}", route.route(), limiter.getLimit());
+      writeOverloaded(request, response);
+      return;
+    }
+
+    long started = System.nanoTime();
+    boolean dropped = true;
+    try {
+      filterChain.doFilter(request, response);
+      dropped = false;
+    } finally {
+      limiter.release(System.nanoTime() - started, dropped);
+    }
+  }
+
+  private void writeOverloaded(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.setHeader("Retry-After", String.valueOf(properties.getRetryAfterSeconds()));
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE + ";charset=UTF-8");
+    ErrorResponse body = new ErrorResponse("OVERLOADED", "Gateway overloaded, retry later",
+        Collections.emptyList(), TraceIdUtils.resolveTraceId(request));
+    objectMapper.writeValue(response.getWriter(), body);
+  }
+}
@@ -0,0 +1,164 @@
+package com.apipratudo.gateway.concurrency;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Validated
+public class ConcurrencyLimitProperties {
+
+  private boolean enabled = true;
+
+  @Min(1)
+  private int initialLimit = 100;
+
+  @Min(1)
+  private int minLimit = 10;
+
+  @Min(1)
+  private int maxLimit = 1000;
+
+  @DecimalMin("0.01")
+  @DecimalMax("1.0")
+  private double smoothing = 0.2;
+
+  @DecimalMin("1.0")
+  private double rttTolerance = 1.5;
+
+  @Min(10)
+  private int longWindow = 600;
+
+  @Min(1)
+  private long retryAfterSeconds = 1;
+
+  @Valid
+  private List<Route> routes = new ArrayList<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public void setInitialLimit(int initialLimit) {
+    this.initialLimit = initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public void setMinLimit(int minLimit) {
+    this.minLimit = minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public double getSmoothing() {
+    return smoothing;
+  }
+
+  public void setSmoothing(double smoothing) {
+    this.smoothing = smoothing;
+  }
+
+  public double getRttTolerance() {
+    return rttTolerance;
+  }
+
+  public void setRttTolerance(double rttTolerance) {
+    this.rttTolerance = rttTolerance;
+  }
+
+  public int getLongWindow() {
+    return longWindow;
+  }
+
+  public void setLongWindow(int longWindow) {
+    this.longWindow = longWindow;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  public void setRetryAfterSeconds(long retryAfterSeconds) {
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public List<Route> getRoutes() {
+    return routes;
+  }
+
+  public void setRoutes(List<Route> routes) {
+    this.routes = routes;
+  }
+
+  public static class Route {
+
+    @NotBlank
+    private String prefix;
+
+    @Min(1)
+    private Integer initialLimit;
+
+    @Min(1)
+    private Integer minLimit;
+
+    @Min(1)
+    private Integer maxLimit;
+
+    public String getPrefix() {
+      return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Integer getInitialLimit() {
+      return initialLimit;
+    }
+
+    public void setInitialLimit(Integer initialLimit) {
+      this.initialLimit = initialLimit;
+    }
+
+    public Integer getMinLimit() {
+      return minLimit;
+    }
+
+    public void setMinLimit(Integer minLimit) {
+      this.minLimit = minLimit;
+    }
+
+    public Integer getMaxLimit() {
+      return maxLimit;
+    }
+
+    public void setMaxLimit(Integer maxLimit) {
+      this.maxLimit = maxLimit;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.apipratudo.gateway.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * One limiter per configured route, then one per first path segment of the gateway's own {@code /v1} controller
+ * mappings. Any other path (typos, scanners, probes) shares the single {@code /v1} limiter, so the number of
+ * limiters and their metric tags is fixed by the code and configuration rather than by incoming traffic.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+  static final String SHARED_ROUTE = "/v1";
+
+  private final ConcurrencyLimitProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final List<ConcurrencyLimitProperties.Route> routes;
+  private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+  private final ConcurrentMap<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+  private volatile Set<String> knownPrefixes;
+
+  public ConcurrencyLimiters(
+      ConcurrencyLimitProperties properties,
+      MeterRegistry meterRegistry,
+      @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMapping
+  ) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.handlerMapping = handlerMapping;
+    this.routes = properties.getRoutes().stream()
+        .sorted(Comparator.comparingInt(
+            (ConcurrencyLimitProperties.Route route) -> route.getPrefix().length()).reversed())
+        .toList();
+  }
+
+  public RouteLimiter forPath(String path) {
+    for (ConcurrencyLimitProperties.Route route : routes) {
+      if (path.startsWith(route.getPrefix())) {
+        return limiters.computeIfAbsent(route.getPrefix(), prefix -> create(prefix, route));
+      }
+    }
+    String prefix = routePrefix(path);
+    if (!knownPrefixes().contains(prefix)) {
+      prefix = SHARED_ROUTE;
+    }
+    return limiters.computeIfAbsent(prefix, key -> create(key, null));
+  }
+
+  private Set<String> knownPrefixes() {
+    Set<String> known = knownPrefixes;
+    if (known == null) {
+      RequestMappingHandlerMapping mapping = handlerMapping.getIfAvailable();
+      if (mapping == null) {
+        return Set.of();
+      }
+      Set<String> prefixes = new HashSet<>();
+      mapping.getHandlerMethods().keySet().forEach(info -> info.getPatternValues().stream()
+          .filter(pattern -> pattern.startsWith(SHARED_ROUTE + "/"))
+          .map(ConcurrencyLimiters::routePrefix)
+          .filter(prefix -> prefix.indexOf('{') < 0 && prefix.indexOf('*') < 0)
+          .forEach(prefixes::add));
+      known = Set.copyOf(prefixes);
+      knownPrefixes = known;
+    }
+    return known;
+  }
+
+  static String routePrefix(String path) {
+    int start = SHARED_ROUTE.length() + 1;
+    if (path.length() <= start) {
+      return SHARED_ROUTE;
+    }
+    int end = path.indexOf('/', start);
+    return end < 0 ? path : path.substring(0, end);
+  }
+
+  private RouteLimiter create(String prefix, ConcurrencyLimitProperties.Route route) {
+    GradientLimiter limiter = new GradientLimiter(
+        valueOr(route == null ? null : route.getInitialLimit(), properties.getInitialLimit()),
+        valueOr(route == null ? null : route.getMinLimit(), properties.getMinLimit()),
+        valueOr(route == null ? null : route.getMaxLimit(), properties.getMaxLimit()),
+        properties.getSmoothing(),
+        properties.getRttTolerance(),
+        properties.getLongWindow()
+    );
+    Gauge.builder("gateway.concurrency_limit.limit", limiter, GradientLimiter::getLimit)
+        .tag("route", prefix)
+        .register(meterRegistry);
+    Gauge.builder("gateway.concurrency_limit.in_flight", limiter, GradientLimiter::getInFlight)
+        .tag("route", prefix)
+        .register(meterRegistry);
+    Counter rejections = Counter.builder("gateway.concurrency_limit.rejections")
+        .tag("route", prefix)
+        .register(meterRegistry);
+    return new RouteLimiter(prefix, limiter, rejections);
+  }
+
+  private static int valueOr(Integer value, int fallback) {
+    return value == null ? fallback : value;
+  }
+
+  public record RouteLimiter(String route, GradientLimiter limiter, Counter rejections) {
+  }
+}
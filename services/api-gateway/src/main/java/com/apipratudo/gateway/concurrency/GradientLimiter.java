@@ -0,0 +1,107 @@
+package com.apipratudo.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient-style adaptive concurrency limit. The limit grows while request latency stays close to the
+ * long-term average and shrinks as soon as latency climbs above it, so excess load is shed instead of
+ * queueing.
+ */
+public class GradientLimiter {
+
+  private static final double DROP_FACTOR = 0.9;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double smoothing;
+  private final double rttTolerance;
+  private final int longWindow;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile int limit;
+  private double estimatedLimit;
+  private double longRtt;
+  private long samples;
+
+  public GradientLimiter(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double smoothing,
+      double rttTolerance,
+      int longWindow
+  ) {
+    this.minLimit = minLimit;
+    this.maxLimit = Math.max(minLimit, maxLimit);
+    this.smoothing = smoothing;
+    this.rttTolerance = rttTolerance;
+    this.longWindow = longWindow;
+    this.estimatedLimit = clamp(initialLimit);
+    this.limit = (int) estimatedLimit;
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void release(long rttNanos, boolean dropped) {
+    int concurrent = inFlight.getAndDecrement();
+    // A busy lock means another completion is updating the estimate; skipping one sample is harmless.
+    if (!lock.tryLock()) {
+      return;
+    }
+    try {
+      update(Math.max(1, rttNanos), concurrent, dropped);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private void update(double rtt, int concurrent, boolean dropped) {
+    samples++;
+    if (longRtt == 0) {
+      longRtt = rtt;
+    } else {
+      double factor = 2.0 / (Math.min(samples, longWindow) + 1);
+      longRtt = longRtt * (1 - factor) + rtt * factor;
+    }
+    if (longRtt / rtt > 2) {
+      longRtt *= 0.95;
+    }
+
+    double newLimit;
+    if (dropped) {
+      newLimit = estimatedLimit * DROP_FACTOR;
+    } else {
+      if (concurrent < estimatedLimit / 2) {
+        return;
+      }
+      double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / rtt));
+      newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    }
+    estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    limit = (int) estimatedLimit;
+  }
+
+  private double clamp(double value) {
+    return Math.max(minLimit, Math.min(maxLimit, value));
+  }
+}
@@ -0,0 +1,62 @@
+package com.apipratudo.gateway.conditional;
+
+import com.apipratudo.gateway.quota.QuotaEnforcementFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Strong ETags for polled read endpoints. The downstream ETag is kept when present, otherwise one is computed
+ * over the response bytes; a matching {@code If-None-Match} is answered with {@code 304} and no body. Runs after
+ * quota enforcement, so a 304 still counts as a request.
+ */
+@Component
+@Order(ConditionalGetFilter.ORDER)
+public class ConditionalGetFilter extends ShallowEtagHeaderFilter {
+
+  public static final int ORDER = QuotaEnforcementFilter.ORDER + 50;
+
+  private final ConditionalGetProperties properties;
+  private final PathMatcher pathMatcher = new AntPathMatcher();
+  private final Counter notModified;
+
+  public ConditionalGetFilter(ConditionalGetProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.notModified = Counter.builder("gateway.conditional.not_modified").register(meterRegistry);
+    setWriteWeakETag(false);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    String method = request.getMethod();
+    if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+      return true;
+    }
+    String path = request.getRequestURI();
+    return properties.getPathPatterns().stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain
+  ) throws ServletException, IOException {
+    super.doFilterInternal(request, response, filterChain);
+    if (response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+      notModified.increment();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.apipratudo.gateway.conditional;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.conditional-get")
+@Validated
+public class ConditionalGetProperties {
+
+  private boolean enabled = true;
+
+  private List<String> pathPatterns = new ArrayList<>(List.of(
+      "/v1/*/resultado-oficial",
+      "/v1/cobrancas/*/status",
+      "/v1/agendas/*"
+  ));
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getPathPatterns() {
+    return pathPatterns;
+  }
+
+  public void setPathPatterns(List<String> pathPatterns) {
+    this.pathPatterns = pathPatterns;
+  }
+}
@@ -1,25 +1,30 @@
 package com.apipratudo.gateway.config;
 
+import java.time.Duration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class DeliveryDispatchConfig {
 
-  @Bean
-  public TaskScheduler deliveryTaskScheduler() {
-    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-    scheduler.setPoolSize(4);
-    scheduler.setThreadNamePrefix("delivery-dispatch-");
-    scheduler.initialize();
-    return scheduler;
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider deliveryConnectionProvider(DeliveryProperties properties) {
+    // Reactor Netty pools per remote address, so one pool slot per allowed in-flight POST to a host.
+    return ConnectionProvider.builder("gateway-deliveries")
+        .maxConnections(properties.getMaxInFlightPerHost())
+        .pendingAcquireMaxCount(properties.getMaxInFlightPerHost())
+        .maxIdleTime(Duration.ofSeconds(30))
+        .build();
   }
 
   @Bean
-  public WebClient deliveryWebClient() {
-    return WebClient.builder().build();
+  public WebClient deliveryWebClient(ConnectionProvider deliveryConnectionProvider) {
+    return WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(deliveryConnectionProvider)))
+        .build();
   }
 }
@@ -22,6 +22,26 @@ public class DeliveryProperties {
   private long timeoutMs = 5000;
   private boolean retryOn5xx = true;
   private boolean retryOn429 = true;
+  @Min(1)
+  private int maxInFlight = 2000;
+  @Min(1)
+  private int maxInFlightPerHost = 16;
+  @Min(0)
+  private int maxQueued = 10000;
+  @Min(1)
+  private long backpressureDelayMs = 1000;
+  @Min(1)
+  private long retryTickMs = 100;
+  @Min(2)
+  private int retryWheelSize = 512;
+  @Min(1)
+  private int retryWheelMaxEntries = 100000;
+  @Min(1)
+  private long retryRefillIntervalMs = 30000;
+  @Min(1)
+  private int retryRefillBatch = 1000;
+  @Min(1)
+  private long claimTtlMs = 30000;
 
   public String getCollection() {
     return collection;
@@ -86,4 +106,84 @@ public class DeliveryProperties {
   public void setRetryOn429(boolean retryOn429) {
     this.retryOn429 = retryOn429;
   }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  public int getMaxInFlightPerHost() {
+    return maxInFlightPerHost;
+  }
+
+  public void setMaxInFlightPerHost(int maxInFlightPerHost) {
+    this.maxInFlightPerHost = maxInFlightPerHost;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  public void setMaxQueued(int maxQueued) {
+    this.maxQueued = maxQueued;
+  }
+
+  public long getBackpressureDelayMs() {
+    return backpressureDelayMs;
+  }
+
+  public void setBackpressureDelayMs(long backpressureDelayMs) {
+    this.backpressureDelayMs = backpressureDelayMs;
+  }
+
+  public long getRetryTickMs() {
+    return retryTickMs;
+  }
+
+  public void setRetryTickMs(long retryTickMs) {
+    this.retryTickMs = retryTickMs;
+  }
+
+  public int getRetryWheelSize() {
+    return retryWheelSize;
+  }
+
+  public void setRetryWheelSize(int retryWheelSize) {
+    this.retryWheelSize = retryWheelSize;
+  }
+
+  public int getRetryWheelMaxEntries() {
+    return retryWheelMaxEntries;
+  }
+
+  public void setRetryWheelMaxEntries(int retryWheelMaxEntries) {
+    this.retryWheelMaxEntries = retryWheelMaxEntries;
+  }
+
+  public long getRetryRefillIntervalMs() {
+    return retryRefillIntervalMs;
+  }
+
+  public void setRetryRefillIntervalMs(long retryRefillIntervalMs) {
+    this.retryRefillIntervalMs = retryRefillIntervalMs;
+  }
+
+  public int getRetryRefillBatch() {
+    return retryRefillBatch;
+  }
+
+  public void setRetryRefillBatch(int retryRefillBatch) {
+    this.retryRefillBatch = retryRefillBatch;
+  }
+
+  public long getClaimTtlMs() {
+    return claimTtlMs;
+  }
+
+  public void setClaimTtlMs(long claimTtlMs) {
+    this.claimTtlMs = claimTtlMs;
+  }
 }
@@ -0,0 +1,30 @@
+package com.apipratudo.gateway.config;
+
+import java.time.Duration;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class HttpClientConfig {
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider downstreamConnectionProvider(HttpClientProperties properties) {
+    return ConnectionProvider.builder("gateway-downstream")
+        .maxConnections(properties.getMaxConnections())
+        .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+        .pendingAcquireTimeout(Duration.ofMillis(properties.getPendingAcquireTimeoutMs()))
+        .maxIdleTime(Duration.ofMillis(properties.getMaxIdleTimeMs()))
+        .build();
+  }
+
+  @Bean
+  public WebClientCustomizer downstreamConnectorCustomizer(ConnectionProvider downstreamConnectionProvider) {
+    ReactorClientHttpConnector connector = new ReactorClientHttpConnector(
+        HttpClient.create(downstreamConnectionProvider));
+    return builder -> builder.clientConnector(connector);
+  }
+}
@@ -0,0 +1,56 @@
+package com.apipratudo.gateway.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.http-client")
+@Validated
+public class HttpClientProperties {
+
+  @Min(1)
+  private int maxConnections = 500;
+
+  @Min(1)
+  private int pendingAcquireMaxCount = 2000;
+
+  @Min(100)
+  private long pendingAcquireTimeoutMs = 45000;
+
+  @Min(1000)
+  private long maxIdleTimeMs = 30000;
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  public int getPendingAcquireMaxCount() {
+    return pendingAcquireMaxCount;
+  }
+
+  public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+    this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+  }
+
+  public long getPendingAcquireTimeoutMs() {
+    return pendingAcquireTimeoutMs;
+  }
+
+  public void setPendingAcquireTimeoutMs(long pendingAcquireTimeoutMs) {
+    this.pendingAcquireTimeoutMs = pendingAcquireTimeoutMs;
+  }
+
+  public long getMaxIdleTimeMs() {
+    return maxIdleTimeMs;
+  }
+
+  public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+    this.maxIdleTimeMs = maxIdleTimeMs;
+  }
+}
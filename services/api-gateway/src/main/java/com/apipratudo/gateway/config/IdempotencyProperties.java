@@ -1,6 +1,7 @@
 package com.apipratudo.gateway.config;
 
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
@@ -15,6 +16,30 @@ public class IdempotencyProperties {
   @Positive
   private long ttlSeconds = 86400;
 
+  @Positive
+  private int memoryMaxEntries = 10000;
+
+  @Positive
+  private long sweepIntervalMs = 60000;
+
+  @PositiveOrZero
+  private int localCacheMaxEntries = 10000;
+
+  @Positive
+  private long claimTtlMs = 30000;
+
+  @PositiveOrZero
+  private long inFlightWaitMs = 10000;
+
+  @Positive
+  private long inFlightPollMs = 50;
+
+  @PositiveOrZero
+  private int finalizeRetries = 3;
+
+  @Positive
+  private long finalizeRetryBackoffMs = 200;
+
   public String getCollection() {
     return collection;
   }
@@ -30,4 +55,68 @@ public class IdempotencyProperties {
   public void setTtlSeconds(long ttlSeconds) {
     this.ttlSeconds = ttlSeconds;
   }
+
+  public int getMemoryMaxEntries() {
+    return memoryMaxEntries;
+  }
+
+  public void setMemoryMaxEntries(int memoryMaxEntries) {
+    this.memoryMaxEntries = memoryMaxEntries;
+  }
+
+  public long getSweepIntervalMs() {
+    return sweepIntervalMs;
+  }
+
+  public void setSweepIntervalMs(long sweepIntervalMs) {
+    this.sweepIntervalMs = sweepIntervalMs;
+  }
+
+  public int getLocalCacheMaxEntries() {
+    return localCacheMaxEntries;
+  }
+
+  public void setLocalCacheMaxEntries(int localCacheMaxEntries) {
+    this.localCacheMaxEntries = localCacheMaxEntries;
+  }
+
+  public long getClaimTtlMs() {
+    return claimTtlMs;
+  }
+
+  public void setClaimTtlMs(long claimTtlMs) {
+    this.claimTtlMs = claimTtlMs;
+  }
+
+  public long getInFlightWaitMs() {
+    return inFlightWaitMs;
+  }
+
+  public void setInFlightWaitMs(long inFlightWaitMs) {
+    this.inFlightWaitMs = inFlightWaitMs;
+  }
+
+  public long getInFlightPollMs() {
+    return inFlightPollMs;
+  }
+
+  public void setInFlightPollMs(long inFlightPollMs) {
+    this.inFlightPollMs = inFlightPollMs;
+  }
+
+  public int getFinalizeRetries() {
+    return finalizeRetries;
+  }
+
+  public void setFinalizeRetries(int finalizeRetries) {
+    this.finalizeRetries = finalizeRetries;
+  }
+
+  public long getFinalizeRetryBackoffMs() {
+    return finalizeRetryBackoffMs;
+  }
+
+  public void setFinalizeRetryBackoffMs(long finalizeRetryBackoffMs) {
+    this.finalizeRetryBackoffMs = finalizeRetryBackoffMs;
+  }
 }
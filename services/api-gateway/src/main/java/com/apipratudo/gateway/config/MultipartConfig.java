@@ -0,0 +1,30 @@
+package com.apipratudo.gateway.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Set;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Multipart parsing stays as Spring Boot sets it up, except for routes that forward the raw multipart body
+ * downstream: those are never treated as multipart, so the servlet input stream is left unread.
+ */
+@Configuration
+public class MultipartConfig {
+
+  private static final Set<String> STREAMED_PATHS = Set.of("/v1/importar-extrato");
+
+  @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+  public MultipartResolver multipartResolver() {
+    return new StandardServletMultipartResolver() {
+      @Override
+      public boolean isMultipart(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !STREAMED_PATHS.contains(path) && super.isMultipart(request);
+      }
+    };
+  }
+}
@@ -3,6 +3,7 @@ package com.apipratudo.gateway.diadesorte.controller;
 import com.apipratudo.gateway.logging.TraceIdUtils;
 import com.apipratudo.gateway.diadesorte.client.DiadesorteResultsClient;
 import com.apipratudo.gateway.diadesorte.client.DiadesorteResultsClient.DiadesorteResultsClientResult;
+import com.apipratudo.gateway.results.ResultsCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,18 +15,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/diadesorte")
 public class DiadesorteResultsController {
 
+  private static final String GAME = "diadesorte";
+
   private final DiadesorteResultsClient client;
+  private final ResultsCache resultsCache;
 
-  public DiadesorteResultsController(DiadesorteResultsClient client) {
+  public DiadesorteResultsController(DiadesorteResultsClient client, ResultsCache resultsCache) {
     this.client = client;
+    this.resultsCache = resultsCache;
   }
 
   @GetMapping("/resultado-oficial")
   public ResponseEntity<String> obterResultado(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    DiadesorteResultsClientResult result = client.getResultado(traceId);
+    ResultsCache.Result result = resultsCache.get(GAME, () -> {
+      DiadesorteResultsClientResult upstream = client.getResultado(traceId);
+      return new ResultsCache.Upstream(upstream.statusCode(), upstream.body(), upstream.etag(),
+          upstream.lastModified());
+    });
     return ResponseEntity.status(result.statusCode())
         .contentType(MediaType.APPLICATION_JSON)
+        .headers(result::copyValidatorsTo)
+        .header(ResultsCache.CACHE_HEADER, result.cacheStatus().name())
         .body(result.body());
   }
 }
@@ -1,6 +1,9 @@
 package com.apipratudo.gateway.error;
 
+import com.apipratudo.gateway.idempotency.IdempotencyInProgressException;
+import com.apipratudo.gateway.idempotency.IdempotencyOutcomeUnknownException;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.resilience.DownstreamUnavailableException;
 import com.apipratudo.gateway.webhook.IdempotencyConflictException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
@@ -10,6 +13,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -86,6 +90,45 @@ public class ApiExceptionHandler {
     return error(HttpStatus.CONFLICT, "CONFLICT", ex.getMessage(), Collections.emptyList(), request, ex);
   }
 
+  @ExceptionHandler(IdempotencyInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyInProgress(
+      IdempotencyInProgressException ex,
+      HttpServletRequest request
+  ) {
+    String traceId = TraceIdUtils.resolveTraceId(request);
+    log.warn("Idempotency key still in progress key={} traceId={}", ex.getKey(), traceId);
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new ErrorResponse("IDEMPOTENCY_IN_PROGRESS", ex.getMessage(), Collections.emptyList(), traceId));
+  }
+
+  @ExceptionHandler(IdempotencyOutcomeUnknownException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyOutcomeUnknown(
+      IdempotencyOutcomeUnknownException ex,
+      HttpServletRequest request
+  ) {
+    String traceId = TraceIdUtils.resolveTraceId(request);
+    log.warn("Idempotency key outcome unknown key={} traceId={}", ex.getKey(), traceId);
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new ErrorResponse("IDEMPOTENCY_OUTCOME_UNKNOWN", ex.getMessage(), Collections.emptyList(), traceId));
+  }
+
+  @ExceptionHandler(DownstreamUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleDownstreamUnavailable(
+      DownstreamUnavailableException ex,
+      HttpServletRequest request
+  ) {
+    String traceId = TraceIdUtils.resolveTraceId(request);
+    log.warn("Downstream unavailable downstream={} message={} traceId={}", ex.getDownstream(), ex.getMessage(),
+        traceId);
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new ErrorResponse("SERVICE_UNAVAILABLE", ex.getMessage(), Collections.emptyList(), traceId));
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleUnexpected(Exception ex, HttpServletRequest request) {
     return error(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "Unexpected error", Collections.emptyList(),
@@ -1,5 +1,7 @@
 package com.apipratudo.gateway.federal.client;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -17,6 +19,9 @@ public class FederalResultsClientProperties {
   @Min(100)
   private long timeoutMs = 60000;
 
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
+
   public String getBaseUrl() {
     return baseUrl;
   }
@@ -32,4 +37,12 @@ public class FederalResultsClientProperties {
   public void setTimeoutMs(long timeoutMs) {
     this.timeoutMs = timeoutMs;
   }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
@@ -3,6 +3,7 @@ package com.apipratudo.gateway.federal.controller;
 import com.apipratudo.gateway.federal.client.FederalResultsClient;
 import com.apipratudo.gateway.federal.client.FederalResultsClient.FederalResultsClientResult;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.results.ResultsCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,18 +15,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/federal")
 public class FederalResultsController {
 
+  private static final String GAME = "federal";
+
   private final FederalResultsClient client;
+  private final ResultsCache resultsCache;
 
-  public FederalResultsController(FederalResultsClient client) {
+  public FederalResultsController(FederalResultsClient client, ResultsCache resultsCache) {
     this.client = client;
+    this.resultsCache = resultsCache;
   }
 
   @GetMapping("/resultado-oficial")
   public ResponseEntity<String> obterResultado(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    FederalResultsClientResult result = client.getResultado(traceId);
+    ResultsCache.Result result = resultsCache.get(GAME, () -> {
+      FederalResultsClientResult upstream = client.getResultado(traceId);
+      return new ResultsCache.Upstream(upstream.statusCode(), upstream.body(), upstream.etag(),
+          upstream.lastModified());
+    });
     return ResponseEntity.status(result.statusCode())
         .contentType(MediaType.APPLICATION_JSON)
+        .headers(result::copyValidatorsTo)
+        .header(ResultsCache.CACHE_HEADER, result.cacheStatus().name())
         .body(result.body());
   }
 }
@@ -5,6 +5,10 @@ import com.apipratudo.gateway.helpdesk.dto.MessageCreateRequest;
 import com.apipratudo.gateway.helpdesk.dto.StatusUpdateRequest;
 import com.apipratudo.gateway.helpdesk.dto.TemplateCreateRequest;
 import com.apipratudo.gateway.helpdesk.dto.TicketCreateRequest;
+import com.apipratudo.gateway.proxy.StreamingProxy;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.Duration;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -18,13 +22,24 @@ public class HelpdeskClient {
   private final Duration timeout;
   private final HelpdeskClientProperties properties;
 
-  public HelpdeskClient(WebClient.Builder builder, HelpdeskClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public HelpdeskClient(
+      WebClient.Builder builder,
+      HelpdeskClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("helpdesk", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.properties = properties;
   }
 
-  public HelpdeskClientResult listTickets(String tenantId, String requestId, String status) {
+  public StreamingProxy.StreamResult listTickets(
+      String tenantId,
+      String requestId,
+      String status,
+      HttpServletResponse response
+  ) throws IOException {
     WebClient.RequestHeadersSpec<?> spec = webClient.get()
         .uri(uriBuilder -> {
           var builderRef = uriBuilder.path("/internal/helpdesk/tickets");
@@ -34,7 +49,7 @@ public class HelpdeskClient {
           return builderRef.build();
         })
         .accept(MediaType.APPLICATION_JSON);
-    return exchange(applyHeaders(spec, tenantId, requestId, null));
+    return StreamingProxy.stream(applyHeaders(spec, tenantId, requestId, null), timeout, response);
   }
 
   public HelpdeskClientResult createTicket(
@@ -6,11 +6,12 @@ import com.apipratudo.gateway.helpdesk.dto.MessageCreateRequest;
 import com.apipratudo.gateway.helpdesk.dto.StatusUpdateRequest;
 import com.apipratudo.gateway.helpdesk.dto.TemplateCreateRequest;
 import com.apipratudo.gateway.helpdesk.dto.TicketCreateRequest;
-import com.apipratudo.gateway.idempotency.HashingUtils;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.util.Collections;
 import java.util.UUID;
@@ -40,9 +41,11 @@ public class HelpdeskController {
   private static final String REQUEST_ID_HEADER = "X-Request-Id";
 
   private final HelpdeskClient helpdeskClient;
+  private final TenantIdResolver tenantIdResolver;
 
-  public HelpdeskController(HelpdeskClient helpdeskClient) {
+  public HelpdeskController(HelpdeskClient helpdeskClient, TenantIdResolver tenantIdResolver) {
     this.helpdeskClient = helpdeskClient;
+    this.tenantIdResolver = tenantIdResolver;
   }
 
   @GetMapping("/tickets")
@@ -50,16 +53,17 @@ public class HelpdeskController {
   public ResponseEntity<?> listTickets(
       @RequestHeader("X-Api-Key") String apiKey,
       @RequestParam(name = "status", required = false) String status,
-      HttpServletRequest request
+      HttpServletRequest request,
+      HttpServletResponse response
   ) {
     String traceId = traceId(request);
     String requestId = requestId(request);
     try {
-      HelpdeskClient.HelpdeskClientResult result = helpdeskClient.listTickets(tenantId(apiKey), requestId, status);
-      return mapResult(result, traceId);
+      helpdeskClient.listTickets(tenantId(apiKey), requestId, status, response);
+      return null;
     } catch (Exception ex) {
       log.warn("Helpdesk request failed traceId={} reason={}", traceId, ex.getMessage());
-      return serviceUnavailable(traceId);
+      return response.isCommitted() ? null : serviceUnavailable(traceId);
     }
   }
 
@@ -272,7 +276,7 @@ public class HelpdeskController {
   }
 
   private String tenantId(String apiKey) {
-    return HashingUtils.sha256Hex(apiKey);
+    return tenantIdResolver.tenantId(apiKey);
   }
 
   private String traceId(HttpServletRequest request) {
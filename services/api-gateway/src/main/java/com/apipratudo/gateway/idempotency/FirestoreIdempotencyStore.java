@@ -2,29 +2,67 @@ package com.apipratudo.gateway.idempotency;
 
 import com.apipratudo.gateway.config.IdempotencyProperties;
 import com.apipratudo.gateway.webhook.IdempotencyConflictException;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Status;
+import jakarta.annotation.PreDestroy;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+/**
+ * Two-tier idempotency: replays of recently completed keys are answered from a local cache, and new keys are
+ * claimed with a single {@code create()} (fails if the document exists) instead of a read-then-write
+ * transaction. The claim is finalized with the response in a batch; when the operation staged no writes of its
+ * own the batch is committed without blocking the response. Other instances that hit a pending claim poll it until
+ * it completes. While the operation runs the owner pushes the claim's expiry forward every third of
+ * {@code claim-ttl-ms}, so only a claim whose owner died is taken over. Finalizing and releasing are conditioned on
+ * the claim's update time, so a taken-over claim is never overwritten. A finalize that keeps failing after the
+ * operation ran never releases the claim: it is marked {@code UNKNOWN} and retries of the key are refused instead
+ * of running the operation a second time.
+ */
 @Component
 @ConditionalOnBean(Firestore.class)
 @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "firestore")
 public class FirestoreIdempotencyStore implements IdempotencyStore {
 
+  private static final Logger log = LoggerFactory.getLogger(FirestoreIdempotencyStore.class);
+  private static final String STATE_PENDING = "PENDING";
+  private static final String STATE_COMPLETED = "COMPLETED";
+  private static final String STATE_UNKNOWN = "UNKNOWN";
+
   private final Firestore firestore;
   private final IdempotencyProperties properties;
   private final Clock clock;
+  private final IdempotencyReplayCache replayCache;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("idempotency-claims").daemon().factory());
 
   public FirestoreIdempotencyStore(
       Firestore firestore,
@@ -34,41 +72,111 @@ public class FirestoreIdempotencyStore implements IdempotencyStore {
     this.firestore = firestore;
     this.properties = properties;
     this.clock = clock;
+    this.replayCache = new IdempotencyReplayCache(properties.getLocalCacheMaxEntries());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
   }
 
   @Override
   public IdempotencyResult execute(IdempotencyRequest request, IdempotencyOperation operation) {
     String docId = HashingUtils.sha256Hex(request.method() + " " + request.path() + " " + request.idempotencyKey());
+    IdempotencyReplayCache.Cached cached = replayCache.get(docId, clock.millis());
+    if (cached != null) {
+      if (!cached.requestHash().equals(request.requestHash())) {
+        throw new IdempotencyConflictException(request.idempotencyKey());
+      }
+      return replay(cached.response());
+    }
+
     DocumentReference docRef = firestore.collection(properties.getCollection()).document(docId);
+    long waitUntil = clock.millis() + properties.getInFlightWaitMs();
+    while (true) {
+      Timestamp claimedAt = claim(docRef, request);
+      if (claimedAt != null) {
+        return lead(docId, docRef, claimedAt, request, operation);
+      }
+      DocumentSnapshot snapshot = await(docRef.get(), "Failed to read idempotency record");
+      if (!snapshot.exists()) {
+        continue;
+      }
+      String storedHash = snapshot.getString("requestHash");
+      if (storedHash == null || !storedHash.equals(request.requestHash())) {
+        throw new IdempotencyConflictException(request.idempotencyKey());
+      }
+      if (STATE_UNKNOWN.equals(snapshot.getString("state"))) {
+        throw new IdempotencyOutcomeUnknownException(request.idempotencyKey());
+      }
+      if (!STATE_PENDING.equals(snapshot.getString("state"))) {
+        IdempotencyResponse response = readResponse(snapshot);
+        replayCache.put(docId, storedHash, response, expiresAtMillis(snapshot));
+        return replay(response);
+      }
+      if (isClaimExpired(snapshot)) {
+        releaseStaleClaim(docRef, snapshot);
+        continue;
+      }
+      if (clock.millis() >= waitUntil) {
+        throw new IdempotencyInProgressException(request.idempotencyKey());
+      }
+      pause();
+    }
+  }
 
+  private Timestamp claim(DocumentReference docRef, IdempotencyRequest request) {
+    Instant now = Instant.now(clock);
+    Map<String, Object> data = new HashMap<>();
+    data.put("idempotencyKey", request.idempotencyKey());
+    data.put("requestHash", request.requestHash());
+    data.put("state", STATE_PENDING);
+    data.put("createdAt", toTimestamp(now));
+    data.put("claimExpiresAt", toTimestamp(now.plusMillis(properties.getClaimTtlMs())));
+    data.put("expiresAt", toTimestamp(now.plusSeconds(properties.getTtlSeconds())));
     try {
-      return firestore.runTransaction(transaction -> handleTransaction(transaction, docRef, request, operation)).get();
+      return docRef.create(data).get().getUpdateTime();
     } catch (ExecutionException e) {
-      Throwable cause = e.getCause();
-      if (cause instanceof RuntimeException runtimeException) {
-        throw runtimeException;
+      if (isAlreadyExists(e.getCause())) {
+        return null;
       }
-      throw new IllegalStateException("Failed to execute idempotency transaction", e);
+      throw unwrap(e, "Failed to claim idempotency key");
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
-      throw new IllegalStateException("Idempotency transaction interrupted", e);
+      throw new IllegalStateException("Idempotency claim interrupted", e);
     }
   }
 
-  private IdempotencyResult handleTransaction(
-      Transaction transaction,
+  private IdempotencyResult lead(
+      String docId,
       DocumentReference docRef,
+      Timestamp claimedAt,
       IdempotencyRequest request,
       IdempotencyOperation operation
-  ) throws Exception {
-    DocumentSnapshot snapshot = transaction.get(docRef).get();
-    if (snapshot.exists()) {
-      return replayOrConflict(snapshot, request);
+  ) {
+    WriteBatch batch = firestore.batch();
+    BatchIdempotencyTransaction transaction = new BatchIdempotencyTransaction(firestore, batch);
+    ClaimHeartbeat heartbeat = new ClaimHeartbeat(docRef, claimedAt);
+    IdempotencyResponse response;
+    try {
+      response = operation.execute(transaction);
+    } catch (RuntimeException e) {
+      release(docRef, heartbeat.stop());
+      throw e;
     }
+    Timestamp claimVersion = heartbeat.stop();
 
-    IdempotencyResponse response = operation.execute(new FirestoreIdempotencyTransaction(firestore, transaction));
-    Map<String, Object> data = buildDocument(request, response);
-    transaction.set(docRef, data);
+    Instant now = Instant.now(clock);
+    Instant expiresAt = now.plusSeconds(properties.getTtlSeconds());
+    Map<String, Object> document = buildDocument(request, response, now, expiresAt);
+    if (transaction.hasWrites()) {
+      batch.update(docRef, document, Precondition.updatedAt(claimVersion));
+      await(batch.commit(), "Failed to commit idempotent operation");
+      replayCache.put(docId, request.requestHash(), response, expiresAt.toEpochMilli());
+    } else {
+      replayCache.put(docId, request.requestHash(), response, expiresAt.toEpochMilli());
+      finalizeAsync(docRef, claimVersion, document, request.idempotencyKey(), 0);
+    }
 
     return new IdempotencyResult(
         response.statusCode(),
@@ -78,38 +186,150 @@ public class FirestoreIdempotencyStore implements IdempotencyStore {
     );
   }
 
-  private IdempotencyResult replayOrConflict(DocumentSnapshot snapshot, IdempotencyRequest request) {
-    String storedHash = snapshot.getString("requestHash");
-    if (storedHash == null || !storedHash.equals(request.requestHash())) {
-      throw new IdempotencyConflictException(request.idempotencyKey());
+  /**
+   * The operation has already run, so a failed finalize is retried rather than releasing the claim; once retries
+   * run out the claim is marked {@code UNKNOWN} so nobody runs the operation again under the same key.
+   */
+  private void finalizeAsync(
+      DocumentReference docRef,
+      Timestamp claimVersion,
+      Map<String, Object> document,
+      String idempotencyKey,
+      int attempt
+  ) {
+    ApiFutures.addCallback(docRef.update(document, Precondition.updatedAt(claimVersion)), new ApiFutureCallback<>() {
+      @Override
+      public void onFailure(Throwable t) {
+        if (isFailedPrecondition(t)) {
+          log.warn("Idempotency claim changed before finalize key={}", idempotencyKey);
+          return;
+        }
+        if (attempt < properties.getFinalizeRetries()) {
+          log.warn("Idempotency finalize failed key={} attempt={} error={}", idempotencyKey, attempt + 1,
+              t.getMessage());
+          schedule(() -> finalizeAsync(docRef, claimVersion, document, idempotencyKey, attempt + 1),
+              properties.getFinalizeRetryBackoffMs() << attempt);
+          return;
+        }
+        log.error("Idempotency finalize gave up key={} error={}", idempotencyKey, t.getMessage());
+        markUnknown(docRef, claimVersion, idempotencyKey);
+      }
+
+      @Override
+      public void onSuccess(WriteResult result) {
+        // record finalized
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private void markUnknown(DocumentReference docRef, Timestamp claimVersion, String idempotencyKey) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("state", STATE_UNKNOWN);
+    data.put("claimExpiresAt", FieldValue.delete());
+    ApiFutures.addCallback(docRef.update(data, Precondition.updatedAt(claimVersion)), new ApiFutureCallback<>() {
+      @Override
+      public void onFailure(Throwable t) {
+        log.error("Failed to mark idempotency claim unknown key={} error={}", idempotencyKey, t.getMessage());
+      }
+
+      @Override
+      public void onSuccess(WriteResult result) {
+        // retries of the key are refused from now on
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private void schedule(Runnable task, long delayMs) {
+    try {
+      scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      log.warn("Idempotency scheduler stopped, dropping task");
+    }
+  }
+
+  private void release(DocumentReference docRef, Timestamp claimedAt) {
+    ApiFutures.addCallback(docRef.delete(Precondition.updatedAt(claimedAt)), new ApiFutureCallback<>() {
+      @Override
+      public void onFailure(Throwable t) {
+        log.warn("Failed to release idempotency claim doc={} error={}", docRef.getId(), t.getMessage());
+      }
+
+      @Override
+      public void onSuccess(WriteResult result) {
+        // claim released
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private void releaseStaleClaim(DocumentReference docRef, DocumentSnapshot snapshot) {
+    try {
+      docRef.delete(Precondition.updatedAt(snapshot.getUpdateTime())).get();
+      log.warn("Took over stale idempotency claim doc={}", docRef.getId());
+    } catch (ExecutionException e) {
+      log.debug("Stale idempotency claim already changed doc={}", docRef.getId());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Idempotency claim takeover interrupted", e);
+    }
+  }
+
+  private boolean isClaimExpired(DocumentSnapshot snapshot) {
+    Timestamp claimExpiresAt = snapshot.getTimestamp("claimExpiresAt");
+    return claimExpiresAt != null && clock.millis() >= claimExpiresAt.toDate().getTime();
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(properties.getInFlightPollMs());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for in-flight idempotent request", e);
     }
+  }
 
+  private IdempotencyResponse readResponse(DocumentSnapshot snapshot) {
     Long statusCode = snapshot.getLong("statusCode");
     String bodyJson = snapshot.getString("responseBodyJson");
-    Map<String, String> headers = readHeaders(snapshot.get("responseHeaders"));
-
-    return new IdempotencyResult(
+    return new IdempotencyResponse(
         statusCode == null ? 200 : statusCode.intValue(),
         bodyJson == null ? "" : bodyJson,
-        headers,
-        true
+        readHeaders(snapshot.get("responseHeaders"))
     );
   }
 
-  private Map<String, Object> buildDocument(IdempotencyRequest request, IdempotencyResponse response) {
-    Instant now = Instant.now(clock);
-    Instant expiresAt = now.plusSeconds(properties.getTtlSeconds());
+  private long expiresAtMillis(DocumentSnapshot snapshot) {
+    Timestamp expiresAt = snapshot.getTimestamp("expiresAt");
+    long localLimit = clock.millis() + properties.getTtlSeconds() * 1000;
+    return expiresAt == null ? localLimit : Math.min(localLimit, expiresAt.toDate().getTime());
+  }
 
+  private static IdempotencyResult replay(IdempotencyResponse response) {
+    Map<String, String> headers = response.responseHeaders();
+    return new IdempotencyResult(
+        response.statusCode(),
+        response.responseBodyJson(),
+        headers == null ? Collections.emptyMap() : headers,
+        true
+    );
+  }
+
+  private Map<String, Object> buildDocument(
+      IdempotencyRequest request,
+      IdempotencyResponse response,
+      Instant now,
+      Instant expiresAt
+  ) {
     Map<String, Object> data = new HashMap<>();
     data.put("idempotencyKey", request.idempotencyKey());
     data.put("requestHash", request.requestHash());
+    data.put("state", STATE_COMPLETED);
     data.put("statusCode", response.statusCode());
     data.put("responseBodyJson", response.responseBodyJson());
     if (response.responseHeaders() != null && !response.responseHeaders().isEmpty()) {
       data.put("responseHeaders", response.responseHeaders());
     }
-    data.put("createdAt", Timestamp.ofTimeSecondsAndNanos(now.getEpochSecond(), now.getNano()));
-    data.put("expiresAt", Timestamp.ofTimeSecondsAndNanos(expiresAt.getEpochSecond(), expiresAt.getNano()));
+    data.put("createdAt", toTimestamp(now));
+    data.put("expiresAt", toTimestamp(expiresAt));
 
     return Collections.unmodifiableMap(data);
   }
@@ -128,19 +348,142 @@ public class FirestoreIdempotencyStore implements IdempotencyStore {
     return Collections.emptyMap();
   }
 
-  private static final class FirestoreIdempotencyTransaction implements IdempotencyTransaction {
+  private static boolean isAlreadyExists(Throwable error) {
+    return hasCode(error, StatusCode.Code.ALREADY_EXISTS, Status.Code.ALREADY_EXISTS);
+  }
+
+  private static boolean isFailedPrecondition(Throwable error) {
+    return hasCode(error, StatusCode.Code.FAILED_PRECONDITION, Status.Code.FAILED_PRECONDITION);
+  }
+
+  private static boolean hasCode(Throwable error, StatusCode.Code apiCode, Status.Code grpcCode) {
+    for (Throwable current = error; current != null; current = current.getCause()) {
+      if (current instanceof ApiException apiException
+          && apiException.getStatusCode().getCode() == apiCode) {
+        return true;
+      }
+      if (current instanceof FirestoreException firestoreException
+          && firestoreException.getStatus() != null
+          && firestoreException.getStatus().getCode() == grpcCode) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static <T> T await(ApiFuture<T> future, String failureMessage) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw unwrap(e, failureMessage);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Idempotency store call interrupted", e);
+    }
+  }
+
+  private static RuntimeException unwrap(ExecutionException e, String failureMessage) {
+    if (e.getCause() instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    return new IllegalStateException(failureMessage, e);
+  }
+
+  private static Timestamp toTimestamp(Instant instant) {
+    return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+  }
+
+  /**
+   * Keeps a claim alive while its operation runs. Each extension moves the claim's update time, so the version to
+   * condition the finalize (or release) on is whatever {@link #stop()} returns.
+   */
+  private final class ClaimHeartbeat {
+
+    private final DocumentReference docRef;
+    private final ScheduledFuture<?> task;
+    private Timestamp version;
+    private ApiFuture<WriteResult> pending;
+    private boolean stopped;
+
+    private ClaimHeartbeat(DocumentReference docRef, Timestamp claimedAt) {
+      this.docRef = docRef;
+      this.version = claimedAt;
+      long periodMs = Math.max(1, properties.getClaimTtlMs() / 3);
+      this.task = scheduler.scheduleWithFixedDelay(this::extend, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void extend() {
+      if (stopped || pending != null) {
+        return;
+      }
+      Instant claimExpiresAt = Instant.now(clock).plusMillis(properties.getClaimTtlMs());
+      ApiFuture<WriteResult> write = docRef.update(
+          Map.of("claimExpiresAt", toTimestamp(claimExpiresAt)), Precondition.updatedAt(version));
+      pending = write;
+      ApiFutures.addCallback(write, new ApiFutureCallback<>() {
+        @Override
+        public void onFailure(Throwable t) {
+          log.warn("Failed to extend idempotency claim doc={} error={}", docRef.getId(), t.getMessage());
+          extended(write, null);
+        }
+
+        @Override
+        public void onSuccess(WriteResult result) {
+          extended(write, result.getUpdateTime());
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    private synchronized void extended(ApiFuture<WriteResult> write, Timestamp updateTime) {
+      if (pending == write) {
+        pending = null;
+      }
+      if (updateTime != null && updateTime.compareTo(version) > 0) {
+        version = updateTime;
+      }
+    }
+
+    Timestamp stop() {
+      ApiFuture<WriteResult> inFlight;
+      synchronized (this) {
+        stopped = true;
+        task.cancel(false);
+        inFlight = pending;
+      }
+      if (inFlight != null) {
+        try {
+          extended(inFlight, inFlight.get().getUpdateTime());
+        } catch (ExecutionException e) {
+          // the extension failed; the version it was conditioned on still stands
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      synchronized (this) {
+        return version;
+      }
+    }
+  }
+
+  private static final class BatchIdempotencyTransaction implements IdempotencyTransaction {
 
     private final Firestore firestore;
-    private final Transaction transaction;
+    private final WriteBatch batch;
+    private boolean hasWrites;
 
-    private FirestoreIdempotencyTransaction(Firestore firestore, Transaction transaction) {
+    private BatchIdempotencyTransaction(Firestore firestore, WriteBatch batch) {
       this.firestore = firestore;
-      this.transaction = transaction;
+      this.batch = batch;
     }
 
     @Override
     public void set(String collection, String documentId, Map<String, Object> data) {
-      transaction.set(firestore.collection(collection).document(documentId), data);
+      batch.set(firestore.collection(collection).document(documentId), data);
+      hasWrites = true;
+    }
+
+    boolean hasWrites() {
+      return hasWrites;
     }
   }
 }
@@ -6,24 +6,45 @@ import java.security.NoSuchAlgorithmException;
 
 public final class HashingUtils {
 
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  // Cloning a ready digest skips the provider lookup of getInstance and, unlike a ThreadLocal, still pays off
+  // when every request runs on a fresh virtual thread.
+  private static final MessageDigest SHA_256 = newSha256();
+
   private HashingUtils() {
   }
 
   public static String sha256Hex(String value) {
+    return toHex(sha256(value));
+  }
+
+  public static byte[] sha256(String value) {
+    return newDigest().digest(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return (MessageDigest) SHA_256.clone();
+    } catch (CloneNotSupportedException e) {
+      return newSha256();
+    }
+  }
+
+  private static MessageDigest newSha256() {
     try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
-      return toHex(bytes);
+      return MessageDigest.getInstance("SHA-256");
     } catch (NoSuchAlgorithmException e) {
       throw new IllegalStateException("SHA-256 not available", e);
     }
   }
 
   private static String toHex(byte[] bytes) {
-    StringBuilder builder = new StringBuilder(bytes.length * 2);
-    for (byte b : bytes) {
-      builder.append(String.format("%02x", b));
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      int b = bytes[i] & 0xff;
+      chars[i * 2] = HEX[b >>> 4];
+      chars[i * 2 + 1] = HEX[b & 0x0f];
     }
-    return builder.toString();
+    return new String(chars);
   }
 }
@@ -0,0 +1,14 @@
+package com.apipratudo.gateway.idempotency;
+
+public class IdempotencyInProgressException extends RuntimeException {
+  private final String key;
+
+  public IdempotencyInProgressException(String key) {
+    super("Idempotency-Key request still in progress: " + key);
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+}
@@ -0,0 +1,14 @@
+package com.apipratudo.gateway.idempotency;
+
+public class IdempotencyOutcomeUnknownException extends RuntimeException {
+  private final String key;
+
+  public IdempotencyOutcomeUnknownException(String key) {
+    super("Idempotency-Key request ran but its result was not recorded: " + key);
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+}
@@ -0,0 +1,60 @@
+package com.apipratudo.gateway.idempotency;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded local copy of completed idempotency records. Completed records never change, so any instance can
+ * replay from its own copy until the record expires; the oldest entries are dropped first when full.
+ */
+class IdempotencyReplayCache {
+
+  private final ConcurrentMap<String, Cached> entries = new ConcurrentHashMap<>();
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final int maxEntries;
+
+  IdempotencyReplayCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  Cached get(String docId, long now) {
+    Cached cached = entries.get(docId);
+    if (cached == null) {
+      return null;
+    }
+    if (now >= cached.expiresAt()) {
+      entries.remove(docId, cached);
+      return null;
+    }
+    return cached;
+  }
+
+  void put(String docId, String requestHash, IdempotencyResponse response, long expiresAt) {
+    if (maxEntries <= 0) {
+      return;
+    }
+    if (entries.put(docId, new Cached(requestHash, response, expiresAt)) == null) {
+      insertionOrder.add(docId);
+    }
+    while (entries.size() > maxEntries) {
+      String oldest = insertionOrder.poll();
+      if (oldest == null) {
+        return;
+      }
+      entries.remove(oldest);
+    }
+  }
+
+  void remove(String docId) {
+    entries.remove(docId);
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  record Cached(String requestHash, IdempotencyResponse response, long expiresAt) {
+  }
+}
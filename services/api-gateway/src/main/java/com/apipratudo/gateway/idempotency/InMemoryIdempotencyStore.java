@@ -1,61 +1,165 @@
 package com.apipratudo.gateway.idempotency;
 
+import com.apipratudo.gateway.config.IdempotencyProperties;
 import com.apipratudo.gateway.webhook.IdempotencyConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ExecutionException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * The first caller for a key claims it with an in-flight marker and runs the operation outside any map lock;
+ * concurrent callers with the same key wait on the marker's future and replay its result. Completed records
+ * expire after the configured TTL and the oldest ones are evicted once {@code memory-max-entries} is exceeded.
+ */
 @Component
 @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
 public class InMemoryIdempotencyStore implements IdempotencyStore {
 
-  private final ConcurrentMap<String, StoredRecord> store = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Entry> store = new ConcurrentHashMap<>();
+  private final Queue<Completed> completionOrder = new ConcurrentLinkedQueue<>();
+  private final IdempotencyProperties properties;
+  private final Clock clock;
+  private final Counter expiredEvictions;
+  private final Counter sizeEvictions;
+
+  public InMemoryIdempotencyStore(IdempotencyProperties properties, Clock clock, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.clock = clock;
+    this.expiredEvictions = Counter.builder("gateway.idempotency.memory.evictions").tag("cause", "expired")
+        .register(meterRegistry);
+    this.sizeEvictions = Counter.builder("gateway.idempotency.memory.evictions").tag("cause", "size")
+        .register(meterRegistry);
+    Gauge.builder("gateway.idempotency.memory.size", store, Map::size).register(meterRegistry);
+  }
 
   @Override
   public IdempotencyResult execute(IdempotencyRequest request, IdempotencyOperation operation) {
     String docId = HashingUtils.sha256Hex(request.method() + " " + request.path() + " " + request.idempotencyKey());
-    AtomicReference<IdempotencyResult> resultRef = new AtomicReference<>();
-
-    store.compute(docId, (ignored, existing) -> {
+    while (true) {
+      Entry existing = store.get(docId);
       if (existing == null) {
-        IdempotencyResponse response = operation.execute(NoopTransaction.INSTANCE);
-        StoredRecord created = new StoredRecord(request.requestHash(), response);
-        resultRef.set(new IdempotencyResult(
-            response.statusCode(),
-            response.responseBodyJson(),
-            response.responseHeaders(),
-            false
-        ));
-        return created;
+        Entry created = new Entry(request.requestHash());
+        if (store.putIfAbsent(docId, created) == null) {
+          return lead(docId, created, operation);
+        }
+        continue;
+      }
+      if (existing.isExpired(clock.millis())) {
+        store.remove(docId, existing);
+        continue;
       }
-
       if (!existing.requestHash.equals(request.requestHash())) {
         throw new IdempotencyConflictException(request.idempotencyKey());
       }
+      IdempotencyResponse response = await(existing);
+      if (response != null) {
+        return replay(response);
+      }
+    }
+  }
 
-      Map<String, String> headers = existing.response.responseHeaders();
-      if (headers == null) {
-        headers = Collections.emptyMap();
+  @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval-ms:60000}")
+  public void sweep() {
+    long now = clock.millis();
+    Completed head = completionOrder.peek();
+    while (head != null && head.entry.isExpired(now)) {
+      if (completionOrder.remove(head) && store.remove(head.docId, head.entry)) {
+        expiredEvictions.increment();
       }
+      head = completionOrder.peek();
+    }
+  }
 
-      resultRef.set(new IdempotencyResult(
-          existing.response.statusCode(),
-          existing.response.responseBodyJson(),
-          headers,
-          true
-      ));
+  int size() {
+    return store.size();
+  }
 
-      return existing;
-    });
+  private IdempotencyResult lead(String docId, Entry entry, IdempotencyOperation operation) {
+    IdempotencyResponse response;
+    try {
+      response = operation.execute(NoopTransaction.INSTANCE);
+    } catch (RuntimeException | Error ex) {
+      store.remove(docId, entry);
+      entry.result.completeExceptionally(ex);
+      throw ex;
+    }
+    entry.expiresAt = clock.millis() + properties.getTtlSeconds() * 1000;
+    entry.result.complete(response);
+    completionOrder.add(new Completed(docId, entry));
+    evictOverflow();
+    return new IdempotencyResult(
+        response.statusCode(),
+        response.responseBodyJson(),
+        response.responseHeaders(),
+        false
+    );
+  }
 
-    return resultRef.get();
+  private void evictOverflow() {
+    int maxEntries = properties.getMemoryMaxEntries();
+    while (store.size() > maxEntries) {
+      Completed oldest = completionOrder.poll();
+      if (oldest == null) {
+        return;
+      }
+      if (store.remove(oldest.docId, oldest.entry)) {
+        sizeEvictions.increment();
+      }
+    }
+  }
+
+  private IdempotencyResponse await(Entry entry) {
+    try {
+      return entry.result.get();
+    } catch (ExecutionException ex) {
+      return null;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for in-flight idempotent request", ex);
+    }
+  }
+
+  private static IdempotencyResult replay(IdempotencyResponse response) {
+    Map<String, String> headers = response.responseHeaders();
+    if (headers == null) {
+      headers = Collections.emptyMap();
+    }
+    return new IdempotencyResult(
+        response.statusCode(),
+        response.responseBodyJson(),
+        headers,
+        true
+    );
+  }
+
+  private static final class Entry {
+
+    private final String requestHash;
+    private final CompletableFuture<IdempotencyResponse> result = new CompletableFuture<>();
+    private volatile long expiresAt = Long.MAX_VALUE;
+
+    private Entry(String requestHash) {
+      this.requestHash = requestHash;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
   }
 
-  private record StoredRecord(String requestHash, IdempotencyResponse response) {
+  private record Completed(String docId, Entry entry) {
   }
 
   private enum NoopTransaction implements IdempotencyTransaction {
@@ -2,6 +2,7 @@ package com.apipratudo.gateway.identity;
 
 import com.apipratudo.gateway.identity.dto.DocumentValidateRequest;
 import com.apipratudo.gateway.identity.dto.VerificationRequest;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import java.time.Duration;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -15,8 +16,14 @@ public class IdentityVerifyClient {
   private final Duration timeout;
   private final IdentityVerifyClientProperties properties;
 
-  public IdentityVerifyClient(WebClient.Builder builder, IdentityVerifyClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public IdentityVerifyClient(
+      WebClient.Builder builder,
+      IdentityVerifyClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("identity", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.properties = properties;
   }
@@ -1,5 +1,7 @@
 package com.apipratudo.gateway.identity;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -9,6 +11,9 @@ public class IdentityVerifyClientProperties {
 
   private String baseUrl = "http://localhost:8101";
   private long timeoutMs = 5000;
+
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
   private String serviceToken;
 
   public String getBaseUrl() {
@@ -34,4 +39,12 @@ public class IdentityVerifyClientProperties {
   public void setServiceToken(String serviceToken) {
     this.serviceToken = serviceToken;
   }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
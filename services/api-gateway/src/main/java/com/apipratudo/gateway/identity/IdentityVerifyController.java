@@ -1,10 +1,10 @@
 package com.apipratudo.gateway.identity;
 
 import com.apipratudo.gateway.error.ErrorResponse;
-import com.apipratudo.gateway.idempotency.HashingUtils;
 import com.apipratudo.gateway.identity.dto.DocumentValidateRequest;
 import com.apipratudo.gateway.identity.dto.VerificationRequest;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,9 +36,11 @@ public class IdentityVerifyController {
   private static final String REQUEST_ID_HEADER = "X-Request-Id";
 
   private final IdentityVerifyClient client;
+  private final TenantIdResolver tenantIdResolver;
 
-  public IdentityVerifyController(IdentityVerifyClient client) {
+  public IdentityVerifyController(IdentityVerifyClient client, TenantIdResolver tenantIdResolver) {
     this.client = client;
+    this.tenantIdResolver = tenantIdResolver;
   }
 
   @PostMapping("/documentos/validar")
@@ -110,7 +112,7 @@ public class IdentityVerifyController {
   }
 
   private String tenantId(String apiKey) {
-    return HashingUtils.sha256Hex(apiKey);
+    return tenantIdResolver.tenantId(apiKey);
   }
 
   private String traceId(HttpServletRequest request) {
@@ -2,6 +2,7 @@ package com.apipratudo.gateway.keys.client;
 
 import com.apipratudo.gateway.keys.dto.KeyRequest;
 import com.apipratudo.gateway.keys.dto.KeyUpgradeRequest;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import java.time.Duration;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -14,8 +15,14 @@ public class DeveloperPortalClient {
   private final WebClient webClient;
   private final Duration timeout;
 
-  public DeveloperPortalClient(WebClient.Builder builder, DeveloperPortalClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public DeveloperPortalClient(
+      WebClient.Builder builder,
+      DeveloperPortalClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("portal", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
   }
 
@@ -0,0 +1,23 @@
+package com.apipratudo.gateway.loterias;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.loterias")
+@Validated
+public class LoteriasProperties {
+
+  @Min(100)
+  private long deadlineMs = 5000;
+
+  public long getDeadlineMs() {
+    return deadlineMs;
+  }
+
+  public void setDeadlineMs(long deadlineMs) {
+    this.deadlineMs = deadlineMs;
+  }
+}
@@ -0,0 +1,29 @@
+package com.apipratudo.gateway.loterias;
+
+import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.loterias.dto.JogoResultado;
+import com.apipratudo.gateway.loterias.dto.LoteriasResultadosResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/loterias")
+public class LoteriasResultadosController {
+
+  private final LoteriasResultadosService service;
+
+  public LoteriasResultadosController(LoteriasResultadosService service) {
+    this.service = service;
+  }
+
+  @GetMapping("/resultados")
+  public ResponseEntity<LoteriasResultadosResponse> resultados(HttpServletRequest request) {
+    LoteriasResultadosResponse response = service.buscar(TraceIdUtils.resolveTraceId(request));
+    boolean anyOk = response.resultados().values().stream().anyMatch(JogoResultado::ok);
+    return ResponseEntity.status(anyOk ? HttpStatus.OK : HttpStatus.BAD_GATEWAY).body(response);
+  }
+}
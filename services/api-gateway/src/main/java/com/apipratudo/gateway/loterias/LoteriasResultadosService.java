@@ -0,0 +1,166 @@
+package com.apipratudo.gateway.loterias;
+
+import com.apipratudo.gateway.diadesorte.client.DiadesorteResultsClient;
+import com.apipratudo.gateway.duplasena.client.DuplasenaResultsClient;
+import com.apipratudo.gateway.federal.client.FederalResultsClient;
+import com.apipratudo.gateway.loteca.client.LotecaResultsClient;
+import com.apipratudo.gateway.loterias.dto.JogoResultado;
+import com.apipratudo.gateway.loterias.dto.LoteriasResultadosResponse;
+import com.apipratudo.gateway.lotofacil.client.LotofacilResultsClient;
+import com.apipratudo.gateway.lotomania.client.LotomaniaResultsClient;
+import com.apipratudo.gateway.maismilionaria.client.MaismilionariaResultsClient;
+import com.apipratudo.gateway.megasena.client.MegasenaResultsClient;
+import com.apipratudo.gateway.quina.client.QuinaResultsClient;
+import com.apipratudo.gateway.results.ResultsCache;
+import com.apipratudo.gateway.supersete.client.SuperseteResultsClient;
+import com.apipratudo.gateway.timemania.client.TimemaniaResultsClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fetches every lottery result in parallel under one deadline. Each game goes through {@link ResultsCache},
+ * so a dashboard refresh mostly costs cache hits; games that fail or miss the deadline are reported per game
+ * instead of failing the whole response.
+ */
+@Service
+public class LoteriasResultadosService {
+
+  private static final Logger log = LoggerFactory.getLogger(LoteriasResultadosService.class);
+
+  private final Map<String, Function<String, ResultsCache.Upstream>> loaders = new LinkedHashMap<>();
+  private final ResultsCache resultsCache;
+  private final LoteriasProperties properties;
+  private final ObjectMapper objectMapper;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public LoteriasResultadosService(
+      MegasenaResultsClient megasena,
+      LotofacilResultsClient lotofacil,
+      QuinaResultsClient quina,
+      LotomaniaResultsClient lotomania,
+      TimemaniaResultsClient timemania,
+      DuplasenaResultsClient duplasena,
+      FederalResultsClient federal,
+      DiadesorteResultsClient diadesorte,
+      SuperseteResultsClient supersete,
+      MaismilionariaResultsClient maismilionaria,
+      LotecaResultsClient loteca,
+      ResultsCache resultsCache,
+      LoteriasProperties properties,
+      ObjectMapper objectMapper
+  ) {
+    this.resultsCache = resultsCache;
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    loaders.put("megasena", traceId -> {
+      MegasenaResultsClient.MegasenaResultsClientResult result = megasena.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("lotofacil", traceId -> {
+      LotofacilResultsClient.LotofacilResultsClientResult result = lotofacil.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("quina", traceId -> {
+      QuinaResultsClient.QuinaResultsClientResult result = quina.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("lotomania", traceId -> {
+      LotomaniaResultsClient.LotomaniaResultsClientResult result = lotomania.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("timemania", traceId -> {
+      TimemaniaResultsClient.TimemaniaResultsClientResult result = timemania.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("duplasena", traceId -> {
+      DuplasenaResultsClient.DuplasenaResultsClientResult result = duplasena.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("federal", traceId -> {
+      FederalResultsClient.FederalResultsClientResult result = federal.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("diadesorte", traceId -> {
+      DiadesorteResultsClient.DiadesorteResultsClientResult result = diadesorte.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("supersete", traceId -> {
+      SuperseteResultsClient.SuperseteResultsClientResult result = supersete.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("maismilionaria", traceId -> {
+      MaismilionariaResultsClient.MaismilionariaResultsClientResult result = maismilionaria.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+    loaders.put("loteca", traceId -> {
+      LotecaResultsClient.LotecaResultsClientResult result = loteca.getResultado(traceId);
+      return new ResultsCache.Upstream(result.statusCode(), result.body(), result.etag(), result.lastModified());
+    });
+  }
+
+  public LoteriasResultadosResponse buscar(String traceId) {
+    Map<String, Future<ResultsCache.Result>> pending = new LinkedHashMap<>();
+    loaders.forEach((game, loader) -> pending.put(game,
+        executor.submit(() -> resultsCache.get(game, () -> loader.apply(traceId)))));
+
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getDeadlineMs());
+    Map<String, JogoResultado> resultados = new LinkedHashMap<>();
+    boolean parcial = false;
+    for (Map.Entry<String, Future<ResultsCache.Result>> entry : pending.entrySet()) {
+      JogoResultado resultado = await(entry.getKey(), entry.getValue(), deadline, traceId);
+      parcial |= !resultado.ok();
+      resultados.put(entry.getKey(), resultado);
+    }
+    return new LoteriasResultadosResponse(parcial, resultados);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private JogoResultado await(String game, Future<ResultsCache.Result> future, long deadline, String traceId) {
+    try {
+      ResultsCache.Result result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return toJogoResultado(game, result, traceId);
+    } catch (TimeoutException ex) {
+      // Not cancelled: the load may be the cache's single-flight leader, so it keeps running and fills the cache.
+      log.warn("Lottery result timed out game={} traceId={}", game, traceId);
+      return new JogoResultado(JogoResultado.TIMEOUT, null, null, null, "Tempo limite excedido");
+    } catch (ExecutionException ex) {
+      log.warn("Lottery result failed game={} traceId={} error={}", game, traceId, ex.getCause().getMessage());
+      return new JogoResultado(JogoResultado.ERRO, null, null, null, "Servico indisponivel");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return new JogoResultado(JogoResultado.ERRO, null, null, null, "Requisicao interrompida");
+    }
+  }
+
+  private JogoResultado toJogoResultado(String game, ResultsCache.Result result, String traceId) {
+    String cache = result.cacheStatus().name();
+    if (result.statusCode() < 200 || result.statusCode() >= 300) {
+      return new JogoResultado(JogoResultado.ERRO, result.statusCode(), cache, null,
+          "Upstream respondeu HTTP " + result.statusCode());
+    }
+    try {
+      return new JogoResultado(JogoResultado.OK, result.statusCode(), cache, objectMapper.readTree(result.body()),
+          null);
+    } catch (JsonProcessingException ex) {
+      log.warn("Lottery result is not valid JSON game={} traceId={}", game, traceId);
+      return new JogoResultado(JogoResultado.ERRO, result.statusCode(), cache, null, "Resposta invalida do upstream");
+    }
+  }
+}
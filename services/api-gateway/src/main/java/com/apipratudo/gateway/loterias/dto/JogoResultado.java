@@ -0,0 +1,22 @@
+package com.apipratudo.gateway.loterias.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JogoResultado(
+    String status,
+    Integer httpStatus,
+    String cache,
+    JsonNode resultado,
+    String erro
+) {
+
+  public static final String OK = "OK";
+  public static final String ERRO = "ERRO";
+  public static final String TIMEOUT = "TIMEOUT";
+
+  public boolean ok() {
+    return OK.equals(status);
+  }
+}
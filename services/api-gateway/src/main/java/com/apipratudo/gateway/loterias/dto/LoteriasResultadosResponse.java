@@ -0,0 +1,9 @@
+package com.apipratudo.gateway.loterias.dto;
+
+import java.util.Map;
+
+public record LoteriasResultadosResponse(
+    boolean parcial,
+    Map<String, JogoResultado> resultados
+) {
+}
@@ -3,6 +3,7 @@ package com.apipratudo.gateway.lotofacil.controller;
 import com.apipratudo.gateway.logging.TraceIdUtils;
 import com.apipratudo.gateway.lotofacil.client.LotofacilResultsClient;
 import com.apipratudo.gateway.lotofacil.client.LotofacilResultsClient.LotofacilResultsClientResult;
+import com.apipratudo.gateway.results.ResultsCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,18 +15,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/lotofacil")
 public class LotofacilResultsController {
 
+  private static final String GAME = "lotofacil";
+
   private final LotofacilResultsClient client;
+  private final ResultsCache resultsCache;
 
-  public LotofacilResultsController(LotofacilResultsClient client) {
+  public LotofacilResultsController(LotofacilResultsClient client, ResultsCache resultsCache) {
     this.client = client;
+    this.resultsCache = resultsCache;
   }
 
   @GetMapping("/resultado-oficial")
   public ResponseEntity<String> obterResultado(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    LotofacilResultsClientResult result = client.getResultado(traceId);
+    ResultsCache.Result result = resultsCache.get(GAME, () -> {
+      LotofacilResultsClientResult upstream = client.getResultado(traceId);
+      return new ResultsCache.Upstream(upstream.statusCode(), upstream.body(), upstream.etag(),
+          upstream.lastModified());
+    });
     return ResponseEntity.status(result.statusCode())
         .contentType(MediaType.APPLICATION_JSON)
+        .headers(result::copyValidatorsTo)
+        .header(ResultsCache.CACHE_HEADER, result.cacheStatus().name())
         .body(result.body());
   }
 }
@@ -3,6 +3,7 @@ package com.apipratudo.gateway.lotomania.controller;
 import com.apipratudo.gateway.logging.TraceIdUtils;
 import com.apipratudo.gateway.lotomania.client.LotomaniaResultsClient;
 import com.apipratudo.gateway.lotomania.client.LotomaniaResultsClient.LotomaniaResultsClientResult;
+import com.apipratudo.gateway.results.ResultsCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,18 +15,28 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/lotomania")
 public class LotomaniaResultsController {
 
+  private static final String GAME = "lotomania";
+
   private final LotomaniaResultsClient client;
+  private final ResultsCache resultsCache;
 
-  public LotomaniaResultsController(LotomaniaResultsClient client) {
+  public LotomaniaResultsController(LotomaniaResultsClient client, ResultsCache resultsCache) {
     this.client = client;
+    this.resultsCache = resultsCache;
   }
 
   @GetMapping("/resultado-oficial")
   public ResponseEntity<String> obterResultado(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    LotomaniaResultsClientResult result = client.getResultado(traceId);
+    ResultsCache.Result result = resultsCache.get(GAME, () -> {
+      LotomaniaResultsClientResult upstream = client.getResultado(traceId);
+      return new ResultsCache.Upstream(upstream.statusCode(), upstream.body(), upstream.etag(),
+          upstream.lastModified());
+    });
     return ResponseEntity.status(result.statusCode())
         .contentType(MediaType.APPLICATION_JSON)
+        .headers(result::copyValidatorsTo)
+        .header(ResultsCache.CACHE_HEADER, result.cacheStatus().name())
         .body(result.body());
   }
 }
@@ -1,6 +1,8 @@
 package com.apipratudo.gateway.megasena.client;
 
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import java.time.Duration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -12,8 +14,14 @@ public class MegasenaResultsClient {
   private final WebClient webClient;
   private final Duration timeout;
 
-  public MegasenaResultsClient(WebClient.Builder builder, MegasenaResultsClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public MegasenaResultsClient(
+      WebClient.Builder builder,
+      MegasenaResultsClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("megasena", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
   }
 
@@ -29,7 +37,12 @@ public class MegasenaResultsClient {
     MegasenaResultsClientResult result = spec
         .exchangeToMono(response -> response.bodyToMono(String.class)
             .defaultIfEmpty("")
-            .map(body -> new MegasenaResultsClientResult(response.statusCode().value(), body)))
+            .map(body -> new MegasenaResultsClientResult(
+                response.statusCode().value(),
+                body,
+                response.headers().asHttpHeaders().getETag(),
+                response.headers().asHttpHeaders().getFirst(HttpHeaders.LAST_MODIFIED)
+            )))
         .timeout(timeout)
         .block(timeout);
 
@@ -40,6 +53,6 @@ public class MegasenaResultsClient {
     return result;
   }
 
-  public record MegasenaResultsClientResult(int statusCode, String body) {
+  public record MegasenaResultsClientResult(int statusCode, String body, String etag, String lastModified) {
   }
 }
@@ -0,0 +1,127 @@
+package com.apipratudo.gateway.proxy;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Copies a downstream response straight into the servlet response, chunk by chunk, instead of
+ * materialising the body as a String first.
+ */
+public final class StreamingProxy {
+
+  private static final int PREFETCH = 4;
+  private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+      "connection",
+      "keep-alive",
+      "proxy-authenticate",
+      "proxy-authorization",
+      "te",
+      "trailer",
+      "transfer-encoding",
+      "upgrade",
+      "date",
+      "server"
+  );
+
+  private StreamingProxy() {
+  }
+
+  public static StreamResult stream(
+      WebClient.RequestHeadersSpec<?> spec,
+      Duration timeout,
+      HttpServletResponse response
+  ) throws IOException {
+    return stream(spec, timeout, response, statusCode -> true);
+  }
+
+  /**
+   * Streams the response of {@code spec} into {@code response} when {@code streamStatus} accepts the
+   * downstream status; otherwise the body is discarded and only the status is reported back so the caller
+   * can render its own error. The timeout bounds the wait for the response headers and each body chunk.
+   */
+  public static StreamResult stream(
+      WebClient.RequestHeadersSpec<?> spec,
+      Duration timeout,
+      HttpServletResponse response,
+      IntPredicate streamStatus
+  ) throws IOException {
+    ResponseEntity<Flux<DataBuffer>> entity = spec.retrieve()
+        .onStatus(status -> true, clientResponse -> Mono.empty())
+        .toEntityFlux(DataBuffer.class)
+        .timeout(timeout)
+        .block(timeout);
+    if (entity == null || entity.getBody() == null) {
+      throw new IllegalStateException("Downstream returned empty response");
+    }
+
+    int statusCode = entity.getStatusCode().value();
+    Flux<DataBuffer> body = entity.getBody()
+        .timeout(timeout)
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    if (!streamStatus.test(statusCode)) {
+      body.doOnNext(DataBufferUtils::release).then().block(timeout);
+      return new StreamResult(statusCode, false);
+    }
+
+    response.setStatus(statusCode);
+    copyHeaders(entity.getHeaders(), response);
+    try (Stream<DataBuffer> chunks = body.toStream(PREFETCH)) {
+      OutputStream out = response.getOutputStream();
+      chunks.forEach(chunk -> write(chunk, out));
+      out.flush();
+    } catch (RuntimeException ex) {
+      if (!response.isCommitted()) {
+        response.reset();
+      }
+      throw ex;
+    }
+    return new StreamResult(statusCode, true);
+  }
+
+  private static void copyHeaders(HttpHeaders headers, HttpServletResponse response) {
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      String name = header.getKey();
+      if (HOP_BY_HOP_HEADERS.contains(name.toLowerCase()) || response.containsHeader(name)) {
+        continue;
+      }
+      header.getValue().forEach(value -> response.addHeader(name, value));
+    }
+    if (headers.getContentType() == null) {
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    }
+  }
+
+  private static void write(DataBuffer chunk, OutputStream out) {
+    try (InputStream in = chunk.asInputStream(true)) {
+      in.transferTo(out);
+    } catch (IOException ex) {
+      throw new StreamingException(ex);
+    }
+  }
+
+  public record StreamResult(int statusCode, boolean streamed) {
+  }
+
+  public static class StreamingException extends RuntimeException {
+
+    StreamingException(IOException cause) {
+      super("Failed to stream downstream response", cause);
+    }
+  }
+}
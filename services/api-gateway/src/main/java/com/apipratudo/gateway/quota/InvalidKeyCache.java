@@ -0,0 +1,159 @@
+package com.apipratudo.gateway.quota;
+
+import com.apipratudo.gateway.idempotency.HashingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Component
+public class InvalidKeyCache {
+
+  private final QuotaClientProperties properties;
+  private final Clock clock;
+  private final Generations<Long, Long> invalidKeys;
+  private final Generations<String, AtomicInteger> failuresByIp;
+  private final Counter keyRejections;
+  private final Counter ipRejections;
+  private final Counter recorded;
+
+  public InvalidKeyCache(QuotaClientProperties properties, Clock clock, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.clock = clock;
+    long now = clock.millis();
+    long perGeneration = Math.max(1, properties.getInvalidKeyMaxEntries() / 2);
+    this.invalidKeys = new Generations<>(properties.getInvalidKeyTtlMs(), perGeneration, now);
+    this.failuresByIp = new Generations<>(properties.getInvalidKeyIpWindowMs(), perGeneration, now);
+    Gauge.builder("gateway.invalid_keys.size", invalidKeys, Generations::size).register(meterRegistry);
+    Gauge.builder("gateway.invalid_keys.ips", failuresByIp, Generations::size).register(meterRegistry);
+    this.keyRejections = Counter.builder("gateway.invalid_keys.rejections").tag("reason", "key")
+        .register(meterRegistry);
+    this.ipRejections = Counter.builder("gateway.invalid_keys.rejections").tag("reason", "ip")
+        .register(meterRegistry);
+    this.recorded = Counter.builder("gateway.invalid_keys.recorded").register(meterRegistry);
+  }
+
+  public boolean isKnownInvalid(String apiKey) {
+    if (!properties.isInvalidKeyCacheEnabled()) {
+      return false;
+    }
+    long now = clock.millis();
+    boolean hit = invalidKeys.anyMatch(fingerprint(apiKey), now, expiresAt -> expiresAt > now);
+    if (hit) {
+      keyRejections.increment();
+    }
+    return hit;
+  }
+
+  public boolean isBlocked(String clientIp) {
+    int threshold = properties.getInvalidKeyIpThreshold();
+    if (!properties.isInvalidKeyCacheEnabled() || threshold <= 0 || !StringUtils.hasText(clientIp)) {
+      return false;
+    }
+    boolean blocked = failuresByIp.anyMatch(clientIp, clock.millis(), count -> count.get() >= threshold);
+    if (blocked) {
+      ipRejections.increment();
+    }
+    return blocked;
+  }
+
+  public void recordInvalid(String apiKey, String clientIp) {
+    if (!properties.isInvalidKeyCacheEnabled()) {
+      return;
+    }
+    long now = clock.millis();
+    long expiresAt = now + properties.getInvalidKeyTtlMs();
+    invalidKeys.put(fingerprint(apiKey), expiresAt, now);
+    recorded.increment();
+    if (properties.getInvalidKeyIpThreshold() > 0 && StringUtils.hasText(clientIp)) {
+      failuresByIp.computeIfAbsent(clientIp, now, ip -> new AtomicInteger()).incrementAndGet();
+    }
+  }
+
+  public long ipBlockSeconds() {
+    return Math.max(1, (properties.getInvalidKeyIpWindowMs() + 999) / 1000);
+  }
+
+  private static long fingerprint(String apiKey) {
+    return ByteBuffer.wrap(HashingUtils.sha256(apiKey)).getLong();
+  }
+
+  private static final class Generations<K, V> {
+    private final long periodMillis;
+    private final long maxEntries;
+    private volatile Generation<K, V> current;
+    private volatile Generation<K, V> previous;
+
+    Generations(long periodMillis, long maxEntries, long now) {
+      this.periodMillis = periodMillis;
+      this.maxEntries = maxEntries;
+      this.current = new Generation<>(now);
+      this.previous = new Generation<>(now);
+    }
+
+    boolean anyMatch(K key, long now, Predicate<V> predicate) {
+      rotateIfDue(now);
+      V value = current.entries.get(key);
+      if (value != null && predicate.test(value)) {
+        return true;
+      }
+      value = previous.entries.get(key);
+      return value != null && predicate.test(value);
+    }
+
+    void put(K key, V value, long now) {
+      active(now).entries.put(key, value);
+    }
+
+    V computeIfAbsent(K key, long now, Function<K, V> factory) {
+      return active(now).entries.computeIfAbsent(key, factory);
+    }
+
+    long size() {
+      return (long) current.entries.size() + previous.entries.size();
+    }
+
+    private Generation<K, V> active(long now) {
+      rotateIfDue(now);
+      Generation<K, V> generation = current;
+      if (generation.entries.size() >= maxEntries) {
+        rotate(now, true);
+        generation = current;
+      }
+      return generation;
+    }
+
+    private void rotateIfDue(long now) {
+      if (now - current.startedAt >= periodMillis) {
+        rotate(now, false);
+      }
+    }
+
+    private synchronized void rotate(long now, boolean full) {
+      Generation<K, V> active = current;
+      boolean due = now - active.startedAt >= periodMillis;
+      if (!due && !(full && active.entries.size() >= maxEntries)) {
+        return;
+      }
+      previous = now - active.startedAt >= 2 * periodMillis ? new Generation<>(now) : active;
+      current = new Generation<>(now);
+    }
+  }
+
+  private static final class Generation<K, V> {
+    private final long startedAt;
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<>();
+
+    Generation(long startedAt) {
+      this.startedAt = startedAt;
+    }
+  }
+}
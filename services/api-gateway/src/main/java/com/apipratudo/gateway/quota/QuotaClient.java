@@ -1,5 +1,6 @@
 package com.apipratudo.gateway.quota;
 
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import java.time.Duration;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -13,14 +14,27 @@ public class QuotaClient {
   private final Duration timeout;
   private final String internalToken;
 
-  public QuotaClient(WebClient.Builder builder, QuotaClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public QuotaClient(
+      WebClient.Builder builder,
+      QuotaClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("quota", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.internalToken = properties.getInternalToken();
   }
 
-  public QuotaClientResult consume(String apiKey, String requestId, String route, int cost, String traceId) {
-    QuotaConsumeRequest request = new QuotaConsumeRequest(apiKey, requestId, route, cost);
+  public QuotaClientResult consume(
+      String apiKey,
+      String requestId,
+      String route,
+      int cost,
+      boolean ephemeral,
+      String traceId
+  ) {
+    QuotaConsumeRequest request = new QuotaConsumeRequest(apiKey, requestId, route, cost, ephemeral);
 
     WebClient.RequestBodySpec spec = webClient.post()
         .uri("/v1/quota/consume")
@@ -35,13 +49,14 @@ public class QuotaClient {
     QuotaClientResult result = spec
         .bodyValue(request)
         .exchangeToMono(response -> response.bodyToMono(QuotaConsumeResponse.class)
-            .defaultIfEmpty(new QuotaConsumeResponse(false, null, null, null, null, null, null, null, null))
+            .defaultIfEmpty(new QuotaConsumeResponse(false, null, null, null, null, null, null, null, null, null))
             .map(body -> new QuotaClientResult(
                 body.allowed(),
                 body.reason(),
                 response.statusCode().value(),
                 body.error(),
-                body.plan()
+                body.plan(),
+                body.refundToken()
             )))
         .timeout(timeout)
         .block(timeout);
@@ -53,8 +68,52 @@ public class QuotaClient {
     return result;
   }
 
-  public void refund(String apiKey, String requestId, String traceId) {
-    QuotaRefundRequest request = new QuotaRefundRequest(apiKey, requestId);
+  public QuotaLeaseResponse lease(String apiKey, int units, String traceId) {
+    QuotaLeaseRequest request = new QuotaLeaseRequest(apiKey, units);
+
+    WebClient.RequestBodySpec spec = webClient.post()
+        .uri("/v1/quota/lease")
+        .contentType(MediaType.APPLICATION_JSON);
+
+    String tokenValue = internalToken == null ? "" : internalToken;
+    spec = spec.header("X-Internal-Token", tokenValue);
+    if (StringUtils.hasText(traceId)) {
+      spec = spec.header("X-Trace-Id", traceId);
+    }
+
+    QuotaLeaseResponse result = spec
+        .bodyValue(request)
+        .exchangeToMono(response -> response.bodyToMono(QuotaLeaseResponse.class)
+            .defaultIfEmpty(new QuotaLeaseResponse(null, false, null, 0, null, null, false, null)))
+        .timeout(timeout)
+        .block(timeout);
+
+    if (result == null) {
+      throw new IllegalStateException("Quota service returned empty response");
+    }
+
+    return result;
+  }
+
+  public void returnLease(QuotaLeaseReturnRequest request, String traceId) {
+    WebClient.RequestBodySpec spec = webClient.post()
+        .uri("/v1/quota/lease/return")
+        .contentType(MediaType.APPLICATION_JSON);
+
+    String tokenValue = internalToken == null ? "" : internalToken;
+    spec = spec.header("X-Internal-Token", tokenValue);
+    if (StringUtils.hasText(traceId)) {
+      spec = spec.header("X-Trace-Id", traceId);
+    }
+
+    spec.bodyValue(request)
+        .exchangeToMono(response -> response.bodyToMono(Void.class))
+        .timeout(timeout)
+        .block(timeout);
+  }
+
+  public void refund(String apiKey, String requestId, String refundToken, String traceId) {
+    QuotaRefundRequest request = new QuotaRefundRequest(apiKey, requestId, refundToken);
 
     WebClient.RequestBodySpec spec = webClient.post()
         .uri("/v1/quota/refund")
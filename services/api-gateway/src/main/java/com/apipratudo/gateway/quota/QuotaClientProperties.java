@@ -1,7 +1,11 @@
 package com.apipratudo.gateway.quota;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
@@ -17,8 +21,32 @@ public class QuotaClientProperties {
   @Min(100)
   private long timeoutMs = 3000;
 
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
+
   private String internalToken;
 
+  private boolean leaseEnabled = false;
+
+  @Min(1)
+  private int leaseUnits = 20;
+
+  private boolean invalidKeyCacheEnabled = true;
+
+  @Min(1000)
+  private long invalidKeyTtlMs = 60000;
+
+  @Min(2)
+  private long invalidKeyMaxEntries = 100000;
+
+  @Min(0)
+  private int invalidKeyIpThreshold = 0;
+
+  @Min(1000)
+  private long invalidKeyIpWindowMs = 60000;
+
+  private Map<String, Integer> routeCosts = new LinkedHashMap<>();
+
   public String getBaseUrl() {
     return baseUrl;
   }
@@ -42,4 +70,76 @@ public class QuotaClientProperties {
   public void setInternalToken(String internalToken) {
     this.internalToken = internalToken;
   }
+
+  public boolean isLeaseEnabled() {
+    return leaseEnabled;
+  }
+
+  public void setLeaseEnabled(boolean leaseEnabled) {
+    this.leaseEnabled = leaseEnabled;
+  }
+
+  public int getLeaseUnits() {
+    return leaseUnits;
+  }
+
+  public void setLeaseUnits(int leaseUnits) {
+    this.leaseUnits = leaseUnits;
+  }
+
+  public boolean isInvalidKeyCacheEnabled() {
+    return invalidKeyCacheEnabled;
+  }
+
+  public void setInvalidKeyCacheEnabled(boolean invalidKeyCacheEnabled) {
+    this.invalidKeyCacheEnabled = invalidKeyCacheEnabled;
+  }
+
+  public long getInvalidKeyTtlMs() {
+    return invalidKeyTtlMs;
+  }
+
+  public void setInvalidKeyTtlMs(long invalidKeyTtlMs) {
+    this.invalidKeyTtlMs = invalidKeyTtlMs;
+  }
+
+  public long getInvalidKeyMaxEntries() {
+    return invalidKeyMaxEntries;
+  }
+
+  public void setInvalidKeyMaxEntries(long invalidKeyMaxEntries) {
+    this.invalidKeyMaxEntries = invalidKeyMaxEntries;
+  }
+
+  public int getInvalidKeyIpThreshold() {
+    return invalidKeyIpThreshold;
+  }
+
+  public void setInvalidKeyIpThreshold(int invalidKeyIpThreshold) {
+    this.invalidKeyIpThreshold = invalidKeyIpThreshold;
+  }
+
+  public long getInvalidKeyIpWindowMs() {
+    return invalidKeyIpWindowMs;
+  }
+
+  public void setInvalidKeyIpWindowMs(long invalidKeyIpWindowMs) {
+    this.invalidKeyIpWindowMs = invalidKeyIpWindowMs;
+  }
+
+  public Map<String, Integer> getRouteCosts() {
+    return routeCosts;
+  }
+
+  public void setRouteCosts(Map<String, Integer> routeCosts) {
+    this.routeCosts = routeCosts;
+  }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
@@ -5,6 +5,7 @@ public record QuotaClientResult(
     String reason,
     int statusCode,
     String error,
-    String plan
+    String plan,
+    String refundToken
 ) {
 }
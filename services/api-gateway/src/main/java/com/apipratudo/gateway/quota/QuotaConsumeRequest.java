@@ -4,6 +4,7 @@ public record QuotaConsumeRequest(
     String apiKey,
     String requestId,
     String route,
-    int cost
+    int cost,
+    boolean ephemeral
 ) {
 }
@@ -11,7 +11,8 @@ public record QuotaConsumeResponse(
     String error,
     String message,
     String plan,
-    Credits credits
+    Credits credits,
+    String refundToken
 ) {
   public record Credits(long remaining) {
   }
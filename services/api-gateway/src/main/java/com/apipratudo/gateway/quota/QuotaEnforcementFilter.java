@@ -1,5 +1,6 @@
 package com.apipratudo.gateway.quota;
 
+import com.apipratudo.gateway.batch.BatchDispatcher;
 import com.apipratudo.gateway.error.ErrorResponse;
 import com.apipratudo.gateway.logging.TraceIdUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -14,14 +15,19 @@ import java.util.Collections;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 @Component
+@Order(QuotaEnforcementFilter.ORDER)
 public class QuotaEnforcementFilter extends OncePerRequestFilter {
 
+  public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
   private static final Logger log = LoggerFactory.getLogger(QuotaEnforcementFilter.class);
   private static final String API_KEY_HEADER = "X-Api-Key";
   private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
@@ -37,10 +43,22 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
   private static final String RECONCILIATION_WEBHOOK_PAYMENT = "/v1/webhook/pagamento";
 
   private final QuotaClient quotaClient;
+  private final QuotaLeaseManager leaseManager;
+  private final InvalidKeyCache invalidKeyCache;
+  private final QuotaClientProperties properties;
   private final ObjectMapper objectMapper;
 
-  public QuotaEnforcementFilter(QuotaClient quotaClient, ObjectMapper objectMapper) {
+  public QuotaEnforcementFilter(
+      QuotaClient quotaClient,
+      QuotaLeaseManager leaseManager,
+      InvalidKeyCache invalidKeyCache,
+      QuotaClientProperties properties,
+      ObjectMapper objectMapper
+  ) {
     this.quotaClient = quotaClient;
+    this.leaseManager = leaseManager;
+    this.invalidKeyCache = invalidKeyCache;
+    this.properties = properties;
     this.objectMapper = objectMapper;
   }
 
@@ -85,13 +103,37 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
       return;
     }
 
+    if (invalidKeyCache.isKnownInvalid(apiKey)) {
+      writeError(response, request, HttpServletResponse.SC_UNAUTHORIZED, "UNAUTHORIZED",
+          reasonMessage("INVALID_KEY", "Invalid API key"));
+      return;
+    }
+    String clientIp = request.getRemoteAddr();
+    if (invalidKeyCache.isBlocked(clientIp)) {
+      response.setHeader("Retry-After", String.valueOf(invalidKeyCache.ipBlockSeconds()));
+      writeError(response, request, 429, "RATE_LIMITED", "Too many invalid API keys");
+      return;
+    }
+
     String traceId = TraceIdUtils.resolveTraceId(request);
-    String requestId = resolveRequestId(request);
+    String clientRequestId = resolveClientRequestId(request);
+    String requestId = clientRequestId == null ? UUID.randomUUID().toString() : clientRequestId;
     String route = request.getMethod() + " " + request.getRequestURI();
+    int cost = properties.getRouteCosts().getOrDefault(path, 1);
+
+    if (cost == 1 && clientRequestId == null && leaseManager.isEnabled()) {
+      QuotaLeaseManager.Lease lease = leaseManager.tryAcquire(apiKey, traceId);
+      if (lease != null) {
+        if (proceed(request, response, filterChain, () -> leaseManager.refund(lease))) {
+          leaseManager.settle(lease, route);
+        }
+        return;
+      }
+    }
 
     QuotaClientResult result;
     try {
-      result = quotaClient.consume(apiKey, requestId, route, 1, traceId);
+      result = quotaClient.consume(apiKey, requestId, route, cost, clientRequestId == null, traceId);
     } catch (Exception ex) {
       log.warn("Quota service unavailable route={} traceId={} error={}", route, traceId, ex.getMessage());
       writeError(response, request, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "QUOTA_UNAVAILABLE",
@@ -100,18 +142,8 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
     }
 
     if (result.allowed()) {
-      StatusCaptureResponseWrapper wrapped = new StatusCaptureResponseWrapper(response);
-      boolean shouldRefund = false;
-      try {
-        filterChain.doFilter(request, wrapped);
-      } catch (Exception ex) {
-        shouldRefund = true;
-        throw ex;
-      } finally {
-        if (shouldRefund || wrapped.getStatus() >= 500) {
-          tryRefund(apiKey, requestId, traceId, route);
-        }
-      }
+      proceed(request, response, filterChain,
+          () -> tryRefund(apiKey, requestId, result.refundToken(), traceId, route));
       return;
     }
 
@@ -123,6 +155,7 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
     if (result.statusCode() == HttpServletResponse.SC_UNAUTHORIZED
         || result.statusCode() == HttpServletResponse.SC_FORBIDDEN) {
       if ("INVALID_KEY".equals(result.reason())) {
+        invalidKeyCache.recordInvalid(apiKey, clientIp);
         writeError(response, request, HttpServletResponse.SC_UNAUTHORIZED, "UNAUTHORIZED",
             reasonMessage(result.reason(), "Invalid API key"));
         return;
@@ -142,6 +175,30 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
         "Quota service rejected the request");
   }
 
+  /**
+   * Runs the chain and refunds the unit on an exception or 5xx. Returns true when the unit stays charged.
+   */
+  private boolean proceed(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain,
+      Runnable refund
+  ) throws ServletException, IOException {
+    StatusCaptureResponseWrapper wrapped = new StatusCaptureResponseWrapper(response);
+    boolean shouldRefund = false;
+    try {
+      filterChain.doFilter(request, wrapped);
+    } catch (Exception ex) {
+      shouldRefund = true;
+      throw ex;
+    } finally {
+      if (shouldRefund || wrapped.getStatus() >= 500) {
+        refund.run();
+      }
+    }
+    return wrapped.getStatus() < 500;
+  }
+
   private boolean isKeysStatus(String path) {
     return KEYS_STATUS_PATH.equals(path);
   }
@@ -157,7 +214,7 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
   }
 
   private boolean isNoQuotaPath(String path) {
-    return RECONCILIATION_WEBHOOK_PAYMENT.equals(path);
+    return RECONCILIATION_WEBHOOK_PAYMENT.equals(path) || BatchDispatcher.BATCH_PATH.equals(path);
   }
 
   private boolean isQuotaExceeded(QuotaClientResult result) {
@@ -173,16 +230,16 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
     return "QUOTA_EXCEEDED".equals(result.error());
   }
 
-  private void tryRefund(String apiKey, String requestId, String traceId, String route) {
+  private void tryRefund(String apiKey, String requestId, String refundToken, String traceId, String route) {
     try {
-      quotaClient.refund(apiKey, requestId, traceId);
+      quotaClient.refund(apiKey, requestId, refundToken, traceId);
     } catch (Exception ex) {
       log.warn("Quota refund failed route={} requestId={} traceId={} error={}", route, requestId, traceId,
           ex.getMessage());
     }
   }
 
-  private String resolveRequestId(HttpServletRequest request) {
+  private String resolveClientRequestId(HttpServletRequest request) {
     if (allowsIdempotencyKey(request.getMethod())) {
       String idempotency = request.getHeader(IDEMPOTENCY_KEY_HEADER);
       if (StringUtils.hasText(idempotency)) {
@@ -193,7 +250,7 @@ public class QuotaEnforcementFilter extends OncePerRequestFilter {
     if (StringUtils.hasText(requestId)) {
       return requestId.trim();
     }
-    return UUID.randomUUID().toString();
+    return null;
   }
 
   private boolean allowsIdempotencyKey(String method) {
@@ -0,0 +1,253 @@
+package com.apipratudo.gateway.quota;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class QuotaLeaseManager {
+
+  private static final Logger log = LoggerFactory.getLogger(QuotaLeaseManager.class);
+  private static final Duration DENIED_BACKOFF = Duration.ofSeconds(1);
+
+  private final QuotaClient quotaClient;
+  private final QuotaClientProperties properties;
+  private final Clock clock;
+  private final ConcurrentMap<String, LeaseSlot> slots = new ConcurrentHashMap<>();
+  private final Queue<QuotaLeaseReturnRequest> pendingReturns = new ConcurrentLinkedQueue<>();
+
+  public QuotaLeaseManager(QuotaClient quotaClient, QuotaClientProperties properties, Clock clock) {
+    this.quotaClient = quotaClient;
+    this.properties = properties;
+    this.clock = clock;
+  }
+
+  public boolean isEnabled() {
+    return properties.isLeaseEnabled();
+  }
+
+  public Lease tryAcquire(String apiKey, String traceId) {
+    while (true) {
+      LeaseSlot slot = slots.computeIfAbsent(apiKey, key -> new LeaseSlot());
+      Instant now = Instant.now(clock);
+      Lease current = slot.current;
+      if (current != null && current.tryTake(now)) {
+        return current;
+      }
+      slot.lock.lock();
+      try {
+        if (slot.closed) {
+          continue;
+        }
+        current = slot.current;
+        if (current != null && current.tryTake(now)) {
+          return current;
+        }
+        if (current != null) {
+          slot.current = null;
+          retire(current);
+        }
+        if (slot.deniedUntil != null && now.isBefore(slot.deniedUntil)) {
+          return null;
+        }
+        Lease lease = requestLease(apiKey, traceId);
+        if (lease == null) {
+          slot.deniedUntil = now.plus(DENIED_BACKOFF);
+          return null;
+        }
+        slot.deniedUntil = null;
+        slot.current = lease;
+        return lease.tryTake(now) ? lease : null;
+      } finally {
+        slot.lock.unlock();
+      }
+    }
+  }
+
+  public void refund(Lease lease) {
+    if (!lease.giveBack()) {
+      pendingReturns.add(lease.toReturn(1, Map.of()));
+    }
+  }
+
+  /**
+   * Counts a unit that stayed spent against the route, so the quota service can roll it up when the lease comes
+   * back. A lease retired in the meantime reports it on its own.
+   */
+  public void settle(Lease lease, String route) {
+    if (!lease.settle(route)) {
+      pendingReturns.add(lease.toReturn(0, Map.of(route, 1L)));
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${quota.lease-sweep-interval-ms:1000}")
+  public void sweep() {
+    if (!isEnabled()) {
+      return;
+    }
+    Instant now = Instant.now(clock);
+    slots.forEach((apiKey, slot) -> {
+      slot.lock.lock();
+      try {
+        Lease current = slot.current;
+        if (current != null && current.isExpired(now)) {
+          slot.current = null;
+          retire(current);
+        }
+        boolean backingOff = slot.deniedUntil != null && now.isBefore(slot.deniedUntil);
+        if (slot.current == null && !backingOff) {
+          slot.closed = true;
+          slots.remove(apiKey, slot);
+        }
+      } finally {
+        slot.lock.unlock();
+      }
+    });
+    drainReturns();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    slots.forEach((apiKey, slot) -> {
+      slot.lock.lock();
+      try {
+        if (slot.current != null) {
+          retire(slot.current);
+          slot.current = null;
+        }
+        slot.closed = true;
+      } finally {
+        slot.lock.unlock();
+      }
+    });
+    slots.clear();
+    drainReturns();
+  }
+
+  private Lease requestLease(String apiKey, String traceId) {
+    QuotaLeaseResponse response;
+    try {
+      response = quotaClient.lease(apiKey, properties.getLeaseUnits(), traceId);
+    } catch (Exception ex) {
+      log.warn("Quota lease failed traceId={} error={}", traceId, ex.getMessage());
+      return null;
+    }
+    if (!response.granted() || response.units() <= 0 || response.expiresAt() == null
+        || response.leaseId() == null) {
+      return null;
+    }
+    return new Lease(apiKey, response.leaseId(), response.units(), response.expiresAt());
+  }
+
+  private void retire(Lease lease) {
+    QuotaLeaseReturnRequest leftover = lease.retire();
+    if (leftover != null) {
+      pendingReturns.add(leftover);
+    }
+  }
+
+  private void drainReturns() {
+    QuotaLeaseReturnRequest pending;
+    while ((pending = pendingReturns.poll()) != null) {
+      try {
+        quotaClient.returnLease(pending, null);
+      } catch (Exception ex) {
+        log.warn("Quota lease return failed units={} error={}", pending.units(), ex.getMessage());
+      }
+    }
+  }
+
+  private static final class LeaseSlot {
+    // Not a monitor: tryAcquire holds it across the lease call, which would pin a virtual thread's carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Lease current;
+    private Instant deniedUntil;
+    private boolean closed;
+  }
+
+  public static final class Lease {
+    private static final long RETIRED = -1;
+
+    private final String apiKey;
+    private final String leaseId;
+    private final Instant expiresAt;
+    private final AtomicLong available;
+    private final Map<String, Long> spent = new HashMap<>();
+
+    Lease(String apiKey, String leaseId, long units, Instant expiresAt) {
+      this.apiKey = apiKey;
+      this.leaseId = leaseId;
+      this.expiresAt = expiresAt;
+      this.available = new AtomicLong(units);
+    }
+
+    boolean isExpired(Instant now) {
+      return !now.isBefore(expiresAt);
+    }
+
+    boolean tryTake(Instant now) {
+      if (isExpired(now)) {
+        return false;
+      }
+      while (true) {
+        long current = available.get();
+        if (current <= 0) {
+          return false;
+        }
+        if (available.compareAndSet(current, current - 1)) {
+          return true;
+        }
+      }
+    }
+
+    boolean giveBack() {
+      while (true) {
+        long current = available.get();
+        if (current == RETIRED) {
+          return false;
+        }
+        if (available.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    synchronized boolean settle(String route) {
+      if (available.get() == RETIRED) {
+        return false;
+      }
+      spent.merge(route, 1L, Long::sum);
+      return true;
+    }
+
+    /**
+     * Returns the unused units and the spend per route, or null when there is nothing to report.
+     */
+    synchronized QuotaLeaseReturnRequest retire() {
+      long unused = available.getAndSet(RETIRED);
+      if (unused == RETIRED || (unused == 0 && spent.isEmpty())) {
+        return null;
+      }
+      QuotaLeaseReturnRequest leftover = toReturn(unused, Map.copyOf(spent));
+      spent.clear();
+      return leftover;
+    }
+
+    QuotaLeaseReturnRequest toReturn(long units, Map<String, Long> spent) {
+      return new QuotaLeaseReturnRequest(apiKey, leaseId, units, spent);
+    }
+  }
+}
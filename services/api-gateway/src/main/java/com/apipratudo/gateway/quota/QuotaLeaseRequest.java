@@ -0,0 +1,7 @@
+package com.apipratudo.gateway.quota;
+
+public record QuotaLeaseRequest(
+    String apiKey,
+    int units
+) {
+}
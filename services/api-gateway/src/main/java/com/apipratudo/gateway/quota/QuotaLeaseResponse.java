@@ -0,0 +1,15 @@
+package com.apipratudo.gateway.quota;
+
+import java.time.Instant;
+
+public record QuotaLeaseResponse(
+    String leaseId,
+    boolean granted,
+    String reason,
+    long units,
+    Instant minuteBucket,
+    String dayBucket,
+    boolean credits,
+    Instant expiresAt
+) {
+}
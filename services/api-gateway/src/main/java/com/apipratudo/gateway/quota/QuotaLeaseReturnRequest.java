@@ -0,0 +1,11 @@
+package com.apipratudo.gateway.quota;
+
+import java.util.Map;
+
+public record QuotaLeaseReturnRequest(
+    String apiKey,
+    String leaseId,
+    long units,
+    Map<String, Long> spent
+) {
+}
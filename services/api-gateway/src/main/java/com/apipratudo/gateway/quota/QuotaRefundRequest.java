@@ -2,6 +2,7 @@ package com.apipratudo.gateway.quota;
 
 public record QuotaRefundRequest(
     String apiKey,
-    String requestId
+    String requestId,
+    String refundToken
 ) {
 }
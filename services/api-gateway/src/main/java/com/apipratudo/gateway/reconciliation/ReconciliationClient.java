@@ -1,53 +1,77 @@
 package com.apipratudo.gateway.reconciliation;
 
 import com.apipratudo.gateway.reconciliation.dto.MatchRequest;
+import com.apipratudo.gateway.proxy.StreamingProxy;
 import com.apipratudo.gateway.reconciliation.dto.PaymentWebhookRequest;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 @Component
 public class ReconciliationClient {
 
+  private static final int UPLOAD_CHUNK_BYTES = 64 * 1024;
+
   private final WebClient webClient;
   private final Duration timeout;
   private final ReconciliationClientProperties properties;
 
-  public ReconciliationClient(WebClient.Builder builder, ReconciliationClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public ReconciliationClient(
+      WebClient.Builder builder,
+      ReconciliationClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("reconciliation", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.properties = properties;
   }
 
+  /**
+   * Forwards the raw multipart body as it is read from {@code body}, so the statement is never held in memory.
+   * The multipart boundary travels in {@code contentType}, already checked by the caller; the body is cut off with
+   * {@link UploadTooLargeException} once it exceeds the configured maximum.
+   */
   public ReconciliationClientResult importarExtrato(
       String tenantId,
-      byte[] fileBytes,
-      String filename,
-      String accountId,
+      InputStream body,
+      MediaType contentType,
+      long contentLength,
       String requestId,
       String idempotencyKey
   ) {
-    MultipartBodyBuilder mb = new MultipartBodyBuilder();
-    mb.part("file", new ByteArrayResource(fileBytes) {
-      @Override
-      public String getFilename() {
-        return filename;
-      }
-    }).contentType(MediaType.APPLICATION_OCTET_STREAM);
-    if (StringUtils.hasText(accountId)) {
-      mb.part("accountId", accountId);
+    long maxBytes = properties.getMaxUploadBytes();
+    if (contentLength > maxBytes) {
+      throw new UploadTooLargeException(maxBytes);
     }
+    Flux<DataBuffer> chunks = DataBufferUtils.readInputStream(
+            () -> new LimitedInputStream(body, maxBytes), DefaultDataBufferFactory.sharedInstance, UPLOAD_CHUNK_BYTES)
+        .subscribeOn(Schedulers.boundedElastic());
 
     WebClient.RequestBodySpec spec = webClient.post()
         .uri("/v1/importar-extrato")
-        .contentType(MediaType.MULTIPART_FORM_DATA)
+        .contentType(contentType)
         .accept(MediaType.APPLICATION_JSON);
+    if (contentLength >= 0) {
+      spec = spec.contentLength(contentLength);
+    }
 
-    return exchange(applyBodyHeaders(spec, tenantId, requestId, idempotencyKey).bodyValue(mb.build()));
+    Duration uploadTimeout = Duration.ofMillis(properties.getUploadTimeoutMs());
+    return exchange(applyBodyHeaders(spec, tenantId, requestId, idempotencyKey)
+        .body(BodyInserters.fromDataBuffers(chunks)), uploadTimeout);
   }
 
   public ReconciliationClientResult match(String tenantId, MatchRequest request, String requestId, String idempotencyKey) {
@@ -58,7 +82,14 @@ public class ReconciliationClient {
     return exchange(applyBodyHeaders(spec, tenantId, requestId, idempotencyKey).bodyValue(request));
   }
 
-  public ReconciliationClientResult conciliado(String tenantId, String importId, int page, int size, String requestId) {
+  public StreamingProxy.StreamResult conciliado(
+      String tenantId,
+      String importId,
+      int page,
+      int size,
+      String requestId,
+      HttpServletResponse response
+  ) throws IOException {
     WebClient.RequestHeadersSpec<?> spec = webClient.get()
         .uri(uriBuilder -> uriBuilder.path("/v1/conciliado")
             .queryParam("importId", importId)
@@ -66,7 +97,7 @@ public class ReconciliationClient {
             .queryParam("size", size)
             .build())
         .accept(MediaType.APPLICATION_JSON);
-    return exchange(applyHeaders(spec, tenantId, requestId, null));
+    return StreamingProxy.stream(applyHeaders(spec, tenantId, requestId, null), timeout, response);
   }
 
   public ReconciliationClientResult pendencias(
@@ -148,11 +179,15 @@ public class ReconciliationClient {
   }
 
   private ReconciliationClientResult exchange(WebClient.RequestHeadersSpec<?> spec) {
+    return exchange(spec, timeout);
+  }
+
+  private ReconciliationClientResult exchange(WebClient.RequestHeadersSpec<?> spec, Duration requestTimeout) {
     ReconciliationClientResult result = spec.exchangeToMono(response -> response.bodyToMono(String.class)
             .defaultIfEmpty("")
             .map(body -> new ReconciliationClientResult(response.statusCode().value(), body)))
-        .timeout(timeout)
-        .block(timeout);
+        .timeout(requestTimeout)
+        .block(requestTimeout);
 
     if (result == null) {
       throw new IllegalStateException("Reconciliation service returned empty response");
@@ -1,5 +1,7 @@
 package com.apipratudo.gateway.reconciliation;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -9,6 +11,11 @@ public class ReconciliationClientProperties {
 
   private String baseUrl = "http://localhost:8098";
   private long timeoutMs = 3000;
+  private long uploadTimeoutMs = 120000;
+  private long maxUploadBytes = 52428800;
+
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
   private String serviceToken;
 
   public String getBaseUrl() {
@@ -27,6 +34,22 @@ public class ReconciliationClientProperties {
     this.timeoutMs = timeoutMs;
   }
 
+  public long getUploadTimeoutMs() {
+    return uploadTimeoutMs;
+  }
+
+  public void setUploadTimeoutMs(long uploadTimeoutMs) {
+    this.uploadTimeoutMs = uploadTimeoutMs;
+  }
+
+  public long getMaxUploadBytes() {
+    return maxUploadBytes;
+  }
+
+  public void setMaxUploadBytes(long maxUploadBytes) {
+    this.maxUploadBytes = maxUploadBytes;
+  }
+
   public String getServiceToken() {
     return serviceToken;
   }
@@ -34,4 +57,12 @@ public class ReconciliationClientProperties {
   public void setServiceToken(String serviceToken) {
     this.serviceToken = serviceToken;
   }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
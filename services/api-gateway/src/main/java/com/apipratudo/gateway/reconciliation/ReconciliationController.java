@@ -1,19 +1,21 @@
 package com.apipratudo.gateway.reconciliation;
 
 import com.apipratudo.gateway.error.ErrorResponse;
-import com.apipratudo.gateway.idempotency.HashingUtils;
 import com.apipratudo.gateway.logging.TraceIdUtils;
 import com.apipratudo.gateway.reconciliation.dto.MatchRequest;
 import com.apipratudo.gateway.reconciliation.dto.PaymentWebhookRequest;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.util.Collections;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
@@ -23,9 +25,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/v1")
@@ -37,26 +37,38 @@ public class ReconciliationController {
   private static final String REQUEST_ID_HEADER = "X-Request-Id";
 
   private final ReconciliationClient client;
+  private final TenantIdResolver tenantIdResolver;
 
-  public ReconciliationController(ReconciliationClient client) {
+  public ReconciliationController(ReconciliationClient client, TenantIdResolver tenantIdResolver) {
     this.client = client;
+    this.tenantIdResolver = tenantIdResolver;
   }
 
-  @PostMapping(value = "/importar-extrato", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  @PostMapping("/importar-extrato")
   @SecurityRequirement(name = "ApiKeyAuth")
   public ResponseEntity<?> importarExtrato(
       @RequestHeader("X-Api-Key") String apiKey,
       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
-      @RequestPart("file") MultipartFile file,
-      @RequestPart(value = "accountId", required = false) String accountId,
       HttpServletRequest request
   ) {
     String traceId = traceId(request);
+    MediaType contentType = multipartContentType(request.getContentType());
+    if (contentType == null) {
+      return ResponseEntity.badRequest()
+          .body(new ErrorResponse("INVALID_CONTENT_TYPE", "Content-Type deve ser multipart/form-data com boundary",
+              Collections.emptyList(), traceId));
+    }
     try {
       ReconciliationClient.ReconciliationClientResult result = client.importarExtrato(
-          tenantId(apiKey), file.getBytes(), file.getOriginalFilename(), accountId, requestId(request), idempotencyKey);
+          tenantId(apiKey), request.getInputStream(), contentType, request.getContentLengthLong(),
+          requestId(request), idempotencyKey);
       return mapResult(result);
     } catch (Exception ex) {
+      UploadTooLargeException tooLarge = findCause(ex, UploadTooLargeException.class);
+      if (tooLarge != null) {
+        log.warn("Reconciliation upload rejected traceId={} maxBytes={}", traceId, tooLarge.getMaxBytes());
+        return payloadTooLarge(traceId, tooLarge.getMaxBytes());
+      }
       log.warn("Reconciliation request failed traceId={} reason={}", traceId, ex.getMessage());
       return serviceUnavailable(traceId);
     }
@@ -88,16 +100,16 @@ public class ReconciliationController {
       @RequestParam String importId,
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "20") int size,
-      HttpServletRequest request
+      HttpServletRequest request,
+      HttpServletResponse response
   ) {
     String traceId = traceId(request);
     try {
-      ReconciliationClient.ReconciliationClientResult result = client.conciliado(
-          tenantId(apiKey), importId, page, size, requestId(request));
-      return mapResult(result);
+      client.conciliado(tenantId(apiKey), importId, page, size, requestId(request), response);
+      return null;
     } catch (Exception ex) {
       log.warn("Reconciliation request failed traceId={} reason={}", traceId, ex.getMessage());
-      return serviceUnavailable(traceId);
+      return response.isCommitted() ? null : serviceUnavailable(traceId);
     }
   }
 
@@ -147,6 +159,34 @@ public class ReconciliationController {
         .body(result.body());
   }
 
+  private ResponseEntity<ErrorResponse> payloadTooLarge(String traceId, long maxBytes) {
+    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+        .body(new ErrorResponse("PAYLOAD_TOO_LARGE", "Arquivo excede o limite de " + maxBytes + " bytes",
+            Collections.emptyList(), traceId));
+  }
+
+  private static MediaType multipartContentType(String contentType) {
+    if (!StringUtils.hasText(contentType)) {
+      return null;
+    }
+    try {
+      MediaType mediaType = MediaType.parseMediaType(contentType);
+      boolean multipart = MediaType.MULTIPART_FORM_DATA.equalsTypeAndSubtype(mediaType);
+      return multipart && StringUtils.hasText(mediaType.getParameter("boundary")) ? mediaType : null;
+    } catch (InvalidMediaTypeException ex) {
+      return null;
+    }
+  }
+
+  private static <T extends Throwable> T findCause(Throwable ex, Class<T> type) {
+    for (Throwable current = ex; current != null; current = current.getCause()) {
+      if (type.isInstance(current)) {
+        return type.cast(current);
+      }
+    }
+    return null;
+  }
+
   private ResponseEntity<ErrorResponse> serviceUnavailable(String traceId) {
     return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
         .body(new ErrorResponse("RECONCILIATION_UNAVAILABLE", "Servico de conciliacao temporariamente indisponivel",
@@ -154,7 +194,7 @@ public class ReconciliationController {
   }
 
   private String tenantId(String apiKey) {
-    return HashingUtils.sha256Hex(apiKey);
+    return tenantIdResolver.tenantId(apiKey);
   }
 
   private String traceId(HttpServletRequest request) {
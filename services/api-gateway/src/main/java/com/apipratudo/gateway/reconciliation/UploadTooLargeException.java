@@ -0,0 +1,15 @@
+package com.apipratudo.gateway.reconciliation;
+
+public class UploadTooLargeException extends RuntimeException {
+
+  private final long maxBytes;
+
+  public UploadTooLargeException(long maxBytes) {
+    super("Upload exceeds " + maxBytes + " bytes");
+    this.maxBytes = maxBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+}
@@ -0,0 +1,229 @@
+package com.apipratudo.gateway.resilience;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+public class DownstreamGuard {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String name;
+  private final ResilienceProperties properties;
+  private final Clock clock;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong rejectedBulkhead = new AtomicLong();
+  private final AtomicLong rejectedOpen = new AtomicLong();
+  private final boolean[] failures;
+  private final boolean[] slows;
+  private int cursor;
+  private int recorded;
+  private State state = State.CLOSED;
+  private long openUntil;
+  private int halfOpenInFlight;
+  private int halfOpenSuccesses;
+
+  DownstreamGuard(String name, ResilienceProperties properties, Clock clock) {
+    this.name = name;
+    this.properties = properties;
+    this.clock = clock;
+    this.permits = new Semaphore(properties.getMaxConcurrent());
+    this.failures = new boolean[properties.getWindowSize()];
+    this.slows = new boolean[properties.getWindowSize()];
+  }
+
+  public ExchangeFilterFunction filter() {
+    return (request, next) -> Mono.defer(() -> {
+      if (!properties.isEnabled()) {
+        return next.exchange(request);
+      }
+      if (!tryPermit(clock.millis())) {
+        rejectedOpen.incrementAndGet();
+        return Mono.error(new DownstreamUnavailableException(name, "circuit open", retryAfterSeconds()));
+      }
+      if (!acquireBulkhead()) {
+        rejectedBulkhead.incrementAndGet();
+        releaseTrial();
+        return Mono.error(new DownstreamUnavailableException(name, "bulkhead full", 1));
+      }
+      long started = System.nanoTime();
+      AtomicBoolean responded = new AtomicBoolean();
+      AtomicBoolean settled = new AtomicBoolean();
+      // The call holds its permit, and its latency runs, until the body has been read, not just the headers.
+      return next.exchange(request)
+          .map(response -> {
+            responded.set(true);
+            boolean serverError = response.statusCode().is5xxServerError();
+            return response.mutate()
+                .body(body -> body.doFinally(signal ->
+                    settle(settled, serverError || signal == SignalType.ON_ERROR, started)))
+                .build();
+          })
+          .doFinally(signal -> {
+            if (!responded.get()) {
+              settle(settled, true, started);
+            }
+          });
+    });
+  }
+
+  private void settle(AtomicBoolean settled, boolean failure, long started) {
+    if (settled.compareAndSet(false, true)) {
+      permits.release();
+      record(failure, System.nanoTime() - started);
+    }
+  }
+
+  public synchronized Snapshot snapshot() {
+    int calls = Math.min(recorded, failures.length);
+    int failed = 0;
+    int slow = 0;
+    for (int i = 0; i < calls; i++) {
+      failed += failures[i] ? 1 : 0;
+      slow += slows[i] ? 1 : 0;
+    }
+    return new Snapshot(
+        currentState(clock.millis()),
+        calls,
+        calls == 0 ? 0 : failed * 100.0 / calls,
+        calls == 0 ? 0 : slow * 100.0 / calls,
+        properties.getMaxConcurrent() - permits.availablePermits(),
+        queued.get(),
+        rejectedOpen.get(),
+        rejectedBulkhead.get()
+    );
+  }
+
+  public synchronized State currentState(long now) {
+    if (state == State.OPEN && now >= openUntil) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  private boolean acquireBulkhead() {
+    if (permits.tryAcquire()) {
+      return true;
+    }
+    if (properties.getMaxQueue() == 0 || properties.getMaxWaitMs() == 0 || Schedulers.isInNonBlockingThread()) {
+      return false;
+    }
+    if (queued.incrementAndGet() > properties.getMaxQueue()) {
+      queued.decrementAndGet();
+      return false;
+    }
+    try {
+      return permits.tryAcquire(properties.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  private synchronized boolean tryPermit(long now) {
+    if (state == State.CLOSED) {
+      return true;
+    }
+    if (state == State.OPEN) {
+      if (now < openUntil) {
+        return false;
+      }
+      state = State.HALF_OPEN;
+      halfOpenInFlight = 0;
+      halfOpenSuccesses = 0;
+    }
+    if (halfOpenInFlight >= properties.getHalfOpenCalls()) {
+      return false;
+    }
+    halfOpenInFlight++;
+    return true;
+  }
+
+  private synchronized void releaseTrial() {
+    if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+      halfOpenInFlight--;
+    }
+  }
+
+  private synchronized void record(boolean failure, long elapsedNanos) {
+    long slowThresholdMs = properties.getSlowCallDurationMs();
+    boolean slow = slowThresholdMs > 0 && TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= slowThresholdMs;
+    long now = clock.millis();
+    if (state == State.HALF_OPEN) {
+      if (failure || slow) {
+        open(now);
+        return;
+      }
+      halfOpenSuccesses++;
+      if (halfOpenSuccesses >= properties.getHalfOpenCalls()) {
+        reset(State.CLOSED);
+      }
+      return;
+    }
+    if (state == State.OPEN) {
+      return;
+    }
+    failures[cursor] = failure;
+    slows[cursor] = slow;
+    cursor = (cursor + 1) % failures.length;
+    recorded++;
+    int calls = Math.min(recorded, failures.length);
+    if (calls < Math.min(properties.getMinimumCalls(), failures.length)) {
+      return;
+    }
+    int failed = 0;
+    int slowCalls = 0;
+    for (int i = 0; i < calls; i++) {
+      failed += failures[i] ? 1 : 0;
+      slowCalls += slows[i] ? 1 : 0;
+    }
+    if (failed * 100 >= properties.getFailureRateThreshold() * calls
+        || (slowThresholdMs > 0 && slowCalls * 100 >= properties.getSlowCallRateThreshold() * calls)) {
+      open(now);
+    }
+  }
+
+  private void open(long now) {
+    reset(State.OPEN);
+    openUntil = now + properties.getOpenStateMs();
+  }
+
+  private void reset(State next) {
+    state = next;
+    cursor = 0;
+    recorded = 0;
+    halfOpenInFlight = 0;
+    halfOpenSuccesses = 0;
+  }
+
+  private synchronized long retryAfterSeconds() {
+    long remaining = Math.max(0, openUntil - clock.millis());
+    return Math.max(1, (remaining + 999) / 1000);
+  }
+
+  public record Snapshot(
+      State state,
+      int calls,
+      double failureRate,
+      double slowCallRate,
+      int inFlight,
+      int queued,
+      long rejectedOpen,
+      long rejectedBulkhead
+  ) {
+  }
+}
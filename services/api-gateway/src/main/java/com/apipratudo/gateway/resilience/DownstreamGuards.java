@@ -0,0 +1,54 @@
+package com.apipratudo.gateway.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+@Component
+public class DownstreamGuards {
+
+  private final Clock clock;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, DownstreamGuard> guards = new ConcurrentHashMap<>();
+
+  public DownstreamGuards(Clock clock, MeterRegistry meterRegistry) {
+    this.clock = clock;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public ExchangeFilterFunction filter(String downstream, ResilienceProperties properties) {
+    return guards.computeIfAbsent(downstream, name -> register(name, properties)).filter();
+  }
+
+  public Map<String, DownstreamGuard.Snapshot> snapshots() {
+    Map<String, DownstreamGuard.Snapshot> snapshots = new TreeMap<>();
+    guards.forEach((name, guard) -> snapshots.put(name, guard.snapshot()));
+    return snapshots;
+  }
+
+  private DownstreamGuard register(String name, ResilienceProperties properties) {
+    DownstreamGuard guard = new DownstreamGuard(name, properties, clock);
+    Gauge.builder("gateway.downstream.state", guard, g -> g.currentState(clock.millis()).ordinal())
+        .tag("downstream", name)
+        .register(meterRegistry);
+    Gauge.builder("gateway.downstream.in_flight", guard, g -> g.snapshot().inFlight())
+        .tag("downstream", name)
+        .register(meterRegistry);
+    FunctionCounter.builder("gateway.downstream.rejections", guard, g -> g.snapshot().rejectedOpen())
+        .tag("downstream", name)
+        .tag("reason", "circuit_open")
+        .register(meterRegistry);
+    FunctionCounter.builder("gateway.downstream.rejections", guard, g -> g.snapshot().rejectedBulkhead())
+        .tag("downstream", name)
+        .tag("reason", "bulkhead_full")
+        .register(meterRegistry);
+    return guard;
+  }
+}
@@ -0,0 +1,21 @@
+package com.apipratudo.gateway.resilience;
+
+public class DownstreamUnavailableException extends RuntimeException {
+
+  private final String downstream;
+  private final long retryAfterSeconds;
+
+  public DownstreamUnavailableException(String downstream, String reason, long retryAfterSeconds) {
+    super("Downstream " + downstream + " unavailable (" + reason + ")");
+    this.downstream = downstream;
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public String getDownstream() {
+    return downstream;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,22 @@
+package com.apipratudo.gateway.resilience;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "downstreams")
+public class DownstreamsEndpoint {
+
+  private final DownstreamGuards guards;
+
+  public DownstreamsEndpoint(DownstreamGuards guards) {
+    this.guards = guards;
+  }
+
+  @ReadOperation
+  public Map<String, DownstreamGuard.Snapshot> downstreams() {
+    return guards.snapshots();
+  }
+}
@@ -0,0 +1,129 @@
+package com.apipratudo.gateway.resilience;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public class ResilienceProperties {
+
+  private boolean enabled = true;
+
+  @Min(1)
+  private int maxConcurrent = 64;
+
+  @Min(0)
+  private int maxQueue = 64;
+
+  @Min(0)
+  private long maxWaitMs = 1000;
+
+  @Min(1)
+  private int windowSize = 50;
+
+  @Min(1)
+  private int minimumCalls = 20;
+
+  @Min(1)
+  @Max(100)
+  private int failureRateThreshold = 50;
+
+  @Min(0)
+  private long slowCallDurationMs = 0;
+
+  @Min(1)
+  @Max(100)
+  private int slowCallRateThreshold = 80;
+
+  @Min(100)
+  private long openStateMs = 30000;
+
+  @Min(1)
+  private int halfOpenCalls = 3;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public int getMaxQueue() {
+    return maxQueue;
+  }
+
+  public void setMaxQueue(int maxQueue) {
+    this.maxQueue = maxQueue;
+  }
+
+  public long getMaxWaitMs() {
+    return maxWaitMs;
+  }
+
+  public void setMaxWaitMs(long maxWaitMs) {
+    this.maxWaitMs = maxWaitMs;
+  }
+
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  public void setWindowSize(int windowSize) {
+    this.windowSize = windowSize;
+  }
+
+  public int getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  public void setMinimumCalls(int minimumCalls) {
+    this.minimumCalls = minimumCalls;
+  }
+
+  public int getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  public void setFailureRateThreshold(int failureRateThreshold) {
+    this.failureRateThreshold = failureRateThreshold;
+  }
+
+  public long getSlowCallDurationMs() {
+    return slowCallDurationMs;
+  }
+
+  public void setSlowCallDurationMs(long slowCallDurationMs) {
+    this.slowCallDurationMs = slowCallDurationMs;
+  }
+
+  public int getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+    this.slowCallRateThreshold = slowCallRateThreshold;
+  }
+
+  public long getOpenStateMs() {
+    return openStateMs;
+  }
+
+  public void setOpenStateMs(long openStateMs) {
+    this.openStateMs = openStateMs;
+  }
+
+  public int getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  public void setHalfOpenCalls(int halfOpenCalls) {
+    this.halfOpenCalls = halfOpenCalls;
+  }
+}
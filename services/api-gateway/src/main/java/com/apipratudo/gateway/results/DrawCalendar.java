@@ -0,0 +1,74 @@
+package com.apipratudo.gateway.results;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DrawCalendar {
+
+  private static final Duration MIN_TTL = Duration.ofSeconds(1);
+
+  private final ResultsCacheProperties properties;
+  private final ZoneId zone;
+
+  public DrawCalendar(ResultsCacheProperties properties) {
+    this.properties = properties;
+    this.zone = ZoneId.of(properties.getZone());
+  }
+
+  public Duration freshFor(String game, Instant now) {
+    Duration drawTtl = Duration.ofMillis(properties.getDrawTtlMs());
+    Duration idleTtl = Duration.ofMillis(properties.getIdleTtlMs());
+    Set<DayOfWeek> days = properties.getDrawDays().get(game);
+    if (days == null || days.isEmpty()) {
+      return idleTtl;
+    }
+    ZonedDateTime local = now.atZone(zone);
+    if (inDrawWindow(days, local)) {
+      return drawTtl;
+    }
+    Duration untilNextDraw = Duration.between(local, nextWindowStart(days, local));
+    Duration ttl = untilNextDraw.compareTo(idleTtl) < 0 ? untilNextDraw : idleTtl;
+    return ttl.compareTo(MIN_TTL) < 0 ? MIN_TTL : ttl;
+  }
+
+  private boolean inDrawWindow(Set<DayOfWeek> days, ZonedDateTime local) {
+    Duration window = Duration.ofHours(properties.getDrawWindowHours());
+    LocalDate today = local.toLocalDate();
+    for (long back = 0; back <= window.toDays() + 1; back++) {
+      LocalDate day = today.minusDays(back);
+      if (!days.contains(day.getDayOfWeek())) {
+        continue;
+      }
+      ZonedDateTime start = windowStart(day);
+      if (!local.isBefore(start) && local.isBefore(start.plus(window))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ZonedDateTime nextWindowStart(Set<DayOfWeek> days, ZonedDateTime local) {
+    LocalDate today = local.toLocalDate();
+    for (int ahead = 0; ahead <= 7; ahead++) {
+      LocalDate day = today.plusDays(ahead);
+      if (days.contains(day.getDayOfWeek())) {
+        ZonedDateTime start = windowStart(day);
+        if (start.isAfter(local)) {
+          return start;
+        }
+      }
+    }
+    return local.plus(Duration.ofMillis(properties.getIdleTtlMs()));
+  }
+
+  private ZonedDateTime windowStart(LocalDate day) {
+    return day.atTime(properties.getDrawWindowStart()).atZone(zone);
+  }
+}
@@ -0,0 +1,157 @@
+package com.apipratudo.gateway.results;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Component
+public class ResultsCache {
+
+  public static final String CACHE_HEADER = "X-Cache";
+
+  private static final Logger log = LoggerFactory.getLogger(ResultsCache.class);
+
+  private final ResultsCacheProperties properties;
+  private final DrawCalendar drawCalendar;
+  private final Clock clock;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CompletableFuture<Upstream>> inFlight = new ConcurrentHashMap<>();
+  private final ExecutorService revalidator = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ResultsCache(
+      ResultsCacheProperties properties,
+      DrawCalendar drawCalendar,
+      Clock clock,
+      MeterRegistry meterRegistry
+  ) {
+    this.properties = properties;
+    this.drawCalendar = drawCalendar;
+    this.clock = clock;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public Result get(String game, Supplier<Upstream> loader) {
+    if (!properties.isEnabled()) {
+      return record(game, loader.get(), CacheStatus.BYPASS);
+    }
+    Instant now = clock.instant();
+    Entry entry = entries.get(game);
+    if (entry != null && now.isBefore(entry.freshUntil())) {
+      return record(game, entry.upstream(), CacheStatus.HIT);
+    }
+    if (entry != null && now.isBefore(entry.staleUntil())) {
+      revalidate(game, loader);
+      return record(game, entry.upstream(), CacheStatus.STALE);
+    }
+    return record(game, await(load(game, loader)), CacheStatus.MISS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    revalidator.shutdownNow();
+  }
+
+  private void revalidate(String game, Supplier<Upstream> loader) {
+    if (inFlight.containsKey(game)) {
+      return;
+    }
+    revalidator.execute(() -> {
+      try {
+        await(load(game, loader));
+      } catch (RuntimeException ex) {
+        log.warn("Results revalidation failed game={} error={}", game, ex.getMessage());
+      }
+    });
+  }
+
+  private CompletableFuture<Upstream> load(String game, Supplier<Upstream> loader) {
+    CompletableFuture<Upstream> created = new CompletableFuture<>();
+    CompletableFuture<Upstream> existing = inFlight.putIfAbsent(game, created);
+    if (existing != null) {
+      return existing;
+    }
+    try {
+      Entry entry = entries.get(game);
+      if (entry != null && clock.instant().isBefore(entry.freshUntil())) {
+        created.complete(entry.upstream());
+        return created;
+      }
+      Upstream upstream = loader.get();
+      store(game, upstream);
+      created.complete(upstream);
+    } catch (RuntimeException ex) {
+      created.completeExceptionally(ex);
+    } finally {
+      inFlight.remove(game, created);
+    }
+    return created;
+  }
+
+  private void store(String game, Upstream upstream) {
+    if (upstream.statusCode() < 200 || upstream.statusCode() >= 300) {
+      return;
+    }
+    Instant now = clock.instant();
+    Instant freshUntil = now.plus(drawCalendar.freshFor(game, now));
+    Instant staleUntil = freshUntil.plus(Duration.ofMillis(properties.getStaleMs()));
+    entries.put(game, new Entry(upstream, freshUntil, staleUntil));
+  }
+
+  private Upstream await(CompletableFuture<Upstream> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Results load failed", ex.getCause());
+    }
+  }
+
+  private Result record(String game, Upstream upstream, CacheStatus status) {
+    meterRegistry.counter("gateway.results_cache.requests", "game", game,
+        "result", status.name().toLowerCase(Locale.ROOT)).increment();
+    return new Result(upstream.statusCode(), upstream.body(), upstream.etag(), upstream.lastModified(), status);
+  }
+
+  public enum CacheStatus {
+    HIT,
+    STALE,
+    MISS,
+    BYPASS
+  }
+
+  public record Upstream(int statusCode, String body, String etag, String lastModified) {
+  }
+
+  public record Result(int statusCode, String body, String etag, String lastModified, CacheStatus cacheStatus) {
+
+    public void copyValidatorsTo(HttpHeaders headers) {
+      if (StringUtils.hasText(etag)) {
+        headers.set(HttpHeaders.ETAG, etag);
+      }
+      if (StringUtils.hasText(lastModified)) {
+        headers.set(HttpHeaders.LAST_MODIFIED, lastModified);
+      }
+    }
+  }
+
+  private record Entry(Upstream upstream, Instant freshUntil, Instant staleUntil) {
+  }
+}
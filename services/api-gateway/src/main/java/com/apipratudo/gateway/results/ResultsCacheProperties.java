@@ -0,0 +1,126 @@
+package com.apipratudo.gateway.results;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.results-cache")
+@Validated
+public class ResultsCacheProperties {
+
+  private boolean enabled = true;
+
+  @NotBlank
+  private String zone = "America/Sao_Paulo";
+
+  @NotNull
+  private LocalTime drawWindowStart = LocalTime.of(19, 0);
+
+  @Min(1)
+  private long drawWindowHours = 8;
+
+  @Min(1000)
+  private long drawTtlMs = 120000;
+
+  @Min(1000)
+  private long idleTtlMs = 21600000;
+
+  @Min(0)
+  private long staleMs = 86400000;
+
+  private Map<String, Set<DayOfWeek>> drawDays = defaultDrawDays();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getZone() {
+    return zone;
+  }
+
+  public void setZone(String zone) {
+    this.zone = zone;
+  }
+
+  public LocalTime getDrawWindowStart() {
+    return drawWindowStart;
+  }
+
+  public void setDrawWindowStart(LocalTime drawWindowStart) {
+    this.drawWindowStart = drawWindowStart;
+  }
+
+  public long getDrawWindowHours() {
+    return drawWindowHours;
+  }
+
+  public void setDrawWindowHours(long drawWindowHours) {
+    this.drawWindowHours = drawWindowHours;
+  }
+
+  public long getDrawTtlMs() {
+    return drawTtlMs;
+  }
+
+  public void setDrawTtlMs(long drawTtlMs) {
+    this.drawTtlMs = drawTtlMs;
+  }
+
+  public long getIdleTtlMs() {
+    return idleTtlMs;
+  }
+
+  public void setIdleTtlMs(long idleTtlMs) {
+    this.idleTtlMs = idleTtlMs;
+  }
+
+  public long getStaleMs() {
+    return staleMs;
+  }
+
+  public void setStaleMs(long staleMs) {
+    this.staleMs = staleMs;
+  }
+
+  public Map<String, Set<DayOfWeek>> getDrawDays() {
+    return drawDays;
+  }
+
+  public void setDrawDays(Map<String, Set<DayOfWeek>> drawDays) {
+    this.drawDays = drawDays;
+  }
+
+  private static Map<String, Set<DayOfWeek>> defaultDrawDays() {
+    Set<DayOfWeek> mondayToSaturday = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.SATURDAY);
+    Set<DayOfWeek> tueThuSat = EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY, DayOfWeek.SATURDAY);
+    Set<DayOfWeek> monWedFri = EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+    Set<DayOfWeek> wedSat = EnumSet.of(DayOfWeek.WEDNESDAY, DayOfWeek.SATURDAY);
+    Map<String, Set<DayOfWeek>> days = new HashMap<>();
+    days.put("megasena", EnumSet.copyOf(tueThuSat));
+    days.put("lotofacil", EnumSet.copyOf(mondayToSaturday));
+    days.put("quina", EnumSet.copyOf(mondayToSaturday));
+    days.put("lotomania", EnumSet.copyOf(monWedFri));
+    days.put("timemania", EnumSet.copyOf(tueThuSat));
+    days.put("duplasena", EnumSet.copyOf(monWedFri));
+    days.put("diadesorte", EnumSet.copyOf(tueThuSat));
+    days.put("supersete", EnumSet.copyOf(monWedFri));
+    days.put("maismilionaria", EnumSet.copyOf(wedSat));
+    days.put("federal", EnumSet.copyOf(wedSat));
+    days.put("loteca", EnumSet.of(DayOfWeek.SUNDAY, DayOfWeek.MONDAY));
+    return days;
+  }
+}
@@ -1,16 +1,21 @@
 package com.apipratudo.gateway.scheduling;
 
-import com.apipratudo.gateway.scheduling.dto.CancelRequest;
-import com.apipratudo.gateway.scheduling.dto.ConfirmRequest;
-import com.apipratudo.gateway.scheduling.dto.NotifyRequest;
+import com.apipratudo.gateway.proxy.StreamingProxy;
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import com.apipratudo.gateway.scheduling.dto.AgendaCreateRequest;
 import com.apipratudo.gateway.scheduling.dto.AgendaCreditsUpgradeRequest;
 import com.apipratudo.gateway.scheduling.dto.AgendaUpdateRequest;
 import com.apipratudo.gateway.scheduling.dto.AttendedRequest;
+import com.apipratudo.gateway.scheduling.dto.CancelRequest;
+import com.apipratudo.gateway.scheduling.dto.ConfirmRequest;
 import com.apipratudo.gateway.scheduling.dto.FineWaiveRequest;
+import com.apipratudo.gateway.scheduling.dto.NotifyRequest;
 import com.apipratudo.gateway.scheduling.dto.ReservationRequest;
 import com.apipratudo.gateway.scheduling.dto.ServiceCreateRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.function.IntPredicate;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -23,8 +28,14 @@ public class SchedulingClient {
   private final Duration timeout;
   private final SchedulingClientProperties properties;
 
-  public SchedulingClient(WebClient.Builder builder, SchedulingClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public SchedulingClient(
+      WebClient.Builder builder,
+      SchedulingClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("scheduling", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.properties = properties;
   }
@@ -94,13 +105,15 @@ public class SchedulingClient {
     return exchange(applyBodyHeaders(spec, tenantId, requestId, idempotencyKey).bodyValue(request));
   }
 
-  public SchedulingClientResult agenda(
+  public StreamingProxy.StreamResult agenda(
       String tenantId,
       String from,
       String to,
       String agendaId,
-      String requestId
-  ) {
+      String requestId,
+      HttpServletResponse response,
+      IntPredicate streamStatus
+  ) throws IOException {
     WebClient.RequestHeadersSpec<?> spec = webClient.get()
         .uri(uriBuilder -> uriBuilder.path("/v1/agenda")
             .queryParam("from", from)
@@ -108,7 +121,7 @@ public class SchedulingClient {
             .queryParam("agendaId", agendaId)
             .build())
         .accept(MediaType.APPLICATION_JSON);
-    return exchange(applyHeaders(spec, tenantId, requestId, null));
+    return StreamingProxy.stream(applyHeaders(spec, tenantId, requestId, null), timeout, response, streamStatus);
   }
 
   public SchedulingClientResult slotsDisponiveis(
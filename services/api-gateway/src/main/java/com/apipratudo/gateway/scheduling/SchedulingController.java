@@ -1,8 +1,8 @@
 package com.apipratudo.gateway.scheduling;
 
 import com.apipratudo.gateway.error.ErrorResponse;
-import com.apipratudo.gateway.idempotency.HashingUtils;
 import com.apipratudo.gateway.logging.TraceIdUtils;
+import com.apipratudo.gateway.proxy.StreamingProxy;
 import com.apipratudo.gateway.scheduling.dto.AgendaCreateRequest;
 import com.apipratudo.gateway.scheduling.dto.AgendaCreditsUpgradeRequest;
 import com.apipratudo.gateway.scheduling.dto.AgendaUpdateRequest;
@@ -13,9 +13,11 @@ import com.apipratudo.gateway.scheduling.dto.FineWaiveRequest;
 import com.apipratudo.gateway.scheduling.dto.NotifyRequest;
 import com.apipratudo.gateway.scheduling.dto.ReservationRequest;
 import com.apipratudo.gateway.scheduling.dto.ServiceCreateRequest;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.util.Collections;
 import java.util.UUID;
@@ -46,9 +48,11 @@ public class SchedulingController {
   private static final String REQUEST_ID_HEADER = "X-Request-Id";
 
   private final SchedulingClient schedulingClient;
+  private final TenantIdResolver tenantIdResolver;
 
-  public SchedulingController(SchedulingClient schedulingClient) {
+  public SchedulingController(SchedulingClient schedulingClient, TenantIdResolver tenantIdResolver) {
     this.schedulingClient = schedulingClient;
+    this.tenantIdResolver = tenantIdResolver;
   }
 
   @GetMapping("/servicos")
@@ -174,17 +178,22 @@ public class SchedulingController {
       @RequestParam String from,
       @RequestParam String to,
       @RequestParam(defaultValue = "main") String agendaId,
-      HttpServletRequest request
+      HttpServletRequest request,
+      HttpServletResponse response
   ) {
     String traceId = traceId(request);
     String requestId = requestId(request);
     try {
-      SchedulingClient.SchedulingClientResult result = schedulingClient.agenda(
-          tenantId(apiKey), from, to, agendaId, requestId);
-      return mapResult(result, traceId);
+      StreamingProxy.StreamResult result = schedulingClient.agenda(
+          tenantId(apiKey), from, to, agendaId, requestId, response, status -> !isUnavailableStatus(status));
+      if (result.streamed()) {
+        return null;
+      }
+      log.warn("Scheduling response failed status={} traceId={}", result.statusCode(), traceId);
+      return serviceUnavailable(traceId);
     } catch (Exception ex) {
       log.warn("Scheduling request failed traceId={} reason={}", traceId, ex.getMessage());
-      return serviceUnavailable(traceId);
+      return response.isCommitted() ? null : serviceUnavailable(traceId);
     }
   }
 
@@ -395,7 +404,7 @@ public class SchedulingController {
   }
 
   private String tenantId(String apiKey) {
-    return HashingUtils.sha256Hex(apiKey);
+    return tenantIdResolver.tenantId(apiKey);
   }
 
   private String traceId(HttpServletRequest request) {
@@ -421,7 +430,7 @@ public class SchedulingController {
           .contentType(MediaType.APPLICATION_JSON)
           .body(result.body());
     }
-    if (result.statusCode() == 401 || result.statusCode() == 403 || result.statusCode() >= 500) {
+    if (isUnavailableStatus(result.statusCode())) {
       log.warn("Scheduling response failed status={} traceId={}", result.statusCode(), traceId);
       return serviceUnavailable(traceId);
     }
@@ -430,6 +439,10 @@ public class SchedulingController {
         .body(result.body());
   }
 
+  private static boolean isUnavailableStatus(int statusCode) {
+    return statusCode == 401 || statusCode == 403 || statusCode >= 500;
+  }
+
   private ResponseEntity<ErrorResponse> serviceUnavailable(String traceId) {
     ErrorResponse body = new ErrorResponse(
         "SCHEDULING_UNAVAILABLE",
@@ -0,0 +1,23 @@
+package com.apipratudo.gateway.tenant;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "app.tenant-id")
+@Validated
+public class TenantIdProperties {
+
+  @PositiveOrZero
+  private int cacheMaxEntries = 10000;
+
+  public int getCacheMaxEntries() {
+    return cacheMaxEntries;
+  }
+
+  public void setCacheMaxEntries(int cacheMaxEntries) {
+    this.cacheMaxEntries = cacheMaxEntries;
+  }
+}
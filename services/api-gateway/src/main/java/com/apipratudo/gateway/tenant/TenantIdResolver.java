@@ -0,0 +1,43 @@
+package com.apipratudo.gateway.tenant;
+
+import com.apipratudo.gateway.idempotency.HashingUtils;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tenant id is the SHA-256 of the API key. Recent keys are memoized so hot tenants skip the hash; the oldest
+ * entries are dropped first once {@code app.tenant-id.cache-max-entries} is reached.
+ */
+@Component
+public class TenantIdResolver {
+
+  private final ConcurrentMap<String, String> tenantIds = new ConcurrentHashMap<>();
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final int maxEntries;
+
+  public TenantIdResolver(TenantIdProperties properties) {
+    this.maxEntries = properties.getCacheMaxEntries();
+  }
+
+  public String tenantId(String apiKey) {
+    String cached = tenantIds.get(apiKey);
+    if (cached != null) {
+      return cached;
+    }
+    String tenantId = HashingUtils.sha256Hex(apiKey);
+    if (maxEntries > 0 && tenantIds.putIfAbsent(apiKey, tenantId) == null) {
+      insertionOrder.add(apiKey);
+      while (tenantIds.size() > maxEntries) {
+        String oldest = insertionOrder.poll();
+        if (oldest == null) {
+          break;
+        }
+        tenantIds.remove(oldest);
+      }
+    }
+    return tenantId;
+  }
+}
@@ -1,5 +1,6 @@
 package com.apipratudo.gateway.webhook.client;
 
+import com.apipratudo.gateway.resilience.DownstreamGuards;
 import com.apipratudo.gateway.webhook.dto.WebhookCreateResponse;
 import java.time.Duration;
 import java.util.List;
@@ -15,8 +16,14 @@ public class WebhookClient {
   private final Duration timeout;
   private final String serviceToken;
 
-  public WebhookClient(WebClient.Builder builder, WebhookClientProperties properties) {
-    this.webClient = builder.baseUrl(properties.getBaseUrl()).build();
+  public WebhookClient(
+      WebClient.Builder builder,
+      WebhookClientProperties properties,
+      DownstreamGuards guards
+  ) {
+    this.webClient = builder.baseUrl(properties.getBaseUrl())
+        .filter(guards.filter("webhook", properties.getResilience()))
+        .build();
     this.timeout = Duration.ofMillis(properties.getTimeoutMs());
     this.serviceToken = properties.getServiceToken();
   }
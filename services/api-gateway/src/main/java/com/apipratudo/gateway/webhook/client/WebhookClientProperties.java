@@ -1,5 +1,7 @@
 package com.apipratudo.gateway.webhook.client;
 
+import com.apipratudo.gateway.resilience.ResilienceProperties;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -17,6 +19,9 @@ public class WebhookClientProperties {
   @Min(100)
   private long timeoutMs = 3000;
 
+  @Valid
+  private ResilienceProperties resilience = new ResilienceProperties();
+
   private String serviceToken;
 
   public String getBaseUrl() {
@@ -42,4 +47,12 @@ public class WebhookClientProperties {
   public void setServiceToken(String serviceToken) {
     this.serviceToken = serviceToken;
   }
+
+  public ResilienceProperties getResilience() {
+    return resilience;
+  }
+
+  public void setResilience(ResilienceProperties resilience) {
+    this.resilience = resilience;
+  }
 }
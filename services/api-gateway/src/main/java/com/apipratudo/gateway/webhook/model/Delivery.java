@@ -12,9 +12,34 @@ public record Delivery(
     int attempt,
     int responseCode,
     Instant createdAt,
-    List<DeliveryAttempt> attempts
+    List<DeliveryAttempt> attempts,
+    Instant nextAttemptAt
 ) {
   public Delivery {
     attempts = attempts == null ? List.of() : List.copyOf(attempts);
   }
+
+  public Delivery(
+      String id,
+      String webhookId,
+      String eventType,
+      String targetUrl,
+      DeliveryStatus status,
+      int attempt,
+      int responseCode,
+      Instant createdAt,
+      List<DeliveryAttempt> attempts
+  ) {
+    this(id, webhookId, eventType, targetUrl, status, attempt, responseCode, createdAt, attempts, null);
+  }
+
+  /**
+   * True while the delivery is pending and {@code nextAttempt} hasn't been recorded yet.
+   */
+  public boolean awaits(int nextAttempt) {
+    if (status != DeliveryStatus.PENDING) {
+      return false;
+    }
+    return attempts.isEmpty() || attempts.get(attempts.size() - 1).attempt() < nextAttempt;
+  }
 }
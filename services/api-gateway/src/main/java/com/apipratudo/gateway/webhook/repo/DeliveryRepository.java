@@ -1,6 +1,7 @@
 package com.apipratudo.gateway.webhook.repo;
 
 import com.apipratudo.gateway.webhook.model.Delivery;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +14,17 @@ public interface DeliveryRepository {
   List<Delivery> findByWebhookId(String webhookId);
 
   List<Delivery> findAll();
+
+  /**
+   * Pending deliveries whose next attempt is at or before {@code until}, ordered by (nextAttemptAt, id) and
+   * starting strictly after the (afterAt, afterId) cursor when one is given.
+   */
+  List<Delivery> findPendingRetries(Instant until, Instant afterAt, String afterId, int limit);
+
+  /**
+   * Claims {@code attempt} of the delivery until {@code claimUntil}, so only one gateway instance sends it.
+   * Succeeds only if the delivery still awaits that attempt and holds no claim alive at {@code now}. Saving the
+   * delivery releases the claim.
+   */
+  Optional<Delivery> claimAttempt(String id, int attempt, Instant now, Instant claimUntil);
 }
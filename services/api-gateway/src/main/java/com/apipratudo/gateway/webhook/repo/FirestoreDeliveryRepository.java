@@ -4,11 +4,18 @@ import com.apipratudo.gateway.config.DeliveryProperties;
 import com.apipratudo.gateway.webhook.model.Delivery;
 import com.apipratudo.gateway.webhook.model.DeliveryAttempt;
 import com.apipratudo.gateway.webhook.model.DeliveryStatus;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Precondition;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QuerySnapshot;
+import io.grpc.Status;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -83,6 +90,48 @@ public class FirestoreDeliveryRepository implements DeliveryRepository {
     return executeQuery(query, "Failed to list deliveries");
   }
 
+  @Override
+  public List<Delivery> findPendingRetries(Instant until, Instant afterAt, String afterId, int limit) {
+    Query query = firestore.collection(properties.getCollection())
+        .whereEqualTo("status", DeliveryStatus.PENDING.name())
+        .whereLessThanOrEqualTo("nextAttemptAt", toTimestamp(until))
+        .orderBy("nextAttemptAt")
+        .orderBy(FieldPath.documentId())
+        .limit(limit);
+    if (afterAt != null) {
+      query = query.startAfter(toTimestamp(afterAt), afterId);
+    }
+    return executeQuery(query, "Failed to list pending delivery retries");
+  }
+
+  @Override
+  public Optional<Delivery> claimAttempt(String id, int attempt, Instant now, Instant claimUntil) {
+    DocumentReference docRef = firestore.collection(properties.getCollection()).document(id);
+    try {
+      DocumentSnapshot snapshot = docRef.get().get();
+      if (!snapshot.exists()) {
+        return Optional.empty();
+      }
+      Delivery delivery = fromSnapshot(snapshot);
+      Timestamp claimedUntil = snapshot.getTimestamp("claimedUntil");
+      if (delivery == null || !delivery.awaits(attempt)
+          || (claimedUntil != null && toInstant(claimedUntil).isAfter(now))) {
+        return Optional.empty();
+      }
+      docRef.update(Map.of("claimedUntil", toTimestamp(claimUntil)), Precondition.updatedAt(snapshot.getUpdateTime()))
+          .get();
+      return Optional.of(delivery);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Delivery claim interrupted", e);
+    } catch (ExecutionException e) {
+      if (isFailedPrecondition(e)) {
+        return Optional.empty();
+      }
+      throw new IllegalStateException("Failed to claim delivery", e);
+    }
+  }
+
   private List<Delivery> executeQuery(Query query, String errorMessage) {
     try {
       QuerySnapshot snapshot = query.get().get();
@@ -113,6 +162,7 @@ public class FirestoreDeliveryRepository implements DeliveryRepository {
     data.put("responseCode", delivery.responseCode());
     data.put("createdAt", toTimestamp(delivery.createdAt()));
     data.put("attempts", toAttemptList(delivery.attempts()));
+    data.put("nextAttemptAt", toTimestamp(delivery.nextAttemptAt()));
     return data;
   }
 
@@ -130,6 +180,7 @@ public class FirestoreDeliveryRepository implements DeliveryRepository {
     Long responseCode = snapshot.getLong("responseCode");
     Instant createdAt = toInstant(snapshot.getTimestamp("createdAt"));
     List<DeliveryAttempt> attempts = toAttempts(snapshot.get("attempts"));
+    Timestamp nextAttemptAt = snapshot.getTimestamp("nextAttemptAt");
 
     if (webhookId == null || eventType == null || targetUrl == null) {
       return null;
@@ -144,10 +195,26 @@ public class FirestoreDeliveryRepository implements DeliveryRepository {
         attempt == null ? 1 : attempt.intValue(),
         responseCode == null ? 0 : responseCode.intValue(),
         createdAt,
-        attempts
+        attempts,
+        nextAttemptAt == null ? null : toInstant(nextAttemptAt)
     );
   }
 
+  private static boolean isFailedPrecondition(Throwable error) {
+    for (Throwable current = error; current != null; current = current.getCause()) {
+      if (current instanceof ApiException apiException
+          && apiException.getStatusCode().getCode() == StatusCode.Code.FAILED_PRECONDITION) {
+        return true;
+      }
+      if (current instanceof FirestoreException firestoreException
+          && firestoreException.getStatus() != null
+          && firestoreException.getStatus().getCode() == Status.Code.FAILED_PRECONDITION) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private Timestamp toTimestamp(Instant instant) {
     if (instant == null) {
       return null;
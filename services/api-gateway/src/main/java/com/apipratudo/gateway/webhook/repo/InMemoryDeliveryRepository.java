@@ -1,8 +1,13 @@
 package com.apipratudo.gateway.webhook.repo;
 
 import com.apipratudo.gateway.webhook.model.Delivery;
+import com.apipratudo.gateway.webhook.model.DeliveryStatus;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -14,10 +19,12 @@ import org.springframework.stereotype.Repository;
 public class InMemoryDeliveryRepository implements DeliveryRepository {
 
   private final ConcurrentMap<String, Delivery> store = new ConcurrentHashMap<>();
+  private final Map<String, Instant> claims = new HashMap<>();
 
   @Override
-  public Delivery save(Delivery delivery) {
+  public synchronized Delivery save(Delivery delivery) {
     store.put(delivery.id(), delivery);
+    claims.remove(delivery.id());
     return delivery;
   }
 
@@ -41,4 +48,28 @@ public class InMemoryDeliveryRepository implements DeliveryRepository {
   public List<Delivery> findAll() {
     return new ArrayList<>(store.values());
   }
+
+  @Override
+  public List<Delivery> findPendingRetries(Instant until, Instant afterAt, String afterId, int limit) {
+    Comparator<Delivery> order = Comparator.comparing(Delivery::nextAttemptAt).thenComparing(Delivery::id);
+    return store.values().stream()
+        .filter(delivery -> delivery.status() == DeliveryStatus.PENDING && delivery.nextAttemptAt() != null)
+        .filter(delivery -> !delivery.nextAttemptAt().isAfter(until))
+        .filter(delivery -> afterAt == null || delivery.nextAttemptAt().isAfter(afterAt)
+            || (delivery.nextAttemptAt().equals(afterAt) && delivery.id().compareTo(afterId) > 0))
+        .sorted(order)
+        .limit(limit)
+        .toList();
+  }
+
+  @Override
+  public synchronized Optional<Delivery> claimAttempt(String id, int attempt, Instant now, Instant claimUntil) {
+    Delivery delivery = store.get(id);
+    Instant claimedUntil = claims.get(id);
+    if (delivery == null || !delivery.awaits(attempt) || (claimedUntil != null && claimedUntil.isAfter(now))) {
+      return Optional.empty();
+    }
+    claims.put(id, claimUntil);
+    return Optional.of(delivery);
+  }
 }
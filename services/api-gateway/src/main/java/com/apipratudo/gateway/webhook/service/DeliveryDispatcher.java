@@ -5,6 +5,10 @@ import com.apipratudo.gateway.webhook.model.Delivery;
 import com.apipratudo.gateway.webhook.model.DeliveryAttempt;
 import com.apipratudo.gateway.webhook.model.DeliveryStatus;
 import com.apipratudo.gateway.webhook.repo.DeliveryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -13,14 +17,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class DeliveryDispatcher {
@@ -31,61 +38,131 @@ public class DeliveryDispatcher {
   private final DeliveryRetryPolicy retryPolicy;
   private final DeliveryProperties properties;
   private final WebClient webClient;
-  private final TaskScheduler taskScheduler;
   private final Clock clock;
+  private final DeliveryHostLimiter limiter;
+  private final DeliveryRetryWheel retryWheel;
+  private final Set<String> active = ConcurrentHashMap.newKeySet();
+  private final Counter deferred;
 
   public DeliveryDispatcher(
       DeliveryRepository deliveryRepository,
       DeliveryRetryPolicy retryPolicy,
       DeliveryProperties properties,
       WebClient webClient,
-      TaskScheduler taskScheduler,
-      Clock clock
+      Clock clock,
+      MeterRegistry meterRegistry
   ) {
     this.deliveryRepository = deliveryRepository;
     this.retryPolicy = retryPolicy;
     this.properties = properties;
     this.webClient = webClient;
-    this.taskScheduler = taskScheduler;
     this.clock = clock;
+    this.limiter = new DeliveryHostLimiter(properties.getMaxInFlight(), properties.getMaxInFlightPerHost(),
+        properties.getMaxQueued());
+    this.retryWheel = new DeliveryRetryWheel(properties.getRetryTickMs(), properties.getRetryWheelSize(),
+        properties.getRetryWheelMaxEntries(), clock.millis());
+    this.deferred = Counter.builder("gateway.deliveries.deferred").register(meterRegistry);
+    Gauge.builder("gateway.deliveries.in_flight", limiter, DeliveryHostLimiter::inFlight).register(meterRegistry);
+    Gauge.builder("gateway.deliveries.queued", limiter, DeliveryHostLimiter::queued).register(meterRegistry);
+    Gauge.builder("gateway.deliveries.retry_wheel.size", retryWheel, DeliveryRetryWheel::size)
+        .register(meterRegistry);
   }
 
   public void dispatch(Delivery delivery, String traceId) {
     if (delivery == null) {
       return;
     }
-    scheduleAttempt(delivery.id(), delivery.attempt(), traceId, Duration.ZERO);
+    submit(delivery.id(), delivery.attempt(), targetHost(delivery.targetUrl()), traceId);
   }
 
-  private void scheduleAttempt(String deliveryId, int attempt, String traceId, Duration delay) {
-    Instant scheduledAt = Instant.now(clock).plus(delay);
-    taskScheduler.schedule(() -> executeAttempt(deliveryId, attempt, traceId), scheduledAt);
+  @Scheduled(fixedDelayString = "${app.deliveries.retry-tick-ms:100}")
+  public void advanceRetries() {
+    for (DeliveryRetryWheel.Entry entry : retryWheel.advance(clock.millis())) {
+      submit(entry.deliveryId(), entry.attempt(), entry.host(), entry.traceId());
+    }
   }
 
-  private void executeAttempt(String deliveryId, int attempt, String traceId) {
-    Optional<Delivery> currentOpt = deliveryRepository.findById(deliveryId);
-    if (currentOpt.isEmpty()) {
-      log.warn("Delivery attempt skipped deliveryId={} reason=not_found traceId={}", deliveryId, safeTraceId(traceId));
-      return;
+  /**
+   * Loads pending retries due within the wheel horizon from the repository. The first run doubles as recovery
+   * after a restart; later runs pick up retries that were past the horizon or didn't fit in the wheel.
+   */
+  @Scheduled(fixedDelayString = "${app.deliveries.retry-refill-interval-ms:30000}")
+  public void refillRetries() {
+    Instant until = Instant.now(clock).plusMillis(retryWheel.horizonMs());
+    Instant afterAt = null;
+    String afterId = null;
+    int batch = properties.getRetryRefillBatch();
+    int loaded = 0;
+    while (retryWheel.size() < properties.getRetryWheelMaxEntries()) {
+      List<Delivery> page = deliveryRepository.findPendingRetries(until, afterAt, afterId, batch);
+      for (Delivery delivery : page) {
+        if (!active.contains(delivery.id()) && !retryWheel.contains(delivery.id())
+            && retryWheel.schedule(delivery.id(), delivery.attempt() + 1, targetHost(delivery.targetUrl()), null,
+                delivery.nextAttemptAt().toEpochMilli())) {
+          loaded++;
+        }
+      }
+      if (page.size() < batch) {
+        break;
+      }
+      Delivery last = page.get(page.size() - 1);
+      afterAt = last.nextAttemptAt();
+      afterId = last.id();
     }
+    if (loaded > 0) {
+      log.info("Delivery retries loaded count={} wheelSize={}", loaded, retryWheel.size());
+    }
+  }
 
-    Delivery current = currentOpt.get();
-    if (current.status() == DeliveryStatus.DELIVERED || current.status() == DeliveryStatus.FAILED) {
-      log.info("Delivery attempt skipped deliveryId={} status={} traceId={}", deliveryId, current.status(),
-          safeTraceId(traceId));
+  private void submit(String deliveryId, int attempt, String host, String traceId) {
+    if (!active.add(deliveryId)) {
       return;
     }
+    if (limiter.offer(host, () -> startAttempt(deliveryId, attempt, host, traceId))) {
+      return;
+    }
+    active.remove(deliveryId);
+    deferred.increment();
+    log.warn("Delivery attempt deferred deliveryId={} attempt={} host={} reason=backpressure traceId={}",
+        deliveryId, attempt, host, safeTraceId(traceId));
+    retryWheel.schedule(deliveryId, attempt, host, traceId, clock.millis() + properties.getBackpressureDelayMs());
+  }
 
-    log.info("Delivery attempt started deliveryId={} webhookId={} attempt={} traceId={}", deliveryId,
-        current.webhookId(), attempt, safeTraceId(traceId));
+  private void startAttempt(String deliveryId, int attempt, String host, String traceId) {
+    Mono.fromCallable(() -> claimForAttempt(deliveryId, attempt, traceId))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(current -> {
+          log.info("Delivery attempt started deliveryId={} webhookId={} attempt={} traceId={}", current.id(),
+              current.webhookId(), attempt, safeTraceId(traceId));
+          return Mono.defer(() -> sendAttempt(current, attempt, traceId))
+              .onErrorResume(Exception.class, ex -> Mono.just(AttemptOutcome.failure(ex)))
+              .publishOn(Schedulers.boundedElastic())
+              .doOnNext(outcome -> recordAttempt(current, attempt, host, traceId, outcome));
+        })
+        .doFinally(signal -> {
+          active.remove(deliveryId);
+          limiter.release(host);
+        })
+        .subscribe(null, ex -> log.error("Delivery attempt not recorded deliveryId={} attempt={} traceId={}",
+            deliveryId, attempt, safeTraceId(traceId), ex));
+  }
 
-    AttemptOutcome outcome;
-    try {
-      outcome = sendAttempt(current, attempt, traceId);
-    } catch (Exception ex) {
-      outcome = AttemptOutcome.failure(ex);
+  private Delivery claimForAttempt(String deliveryId, int attempt, String traceId) {
+    Instant now = Instant.now(clock);
+    Optional<Delivery> claimed = deliveryRepository.claimAttempt(deliveryId, attempt, now, now.plus(claimTtl()));
+    if (claimed.isEmpty()) {
+      log.info("Delivery attempt skipped deliveryId={} attempt={} reason=not_claimable traceId={}", deliveryId,
+          attempt, safeTraceId(traceId));
+      return null;
     }
+    return claimed.get();
+  }
 
+  private Duration claimTtl() {
+    return Duration.ofMillis(Math.max(properties.getClaimTtlMs(), 2 * properties.getTimeoutMs()));
+  }
+
+  private void recordAttempt(Delivery current, int attempt, String host, String traceId, AttemptOutcome outcome) {
     Integer statusCode = outcome.statusCode();
     String errorMessage = outcome.errorMessage();
     boolean success = statusCode != null && statusCode >= 200 && statusCode < 300;
@@ -113,6 +190,7 @@ public class DeliveryDispatcher {
     }
 
     int responseCode = statusCode == null ? 0 : statusCode;
+    Instant nextAttemptAt = status == DeliveryStatus.PENDING ? Instant.now(clock).plus(retryPlan.delay()) : null;
     Delivery updated = new Delivery(
         current.id(),
         current.webhookId(),
@@ -122,7 +200,8 @@ public class DeliveryDispatcher {
         attempt,
         responseCode,
         current.createdAt(),
-        attempts
+        attempts,
+        nextAttemptAt
     );
 
     deliveryRepository.save(updated);
@@ -137,7 +216,10 @@ public class DeliveryDispatcher {
       long delayMs = retryPlan.delay().toMillis();
       log.warn("Delivery retry scheduled deliveryId={} webhookId={} attempt={} delayMs={} statusCode={} traceId={}",
           updated.id(), updated.webhookId(), attempt + 1, delayMs, responseCode, safeTraceId(traceId));
-      scheduleAttempt(updated.id(), attempt + 1, traceId, retryPlan.delay());
+      if (!retryWheel.schedule(updated.id(), attempt + 1, host, traceId, nextAttemptAt.toEpochMilli())) {
+        log.info("Delivery retry left for refill deliveryId={} attempt={} wheelSize={} traceId={}", updated.id(),
+            attempt + 1, retryWheel.size(), safeTraceId(traceId));
+      }
       return;
     }
 
@@ -145,7 +227,7 @@ public class DeliveryDispatcher {
         updated.webhookId(), attempt, responseCode, errorMessage, safeTraceId(traceId));
   }
 
-  private AttemptOutcome sendAttempt(Delivery delivery, int attempt, String traceId) {
+  private Mono<AttemptOutcome> sendAttempt(Delivery delivery, int attempt, String traceId) {
     Map<String, Object> payload = new LinkedHashMap<>();
     payload.put("deliveryId", delivery.id());
     payload.put("webhookId", delivery.webhookId());
@@ -161,19 +243,26 @@ public class DeliveryDispatcher {
       spec = spec.header("X-Trace-Id", traceId);
     }
 
-    Mono<AttemptOutcome> call = spec.bodyValue(payload)
+    return spec.bodyValue(payload)
         .exchangeToMono(response -> {
           String retryAfter = response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER);
-	  int statusCode = response.statusCode().value();
+          int statusCode = response.statusCode().value();
           return response.releaseBody().thenReturn(new AttemptOutcome(statusCode, retryAfter, null));
         })
-        .timeout(Duration.ofMillis(properties.getTimeoutMs()));
+        .timeout(Duration.ofMillis(properties.getTimeoutMs()))
+        .switchIfEmpty(Mono.error(() -> new IllegalStateException("Delivery response missing")));
+  }
 
-    AttemptOutcome outcome = call.block();
-    if (outcome == null) {
-      throw new IllegalStateException("Delivery response missing");
+  private String targetHost(String targetUrl) {
+    try {
+      URI uri = URI.create(targetUrl);
+      if (uri.getHost() != null) {
+        return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+      }
+    } catch (IllegalArgumentException ignored) {
+      // invalid URLs fail in sendAttempt; they only need a lane of their own
     }
-    return outcome;
+    return targetUrl;
   }
 
   private String safeTraceId(String traceId) {
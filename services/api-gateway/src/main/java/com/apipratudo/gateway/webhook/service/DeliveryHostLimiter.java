@@ -0,0 +1,106 @@
+package com.apipratudo.gateway.webhook.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out global in-flight slots round-robin across target hosts, never letting a single host hold more than
+ * {@code maxPerHost} of them. Tasks that can't start yet wait in their host's lane.
+ */
+final class DeliveryHostLimiter {
+
+  private final int maxInFlight;
+  private final int maxPerHost;
+  private final int maxQueued;
+  private final Map<String, Lane> lanes = new HashMap<>();
+  private final ArrayDeque<Lane> ready = new ArrayDeque<>();
+  private int inFlight;
+  private int queued;
+
+  DeliveryHostLimiter(int maxInFlight, int maxPerHost, int maxQueued) {
+    this.maxInFlight = maxInFlight;
+    this.maxPerHost = maxPerHost;
+    this.maxQueued = maxQueued;
+  }
+
+  /**
+   * Queues the task for the host and starts whatever fits. Returns false, without queuing, when the task would
+   * have to wait and the backlog is already at {@code maxQueued}.
+   */
+  boolean offer(String host, Runnable task) {
+    synchronized (this) {
+      Lane lane = lanes.get(host);
+      boolean startsNow = ready.isEmpty() && inFlight < maxInFlight && (lane == null || lane.inFlight < maxPerHost);
+      if (!startsNow && queued >= maxQueued) {
+        return false;
+      }
+      if (lane == null) {
+        lane = new Lane();
+        lanes.put(host, lane);
+      }
+      lane.pending.add(task);
+      queued++;
+      markReady(lane);
+    }
+    drain();
+    return true;
+  }
+
+  void release(String host) {
+    synchronized (this) {
+      Lane lane = lanes.get(host);
+      if (lane == null) {
+        return;
+      }
+      inFlight--;
+      lane.inFlight--;
+      if (lane.inFlight == 0 && lane.pending.isEmpty()) {
+        lanes.remove(host);
+      } else {
+        markReady(lane);
+      }
+    }
+    drain();
+  }
+
+  synchronized int inFlight() {
+    return inFlight;
+  }
+
+  synchronized int queued() {
+    return queued;
+  }
+
+  private void drain() {
+    List<Runnable> starting = new ArrayList<>();
+    synchronized (this) {
+      while (inFlight < maxInFlight && !ready.isEmpty()) {
+        Lane lane = ready.poll();
+        lane.ready = false;
+        starting.add(lane.pending.poll());
+        queued--;
+        inFlight++;
+        lane.inFlight++;
+        markReady(lane);
+      }
+    }
+    starting.forEach(Runnable::run);
+  }
+
+  private void markReady(Lane lane) {
+    if (!lane.ready && !lane.pending.isEmpty() && lane.inFlight < maxPerHost) {
+      lane.ready = true;
+      ready.add(lane);
+    }
+  }
+
+  private static final class Lane {
+
+    private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+    private int inFlight;
+    private boolean ready;
+  }
+}
@@ -0,0 +1,118 @@
+package com.apipratudo.gateway.webhook.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two-level hashed timing wheel for delivery retries. Level 0 has {@code wheelSize} buckets of one tick each;
+ * level 1 has {@code wheelSize} buckets of {@code wheelSize} ticks and cascades into level 0 whenever level 0
+ * wraps. Insert and expiry are O(1). Retries past the horizon or beyond {@code maxEntries} are not held here;
+ * they stay in the repository until a refill brings them into range.
+ */
+final class DeliveryRetryWheel {
+
+  record Entry(String deliveryId, int attempt, String host, String traceId, long dueTick) {
+  }
+
+  private final long tickMs;
+  private final int wheelSize;
+  private final int maxEntries;
+  private final ArrayDeque<Entry>[] ticks;
+  private final ArrayDeque<Entry>[] rounds;
+  private final Map<String, Entry> index = new HashMap<>();
+  private long currentTick;
+
+  DeliveryRetryWheel(long tickMs, int wheelSize, int maxEntries, long nowMs) {
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.maxEntries = maxEntries;
+    this.ticks = buckets(wheelSize);
+    this.rounds = buckets(wheelSize);
+    this.currentTick = nowMs / tickMs;
+  }
+
+  /**
+   * Schedules (or reschedules) the delivery's next attempt. Returns false when the wheel is full or the due time
+   * is past the horizon; overdue times fire on the next tick.
+   */
+  synchronized boolean schedule(String deliveryId, int attempt, String host, String traceId, long dueMs) {
+    if (!index.containsKey(deliveryId) && index.size() >= maxEntries) {
+      return false;
+    }
+    long dueTick = Math.max((dueMs + tickMs - 1) / tickMs, currentTick + 1);
+    Entry entry = new Entry(deliveryId, attempt, host, traceId, dueTick);
+    if (!place(entry)) {
+      return false;
+    }
+    index.put(deliveryId, entry);
+    return true;
+  }
+
+  /**
+   * Moves the wheel up to {@code nowMs} and returns every entry that came due on the way.
+   */
+  synchronized List<Entry> advance(long nowMs) {
+    long target = nowMs / tickMs;
+    List<Entry> due = new ArrayList<>();
+    while (currentTick < target) {
+      currentTick++;
+      if (currentTick % wheelSize == 0) {
+        ArrayDeque<Entry> round = rounds[(int) ((currentTick / wheelSize) % wheelSize)];
+        for (Entry entry = round.poll(); entry != null; entry = round.poll()) {
+          if (index.get(entry.deliveryId()) == entry) {
+            place(entry);
+          }
+        }
+      }
+      ArrayDeque<Entry> bucket = ticks[(int) (currentTick % wheelSize)];
+      for (Entry entry = bucket.poll(); entry != null; entry = bucket.poll()) {
+        if (index.get(entry.deliveryId()) == entry) {
+          index.remove(entry.deliveryId());
+          due.add(entry);
+        }
+      }
+    }
+    return due;
+  }
+
+  synchronized boolean contains(String deliveryId) {
+    return index.containsKey(deliveryId);
+  }
+
+  synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * Furthest due time, relative to now, that always fits: rounding up to a tick and the partial current tick
+   * each cost one tick of the level-1 span.
+   */
+  long horizonMs() {
+    return tickMs * ((long) wheelSize * (wheelSize - 1) - 2);
+  }
+
+  private boolean place(Entry entry) {
+    long dueTick = entry.dueTick();
+    if (dueTick - currentTick < wheelSize) {
+      ticks[(int) (dueTick % wheelSize)].add(entry);
+      return true;
+    }
+    if (dueTick / wheelSize - currentTick / wheelSize < wheelSize) {
+      rounds[(int) ((dueTick / wheelSize) % wheelSize)].add(entry);
+      return true;
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArrayDeque<Entry>[] buckets(int size) {
+    ArrayDeque<Entry>[] buckets = new ArrayDeque[size];
+    for (int i = 0; i < size; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+    return buckets;
+  }
+}
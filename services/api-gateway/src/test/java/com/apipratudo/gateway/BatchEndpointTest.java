@@ -0,0 +1,187 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.batch.max-items=3",
+    "app.batch.timeout-ms=1000"
+})
+@ActiveProfiles("test")
+class BatchEndpointTest {
+
+  private static final AtomicInteger CONSUME_CALLS = new AtomicInteger();
+  private static final AtomicInteger SLOW_CREATES = new AtomicInteger();
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer schedulingServer;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          if ("/v1/quota/consume".equals(request.getPath())) {
+            CONSUME_CALLS.incrementAndGet();
+          }
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      schedulingServer = new MockWebServer();
+      schedulingServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          String path = request.getPath();
+          if (path != null && path.startsWith("/v1/agendas/ag-slow")
+              || "POST".equals(request.getMethod()) && "/v1/agendas".equals(path)) {
+            Thread.sleep(2000);
+            if ("POST".equals(request.getMethod())) {
+              SLOW_CREATES.incrementAndGet();
+            }
+            return new MockResponse()
+                .setResponseCode(201)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"id\":\"ag-2\"}");
+          }
+          if (path != null && path.startsWith("/v1/agendas/ag-1")) {
+            return new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"id\":\"ag-1\",\"nome\":\"Agenda\"}");
+          }
+          return new MockResponse()
+              .setResponseCode(404)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"error\":\"NOT_FOUND\",\"message\":\"Agenda not found\"}");
+        }
+      });
+      try {
+        quotaServer.start();
+        schedulingServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("scheduling.base-url", () -> schedulingServer.url("/").toString());
+    registry.add("scheduling.service-token", () -> "test-scheduling-token");
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      schedulingServer.shutdown();
+    }
+  }
+
+  @Test
+  void itemsRunThroughGatewayStackAndReturnMultiStatus() throws Exception {
+    int consumesBefore = CONSUME_CALLS.get();
+    HttpResponse<String> response = post("""
+        {"requests":[
+          {"id":"a","method":"GET","path":"/v1/agendas/ag-1"},
+          {"id":"b","method":"GET","path":"/v1/agendas/ag-404"},
+          {"id":"c","method":"POST","path":"/v1/batch","body":{"requests":[]}}
+        ]}
+        """);
+
+    assertThat(response.statusCode()).isEqualTo(207);
+    JsonNode results = objectMapper.readTree(response.body()).path("responses");
+    assertThat(results).hasSize(3);
+    assertThat(results.get(0).path("id").asText()).isEqualTo("a");
+    assertThat(results.get(0).path("status").asInt()).isEqualTo(200);
+    assertThat(results.get(0).path("body").path("nome").asText()).isEqualTo("Agenda");
+    assertThat(results.get(1).path("id").asText()).isEqualTo("b");
+    assertThat(results.get(1).path("status").asInt()).isEqualTo(404);
+    assertThat(results.get(2).path("status").asInt()).isEqualTo(400);
+    assertThat(results.get(2).path("body").path("error").asText()).isEqualTo("VALIDATION_ERROR");
+
+    RecordedRequest forwarded = schedulingServer.takeRequest();
+    assertThat(forwarded.getHeader("X-Service-Token")).isEqualTo("test-scheduling-token");
+    assertThat(CONSUME_CALLS.get() - consumesBefore).isEqualTo(2);
+  }
+
+  @Test
+  void tooManyItemsIsRejected() throws Exception {
+    HttpResponse<String> response = post("""
+        {"requests":[
+          {"method":"GET","path":"/v1/agendas/ag-1"},
+          {"method":"GET","path":"/v1/agendas/ag-1"},
+          {"method":"GET","path":"/v1/agendas/ag-1"},
+          {"method":"GET","path":"/v1/agendas/ag-1"}
+        ]}
+        """);
+
+    assertThat(response.statusCode()).isEqualTo(400);
+    assertThat(objectMapper.readTree(response.body()).path("error").asText()).isEqualTo("VALIDATION_ERROR");
+  }
+
+  @Test
+  void itemsRunningAtDeadlineFinishAndReportTheirOutcome() throws Exception {
+    int createsBefore = SLOW_CREATES.get();
+    HttpResponse<String> response = post("""
+        {"requests":[
+          {"id":"read","method":"GET","path":"/v1/agendas/ag-slow"},
+          {"id":"create","method":"POST","path":"/v1/agendas","body":{"name":"Agenda","timezone":"UTC",
+            "workingHoursStart":"08:00","workingHoursEnd":"18:00","slotStepMin":30,"noShowFeeCents":0,
+            "active":true}}
+        ]}
+        """);
+
+    assertThat(response.statusCode()).isEqualTo(207);
+    JsonNode results = objectMapper.readTree(response.body()).path("responses");
+    assertThat(results.get(0).path("status").asInt()).isEqualTo(504);
+    assertThat(results.get(0).path("body").path("error").asText()).isEqualTo("BATCH_TIMEOUT");
+    assertThat(results.get(1).path("status").asInt()).isEqualTo(504);
+    assertThat(results.get(1).path("body").path("error").asText()).isEqualTo("BATCH_OUTCOME_UNKNOWN");
+
+    long waitUntil = System.currentTimeMillis() + 5000;
+    while (SLOW_CREATES.get() == createsBefore && System.currentTimeMillis() < waitUntil) {
+      Thread.sleep(50);
+    }
+    assertThat(SLOW_CREATES.get()).isEqualTo(createsBefore + 1);
+  }
+
+  private HttpResponse<String> post(String body) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/batch"))
+        .header("X-Api-Key", "batch-key")
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,148 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.apipratudo.gateway.concurrency.ConcurrencyLimiters;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "app.results-cache.enabled=false",
+    "app.concurrency-limit.routes[0].prefix=/v1/quina",
+    "app.concurrency-limit.routes[0].initial-limit=1",
+    "app.concurrency-limit.routes[0].min-limit=1",
+    "app.concurrency-limit.routes[0].max-limit=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConcurrencyLimitTest {
+
+  private static final AtomicInteger CONSUME_CALLS = new AtomicInteger();
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer quinaServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ConcurrencyLimiters limiters;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          if ("/v1/quota/consume".equals(request.getPath())) {
+            CONSUME_CALLS.incrementAndGet();
+          }
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      quinaServer = new MockWebServer();
+      quinaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          Thread.sleep(500);
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"concurso\":\"1\"}");
+        }
+      });
+      try {
+        quotaServer.start();
+        quinaServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("quina.base-url", () -> quinaServer.url("/").toString());
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      quinaServer.shutdown();
+    }
+  }
+
+  @Test
+  void shedsRequestsAboveRouteLimitBeforeConsumingQuota() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    List<MockHttpServletResponse> responses = new ArrayList<>();
+    try {
+      List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return mockMvc.perform(get("/v1/quina/resultado-oficial").header("X-Api-Key", "limit-key"))
+              .andReturn()
+              .getResponse();
+        }));
+      }
+      start.countDown();
+      for (Future<MockHttpServletResponse> future : futures) {
+        responses.add(future.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(responses).extracting(MockHttpServletResponse::getStatus).containsExactlyInAnyOrder(200, 503);
+    MockHttpServletResponse shed = responses.stream().filter(r -> r.getStatus() == 503).findFirst().orElseThrow();
+    assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(shed.getContentAsString()).contains("OVERLOADED");
+    assertThat(CONSUME_CALLS.get()).isEqualTo(1);
+    assertThat(meterRegistry.get("gateway.concurrency_limit.rejections").tag("route", "/v1/quina").counter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("gateway.concurrency_limit.limit").tag("route", "/v1/quina").gauge().value())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void unknownPathsShareOneLimiter() {
+    assertThat(limiters.forPath("/v1/megasena/resultado-oficial").route()).isEqualTo("/v1/megasena");
+    assertThat(limiters.forPath("/v1/quina/qualquer").route()).isEqualTo("/v1/quina");
+    for (int i = 0; i < 500; i++) {
+      assertThat(limiters.forPath("/v1/probe-" + i + "/x").route()).isEqualTo("/v1");
+    }
+    assertThat(meterRegistry.find("gateway.concurrency_limit.limit").tag("route", "/v1/probe-1").gauge()).isNull();
+  }
+}
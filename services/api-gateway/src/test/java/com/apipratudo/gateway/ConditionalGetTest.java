@@ -0,0 +1,137 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+  private static final String DRAW_DATE = "Wed, 13 Aug 2025 03:00:00 GMT";
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer megasenaServer;
+  private static MockWebServer schedulingServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      megasenaServer = new MockWebServer();
+      megasenaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setHeader("Last-Modified", DRAW_DATE)
+              .setBody("{\"concurso\":\"2760\",\"dataApuracao\":\"2025-08-13\"}");
+        }
+      });
+      schedulingServer = new MockWebServer();
+      schedulingServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"id\":\"ag-1\",\"nome\":\"Agenda\"}");
+        }
+      });
+      try {
+        quotaServer.start();
+        megasenaServer.start();
+        schedulingServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("megasena.base-url", () -> megasenaServer.url("/").toString());
+    registry.add("scheduling.base-url", () -> schedulingServer.url("/").toString());
+    registry.add("scheduling.service-token", () -> "test-scheduling-token");
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      megasenaServer.shutdown();
+      schedulingServer.shutdown();
+    }
+  }
+
+  @Test
+  void resultsCarryStrongEtagAndDrawDateAndAnswer304() throws Exception {
+    MockHttpServletResponse first = mockMvc.perform(get("/v1/megasena/resultado-oficial")
+            .header("X-Api-Key", "etag-key"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Last-Modified", DRAW_DATE))
+        .andReturn()
+        .getResponse();
+    String etag = first.getHeader("ETag");
+    assertThat(etag).isNotBlank().doesNotStartWith("W/");
+
+    MockHttpServletResponse second = mockMvc.perform(get("/v1/megasena/resultado-oficial")
+            .header("X-Api-Key", "etag-key")
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andReturn()
+        .getResponse();
+    assertThat(second.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  void agendaAnswers304OnlyForMatchingEtag() throws Exception {
+    String etag = mockMvc.perform(get("/v1/agendas/ag-1").header("X-Api-Key", "etag-key"))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+    assertThat(etag).isNotBlank();
+
+    mockMvc.perform(get("/v1/agendas/ag-1")
+            .header("X-Api-Key", "etag-key")
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/v1/agendas/ag-1")
+            .header("X-Api-Key", "etag-key")
+            .header("If-None-Match", "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", etag));
+  }
+}
@@ -4,37 +4,39 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.apipratudo.gateway.config.DeliveryProperties;
 import com.apipratudo.gateway.webhook.model.Delivery;
+import com.apipratudo.gateway.webhook.model.DeliveryAttempt;
 import com.apipratudo.gateway.webhook.model.DeliveryStatus;
 import com.apipratudo.gateway.webhook.repo.InMemoryDeliveryRepository;
 import com.apipratudo.gateway.webhook.service.DeliveryDispatcher;
 import com.apipratudo.gateway.webhook.service.DeliveryRetryPolicy;
-import java.time.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Delayed;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.Trigger;
 import org.springframework.web.reactive.function.client.WebClient;
 
 class DeliveryDispatcherTest {
 
   private MockWebServer server;
+  private MockWebServer slowServer;
   private InMemoryDeliveryRepository repository;
   private DeliveryProperties properties;
-  private CapturingTaskScheduler scheduler;
-  private Clock clock;
+  private MutableClock clock;
+  private MeterRegistry meterRegistry;
+  private DeliveryRetryPolicy retryPolicy;
   private DeliveryDispatcher dispatcher;
 
   @BeforeEach
@@ -47,17 +49,18 @@ class DeliveryDispatcherTest {
     properties.setInitialBackoffMs(100);
     properties.setMaxBackoffMs(1000);
     properties.setTimeoutMs(2000);
-    clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
-    scheduler = new CapturingTaskScheduler(clock);
+    clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
 
-    DeliveryRetryPolicy retryPolicy = new DeliveryRetryPolicy(properties, clock);
-    WebClient webClient = WebClient.builder().build();
-    dispatcher = new DeliveryDispatcher(repository, retryPolicy, properties, webClient, scheduler, clock);
+    retryPolicy = new DeliveryRetryPolicy(properties, clock);
+    dispatcher = newDispatcher();
   }
 
   @AfterEach
   void teardown() throws Exception {
     server.shutdown();
+    if (slowServer != null) {
+      slowServer.shutdown();
+    }
   }
 
   @Test
@@ -70,8 +73,7 @@ class DeliveryDispatcherTest {
 
     dispatcher.dispatch(delivery, "trace-123");
 
-    Delivery updated = repository.findById(delivery.id()).orElseThrow();
-    assertThat(updated.status()).isEqualTo(DeliveryStatus.DELIVERED);
+    Delivery updated = awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.DELIVERED);
     assertThat(updated.attempt()).isEqualTo(1);
     assertThat(updated.responseCode()).isEqualTo(200);
     assertThat(updated.attempts()).hasSize(1);
@@ -82,7 +84,7 @@ class DeliveryDispatcherTest {
   }
 
   @Test
-  void dispatchRetriesOnServerErrorUntilSuccess() {
+  void dispatchRetriesOnServerErrorUntilSuccess() throws Exception {
     server.enqueue(new MockResponse().setResponseCode(500));
     server.enqueue(new MockResponse().setResponseCode(200));
     String targetUrl = server.url("/hook").toString();
@@ -92,14 +94,21 @@ class DeliveryDispatcherTest {
 
     dispatcher.dispatch(delivery, "trace-retry");
 
-    Delivery updated = repository.findById(delivery.id()).orElseThrow();
-    assertThat(updated.status()).isEqualTo(DeliveryStatus.DELIVERED);
+    Delivery failedOnce = awaitDelivery(delivery.id(), current -> current.attempts().size() == 1);
+    assertThat(failedOnce.status()).isEqualTo(DeliveryStatus.PENDING);
+    assertThat(failedOnce.nextAttemptAt()).isAfter(clock.instant());
+    awaitWheelSize(1);
+
+    clock.advance(Duration.ofSeconds(1));
+    dispatcher.advanceRetries();
+
+    Delivery updated = awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.DELIVERED);
     assertThat(updated.attempt()).isEqualTo(2);
     assertThat(updated.attempts()).hasSize(2);
   }
 
   @Test
-  void dispatchDoesNotRetryOnClientError() {
+  void dispatchDoesNotRetryOnClientError() throws Exception {
     server.enqueue(new MockResponse().setResponseCode(400));
     String targetUrl = server.url("/hook").toString();
 
@@ -108,124 +117,243 @@ class DeliveryDispatcherTest {
 
     dispatcher.dispatch(delivery, "trace-client");
 
-    Delivery updated = repository.findById(delivery.id()).orElseThrow();
-    assertThat(updated.status()).isEqualTo(DeliveryStatus.FAILED);
+    Delivery updated = awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.FAILED);
     assertThat(updated.attempt()).isEqualTo(1);
     assertThat(updated.attempts()).hasSize(1);
+    assertThat(updated.nextAttemptAt()).isNull();
+    assertThat(wheelSize()).isZero();
   }
 
   @Test
-  void dispatchRespectsRetryAfterHeader() {
+  void dispatchRespectsRetryAfterHeader() throws Exception {
     server.enqueue(new MockResponse()
         .setResponseCode(429)
         .addHeader("Retry-After", "2"));
     server.enqueue(new MockResponse().setResponseCode(200));
     String targetUrl = server.url("/hook").toString();
+    Instant start = clock.instant();
 
     Delivery delivery = newDelivery(targetUrl);
     repository.save(delivery);
 
     dispatcher.dispatch(delivery, "trace-429");
 
-    List<Duration> delays = scheduler.getDelays();
-    assertThat(delays).hasSizeGreaterThanOrEqualTo(2);
-    assertThat(delays.get(1).toMillis()).isGreaterThanOrEqualTo(2000);
-  }
+    Delivery throttled = awaitDelivery(delivery.id(), current -> current.attempts().size() == 1);
+    assertThat(throttled.nextAttemptAt()).isEqualTo(start.plusSeconds(2));
+    awaitWheelSize(1);
 
-  private Delivery newDelivery(String targetUrl) {
-    return new Delivery(
-        UUID.randomUUID().toString(),
-        UUID.randomUUID().toString(),
-        "invoice.paid",
-        targetUrl,
-        DeliveryStatus.PENDING,
-        1,
-        0,
-        Instant.now(clock),
-        List.of()
-    );
-  }
+    clock.advance(Duration.ofSeconds(1));
+    dispatcher.advanceRetries();
+    assertThat(wheelSize()).isEqualTo(1);
 
-  static class CapturingTaskScheduler implements TaskScheduler {
-    private final Clock clock;
-    private final List<Duration> delays = new ArrayList<>();
+    clock.advance(Duration.ofSeconds(1));
+    dispatcher.advanceRetries();
+    awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.DELIVERED);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
 
-    CapturingTaskScheduler(Clock clock) {
-      this.clock = clock;
+  @Test
+  void slowHostDoesNotStarveFastHost() throws Exception {
+    properties.setMaxInFlight(4);
+    properties.setMaxInFlightPerHost(2);
+    dispatcher = newDispatcher();
+    AtomicInteger slowConcurrent = new AtomicInteger();
+    AtomicInteger slowPeak = new AtomicInteger();
+    slowServer = new MockWebServer();
+    slowServer.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        slowPeak.accumulateAndGet(slowConcurrent.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(500);
+          return new MockResponse().setResponseCode(200);
+        } finally {
+          slowConcurrent.decrementAndGet();
+        }
+      }
+    });
+    slowServer.start();
+
+    List<Delivery> slow = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Delivery delivery = newDelivery(slowServer.url("/hook").toString());
+      repository.save(delivery);
+      slow.add(delivery);
+      dispatcher.dispatch(delivery, "trace-slow");
     }
-
-    List<Duration> getDelays() {
-      return delays;
+    List<Delivery> fast = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200));
+      Delivery delivery = newDelivery(server.url("/hook").toString());
+      repository.save(delivery);
+      fast.add(delivery);
+      dispatcher.dispatch(delivery, "trace-fast");
     }
 
-    @Override
-    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
-      return schedule(task, Instant.now(clock));
+    for (Delivery delivery : fast) {
+      awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.DELIVERED);
     }
+    assertThat(slowServer.getRequestCount()).isLessThan(slow.size());
 
-    @Override
-    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
-      Duration delay = Duration.between(Instant.now(clock), startTime);
-      delays.add(delay.isNegative() ? Duration.ZERO : delay);
-      task.run();
-      return new CompletedScheduledFuture();
+    for (Delivery delivery : slow) {
+      awaitDelivery(delivery.id(), current -> current.status() == DeliveryStatus.DELIVERED);
     }
+    assertThat(slowPeak.get()).isEqualTo(2);
+  }
 
-    @Override
-    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
-      return schedule(task, startTime);
-    }
+  @Test
+  void attemptsBeyondQueueCapacityAreDeferredWithoutConsumingAttempts() throws Exception {
+    properties.setMaxInFlight(1);
+    properties.setMaxQueued(1);
+    properties.setBackpressureDelayMs(1500);
+    dispatcher = newDispatcher();
+    server.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(200));
+    server.enqueue(new MockResponse().setResponseCode(200));
 
-    @Override
-    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
-      return schedule(task, Instant.now(clock));
+    List<Delivery> deliveries = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Delivery delivery = newDelivery(server.url("/hook").toString());
+      repository.save(delivery);
+      deliveries.add(delivery);
+      dispatcher.dispatch(delivery, "trace-backpressure");
     }
 
-    @Override
-    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
-      return schedule(task, startTime);
-    }
+    awaitDelivery(deliveries.get(0).id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    awaitDelivery(deliveries.get(1).id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    Delivery deferred = repository.findById(deliveries.get(2).id()).orElseThrow();
+    assertThat(deferred.status()).isEqualTo(DeliveryStatus.PENDING);
+    assertThat(deferred.attempts()).isEmpty();
+    assertThat(server.getRequestCount()).isEqualTo(2);
+    assertThat(wheelSize()).isEqualTo(1);
 
-    @Override
-    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
-      return schedule(task, Instant.now(clock));
-    }
+    clock.advance(Duration.ofMillis(1500));
+    dispatcher.advanceRetries();
+
+    Delivery delivered = awaitDelivery(deferred.id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    assertThat(delivered.attempts()).hasSize(1);
   }
 
-  static class CompletedScheduledFuture implements ScheduledFuture<Object> {
-    @Override
-    public long getDelay(TimeUnit unit) {
-      return 0;
-    }
+  @Test
+  void pendingRetriesAreRecoveredFromRepositoryWithinWheelCapacity() throws Exception {
+    properties.setRetryWheelMaxEntries(1);
+    dispatcher = newDispatcher();
+    server.enqueue(new MockResponse().setResponseCode(200));
+    server.enqueue(new MockResponse().setResponseCode(200));
+    String targetUrl = server.url("/hook").toString();
+    Instant now = clock.instant();
+    Delivery overdue = pendingRetry(targetUrl, now.minusSeconds(30));
+    Delivery upcoming = pendingRetry(targetUrl, now.plusSeconds(5));
+    repository.save(overdue);
+    repository.save(upcoming);
+    repository.save(newDelivery(targetUrl));
+
+    dispatcher.refillRetries();
+    assertThat(wheelSize()).isEqualTo(1);
+
+    clock.advance(Duration.ofMillis(100));
+    dispatcher.advanceRetries();
+    Delivery recovered = awaitDelivery(overdue.id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    assertThat(recovered.attempt()).isEqualTo(2);
+    assertThat(recovered.nextAttemptAt()).isNull();
+
+    dispatcher.refillRetries();
+    assertThat(wheelSize()).isEqualTo(1);
+    clock.advance(Duration.ofSeconds(5));
+    dispatcher.advanceRetries();
+    awaitDelivery(upcoming.id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
 
-    @Override
-    public int compareTo(Delayed other) {
-      return 0;
-    }
+  @Test
+  void instancesSharingRepositorySendEachRetryOnce() throws Exception {
+    DeliveryDispatcher other = newDispatcher();
+    dispatcher = newDispatcher();
+    server.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(200));
+    Delivery overdue = pendingRetry(server.url("/hook").toString(), clock.instant().minusSeconds(1));
+    repository.save(overdue);
+
+    dispatcher.refillRetries();
+    other.refillRetries();
+    clock.advance(Duration.ofMillis(100));
+    dispatcher.advanceRetries();
+    other.advanceRetries();
+
+    awaitDelivery(overdue.id(), delivery -> delivery.status() == DeliveryStatus.DELIVERED);
+    Thread.sleep(200);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
 
-    @Override
-    public boolean cancel(boolean mayInterruptIfRunning) {
-      return false;
+  @Test
+  void refillPagesPastRetriesSharingTheSameDueTime() {
+    properties.setRetryRefillBatch(2);
+    dispatcher = newDispatcher();
+    Instant dueAt = clock.instant().plusSeconds(10);
+    for (int i = 0; i < 5; i++) {
+      repository.save(pendingRetry(server.url("/hook").toString(), dueAt));
     }
 
-    @Override
-    public boolean isCancelled() {
-      return false;
-    }
+    dispatcher.refillRetries();
 
-    @Override
-    public boolean isDone() {
-      return true;
-    }
+    assertThat(wheelSize()).isEqualTo(5);
+  }
+
+  private DeliveryDispatcher newDispatcher() {
+    meterRegistry = new SimpleMeterRegistry();
+    return new DeliveryDispatcher(repository, retryPolicy, properties, WebClient.builder().build(), clock,
+        meterRegistry);
+  }
+
+  private double wheelSize() {
+    return meterRegistry.get("gateway.deliveries.retry_wheel.size").gauge().value();
+  }
 
-    @Override
-    public Object get() {
-      return null;
+  private void awaitWheelSize(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (wheelSize() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
     }
+    assertThat(wheelSize()).isEqualTo(expected);
+  }
 
-    @Override
-    public Object get(long timeout, TimeUnit unit) {
-      return null;
+  private Delivery awaitDelivery(String deliveryId, Predicate<Delivery> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    Delivery current = repository.findById(deliveryId).orElseThrow();
+    while (!condition.test(current) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+      current = repository.findById(deliveryId).orElseThrow();
     }
+    assertThat(condition.test(current)).as("delivery %s: %s", deliveryId, current).isTrue();
+    return current;
+  }
+
+  private Delivery newDelivery(String targetUrl) {
+    return new Delivery(
+        UUID.randomUUID().toString(),
+        UUID.randomUUID().toString(),
+        "invoice.paid",
+        targetUrl,
+        DeliveryStatus.PENDING,
+        1,
+        0,
+        Instant.now(clock),
+        List.of()
+    );
+  }
+
+  private Delivery pendingRetry(String targetUrl, Instant nextAttemptAt) {
+    return new Delivery(
+        UUID.randomUUID().toString(),
+        UUID.randomUUID().toString(),
+        "invoice.paid",
+        targetUrl,
+        DeliveryStatus.PENDING,
+        1,
+        500,
+        Instant.now(clock),
+        List.of(new DeliveryAttempt(1, 500, "HTTP 500", Instant.now(clock))),
+        nextAttemptAt
+    );
   }
 }
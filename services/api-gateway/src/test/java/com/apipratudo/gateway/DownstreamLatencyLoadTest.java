@@ -0,0 +1,166 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.threads.virtual.enabled=true",
+    "megasena.timeout-ms=45000",
+    "megasena.resilience.enabled=false",
+    "app.concurrency-limit.enabled=false",
+    "app.results-cache.enabled=false"
+})
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "GATEWAY_LOAD_TEST", matches = "true")
+class DownstreamLatencyLoadTest {
+
+  private static final int CONCURRENT_REQUESTS = 200;
+  private static final long DOWNSTREAM_DELAY_SECONDS = 30;
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer megasenaServer;
+  private static volatile long downstreamDelaySeconds;
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":1000,\"remaining\":999}");
+        }
+      });
+      try {
+        quotaServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start quota mock server", e);
+      }
+    }
+
+    if (megasenaServer == null) {
+      megasenaServer = new MockWebServer();
+      megasenaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"loteria\":\"MEGA_SENA\",\"concurso\":\"2760\"}")
+              .setHeadersDelay(downstreamDelaySeconds, TimeUnit.SECONDS);
+        }
+      });
+      try {
+        megasenaServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start megasena mock server", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("megasena.base-url", () -> megasenaServer.url("/").toString());
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+    }
+    if (megasenaServer != null) {
+      megasenaServer.shutdown();
+    }
+  }
+
+  @Test
+  @Timeout(120)
+  void gatewayThreadsStayFlatWhileDownstreamIsSlow() throws Exception {
+    ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(clientExecutor)
+        .build();
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + port + "/v1/megasena/resultado-oficial"))
+        .header("X-Api-Key", "load-key")
+        .timeout(Duration.ofSeconds(90))
+        .GET()
+        .build();
+
+    try {
+      downstreamDelaySeconds = 0;
+      assertThat(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(200);
+      int baseline = gatewayPlatformThreads();
+      int served = megasenaServer.getRequestCount();
+
+      downstreamDelaySeconds = DOWNSTREAM_DELAY_SECONDS;
+      List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+        responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+      }
+
+      int peak = baseline;
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DOWNSTREAM_DELAY_SECONDS - 5);
+      while (megasenaServer.getRequestCount() - served < CONCURRENT_REQUESTS && System.nanoTime() < deadline) {
+        peak = Math.max(peak, gatewayPlatformThreads());
+        Thread.sleep(50);
+      }
+      peak = Math.max(peak, gatewayPlatformThreads());
+
+      // Every request is now parked on the slow downstream at the same time.
+      assertThat(megasenaServer.getRequestCount() - served).isEqualTo(CONCURRENT_REQUESTS);
+      assertThat(peak - baseline)
+          .as("platform threads added by the gateway with %d requests in flight", CONCURRENT_REQUESTS)
+          .isLessThanOrEqualTo(Runtime.getRuntime().availableProcessors());
+
+      CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(90, TimeUnit.SECONDS);
+      for (CompletableFuture<HttpResponse<Void>> response : responses) {
+        assertThat(response.get().statusCode()).isEqualTo(200);
+      }
+    } finally {
+      clientExecutor.shutdownNow();
+    }
+  }
+
+  private static int gatewayPlatformThreads() {
+    int count = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      String name = thread.getName();
+      if (name.startsWith("http-nio-") || name.startsWith("reactor-http-")) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,186 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "app.results-cache.enabled=false",
+    "megasena.resilience.window-size=2",
+    "megasena.resilience.minimum-calls=2",
+    "megasena.resilience.open-state-ms=60000",
+    "quina.resilience.max-concurrent=1",
+    "quina.resilience.max-queue=0",
+    "lotofacil.resilience.max-concurrent=1",
+    "lotofacil.resilience.max-queue=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DownstreamResilienceTest {
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer megasenaServer;
+  private static MockWebServer quinaServer;
+  private static MockWebServer lotofacilServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      megasenaServer = new MockWebServer();
+      megasenaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse().setResponseCode(502);
+        }
+      });
+      quinaServer = new MockWebServer();
+      quinaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          Thread.sleep(500);
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"concurso\":\"1\"}");
+        }
+      });
+      lotofacilServer = new MockWebServer();
+      lotofacilServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"concurso\":\"1\"}")
+              .throttleBody(1, 100, TimeUnit.MILLISECONDS);
+        }
+      });
+      try {
+        quotaServer.start();
+        megasenaServer.start();
+        quinaServer.start();
+        lotofacilServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("megasena.base-url", () -> megasenaServer.url("/").toString());
+    registry.add("quina.base-url", () -> quinaServer.url("/").toString());
+    registry.add("lotofacil.base-url", () -> lotofacilServer.url("/").toString());
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      megasenaServer.shutdown();
+      quinaServer.shutdown();
+      lotofacilServer.shutdown();
+    }
+  }
+
+  @Test
+  void circuitOpensAfterFailuresAndFailsFast() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      mockMvc.perform(get("/v1/megasena/resultado-oficial").header("X-Api-Key", "resilience-key"))
+          .andExpect(status().isBadGateway());
+    }
+    int upstreamCalls = megasenaServer.getRequestCount();
+
+    mockMvc.perform(get("/v1/megasena/resultado-oficial").header("X-Api-Key", "resilience-key"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.error").value("SERVICE_UNAVAILABLE"));
+
+    assertThat(megasenaServer.getRequestCount()).isEqualTo(upstreamCalls);
+    mockMvc.perform(get("/actuator/downstreams"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.megasena.state").value("OPEN"))
+        .andExpect(jsonPath("$.megasena.rejectedOpen").value(1));
+  }
+
+  @Test
+  void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        statuses.add(executor.submit(() -> {
+          start.await();
+          return mockMvc.perform(get("/v1/quina/resultado-oficial").header("X-Api-Key", "bulkhead-key"))
+              .andReturn()
+              .getResponse()
+              .getStatus();
+        }));
+      }
+      start.countDown();
+      List<Integer> results = new ArrayList<>();
+      for (Future<Integer> future : statuses) {
+        results.add(future.get(5, TimeUnit.SECONDS));
+      }
+      assertThat(results).containsExactlyInAnyOrder(200, 503);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void bulkheadPermitIsHeldUntilTheBodyIsRead() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> streaming = executor.submit(() -> mockMvc.perform(
+              get("/v1/lotofacil/resultado-oficial").header("X-Api-Key", "body-key"))
+          .andReturn()
+          .getResponse()
+          .getStatus());
+      Thread.sleep(600);
+
+      mockMvc.perform(get("/v1/lotofacil/resultado-oficial").header("X-Api-Key", "body-key"))
+          .andExpect(status().isServiceUnavailable());
+      assertThat(streaming.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -1,9 +1,20 @@
 package com.apipratudo.gateway;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.apipratudo.gateway.config.DeliveryProperties;
+import com.apipratudo.gateway.config.IdempotencyProperties;
 import com.apipratudo.gateway.config.WebhookProperties;
+import com.apipratudo.gateway.idempotency.FirestoreIdempotencyStore;
+import com.apipratudo.gateway.idempotency.HashingUtils;
+import com.apipratudo.gateway.idempotency.IdempotencyInProgressException;
+import com.apipratudo.gateway.idempotency.IdempotencyOutcomeUnknownException;
+import com.apipratudo.gateway.idempotency.IdempotencyRequest;
+import com.apipratudo.gateway.idempotency.IdempotencyResponse;
+import com.apipratudo.gateway.idempotency.IdempotencyResult;
+import com.apipratudo.gateway.idempotency.IdempotencyStore;
+import com.apipratudo.gateway.webhook.IdempotencyConflictException;
 import com.apipratudo.gateway.webhook.model.Delivery;
 import com.apipratudo.gateway.webhook.model.DeliveryStatus;
 import com.apipratudo.gateway.webhook.model.Webhook;
@@ -12,10 +23,14 @@ import com.apipratudo.gateway.webhook.repo.DeliveryRepository;
 import com.apipratudo.gateway.webhook.repo.WebhookRepository;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,7 +43,9 @@ import org.springframework.boot.test.context.SpringBootTest;
     "app.firestore.enabled=true",
     "app.firestore.project-id=emulator-test",
     "app.webhooks.collection=webhooks_test",
-    "app.deliveries.collection=deliveries_test"
+    "app.deliveries.collection=deliveries_test",
+    "app.idempotency.store=firestore",
+    "app.idempotency.collection=idempotency_test"
 })
 @EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
 class FirestoreEmulatorIntegrationTest {
@@ -48,6 +65,12 @@ class FirestoreEmulatorIntegrationTest {
   @Autowired
   private DeliveryProperties deliveryProperties;
 
+  @Autowired
+  private IdempotencyStore idempotencyStore;
+
+  @Autowired
+  private IdempotencyProperties idempotencyProperties;
+
   @BeforeEach
   void setup() {
     clearCollections();
@@ -96,11 +119,149 @@ class FirestoreEmulatorIntegrationTest {
 
     List<Delivery> deliveries = deliveryRepository.findByWebhookId(webhookId);
     assertThat(deliveries).anyMatch(item -> item.id().equals(deliveryId));
+
+    String retryId = UUID.randomUUID().toString();
+    Instant retryAt = Instant.ofEpochMilli(now.toEpochMilli() + 60_000);
+    deliveryRepository.save(new Delivery(
+        retryId,
+        webhookId,
+        webhook.eventType(),
+        webhook.targetUrl(),
+        DeliveryStatus.PENDING,
+        1,
+        500,
+        now,
+        List.of(),
+        retryAt
+    ));
+    assertThat(deliveryRepository.findById(retryId).orElseThrow().nextAttemptAt()).isEqualTo(retryAt);
+    assertThat(deliveryRepository.findPendingRetries(retryAt.plusSeconds(60), null, null, 10))
+        .anyMatch(item -> item.id().equals(retryId));
+    assertThat(deliveryRepository.findPendingRetries(retryAt.minusSeconds(30), null, null, 10))
+        .noneMatch(item -> item.id().equals(retryId));
+    assertThat(deliveryRepository.findPendingRetries(retryAt.plusSeconds(60), retryAt, retryId, 10))
+        .noneMatch(item -> item.id().equals(retryId));
+
+    assertThat(deliveryRepository.claimAttempt(retryId, 2, retryAt, retryAt.plusSeconds(30))).isPresent();
+    assertThat(deliveryRepository.claimAttempt(retryId, 2, retryAt, retryAt.plusSeconds(30))).isEmpty();
+    assertThat(deliveryRepository.claimAttempt(retryId, 2, retryAt.plusSeconds(31), retryAt.plusSeconds(61)))
+        .isPresent();
+  }
+
+  @Test
+  @Timeout(10)
+  void idempotentOperationRunsOnceAcrossInstances() throws Exception {
+    AtomicInteger executions = new AtomicInteger();
+    String webhookId = UUID.randomUUID().toString();
+    IdempotencyRequest request = new IdempotencyRequest("POST", "/v1/webhooks", "idem-" + webhookId, "hash-a");
+
+    IdempotencyResult first = idempotencyStore.execute(request, transaction -> {
+      executions.incrementAndGet();
+      transaction.set(webhookProperties.getCollection(), webhookId, Map.of("targetUrl", "https://x"));
+      return new IdempotencyResponse(201, "{\"id\":\"" + webhookId + "\"}", Map.of("Location", "/v1/webhooks"));
+    });
+    assertThat(first.replay()).isFalse();
+    assertThat(firestore.collection(webhookProperties.getCollection()).document(webhookId).get().get().exists())
+        .isTrue();
+
+    IdempotencyResult localReplay = idempotencyStore.execute(request, transaction -> {
+      executions.incrementAndGet();
+      return new IdempotencyResponse(500, "", Map.of());
+    });
+    assertThat(localReplay.replay()).isTrue();
+    assertThat(localReplay.statusCode()).isEqualTo(201);
+
+    FirestoreIdempotencyStore otherInstance =
+        new FirestoreIdempotencyStore(firestore, idempotencyProperties, Clock.systemUTC());
+    IdempotencyResult remoteReplay = otherInstance.execute(request, transaction -> {
+      executions.incrementAndGet();
+      return new IdempotencyResponse(500, "", Map.of());
+    });
+    assertThat(remoteReplay.replay()).isTrue();
+    assertThat(remoteReplay.responseHeaders()).containsEntry("Location", "/v1/webhooks");
+    assertThat(executions.get()).isEqualTo(1);
+
+    IdempotencyRequest changed = new IdempotencyRequest("POST", "/v1/webhooks", request.idempotencyKey(), "hash-b");
+    assertThatThrownBy(() -> otherInstance.execute(changed, transaction -> new IdempotencyResponse(201, "", Map.of())))
+        .isInstanceOf(IdempotencyConflictException.class);
+  }
+
+  @Test
+  @Timeout(10)
+  void asyncFinalizedRecordIsVisibleToOtherInstances() {
+    IdempotencyRequest request = new IdempotencyRequest("POST", "/v1/echo", "idem-" + UUID.randomUUID(), "hash");
+    idempotencyStore.execute(request, transaction -> new IdempotencyResponse(200, "{}", Map.of()));
+
+    FirestoreIdempotencyStore otherInstance =
+        new FirestoreIdempotencyStore(firestore, idempotencyProperties, Clock.systemUTC());
+    IdempotencyResult replay = otherInstance.execute(request,
+        transaction -> new IdempotencyResponse(500, "", Map.of()));
+    assertThat(replay.replay()).isTrue();
+    assertThat(replay.statusCode()).isEqualTo(200);
+  }
+
+  @Test
+  @Timeout(10)
+  void slowOperationKeepsItsClaimPastTheClaimTtl() throws Exception {
+    IdempotencyProperties shortClaims = new IdempotencyProperties();
+    shortClaims.setCollection(idempotencyProperties.getCollection());
+    shortClaims.setClaimTtlMs(300);
+    shortClaims.setInFlightWaitMs(0);
+    FirestoreIdempotencyStore owner = new FirestoreIdempotencyStore(firestore, shortClaims, Clock.systemUTC());
+    FirestoreIdempotencyStore otherInstance =
+        new FirestoreIdempotencyStore(firestore, shortClaims, Clock.systemUTC());
+    IdempotencyRequest request = new IdempotencyRequest("POST", "/v1/echo", "idem-" + UUID.randomUUID(), "hash");
+    AtomicInteger executions = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+
+    Thread slow = Thread.ofVirtual().start(() -> owner.execute(request, transaction -> {
+      executions.incrementAndGet();
+      started.countDown();
+      sleep(1200);
+      return new IdempotencyResponse(200, "{}", Map.of());
+    }));
+    started.await();
+    sleep(900);
+
+    assertThatThrownBy(() -> otherInstance.execute(request, transaction -> {
+      executions.incrementAndGet();
+      return new IdempotencyResponse(200, "{}", Map.of());
+    })).isInstanceOf(IdempotencyInProgressException.class);
+    slow.join();
+    assertThat(executions.get()).isEqualTo(1);
+    owner.shutdown();
+    otherInstance.shutdown();
+  }
+
+  @Test
+  @Timeout(10)
+  void unknownOutcomeIsNeverRunAgain() throws Exception {
+    IdempotencyRequest request = new IdempotencyRequest("POST", "/v1/echo", "idem-" + UUID.randomUUID(), "hash");
+    String docId = HashingUtils.sha256Hex(request.method() + " " + request.path() + " " + request.idempotencyKey());
+    firestore.collection(idempotencyProperties.getCollection()).document(docId)
+        .create(Map.of("idempotencyKey", request.idempotencyKey(), "requestHash", "hash", "state", "UNKNOWN"))
+        .get();
+
+    FirestoreIdempotencyStore otherInstance =
+        new FirestoreIdempotencyStore(firestore, idempotencyProperties, Clock.systemUTC());
+    assertThatThrownBy(() -> otherInstance.execute(request, transaction -> new IdempotencyResponse(200, "{}", Map.of())))
+        .isInstanceOf(IdempotencyOutcomeUnknownException.class);
+    otherInstance.shutdown();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
   }
 
   private void clearCollections() {
     clearCollection(webhookProperties.getCollection());
     clearCollection(deliveryProperties.getCollection());
+    clearCollection(idempotencyProperties.getCollection());
   }
 
   private void clearCollection(String collection) {
@@ -0,0 +1,180 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.apipratudo.gateway.config.IdempotencyProperties;
+import com.apipratudo.gateway.idempotency.IdempotencyRequest;
+import com.apipratudo.gateway.idempotency.IdempotencyResponse;
+import com.apipratudo.gateway.idempotency.IdempotencyResult;
+import com.apipratudo.gateway.idempotency.InMemoryIdempotencyStore;
+import com.apipratudo.gateway.webhook.IdempotencyConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InMemoryIdempotencyStoreTest {
+
+  private final MutableClock clock =
+      new MutableClock(Instant.parse("2026-10-17T12:00:00Z"));
+
+  @Test
+  void concurrentCallersWithSameKeyShareOneExecution() throws Exception {
+    InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties(100), clock, new SimpleMeterRegistry());
+    AtomicInteger executions = new AtomicInteger();
+    int callers = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<IdempotencyResult>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return store.execute(request("key-1", "hash-1"), transaction -> {
+            executions.incrementAndGet();
+            sleep(200);
+            return new IdempotencyResponse(201, "{\"id\":\"1\"}", Map.of("Location", "/v1/x/1"));
+          });
+        }));
+      }
+      start.countDown();
+      int replays = 0;
+      for (Future<IdempotencyResult> future : results) {
+        IdempotencyResult result = future.get(5, TimeUnit.SECONDS);
+        assertThat(result.statusCode()).isEqualTo(201);
+        assertThat(result.responseHeaders()).containsEntry("Location", "/v1/x/1");
+        replays += result.replay() ? 1 : 0;
+      }
+      assertThat(executions.get()).isEqualTo(1);
+      assertThat(replays).isEqualTo(callers - 1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void slowOperationDoesNotBlockOtherKeys() throws Exception {
+    InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties(100), clock, new SimpleMeterRegistry());
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<IdempotencyResult> slow = executor.submit(() -> store.execute(request("slow", "hash"), transaction -> {
+        await(release);
+        return new IdempotencyResponse(200, "{}", Map.of());
+      }));
+      for (int i = 0; i < 200; i++) {
+        String key = "fast-" + i;
+        IdempotencyResult result = executor.submit(() -> store.execute(request(key, "hash"),
+            transaction -> new IdempotencyResponse(200, "{}", Map.of()))).get(1, TimeUnit.SECONDS);
+        assertThat(result.replay()).isFalse();
+      }
+      assertThat(slow.isDone()).isFalse();
+      release.countDown();
+      assertThat(slow.get(1, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void differentPayloadConflictsEvenWhileInFlight() throws Exception {
+    InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties(100), clock, new SimpleMeterRegistry());
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<IdempotencyResult> first = executor.submit(() -> store.execute(request("key", "hash-a"), tx -> {
+        running.countDown();
+        await(release);
+        return new IdempotencyResponse(200, "{}", Map.of());
+      }));
+      assertThat(running.await(1, TimeUnit.SECONDS)).isTrue();
+      assertThatThrownBy(() -> store.execute(request("key", "hash-b"),
+          tx -> new IdempotencyResponse(200, "{}", Map.of())))
+          .isInstanceOf(IdempotencyConflictException.class);
+      release.countDown();
+      assertThat(first.get(1, TimeUnit.SECONDS).replay()).isFalse();
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void failedOperationIsNotRecorded() {
+    InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties(100), clock, new SimpleMeterRegistry());
+    assertThatThrownBy(() -> store.execute(request("key", "hash"), tx -> {
+      throw new IllegalStateException("downstream down");
+    })).isInstanceOf(IllegalStateException.class);
+
+    IdempotencyResult retried = store.execute(request("key", "hash"),
+        tx -> new IdempotencyResponse(200, "{}", Map.of()));
+    assertThat(retried.replay()).isFalse();
+  }
+
+  @Test
+  void completedRecordsExpireAndAreBoundedInSize() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(properties(3), clock, meterRegistry);
+    AtomicInteger executions = new AtomicInteger();
+    for (int i = 0; i < 5; i++) {
+      store.execute(request("key-" + i, "hash"), tx -> {
+        executions.incrementAndGet();
+        return new IdempotencyResponse(200, "{}", Map.of());
+      });
+    }
+    assertThat(store.execute(request("key-4", "hash"), tx -> new IdempotencyResponse(500, "", Map.of())).replay())
+        .isTrue();
+    assertThat(store.execute(request("key-0", "hash"), tx -> {
+      executions.incrementAndGet();
+      return new IdempotencyResponse(200, "{}", Map.of());
+    }).replay()).isFalse();
+    assertThat(executions.get()).isEqualTo(6);
+    assertThat(meterRegistry.get("gateway.idempotency.memory.evictions").tag("cause", "size").counter().count())
+        .isEqualTo(3);
+
+    clock.advance(Duration.ofSeconds(61));
+    store.sweep();
+    assertThat(meterRegistry.get("gateway.idempotency.memory.size").gauge().value()).isZero();
+    assertThat(store.execute(request("key-4", "hash"), tx -> new IdempotencyResponse(202, "", Map.of())).replay())
+        .isFalse();
+  }
+
+  private static IdempotencyProperties properties(int maxEntries) {
+    IdempotencyProperties properties = new IdempotencyProperties();
+    properties.setTtlSeconds(60);
+    properties.setMemoryMaxEntries(maxEntries);
+    return properties;
+  }
+
+  private static IdempotencyRequest request(String key, String hash) {
+    return new IdempotencyRequest("POST", "/v1/webhooks", key, hash);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "app.results-cache.enabled=true",
+    "app.loterias.deadline-ms=1000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoteriasResultadosTest {
+
+  private static final List<String> GAMES = List.of("megasena", "lotofacil", "quina", "lotomania", "timemania",
+      "duplasena", "federal", "diadesorte", "supersete", "maismilionaria", "loteca");
+
+  private static final AtomicInteger LOTECA_CALLS = new AtomicInteger();
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer resultsServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":97}");
+        }
+      });
+      resultsServer = new MockWebServer();
+      resultsServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          String path = request.getPath();
+          if ("/v1/quina/resultado-oficial".equals(path)) {
+            return new MockResponse().setResponseCode(500);
+          }
+          if ("/v1/loteca/resultado-oficial".equals(path)) {
+            LOTECA_CALLS.incrementAndGet();
+            Thread.sleep(3000);
+          }
+          String game = path.split("/")[2];
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"loteria\":\"" + game + "\",\"concurso\":\"100\"}");
+        }
+      });
+      try {
+        quotaServer.start();
+        resultsServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    for (String game : GAMES) {
+      registry.add(game + ".base-url", () -> resultsServer.url("/").toString());
+    }
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      resultsServer.shutdown();
+    }
+  }
+
+  @Test
+  void fansOutToAllGamesAndReportsPartialFailures() throws Exception {
+    long started = System.nanoTime();
+    mockMvc.perform(get("/v1/loterias/resultados").header("X-Api-Key", "dashboard-key"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.parcial").value(true))
+        .andExpect(jsonPath("$.resultados.megasena.status").value("OK"))
+        .andExpect(jsonPath("$.resultados.megasena.resultado.concurso").value("100"))
+        .andExpect(jsonPath("$.resultados.maismilionaria.resultado.loteria").value("maismilionaria"))
+        .andExpect(jsonPath("$.resultados.quina.status").value("ERRO"))
+        .andExpect(jsonPath("$.resultados.quina.httpStatus").value(500))
+        .andExpect(jsonPath("$.resultados.loteca.status").value("TIMEOUT"));
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+    assertThat(elapsedMs).isLessThan(2500);
+    RecordedRequest consume = quotaServer.takeRequest(1, TimeUnit.SECONDS);
+    assertThat(consume).isNotNull();
+    assertThat(consume.getBody().readUtf8()).contains("\"cost\":3");
+    assertThat(quotaServer.getRequestCount()).isEqualTo(1);
+
+    Thread.sleep(3000);
+    mockMvc.perform(get("/v1/loterias/resultados").header("X-Api-Key", "dashboard-key"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.resultados.loteca.status").value("OK"))
+        .andExpect(jsonPath("$.resultados.loteca.cache").value("HIT"));
+    assertThat(LOTECA_CALLS.get()).isEqualTo(1);
+  }
+}
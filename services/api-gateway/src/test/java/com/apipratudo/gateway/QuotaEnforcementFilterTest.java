@@ -3,6 +3,7 @@ package com.apipratudo.gateway;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,6 +57,7 @@ class QuotaEnforcementFilterTest {
     registry.add("quota.base-url", () -> quotaServer.url("/").toString());
     registry.add("quota.timeout-ms", () -> 2000);
     registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("quota.invalid-key-ip-threshold", () -> 3);
 
     if (webhookServer == null) {
       webhookServer = new MockWebServer();
@@ -63,6 +65,9 @@ class QuotaEnforcementFilterTest {
         @Override
         public MockResponse dispatch(RecordedRequest request) {
           if ("POST".equals(request.getMethod()) && "/v1/webhooks".equals(request.getPath())) {
+            if (request.getBody().clone().readUtf8().contains("falha.exemplo.com")) {
+              return new MockResponse().setResponseCode(500);
+            }
             return new MockResponse()
                 .setResponseCode(201)
                 .setHeader("Content-Type", "application/json")
@@ -208,6 +213,50 @@ class QuotaEnforcementFilterTest {
         .andExpect(jsonPath("$.message").value("Quota auth misconfigured"));
   }
 
+  @Test
+  void invalidKeyIsRejectedLocallyAfterFirstLookup() throws Exception {
+    quotaServer.enqueue(invalidKeyResponse());
+
+    mockMvc.perform(get("/v1/webhooks")
+            .header("X-Api-Key", "unknown-key"))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.error").value("UNAUTHORIZED"));
+    mockMvc.perform(get("/v1/webhooks")
+            .header("X-Api-Key", "unknown-key"))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.error").value("UNAUTHORIZED"));
+
+    assertThat(quotaServer.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+    assertThat(quotaServer.takeRequest(200, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  void ipWithTooManyInvalidKeysIsRateLimited() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      quotaServer.enqueue(invalidKeyResponse());
+      mockMvc.perform(get("/v1/webhooks")
+              .header("X-Api-Key", "stuffed-key-" + i)
+              .with(request -> {
+                request.setRemoteAddr("10.0.0.9");
+                return request;
+              }))
+          .andExpect(status().isUnauthorized());
+      assertThat(quotaServer.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    mockMvc.perform(get("/v1/webhooks")
+            .header("X-Api-Key", "stuffed-key-next")
+            .with(request -> {
+              request.setRemoteAddr("10.0.0.9");
+              return request;
+            }))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.error").value("RATE_LIMITED"));
+
+    assertThat(quotaServer.takeRequest(200, TimeUnit.MILLISECONDS)).isNull();
+  }
+
   @Test
   void allowedRequestCallsConsumeAndNoRefund() throws Exception {
     quotaServer.enqueue(new MockResponse()
@@ -234,11 +283,50 @@ class QuotaEnforcementFilterTest {
 
     JsonNode payload = objectMapper.readTree(consumeRequest.getBody().readUtf8());
     assertThat(payload.get("requestId").asText()).isEqualTo("idem-123");
+    assertThat(payload.get("ephemeral").asBoolean()).isFalse();
 
     RecordedRequest refundRequest = quotaServer.takeRequest(200, TimeUnit.MILLISECONDS);
     assertThat(refundRequest).isNull();
   }
 
+  @Test
+  void failedEphemeralRequestSendsTheRefundTokenBack() throws Exception {
+    quotaServer.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99,\"refundToken\":\"token-1\"}"));
+    quotaServer.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"refunded\":true}"));
+
+    String body = objectMapper.writeValueAsString(Map.of(
+        "targetUrl", "https://falha.exemplo.com/webhooks/apipratudo",
+        "eventType", "invoice.paid"
+    ));
+
+    int status = mockMvc.perform(post("/v1/webhooks")
+            .header("X-Api-Key", "allow-key")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andReturn()
+        .getResponse()
+        .getStatus();
+    assertThat(status).isGreaterThanOrEqualTo(500);
+
+    RecordedRequest consumeRequest = quotaServer.takeRequest(1, TimeUnit.SECONDS);
+    assertThat(consumeRequest).isNotNull();
+    JsonNode consume = objectMapper.readTree(consumeRequest.getBody().readUtf8());
+    assertThat(consume.get("ephemeral").asBoolean()).isTrue();
+
+    RecordedRequest refundRequest = quotaServer.takeRequest(1, TimeUnit.SECONDS);
+    assertThat(refundRequest).isNotNull();
+    assertThat(refundRequest.getPath()).isEqualTo("/v1/quota/refund");
+    JsonNode refund = objectMapper.readTree(refundRequest.getBody().readUtf8());
+    assertThat(refund.get("requestId").asText()).isEqualTo(consume.get("requestId").asText());
+    assertThat(refund.get("refundToken").asText()).isEqualTo("token-1");
+  }
+
   @Test
   void pixWebhookBypassesQuota() throws Exception {
     billingSaasServer.enqueue(new MockResponse()
@@ -343,4 +431,11 @@ class QuotaEnforcementFilterTest {
     assertThat(reconciliationRequest.getHeader("X-Service-Token")).isEqualTo("test-reconciliation");
     assertThat(reconciliationRequest.getHeader("X-Tenant-Id")).isNotBlank();
   }
+
+  private static MockResponse invalidKeyResponse() {
+    return new MockResponse()
+        .setResponseCode(401)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"allowed\":false,\"reason\":\"INVALID_KEY\"}");
+  }
 }
@@ -0,0 +1,142 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.apipratudo.gateway.quota.QuotaClient;
+import com.apipratudo.gateway.quota.QuotaClientProperties;
+import com.apipratudo.gateway.quota.QuotaLeaseManager;
+import com.apipratudo.gateway.quota.QuotaLeaseResponse;
+import com.apipratudo.gateway.quota.QuotaLeaseReturnRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class QuotaLeaseManagerTest {
+
+  private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+  private static final String API_KEY = "key-1";
+
+  private final QuotaClient quotaClient = mock(QuotaClient.class);
+  private final MutableClock clock = new MutableClock(NOW);
+  private QuotaLeaseManager manager;
+
+  @BeforeEach
+  void setup() {
+    QuotaClientProperties properties = new QuotaClientProperties();
+    properties.setLeaseEnabled(true);
+    properties.setLeaseUnits(3);
+    manager = new QuotaLeaseManager(quotaClient, properties, clock);
+  }
+
+  @Test
+  void spendIsReportedPerRouteWithTheUnusedUnits() {
+    grant("lease-1", 3);
+
+    QuotaLeaseManager.Lease first = manager.tryAcquire(API_KEY, null);
+    QuotaLeaseManager.Lease second = manager.tryAcquire(API_KEY, null);
+    assertThat(first).isSameAs(second);
+    manager.settle(first, "GET /v1/cep/01001-000");
+    manager.settle(second, "GET /v1/cep/01001-000");
+
+    clock.advance(Duration.ofSeconds(10));
+    manager.sweep();
+
+    assertThat(returns()).containsExactly(
+        new QuotaLeaseReturnRequest(API_KEY, "lease-1", 1, Map.of("GET /v1/cep/01001-000", 2L)));
+    verify(quotaClient, times(1)).lease(anyString(), anyInt(), any());
+  }
+
+  @Test
+  void refundBeforeRetirementGoesBackIntoTheLease() {
+    grant("lease-1", 1);
+
+    QuotaLeaseManager.Lease lease = manager.tryAcquire(API_KEY, null);
+    manager.refund(lease);
+    assertThat(manager.tryAcquire(API_KEY, null)).isSameAs(lease);
+
+    verify(quotaClient, times(1)).lease(anyString(), anyInt(), any());
+    manager.sweep();
+    verify(quotaClient, never()).returnLease(any(), any());
+  }
+
+  @Test
+  void refundAndSpendAfterRetirementAreReturnedOnTheirOwn() {
+    grant("lease-1", 2);
+    QuotaLeaseManager.Lease failed = manager.tryAcquire(API_KEY, null);
+    QuotaLeaseManager.Lease served = manager.tryAcquire(API_KEY, null);
+
+    clock.advance(Duration.ofSeconds(10));
+    manager.sweep();
+    verify(quotaClient, never()).returnLease(any(), any());
+
+    manager.refund(failed);
+    manager.settle(served, "POST /v1/webhooks");
+    manager.sweep();
+
+    assertThat(returns()).containsExactly(
+        new QuotaLeaseReturnRequest(API_KEY, "lease-1", 1, Map.of()),
+        new QuotaLeaseReturnRequest(API_KEY, "lease-1", 0, Map.of("POST /v1/webhooks", 1L)));
+  }
+
+  @Test
+  void deniedLeaseBacksOffForOneSecond() {
+    when(quotaClient.lease(anyString(), anyInt(), any()))
+        .thenReturn(new QuotaLeaseResponse(null, false, "QUOTA_EXCEEDED", 0, null, null, false, null));
+
+    assertThat(manager.tryAcquire(API_KEY, null)).isNull();
+    assertThat(manager.tryAcquire(API_KEY, null)).isNull();
+    verify(quotaClient, times(1)).lease(anyString(), anyInt(), any());
+
+    clock.advance(Duration.ofSeconds(1));
+    grant("lease-2", 3);
+    assertThat(manager.tryAcquire(API_KEY, null)).isNotNull();
+    verify(quotaClient, times(2)).lease(anyString(), anyInt(), any());
+  }
+
+  @Test
+  void failedLeaseCallAlsoBacksOff() {
+    when(quotaClient.lease(anyString(), anyInt(), any())).thenThrow(new IllegalStateException("down"));
+
+    assertThat(manager.tryAcquire(API_KEY, null)).isNull();
+    assertThat(manager.tryAcquire(API_KEY, null)).isNull();
+
+    verify(quotaClient, times(1)).lease(anyString(), anyInt(), any());
+  }
+
+  @Test
+  void shutdownReturnsWhatIsLeft() {
+    grant("lease-1", 3);
+    QuotaLeaseManager.Lease lease = manager.tryAcquire(API_KEY, null);
+    manager.settle(lease, "GET /v1/echo");
+
+    manager.shutdown();
+
+    assertThat(returns()).containsExactly(
+        new QuotaLeaseReturnRequest(API_KEY, "lease-1", 2, Map.of("GET /v1/echo", 1L)));
+  }
+
+  private void grant(String leaseId, long units) {
+    when(quotaClient.lease(anyString(), anyInt(), any())).thenReturn(new QuotaLeaseResponse(leaseId, true, null,
+        units, NOW, "2024-03-01", false, NOW.plusSeconds(10)));
+  }
+
+  private List<QuotaLeaseReturnRequest> returns() {
+    ArgumentCaptor<QuotaLeaseReturnRequest> captor = ArgumentCaptor.forClass(QuotaLeaseReturnRequest.class);
+    verify(quotaClient, atLeastOnce()).returnLease(captor.capture(), isNull());
+    return captor.getAllValues();
+  }
+}
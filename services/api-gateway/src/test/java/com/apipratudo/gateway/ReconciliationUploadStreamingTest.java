@@ -0,0 +1,222 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.gateway.idempotency.HashingUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "reconciliation.max-upload-bytes=220000000",
+    "reconciliation.upload-timeout-ms=120000"
+})
+@ActiveProfiles("test")
+class ReconciliationUploadStreamingTest {
+
+  private static final long FILE_BYTES = 200L * 1024 * 1024;
+  private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+  private static final String BOUNDARY = "statement-boundary";
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer reconciliationServer;
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      reconciliationServer = new MockWebServer();
+      reconciliationServer.setBodyLimit(0);
+      reconciliationServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"importId\":\"imp_1\",\"status\":\"PROCESSED\"}");
+        }
+      });
+      try {
+        quotaServer.start();
+        reconciliationServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start mock servers", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("reconciliation.base-url", () -> reconciliationServer.url("/").toString());
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+      reconciliationServer.shutdown();
+    }
+  }
+
+  @Test
+  @Timeout(180)
+  void largeStatementIsStreamedWithConstantHeap() throws Exception {
+    byte[] head = ("--" + BOUNDARY + "\r\n"
+        + "Content-Disposition: form-data; name=\"accountId\"\r\n\r\n"
+        + "acc-1\r\n"
+        + "--" + BOUNDARY + "\r\n"
+        + "Content-Disposition: form-data; name=\"file\"; filename=\"extrato.ofx\"\r\n"
+        + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    long contentLength = head.length + FILE_BYTES + tail.length;
+
+    HeapSampler sampler = new HeapSampler();
+    Thread samplerThread = new Thread(sampler, "heap-sampler");
+    HttpURLConnection connection = (HttpURLConnection) URI.create(
+        "http://localhost:" + port + "/v1/importar-extrato").toURL().openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(contentLength);
+    connection.setRequestProperty("X-Api-Key", "upload-key");
+    connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+
+    samplerThread.start();
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(head);
+      byte[] chunk = new byte[64 * 1024];
+      for (int i = 0; i < chunk.length; i++) {
+        chunk[i] = (byte) ('A' + i % 26);
+      }
+      for (long written = 0; written < FILE_BYTES; written += chunk.length) {
+        out.write(chunk, 0, (int) Math.min(chunk.length, FILE_BYTES - written));
+      }
+      out.write(tail);
+    }
+    int status = connection.getResponseCode();
+    sampler.stop();
+    samplerThread.join();
+
+    assertThat(status).isEqualTo(200);
+    RecordedRequest recorded = reconciliationServer.takeRequest(5, TimeUnit.SECONDS);
+    assertThat(recorded).isNotNull();
+    assertThat(recorded.getPath()).isEqualTo("/v1/importar-extrato");
+    assertThat(recorded.getBodySize()).isEqualTo(contentLength);
+    assertThat(recorded.getHeader("Content-Type")).contains("boundary=" + BOUNDARY);
+    assertThat(recorded.getHeader("X-Tenant-Id")).isEqualTo(HashingUtils.sha256Hex("upload-key"));
+    assertThat(sampler.maxGrowth()).isLessThan(MAX_HEAP_GROWTH_BYTES);
+  }
+
+  @Test
+  void declaredSizeAboveLimitIsRejectedBeforeForwarding() throws Exception {
+    int before = reconciliationServer.getRequestCount();
+    try (Socket socket = new Socket("localhost", port)) {
+      OutputStream out = socket.getOutputStream();
+      out.write(("POST /v1/importar-extrato HTTP/1.1\r\n"
+          + "Host: localhost\r\n"
+          + "X-Api-Key: upload-key\r\n"
+          + "Content-Type: multipart/form-data; boundary=" + BOUNDARY + "\r\n"
+          + "Content-Length: 300000000\r\n"
+          + "\r\n").getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      assertThat(reader.readLine()).startsWith("HTTP/1.1 413");
+    }
+    assertThat(reconciliationServer.getRequestCount()).isEqualTo(before);
+  }
+
+  @Test
+  void contentTypeWithoutBoundaryIsRejectedBeforeForwarding() throws Exception {
+    int before = reconciliationServer.getRequestCount();
+    assertThat(post("multipart/form-data")).isEqualTo(400);
+    assertThat(post("multipart/form-data; boundary=")).isEqualTo(400);
+    assertThat(post("application/json")).isEqualTo(400);
+    assertThat(post("not a media type")).isEqualTo(400);
+    assertThat(post(null)).isEqualTo(400);
+    assertThat(reconciliationServer.getRequestCount()).isEqualTo(before);
+  }
+
+  private int post(String contentType) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) URI.create(
+        "http://localhost:" + port + "/v1/importar-extrato").toURL().openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("X-Api-Key", "upload-key");
+    if (contentType != null) {
+      connection.setRequestProperty("Content-Type", contentType);
+    }
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write("--x\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+    return connection.getResponseCode();
+  }
+
+  private static final class HeapSampler implements Runnable {
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong peak = new AtomicLong();
+    private final long baseline;
+
+    HeapSampler() {
+      this.baseline = usedAfterGc();
+    }
+
+    @Override
+    public void run() {
+      while (running.get()) {
+        peak.accumulateAndGet(usedAfterGc(), Math::max);
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+
+    void stop() {
+      running.set(false);
+    }
+
+    long maxGrowth() {
+      return peak.get() - baseline;
+    }
+
+    private static long usedAfterGc() {
+      System.gc();
+      Runtime runtime = Runtime.getRuntime();
+      return runtime.totalMemory() - runtime.freeMemory();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "app.coalescing.enabled=true",
+    "app.coalescing.max-body-bytes=1024"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestCoalescingTest {
+
+  private static final AtomicInteger AGENDA_CALLS = new AtomicInteger();
+  private static final AtomicInteger CONSUME_CALLS = new AtomicInteger();
+  private static final AtomicInteger BIG_AGENDA_CALLS = new AtomicInteger();
+  private static final String BIG_BODY = "{\"id\":\"ag-big\",\"nome\":\"" + "x".repeat(4096) + "\"}";
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer schedulingServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          if ("/v1/quota/consume".equals(request.getPath())) {
+            CONSUME_CALLS.incrementAndGet();
+          }
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      try {
+        quotaServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start quota mock server", e);
+      }
+    }
+
+    if (schedulingServer == null) {
+      schedulingServer = new MockWebServer();
+      schedulingServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          if ("/v1/agendas/ag-big".equals(request.getPath())) {
+            BIG_AGENDA_CALLS.incrementAndGet();
+            Thread.sleep(400);
+            return new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setBody(BIG_BODY);
+          }
+          AGENDA_CALLS.incrementAndGet();
+          Thread.sleep(400);
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"id\":\"ag-1\",\"nome\":\"Agenda\"}");
+        }
+      });
+      try {
+        schedulingServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start scheduling mock server", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("scheduling.base-url", () -> schedulingServer.url("/").toString());
+    registry.add("scheduling.service-token", () -> "test-scheduling-token");
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+    }
+    if (schedulingServer != null) {
+      schedulingServer.shutdown();
+    }
+  }
+
+  @Test
+  void identicalConcurrentGetsShareOneDownstreamCall() throws Exception {
+    int callers = 6;
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        responses.add(executor.submit(() -> {
+          start.await();
+          return mockMvc.perform(get("/v1/agendas/ag-1").header("X-Api-Key", "tenant-a"))
+              .andReturn()
+              .getResponse();
+        }));
+      }
+      start.countDown();
+      for (Future<MockHttpServletResponse> future : responses) {
+        MockHttpServletResponse response = future.get(5, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).startsWith("application/json");
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":\"ag-1\",\"nome\":\"Agenda\"}");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(AGENDA_CALLS.get()).isEqualTo(1);
+    assertThat(CONSUME_CALLS.get()).isEqualTo(callers);
+    assertThat(meterRegistry.get("gateway.coalescing.requests").tag("role", "follower").counter().count())
+        .isEqualTo(callers - 1);
+    assertThat(meterRegistry.get("gateway.coalescing.ratio").gauge().value()).isGreaterThan(0.5);
+  }
+
+  @Test
+  void followersFallBackWhenTheBodyExceedsTheCopyLimit() throws Exception {
+    double fallbacksBefore = meterRegistry.get("gateway.coalescing.requests").tag("role", "fallback").counter()
+        .count();
+    int callers = 3;
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        responses.add(executor.submit(() -> {
+          start.await();
+          return mockMvc.perform(get("/v1/agendas/ag-big").header("X-Api-Key", "tenant-big"))
+              .andReturn()
+              .getResponse();
+        }));
+      }
+      start.countDown();
+      for (Future<MockHttpServletResponse> future : responses) {
+        MockHttpServletResponse response = future.get(5, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(BIG_BODY);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(BIG_AGENDA_CALLS.get()).isEqualTo(callers);
+    assertThat(meterRegistry.get("gateway.coalescing.requests").tag("role", "fallback").counter().count()
+        - fallbacksBefore).isEqualTo(callers - 1);
+  }
+}
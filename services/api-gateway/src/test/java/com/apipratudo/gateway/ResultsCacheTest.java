@@ -0,0 +1,213 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.apipratudo.gateway.results.DrawCalendar;
+import com.apipratudo.gateway.results.ResultsCacheProperties;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+    "app.results-cache.draw-ttl-ms=60000",
+    "app.results-cache.idle-ttl-ms=60000",
+    "app.results-cache.stale-ms=600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResultsCacheTest {
+
+  private static final MutableClock CLOCK = new MutableClock(Instant.parse("2026-10-14T15:00:00Z"));
+  private static final ConcurrentMap<String, AtomicInteger> UPSTREAM_CALLS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, String> UPSTREAM_CONCURSO = new ConcurrentHashMap<>();
+
+  private static MockWebServer quotaServer;
+  private static MockWebServer resultsServer;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @TestConfiguration
+  static class ClockConfig {
+    @Bean
+    @Primary
+    Clock testClock() {
+      return CLOCK;
+    }
+  }
+
+  @DynamicPropertySource
+  static void registerProperties(DynamicPropertyRegistry registry) {
+    if (quotaServer == null) {
+      quotaServer = new MockWebServer();
+      quotaServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"allowed\":true,\"limit\":100,\"remaining\":99}");
+        }
+      });
+      try {
+        quotaServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start quota mock server", e);
+      }
+    }
+
+    if (resultsServer == null) {
+      resultsServer = new MockWebServer();
+      resultsServer.setDispatcher(new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          String game = request.getPath().split("/")[2];
+          UPSTREAM_CALLS.computeIfAbsent(game, key -> new AtomicInteger()).incrementAndGet();
+          if ("quina".equals(game)) {
+            Thread.sleep(300);
+          }
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody("{\"concurso\":\"" + UPSTREAM_CONCURSO.getOrDefault(game, "100") + "\"}");
+        }
+      });
+      try {
+        resultsServer.start();
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to start results mock server", e);
+      }
+    }
+
+    registry.add("quota.base-url", () -> quotaServer.url("/").toString());
+    registry.add("quota.internal-token", () -> "test-internal");
+    registry.add("federal.base-url", () -> resultsServer.url("/").toString());
+    registry.add("quina.base-url", () -> resultsServer.url("/").toString());
+    registry.add("lotofacil.base-url", () -> resultsServer.url("/").toString());
+  }
+
+  @AfterAll
+  static void shutdownServers() throws IOException {
+    if (quotaServer != null) {
+      quotaServer.shutdown();
+    }
+    if (resultsServer != null) {
+      resultsServer.shutdown();
+    }
+  }
+
+  @Test
+  void secondRequestIsServedFromCacheButStillConsumesQuota() throws Exception {
+    int quotaBefore = quotaServer.getRequestCount();
+
+    mockMvc.perform(get("/v1/federal/resultado-oficial").header("X-Api-Key", "cache-key"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Cache", "MISS"))
+        .andExpect(jsonPath("$.concurso").value("100"));
+    mockMvc.perform(get("/v1/federal/resultado-oficial").header("X-Api-Key", "cache-key"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Cache", "HIT"))
+        .andExpect(jsonPath("$.concurso").value("100"));
+
+    assertThat(UPSTREAM_CALLS.get("federal").get()).isEqualTo(1);
+    assertThat(quotaServer.getRequestCount() - quotaBefore).isEqualTo(2);
+  }
+
+  @Test
+  void concurrentMissesShareOneUpstreamCall() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        statuses.add(executor.submit(() -> mockMvc.perform(get("/v1/quina/resultado-oficial")
+                .header("X-Api-Key", "cache-key"))
+            .andReturn()
+            .getResponse()
+            .getStatus()));
+      }
+      for (Future<Integer> result : statuses) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(UPSTREAM_CALLS.get("quina").get()).isEqualTo(1);
+  }
+
+  @Test
+  void staleEntryIsServedWhileRevalidating() throws Exception {
+    mockMvc.perform(get("/v1/lotofacil/resultado-oficial").header("X-Api-Key", "cache-key"))
+        .andExpect(header().string("X-Cache", "MISS"))
+        .andExpect(jsonPath("$.concurso").value("100"));
+
+    UPSTREAM_CONCURSO.put("lotofacil", "101");
+    CLOCK.advance(Duration.ofMinutes(2));
+
+    mockMvc.perform(get("/v1/lotofacil/resultado-oficial").header("X-Api-Key", "cache-key"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Cache", "STALE"))
+        .andExpect(jsonPath("$.concurso").value("100"));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    String concurso = "100";
+    while (!"101".equals(concurso) && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+      concurso = mockMvc.perform(get("/v1/lotofacil/resultado-oficial").header("X-Api-Key", "cache-key"))
+          .andReturn()
+          .getResponse()
+          .getContentAsString()
+          .replaceAll("\\D", "");
+    }
+    assertThat(concurso).isEqualTo("101");
+    assertThat(UPSTREAM_CALLS.get("lotofacil").get()).isEqualTo(2);
+  }
+
+  @Test
+  void drawCalendarShortensTtlAroundDraws() {
+    ResultsCacheProperties properties = new ResultsCacheProperties();
+    DrawCalendar calendar = new DrawCalendar(properties);
+
+    // 2026-10-13 is a Tuesday; Mega-Sena draws Tue/Thu/Sat from 19:00 (UTC-3).
+    assertThat(calendar.freshFor("megasena", Instant.parse("2026-10-13T23:30:00Z")))
+        .isEqualTo(Duration.ofMinutes(2));
+    assertThat(calendar.freshFor("megasena", Instant.parse("2026-10-14T04:00:00Z")))
+        .isEqualTo(Duration.ofMinutes(2));
+    assertThat(calendar.freshFor("megasena", Instant.parse("2026-10-14T07:00:00Z")))
+        .isEqualTo(Duration.ofHours(6));
+    assertThat(calendar.freshFor("megasena", Instant.parse("2026-10-15T19:00:00Z")))
+        .isEqualTo(Duration.ofHours(3));
+    assertThat(calendar.freshFor("unknown", Instant.parse("2026-10-15T19:00:00Z")))
+        .isEqualTo(Duration.ofHours(6));
+  }
+}
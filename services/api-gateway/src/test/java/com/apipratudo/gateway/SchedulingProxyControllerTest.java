@@ -3,6 +3,9 @@ package com.apipratudo.gateway;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.apipratudo.gateway.idempotency.HashingUtils;
@@ -28,6 +31,9 @@ import org.springframework.test.web.servlet.MockMvc;
 @ActiveProfiles("test")
 class SchedulingProxyControllerTest {
 
+  private static final String AGENDA_BODY = "{\"items\":[" + "{\"slot\":\"2026-01-26T10:00:00Z\"},".repeat(5000)
+      + "{\"slot\":\"2026-01-26T11:00:00Z\"}]}";
+
   private static MockWebServer quotaServer;
   private static MockWebServer schedulingServer;
 
@@ -80,6 +86,16 @@ class SchedulingProxyControllerTest {
                 .setHeader("Content-Type", "application/json")
                 .setBody("[]");
           }
+          if ("GET".equals(request.getMethod()) && request.getPath().startsWith("/v1/agenda?")) {
+            if (request.getPath().contains("agendaId=broken")) {
+              return new MockResponse().setResponseCode(500).setBody("{\"error\":\"boom\"}");
+            }
+            return new MockResponse()
+                .setResponseCode(206)
+                .setHeader("Content-Type", "application/json")
+                .setHeader("X-Total-Count", "5001")
+                .setChunkedBody(AGENDA_BODY, 4096);
+          }
           return new MockResponse().setResponseCode(404);
         }
       });
@@ -136,4 +152,33 @@ class SchedulingProxyControllerTest {
     assertThat(recorded.getHeader("X-Request-Id")).isNotBlank();
     assertThat(recorded.getHeader("X-Service-Token")).isEqualTo("test-scheduling-token");
   }
+
+  @Test
+  void agendaStreamsDownstreamStatusHeadersAndBody() throws Exception {
+    mockMvc.perform(get("/v1/agenda")
+            .header("X-Api-Key", "test-key")
+            .param("from", "2026-01-26")
+            .param("to", "2026-01-27"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("X-Total-Count", "5001"))
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(content().string(AGENDA_BODY));
+
+    RecordedRequest recorded = schedulingServer.takeRequest(1, TimeUnit.SECONDS);
+    assertThat(recorded).isNotNull();
+    assertThat(recorded.getHeader("X-Tenant-Id")).isEqualTo(HashingUtils.sha256Hex("test-key"));
+  }
+
+  @Test
+  void agendaDownstreamFailureStillMapsToSchedulingUnavailable() throws Exception {
+    mockMvc.perform(get("/v1/agenda")
+            .header("X-Api-Key", "test-key")
+            .param("from", "2026-01-26")
+            .param("to", "2026-01-27")
+            .param("agendaId", "broken"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.error").value("SCHEDULING_UNAVAILABLE"));
+
+    assertThat(schedulingServer.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+  }
 }
@@ -0,0 +1,33 @@
+package com.apipratudo.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.gateway.idempotency.HashingUtils;
+import com.apipratudo.gateway.tenant.TenantIdProperties;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
+import org.junit.jupiter.api.Test;
+
+class TenantIdResolverTest {
+
+  @Test
+  void sha256HexMatchesKnownVector() {
+    assertThat(HashingUtils.sha256Hex("abc"))
+        .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    assertThat(HashingUtils.sha256Hex(""))
+        .isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+  }
+
+  @Test
+  void memoizedTenantIdStaysEqualToHashWhenBounded() {
+    TenantIdProperties properties = new TenantIdProperties();
+    properties.setCacheMaxEntries(2);
+    TenantIdResolver resolver = new TenantIdResolver(properties);
+
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 5; i++) {
+        String apiKey = "key-" + i;
+        assertThat(resolver.tenantId(apiKey)).isEqualTo(HashingUtils.sha256Hex(apiKey));
+      }
+    }
+  }
+}
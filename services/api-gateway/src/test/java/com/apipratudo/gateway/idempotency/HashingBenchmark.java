@@ -0,0 +1,140 @@
+package com.apipratudo.gateway.idempotency;
+
+import com.apipratudo.gateway.tenant.TenantIdProperties;
+import com.apipratudo.gateway.tenant.TenantIdResolver;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-request cost of turning an API key into a tenant id: the original implementation (new MessageDigest and
+ * {@code String.format} per byte), a thread-local digest, the current {@link HashingUtils#sha256Hex} (clone of a
+ * prototype digest) and the memoized resolver. The {@code onVirtualThread} variants hash on a fresh virtual thread
+ * per call, as each request does under virtual-thread-per-request, where a thread-local never gets reused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g", "-XX:+UseParallelGC"})
+public class HashingBenchmark {
+
+  private static final int KEYS = 256;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  @State(Scope.Benchmark)
+  public static class KeyState {
+    final String[] apiKeys = new String[KEYS];
+    TenantIdResolver resolver;
+
+    @Setup
+    public void setUp() {
+      for (int i = 0; i < KEYS; i++) {
+        apiKeys[i] = "apt_live_" + i + "_5f2b8c1e9d7a4e6b8c0d2f4a6b8c0d2e";
+      }
+      resolver = new TenantIdResolver(new TenantIdProperties());
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+
+    String nextKey(KeyState state) {
+      return state.apiKeys[next++ & (KEYS - 1)];
+    }
+  }
+
+  @Benchmark
+  public String legacySha256Hex(KeyState state, Cursor cursor) {
+    return legacy(cursor.nextKey(state));
+  }
+
+  @Benchmark
+  public String sha256Hex(KeyState state, Cursor cursor) {
+    return HashingUtils.sha256Hex(cursor.nextKey(state));
+  }
+
+  @Benchmark
+  public String threadLocalSha256Hex(KeyState state, Cursor cursor) {
+    return threadLocal(cursor.nextKey(state));
+  }
+
+  @Benchmark
+  public String threadLocalOnVirtualThread(KeyState state, Cursor cursor) throws InterruptedException {
+    return onVirtualThread(() -> threadLocal(cursor.nextKey(state)));
+  }
+
+  @Benchmark
+  public String sha256HexOnVirtualThread(KeyState state, Cursor cursor) throws InterruptedException {
+    return onVirtualThread(() -> HashingUtils.sha256Hex(cursor.nextKey(state)));
+  }
+
+  @Benchmark
+  public String memoizedTenantId(KeyState state, Cursor cursor) {
+    return state.resolver.tenantId(cursor.nextKey(state));
+  }
+
+  private static String onVirtualThread(Supplier<String> hash) throws InterruptedException {
+    String[] result = new String[1];
+    Thread.ofVirtual().start(() -> result[0] = hash.get()).join();
+    return result[0];
+  }
+
+  private static final ThreadLocal<MessageDigest> THREAD_DIGEST = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  });
+
+  private static String threadLocal(String value) {
+    MessageDigest digest = THREAD_DIGEST.get();
+    digest.reset();
+    byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+    char[] chars = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      chars[i * 2] = HEX[(hash[i] & 0xff) >>> 4];
+      chars[i * 2 + 1] = HEX[hash[i] & 0x0f];
+    }
+    return new String(chars);
+  }
+
+  private static String legacy(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        builder.append(String.format("%02x", b));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Options options = new OptionsBuilder()
+        .include(HashingBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build();
+    new Runner(options).run();
+  }
+}
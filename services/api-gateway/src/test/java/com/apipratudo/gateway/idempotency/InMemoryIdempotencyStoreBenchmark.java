@@ -0,0 +1,93 @@
+package com.apipratudo.gateway.idempotency;
+
+import com.apipratudo.gateway.config.IdempotencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryIdempotencyStoreBenchmark {
+
+  private static final int HOT_KEYS = 16;
+  private static final long OPERATION_TOKENS = 2000;
+  private static final IdempotencyResponse RESPONSE = new IdempotencyResponse(201, "{\"id\":\"1\"}", Map.of());
+
+  @State(Scope.Benchmark)
+  public static class StoreState {
+    final AtomicInteger threadIds = new AtomicInteger();
+    InMemoryIdempotencyStore store;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      IdempotencyProperties properties = new IdempotencyProperties();
+      properties.setMemoryMaxEntries(100_000);
+      store = new InMemoryIdempotencyStore(properties, Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    String prefix;
+    long sequence;
+
+    @Setup
+    public void setUp(StoreState storeState) {
+      prefix = "t" + storeState.threadIds.getAndIncrement() + "-";
+    }
+
+    IdempotencyRequest nextDistinct() {
+      return new IdempotencyRequest("POST", "/v1/webhooks", prefix + sequence++, "hash");
+    }
+
+    IdempotencyRequest nextHot() {
+      return new IdempotencyRequest("POST", "/v1/webhooks", "hot-" + (sequence++ % HOT_KEYS), "hash");
+    }
+  }
+
+  @Benchmark
+  public IdempotencyResult executeDistinctKeys(StoreState storeState, ThreadState threadState) {
+    return storeState.store.execute(threadState.nextDistinct(), transaction -> {
+      Blackhole.consumeCPU(OPERATION_TOKENS);
+      return RESPONSE;
+    });
+  }
+
+  @Benchmark
+  public IdempotencyResult executeHotKeys(StoreState storeState, ThreadState threadState) {
+    return storeState.store.execute(threadState.nextHot(), transaction -> {
+      Blackhole.consumeCPU(OPERATION_TOKENS);
+      return RESPONSE;
+    });
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (int threads : new int[] {1, 2, 4, 8, 16, 32}) {
+      Options options = new OptionsBuilder()
+          .include(InMemoryIdempotencyStoreBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -2,8 +2,11 @@ package com.apipratudo.diadesorte.controller;
 
 import com.apipratudo.diadesorte.dto.DiadesorteResultadoOficialResponse;
 import com.apipratudo.diadesorte.logging.TraceIdUtils;
+import com.apipratudo.diadesorte.service.DiadesorteDateParser;
 import com.apipratudo.diadesorte.service.DiadesorteResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class DiadesorteResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public DiadesorteResultadoOficialResponse obterResultadoDiadesorte(HttpServletRequest request) {
+  public ResponseEntity<DiadesorteResultadoOficialResponse> obterResultadoDiadesorte(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    DiadesorteResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = DiadesorteDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
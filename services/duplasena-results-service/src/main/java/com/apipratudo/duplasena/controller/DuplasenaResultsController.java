@@ -2,8 +2,11 @@ package com.apipratudo.duplasena.controller;
 
 import com.apipratudo.duplasena.dto.DuplasenaResultadoOficialResponse;
 import com.apipratudo.duplasena.logging.TraceIdUtils;
+import com.apipratudo.duplasena.service.DuplasenaDateParser;
 import com.apipratudo.duplasena.service.DuplasenaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class DuplasenaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public DuplasenaResultadoOficialResponse obterResultadoDuplasena(HttpServletRequest request) {
+  public ResponseEntity<DuplasenaResultadoOficialResponse> obterResultadoDuplasena(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    DuplasenaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = DuplasenaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -2,8 +2,11 @@ package com.apipratudo.federal.controller;
 
 import com.apipratudo.federal.dto.ResultadoOficialResponse;
 import com.apipratudo.federal.logging.TraceIdUtils;
+import com.apipratudo.federal.service.FederalDateParser;
 import com.apipratudo.federal.service.FederalResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class FederalResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public ResultadoOficialResponse obterResultadoFederal(HttpServletRequest request) {
+  public ResponseEntity<ResultadoOficialResponse> obterResultadoFederal(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    ResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = FederalDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
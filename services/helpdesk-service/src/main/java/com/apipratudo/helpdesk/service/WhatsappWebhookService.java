@@ -21,6 +21,7 @@ import org.springframework.util.StringUtils;
 public class WhatsappWebhookService {
 
   private static final Logger log = LoggerFactory.getLogger(WhatsappWebhookService.class);
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
 
   private final WhatsappProperties properties;
   private final HelpdeskService helpdeskService;
@@ -125,11 +126,13 @@ public class WhatsappWebhookService {
       Mac mac = Mac.getInstance("HmacSHA256");
       mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
       byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-      StringBuilder hex = new StringBuilder();
-      for (byte b : digest) {
-        hex.append(String.format("%02x", b));
+      char[] hex = new char[digest.length * 2];
+      for (int i = 0; i < digest.length; i++) {
+        int b = digest[i] & 0xff;
+        hex[i * 2] = HEX[b >>> 4];
+        hex[i * 2 + 1] = HEX[b & 0x0f];
       }
-      return hex.toString();
+      return new String(hex);
     } catch (Exception ex) {
       throw new IllegalStateException("Failed to compute signature", ex);
     }
@@ -2,8 +2,11 @@ package com.apipratudo.loteca.controller;
 
 import com.apipratudo.loteca.dto.LotecaResultadoOficialResponse;
 import com.apipratudo.loteca.logging.TraceIdUtils;
+import com.apipratudo.loteca.service.LotecaDateParser;
 import com.apipratudo.loteca.service.LotecaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class LotecaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public LotecaResultadoOficialResponse obterResultadoLoteca(HttpServletRequest request) {
+  public ResponseEntity<LotecaResultadoOficialResponse> obterResultadoLoteca(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    LotecaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = LotecaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -1,11 +1,14 @@
 package com.apipratudo.loteca.service;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 public final class LotecaDateParser {
 
+  private static final ZoneId DRAW_ZONE = ZoneId.of("America/Sao_Paulo");
   private static final DateTimeFormatter INPUT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
   private LotecaDateParser() {
@@ -22,4 +25,15 @@ public final class LotecaDateParser {
       return null;
     }
   }
+
+  public static Instant drawInstant(String isoDate) {
+    if (isoDate == null || isoDate.isBlank()) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(isoDate.trim()).atStartOfDay(DRAW_ZONE).toInstant();
+    } catch (DateTimeParseException ex) {
+      return null;
+    }
+  }
 }
@@ -2,8 +2,11 @@ package com.apipratudo.lotofacil.controller;
 
 import com.apipratudo.lotofacil.dto.LotofacilResultadoOficialResponse;
 import com.apipratudo.lotofacil.logging.TraceIdUtils;
+import com.apipratudo.lotofacil.service.LotofacilDateParser;
 import com.apipratudo.lotofacil.service.LotofacilResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class LotofacilResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public LotofacilResultadoOficialResponse obterResultadoLotofacil(HttpServletRequest request) {
+  public ResponseEntity<LotofacilResultadoOficialResponse> obterResultadoLotofacil(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    LotofacilResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = LotofacilDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -2,8 +2,11 @@ package com.apipratudo.lotomania.controller;
 
 import com.apipratudo.lotomania.dto.LotomaniaResultadoOficialResponse;
 import com.apipratudo.lotomania.logging.TraceIdUtils;
+import com.apipratudo.lotomania.service.LotomaniaDateParser;
 import com.apipratudo.lotomania.service.LotomaniaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class LotomaniaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public LotomaniaResultadoOficialResponse obterResultadoLotomania(HttpServletRequest request) {
+  public ResponseEntity<LotomaniaResultadoOficialResponse> obterResultadoLotomania(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    LotomaniaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = LotomaniaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -2,8 +2,11 @@ package com.apipratudo.maismilionaria.controller;
 
 import com.apipratudo.maismilionaria.dto.MaismilionariaResultadoOficialResponse;
 import com.apipratudo.maismilionaria.logging.TraceIdUtils;
+import com.apipratudo.maismilionaria.service.MaismilionariaDateParser;
 import com.apipratudo.maismilionaria.service.MaismilionariaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,15 @@ public class MaismilionariaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public MaismilionariaResultadoOficialResponse obterResultadoMaismilionaria(HttpServletRequest request) {
+  public ResponseEntity<MaismilionariaResultadoOficialResponse> obterResultadoMaismilionaria(
+      HttpServletRequest request
+  ) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    MaismilionariaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = MaismilionariaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -2,8 +2,11 @@ package com.apipratudo.megasena.controller;
 
 import com.apipratudo.megasena.dto.MegasenaResultadoOficialResponse;
 import com.apipratudo.megasena.logging.TraceIdUtils;
+import com.apipratudo.megasena.service.MegasenaDateParser;
 import com.apipratudo.megasena.service.MegasenaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class MegasenaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public MegasenaResultadoOficialResponse obterResultadoMegasena(HttpServletRequest request) {
+  public ResponseEntity<MegasenaResultadoOficialResponse> obterResultadoMegasena(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    MegasenaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = MegasenaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
@@ -3,6 +3,7 @@ package com.apipratudo.megasena;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.apipratudo.megasena.service.MegasenaDateParser;
+import java.time.Instant;
 import org.junit.jupiter.api.Test;
 
 class MegasenaDateParserTest {
@@ -11,4 +12,10 @@ class MegasenaDateParserTest {
   void normalizaData() {
     assertThat(MegasenaDateParser.normalize("13/08/2025")).isEqualTo("2025-08-13");
   }
+
+  @Test
+  void converteDataDoSorteioParaInicioDoDiaEmBrasilia() {
+    assertThat(MegasenaDateParser.drawInstant("2025-08-13")).isEqualTo(Instant.parse("2025-08-13T03:00:00Z"));
+    assertThat(MegasenaDateParser.drawInstant("13/08/2025")).isNull();
+  }
 }
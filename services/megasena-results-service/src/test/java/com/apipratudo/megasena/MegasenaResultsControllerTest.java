@@ -3,6 +3,7 @@ package com.apipratudo.megasena;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +46,7 @@ class MegasenaResultsControllerTest {
 
     mockMvc.perform(get("/v1/megasena/resultado-oficial"))
         .andExpect(status().isOk())
+        .andExpect(header().string("Last-Modified", "Wed, 13 Aug 2025 03:00:00 GMT"))
         .andExpect(jsonPath("$.fonte").value("CAIXA"))
         .andExpect(jsonPath("$.loteria").value("MEGA_SENA"))
         .andExpect(jsonPath("$.concurso").value("2760"))
@@ -55,6 +57,24 @@ class MegasenaResultsControllerTest {
         .andExpect(jsonPath("$.capturadoEm").value("2026-01-15T00:11:55Z"));
   }
 
+  @Test
+  void retorna304QuandoNaoModificadoDesdeOSorteio() throws Exception {
+    MegasenaResultadoOficialResponse response = new MegasenaResultadoOficialResponse(
+        "CAIXA",
+        "MEGA_SENA",
+        "2760",
+        "2025-08-13",
+        List.of("01", "03", "04", "05", "07", "08"),
+        Instant.parse("2026-01-15T00:11:55Z")
+    );
+
+    given(service.obterResultadoOficial(anyString())).willReturn(response);
+
+    mockMvc.perform(get("/v1/megasena/resultado-oficial")
+            .header("If-Modified-Since", "Wed, 13 Aug 2025 03:00:00 GMT"))
+        .andExpect(status().isNotModified());
+  }
+
   @Test
   void retornaTimeoutComo504() throws Exception {
     given(service.obterResultadoOficial(anyString()))
@@ -2,8 +2,11 @@ package com.apipratudo.quina.controller;
 
 import com.apipratudo.quina.dto.QuinaResultadoOficialResponse;
 import com.apipratudo.quina.logging.TraceIdUtils;
+import com.apipratudo.quina.service.QuinaDateParser;
 import com.apipratudo.quina.service.QuinaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class QuinaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public QuinaResultadoOficialResponse obterResultadoQuina(HttpServletRequest request) {
+  public ResponseEntity<QuinaResultadoOficialResponse> obterResultadoQuina(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    QuinaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = QuinaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
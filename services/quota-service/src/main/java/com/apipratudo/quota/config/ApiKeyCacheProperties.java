@@ -0,0 +1,53 @@
+package com.apipratudo.quota.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "app.api-key-cache")
+@Validated
+public class ApiKeyCacheProperties {
+
+  private boolean enabled = true;
+
+  @Min(1)
+  private long maxSize = 10000;
+
+  @Min(1)
+  private long ttlSeconds = 30;
+
+  @Min(1)
+  private long negativeTtlSeconds = 10;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public long getTtlSeconds() {
+    return ttlSeconds;
+  }
+
+  public void setTtlSeconds(long ttlSeconds) {
+    this.ttlSeconds = ttlSeconds;
+  }
+
+  public long getNegativeTtlSeconds() {
+    return negativeTtlSeconds;
+  }
+
+  public void setNegativeTtlSeconds(long negativeTtlSeconds) {
+    this.negativeTtlSeconds = negativeTtlSeconds;
+  }
+}
@@ -44,6 +44,9 @@ public class FirestoreProperties {
     private String quotaWindows = "quota_windows";
     private String idempotencyQuota = "idempotency_quota";
     private String keyCreationLimits = "key_creation_limits";
+    private String usageRollups = "quota_usage_rollups";
+    private String apiKeyInvalidations = "api_key_invalidations";
+    private String quotaLeases = "quota_leases";
 
     public String getApiKeys() {
       return apiKeys;
@@ -76,5 +79,29 @@ public class FirestoreProperties {
     public void setKeyCreationLimits(String keyCreationLimits) {
       this.keyCreationLimits = keyCreationLimits;
     }
+
+    public String getUsageRollups() {
+      return usageRollups;
+    }
+
+    public void setUsageRollups(String usageRollups) {
+      this.usageRollups = usageRollups;
+    }
+
+    public String getApiKeyInvalidations() {
+      return apiKeyInvalidations;
+    }
+
+    public void setApiKeyInvalidations(String apiKeyInvalidations) {
+      this.apiKeyInvalidations = apiKeyInvalidations;
+    }
+
+    public String getQuotaLeases() {
+      return quotaLeases;
+    }
+
+    public void setQuotaLeases(String quotaLeases) {
+      this.quotaLeases = quotaLeases;
+    }
   }
 }
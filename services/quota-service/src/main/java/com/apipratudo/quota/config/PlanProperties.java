@@ -1,9 +1,11 @@
 package com.apipratudo.quota.config;
 
 import com.apipratudo.quota.dto.ApiKeyLimits;
+import com.apipratudo.quota.model.LimiterStrategy;
 import com.apipratudo.quota.model.Plan;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -38,6 +40,10 @@ public class PlanProperties {
     return new ApiKeyLimits(target.getRequestsPerMinute(), target.getRequestsPerDay());
   }
 
+  public LimiterStrategy limiterFor(Plan plan) {
+    return (plan == Plan.PREMIUM ? premium : free).getLimiter();
+  }
+
   public static class PlanLimits {
     @Min(1)
     private int requestsPerMinute;
@@ -45,6 +51,9 @@ public class PlanProperties {
     @Min(1)
     private int requestsPerDay;
 
+    @NotNull
+    private LimiterStrategy limiter = LimiterStrategy.FIXED_WINDOW;
+
     public PlanLimits() {
     }
 
@@ -68,5 +77,13 @@ public class PlanProperties {
     public void setRequestsPerDay(int requestsPerDay) {
       this.requestsPerDay = requestsPerDay;
     }
+
+    public LimiterStrategy getLimiter() {
+      return limiter;
+    }
+
+    public void setLimiter(LimiterStrategy limiter) {
+      this.limiter = limiter;
+    }
   }
 }
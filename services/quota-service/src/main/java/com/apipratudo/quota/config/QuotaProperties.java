@@ -6,6 +6,13 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class QuotaProperties {
 
   private long idempotencyTtlSeconds = 86400;
+  private long ledgerMaxEntries = 1_000_000;
+  private long ephemeralRefundTtlSeconds = 300;
+  private int leaseMaxUnits = 50;
+  private long leaseTtlSeconds = 10;
+  private boolean shardingEnabled = false;
+  private int counterShards = 8;
+  private long shardingQpsThreshold = 5;
 
   public long getIdempotencyTtlSeconds() {
     return idempotencyTtlSeconds;
@@ -14,4 +21,60 @@ public class QuotaProperties {
   public void setIdempotencyTtlSeconds(long idempotencyTtlSeconds) {
     this.idempotencyTtlSeconds = idempotencyTtlSeconds;
   }
+
+  public long getLedgerMaxEntries() {
+    return ledgerMaxEntries;
+  }
+
+  public void setLedgerMaxEntries(long ledgerMaxEntries) {
+    this.ledgerMaxEntries = ledgerMaxEntries;
+  }
+
+  public long getEphemeralRefundTtlSeconds() {
+    return ephemeralRefundTtlSeconds;
+  }
+
+  public void setEphemeralRefundTtlSeconds(long ephemeralRefundTtlSeconds) {
+    this.ephemeralRefundTtlSeconds = ephemeralRefundTtlSeconds;
+  }
+
+  public int getLeaseMaxUnits() {
+    return leaseMaxUnits;
+  }
+
+  public void setLeaseMaxUnits(int leaseMaxUnits) {
+    this.leaseMaxUnits = leaseMaxUnits;
+  }
+
+  public long getLeaseTtlSeconds() {
+    return leaseTtlSeconds;
+  }
+
+  public void setLeaseTtlSeconds(long leaseTtlSeconds) {
+    this.leaseTtlSeconds = leaseTtlSeconds;
+  }
+
+  public boolean isShardingEnabled() {
+    return shardingEnabled;
+  }
+
+  public void setShardingEnabled(boolean shardingEnabled) {
+    this.shardingEnabled = shardingEnabled;
+  }
+
+  public int getCounterShards() {
+    return counterShards;
+  }
+
+  public void setCounterShards(int counterShards) {
+    this.counterShards = counterShards;
+  }
+
+  public long getShardingQpsThreshold() {
+    return shardingQpsThreshold;
+  }
+
+  public void setShardingQpsThreshold(long shardingQpsThreshold) {
+    this.shardingQpsThreshold = shardingQpsThreshold;
+  }
 }
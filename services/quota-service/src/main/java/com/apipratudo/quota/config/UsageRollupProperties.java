@@ -0,0 +1,42 @@
+package com.apipratudo.quota.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties(prefix = "app.usage-rollup")
+@Validated
+public class UsageRollupProperties {
+
+  private boolean enabled = true;
+
+  @Min(100)
+  private long flushIntervalMs = 10000;
+
+  @Min(1)
+  private long maxRangeHours = 744;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getFlushIntervalMs() {
+    return flushIntervalMs;
+  }
+
+  public void setFlushIntervalMs(long flushIntervalMs) {
+    this.flushIntervalMs = flushIntervalMs;
+  }
+
+  public long getMaxRangeHours() {
+    return maxRangeHours;
+  }
+
+  public void setMaxRangeHours(long maxRangeHours) {
+    this.maxRangeHours = maxRangeHours;
+  }
+}
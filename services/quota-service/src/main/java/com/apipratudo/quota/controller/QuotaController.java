@@ -1,16 +1,26 @@
 package com.apipratudo.quota.controller;
 
+import com.apipratudo.quota.dto.QuotaConsumeBatchRequest;
+import com.apipratudo.quota.dto.QuotaConsumeBatchResponse;
 import com.apipratudo.quota.dto.QuotaConsumeRequest;
 import com.apipratudo.quota.dto.QuotaConsumeResponse;
+import com.apipratudo.quota.dto.QuotaLeaseRequest;
+import com.apipratudo.quota.dto.QuotaLeaseResponse;
+import com.apipratudo.quota.dto.QuotaLeaseReturnRequest;
+import com.apipratudo.quota.dto.QuotaLeaseReturnResponse;
+import com.apipratudo.quota.dto.QuotaRefundBatchRequest;
+import com.apipratudo.quota.dto.QuotaRefundBatchResponse;
 import com.apipratudo.quota.dto.QuotaRefundRequest;
 import com.apipratudo.quota.dto.QuotaRefundResponse;
 import com.apipratudo.quota.dto.QuotaStatusResponse;
+import com.apipratudo.quota.dto.QuotaUsageSeriesResponse;
 import com.apipratudo.quota.service.QuotaService;
 import com.apipratudo.quota.security.SecurityTokenService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -43,6 +53,12 @@ public class QuotaController {
     return ResponseEntity.status(result.status()).body(result.response());
   }
 
+  @PostMapping("/consume:batch")
+  @SecurityRequirement(name = "InternalToken")
+  public QuotaConsumeBatchResponse consumeBatch(@Valid @RequestBody QuotaConsumeBatchRequest request) {
+    return quotaService.consumeBatch(request);
+  }
+
   @PostMapping("/refund")
   @SecurityRequirement(name = "InternalToken")
   public ResponseEntity<QuotaRefundResponse> refund(@Valid @RequestBody QuotaRefundRequest request) {
@@ -50,6 +66,26 @@ public class QuotaController {
     return ResponseEntity.status(result.status()).body(result.response());
   }
 
+  @PostMapping("/refund:batch")
+  @SecurityRequirement(name = "InternalToken")
+  public QuotaRefundBatchResponse refundBatch(@Valid @RequestBody QuotaRefundBatchRequest request) {
+    return quotaService.refundBatch(request);
+  }
+
+  @PostMapping("/lease")
+  @SecurityRequirement(name = "InternalToken")
+  public ResponseEntity<QuotaLeaseResponse> lease(@Valid @RequestBody QuotaLeaseRequest request) {
+    QuotaService.QuotaLeaseResult result = quotaService.lease(request);
+    return ResponseEntity.status(result.status()).body(result.response());
+  }
+
+  @PostMapping("/lease/return")
+  @SecurityRequirement(name = "InternalToken")
+  public ResponseEntity<QuotaLeaseReturnResponse> returnLease(@Valid @RequestBody QuotaLeaseReturnRequest request) {
+    QuotaService.QuotaLeaseReturnResult result = quotaService.returnLease(request);
+    return ResponseEntity.status(result.status()).body(result.response());
+  }
+
   @SecurityRequirement(name = "AdminToken")
   @SecurityRequirement(name = "InternalToken")
   @SecurityRequirement(name = "ApiKeyAuth")
@@ -59,6 +95,25 @@ public class QuotaController {
       @RequestHeader(value = "X-Api-Key", required = false) String apiKeyHeader,
       HttpServletRequest request
   ) {
+    return quotaService.status(resolveApiKey(apiKey, apiKeyHeader, request));
+  }
+
+  @SecurityRequirement(name = "AdminToken")
+  @SecurityRequirement(name = "InternalToken")
+  @SecurityRequirement(name = "ApiKeyAuth")
+  @GetMapping("/usage")
+  public QuotaUsageSeriesResponse usage(
+      @RequestParam(value = "apiKey", required = false) String apiKey,
+      @RequestHeader(value = "X-Api-Key", required = false) String apiKeyHeader,
+      @RequestParam(value = "from", required = false) Instant from,
+      @RequestParam(value = "to", required = false) Instant to,
+      @RequestParam(value = "route", required = false) String route,
+      HttpServletRequest request
+  ) {
+    return quotaService.usage(resolveApiKey(apiKey, apiKeyHeader, request), from, to, route);
+  }
+
+  private String resolveApiKey(String apiKey, String apiKeyHeader, HttpServletRequest request) {
     String resolved = apiKeyHeader;
     if (StringUtils.hasText(apiKey)) {
       if (tokenService.isAdmin(request) || tokenService.isInternal(request)) {
@@ -70,6 +125,6 @@ public class QuotaController {
     if (!StringUtils.hasText(resolved)) {
       throw new IllegalArgumentException("Missing X-Api-Key");
     }
-    return quotaService.status(resolved);
+    return resolved;
   }
 }
@@ -0,0 +1,15 @@
+package com.apipratudo.quota.dto;
+
+import java.util.List;
+
+public record QuotaConsumeBatchResponse(
+    List<Item> items
+) {
+
+  public record Item(
+      String requestId,
+      int status,
+      QuotaConsumeResponse result
+  ) {
+  }
+}
@@ -7,6 +7,7 @@ public record QuotaConsumeRequest(
     @NotBlank String apiKey,
     @NotBlank String requestId,
     @NotBlank String route,
-    @Min(1) Integer cost
+    @Min(1) Integer cost,
+    Boolean ephemeral
 ) {
 }
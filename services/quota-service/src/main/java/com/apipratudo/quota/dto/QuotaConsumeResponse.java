@@ -16,7 +16,8 @@ public record QuotaConsumeResponse(
     ApiKeyLimits limits,
     QuotaUsage usage,
     UpgradeHint upgrade,
-    ApiKeyCredits credits
+    ApiKeyCredits credits,
+    String refundToken
 ) {
   public record UpgradeHint(String endpoint, String method) {
   }
@@ -0,0 +1,10 @@
+package com.apipratudo.quota.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+public record QuotaLeaseRequest(
+    @NotBlank String apiKey,
+    @Min(1) Integer units
+) {
+}
@@ -0,0 +1,20 @@
+package com.apipratudo.quota.dto;
+
+import com.apipratudo.quota.model.Plan;
+import java.time.Instant;
+
+public record QuotaLeaseResponse(
+    String leaseId,
+    boolean granted,
+    QuotaReason reason,
+    long units,
+    Instant minuteBucket,
+    String dayBucket,
+    boolean credits,
+    Instant expiresAt,
+    Long limit,
+    Long remaining,
+    Instant resetAt,
+    Plan plan
+) {
+}
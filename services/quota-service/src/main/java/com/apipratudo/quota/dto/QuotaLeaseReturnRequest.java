@@ -0,0 +1,14 @@
+package com.apipratudo.quota.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import java.util.Map;
+
+public record QuotaLeaseReturnRequest(
+    @NotBlank String apiKey,
+    @NotBlank @Pattern(regexp = "[A-Za-z0-9-]{1,64}") String leaseId,
+    @Min(0) long units,
+    Map<String, Long> spent
+) {
+}
@@ -0,0 +1,8 @@
+package com.apipratudo.quota.dto;
+
+public record QuotaLeaseReturnResponse(
+    boolean returned,
+    long units,
+    long spent
+) {
+}
@@ -0,0 +1,11 @@
+package com.apipratudo.quota.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record QuotaRefundBatchRequest(
+    @NotEmpty @Size(max = 100) List<@Valid QuotaRefundRequest> items
+) {
+}
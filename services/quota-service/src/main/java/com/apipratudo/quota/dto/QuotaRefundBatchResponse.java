@@ -0,0 +1,15 @@
+package com.apipratudo.quota.dto;
+
+import java.util.List;
+
+public record QuotaRefundBatchResponse(
+    List<Item> items
+) {
+
+  public record Item(
+      String requestId,
+      int status,
+      QuotaRefundResponse result
+  ) {
+  }
+}
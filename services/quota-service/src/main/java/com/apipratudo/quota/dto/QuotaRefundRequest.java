@@ -4,6 +4,7 @@ import jakarta.validation.constraints.NotBlank;
 
 public record QuotaRefundRequest(
     @NotBlank String apiKey,
-    @NotBlank String requestId
+    @NotBlank String requestId,
+    String refundToken
 ) {
 }
@@ -0,0 +1,18 @@
+package com.apipratudo.quota.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record QuotaUsageSeriesResponse(
+    String apiKeyId,
+    List<Point> points
+) {
+
+  public record Point(
+      Instant hour,
+      String route,
+      long allowed,
+      long denied
+  ) {
+  }
+}
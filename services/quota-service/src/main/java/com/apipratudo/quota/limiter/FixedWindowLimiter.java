@@ -0,0 +1,38 @@
+package com.apipratudo.quota.limiter;
+
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.QuotaWindow;
+import com.apipratudo.quota.model.QuotaWindowStatus;
+import java.time.Instant;
+
+final class FixedWindowLimiter implements MinuteLimiter {
+
+  @Override
+  public LimiterStrategy strategy() {
+    return LimiterStrategy.FIXED_WINDOW;
+  }
+
+  @Override
+  public MinuteCheck check(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    long newCount = state.countIn(MinuteLimiter.bucketOf(window)) + cost;
+    return new MinuteCheck(limit, Math.max(limit - newCount, 0), Math.max(newCount - limit, 0), window.resetAt(),
+        newCount > limit);
+  }
+
+  @Override
+  public long available(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    return Math.max(limit - state.countIn(MinuteLimiter.bucketOf(window)), 0);
+  }
+
+  @Override
+  public void acquire(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    state.rollTo(MinuteLimiter.bucketOf(window));
+    state.add(cost);
+  }
+
+  @Override
+  public QuotaWindowStatus status(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    long used = state.countIn(MinuteLimiter.bucketOf(window));
+    return new QuotaWindowStatus(limit, used, Math.max(limit - used, 0), window.resetAt());
+  }
+}
@@ -0,0 +1,82 @@
+package com.apipratudo.quota.limiter;
+
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.QuotaWindow;
+import com.apipratudo.quota.model.QuotaWindowStatus;
+import java.time.Instant;
+
+/**
+ * Generic cell rate algorithm: the only state is the theoretical arrival time ({@link MinuteState#tat()}, epoch
+ * microseconds). Each unit advances it by {@code 60s / limit}; a request is admitted while the advanced time stays
+ * within one period of now, so bursts are capped at the per-minute limit and refill continuously.
+ */
+final class GcraLimiter implements MinuteLimiter {
+
+  private static final long PERIOD_MICROS = 60_000_000;
+
+  @Override
+  public LimiterStrategy strategy() {
+    return LimiterStrategy.GCRA;
+  }
+
+  @Override
+  public MinuteCheck check(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    long interval = interval(limit);
+    long nowMicros = micros(now);
+    long newTat = Math.max(state.tat(), nowMicros) + cost * interval;
+    long allowAt = newTat - PERIOD_MICROS;
+    if (allowAt > nowMicros) {
+      return new MinuteCheck(limit, 0, ceilDiv(allowAt - nowMicros, interval), instant(allowAt), true);
+    }
+    return new MinuteCheck(limit, (nowMicros + PERIOD_MICROS - newTat) / interval, 0, instant(newTat), false);
+  }
+
+  @Override
+  public long available(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    long nowMicros = micros(now);
+    long tat = Math.max(state.tat(), nowMicros);
+    return Math.max((nowMicros + PERIOD_MICROS - tat) / interval(limit), 0);
+  }
+
+  @Override
+  public void acquire(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    state.rollTo(MinuteLimiter.bucketOf(window));
+    state.add(cost);
+    state.tat(Math.max(state.tat(), micros(now)) + cost * interval(limit));
+  }
+
+  @Override
+  public boolean release(MinuteState state, long limit, long units, long bucket, Instant now) {
+    boolean changed = state.release(units, bucket);
+    long nowMicros = micros(now);
+    if (state.tat() <= nowMicros) {
+      return changed;
+    }
+    state.tat(Math.max(state.tat() - units * interval(limit), nowMicros));
+    return true;
+  }
+
+  @Override
+  public QuotaWindowStatus status(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    long nowMicros = micros(now);
+    long tat = Math.max(state.tat(), nowMicros);
+    long used = Math.min(ceilDiv(tat - nowMicros, interval(limit)), limit);
+    return new QuotaWindowStatus(limit, used, limit - used, instant(tat));
+  }
+
+  private long interval(long limit) {
+    return Math.max(PERIOD_MICROS / Math.max(limit, 1), 1);
+  }
+
+  private long micros(Instant instant) {
+    return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+  }
+
+  private Instant instant(long micros) {
+    return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000);
+  }
+
+  private long ceilDiv(long value, long divisor) {
+    return -Math.floorDiv(-value, divisor);
+  }
+}
@@ -0,0 +1,12 @@
+package com.apipratudo.quota.limiter;
+
+import java.time.Instant;
+
+public record MinuteCheck(
+    long limit,
+    long remaining,
+    long overage,
+    Instant resetAt,
+    boolean exceeded
+) {
+}
@@ -0,0 +1,35 @@
+package com.apipratudo.quota.limiter;
+
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.QuotaWindow;
+import com.apipratudo.quota.model.QuotaWindowStatus;
+import java.time.Instant;
+
+/**
+ * Per-minute admission rule of a key. Implementations are stateless; the per-key {@link MinuteState} is owned and
+ * persisted by the quota store, which also keeps the fixed minute bucket count up to date for every strategy.
+ * {@link #acquire} and {@link #release} update the state in place.
+ */
+public interface MinuteLimiter {
+
+  LimiterStrategy strategy();
+
+  MinuteCheck check(MinuteState state, long limit, long cost, QuotaWindow window, Instant now);
+
+  long available(MinuteState state, long limit, QuotaWindow window, Instant now);
+
+  void acquire(MinuteState state, long limit, long cost, QuotaWindow window, Instant now);
+
+  /**
+   * Gives back units taken in {@code bucket}; returns whether the state changed.
+   */
+  default boolean release(MinuteState state, long limit, long units, long bucket, Instant now) {
+    return state.release(units, bucket);
+  }
+
+  QuotaWindowStatus status(MinuteState state, long limit, QuotaWindow window, Instant now);
+
+  static long bucketOf(QuotaWindow window) {
+    return window.windowStart().getEpochSecond();
+  }
+}
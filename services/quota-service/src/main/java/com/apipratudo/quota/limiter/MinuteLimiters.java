@@ -0,0 +1,34 @@
+package com.apipratudo.quota.limiter;
+
+import com.apipratudo.quota.config.PlanProperties;
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.Plan;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MinuteLimiters {
+
+  private final PlanProperties planProperties;
+  private final Map<LimiterStrategy, MinuteLimiter> limiters = new EnumMap<>(LimiterStrategy.class);
+
+  public MinuteLimiters(PlanProperties planProperties) {
+    this.planProperties = planProperties;
+    register(new FixedWindowLimiter());
+    register(new SlidingWindowLimiter());
+    register(new GcraLimiter());
+  }
+
+  public MinuteLimiter forPlan(Plan plan) {
+    return forStrategy(planProperties.limiterFor(plan));
+  }
+
+  public MinuteLimiter forStrategy(LimiterStrategy strategy) {
+    return limiters.get(strategy == null ? LimiterStrategy.FIXED_WINDOW : strategy);
+  }
+
+  private void register(MinuteLimiter limiter) {
+    limiters.put(limiter.strategy(), limiter);
+  }
+}
@@ -0,0 +1,101 @@
+package com.apipratudo.quota.limiter;
+
+/**
+ * Per-key minute counters a {@link MinuteLimiter} reads and updates in place. Not thread-safe: the owner (the
+ * in-memory store's per-key usage, or a Firestore transaction attempt) serialises access.
+ */
+public final class MinuteState {
+
+  public static final long NO_BUCKET = Long.MIN_VALUE;
+
+  static final long SECONDS_PER_MINUTE = 60;
+
+  private long windowStart;
+  private long count;
+  private long previousCount;
+  private long tat;
+
+  public MinuteState(long windowStart, long count, long previousCount, long tat) {
+    this.windowStart = windowStart;
+    this.count = count;
+    this.previousCount = previousCount;
+    this.tat = tat;
+  }
+
+  public static MinuteState empty() {
+    return new MinuteState(NO_BUCKET, 0, 0, 0);
+  }
+
+  public long windowStart() {
+    return windowStart;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public long previousCount() {
+    return previousCount;
+  }
+
+  public long tat() {
+    return tat;
+  }
+
+  public void load(long windowStart, long count) {
+    this.windowStart = windowStart;
+    this.count = count;
+  }
+
+  public long countIn(long bucket) {
+    return windowStart == bucket ? count : 0;
+  }
+
+  long previousIn(long bucket) {
+    if (windowStart == bucket) {
+      return previousCount;
+    }
+    return windowStart == bucket - SECONDS_PER_MINUTE ? count : 0;
+  }
+
+  void rollTo(long bucket) {
+    if (windowStart != bucket) {
+      previousCount = previousIn(bucket);
+      windowStart = bucket;
+      count = 0;
+    }
+  }
+
+  void add(long units) {
+    count += units;
+  }
+
+  void tat(long newTat) {
+    tat = newTat;
+  }
+
+  boolean release(long units, long bucket) {
+    if (bucket == NO_BUCKET || windowStart == NO_BUCKET) {
+      return false;
+    }
+    if (windowStart == bucket) {
+      long released = Math.max(count - units, 0);
+      boolean changed = released != count;
+      count = released;
+      return changed;
+    }
+    if (windowStart == bucket + SECONDS_PER_MINUTE) {
+      long released = Math.max(previousCount - units, 0);
+      boolean changed = released != previousCount;
+      previousCount = released;
+      return changed;
+    }
+    return false;
+  }
+
+  public void reset() {
+    count = 0;
+    previousCount = 0;
+    tat = 0;
+  }
+}
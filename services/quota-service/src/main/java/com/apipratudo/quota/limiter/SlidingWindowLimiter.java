@@ -0,0 +1,70 @@
+package com.apipratudo.quota.limiter;
+
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.QuotaWindow;
+import com.apipratudo.quota.model.QuotaWindowStatus;
+import java.time.Instant;
+
+/**
+ * Sliding-window approximation: the previous minute bucket counts with the fraction of it still inside the
+ * trailing 60 seconds. Arithmetic is done in "count x milliseconds" to stay integral.
+ */
+final class SlidingWindowLimiter implements MinuteLimiter {
+
+  private static final long WINDOW_MILLIS = 60_000;
+
+  @Override
+  public LimiterStrategy strategy() {
+    return LimiterStrategy.SLIDING_WINDOW;
+  }
+
+  @Override
+  public MinuteCheck check(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    long bucket = MinuteLimiter.bucketOf(window);
+    long current = state.countIn(bucket);
+    long previous = state.previousIn(bucket);
+    long capacity = limit * WINDOW_MILLIS;
+    long used = previous * previousWeight(window, now) + (current + cost) * WINDOW_MILLIS;
+    if (used <= capacity) {
+      return new MinuteCheck(limit, (capacity - used) / WINDOW_MILLIS, 0, window.resetAt(), false);
+    }
+
+    long room = capacity - (current + cost) * WINDOW_MILLIS;
+    Instant retryAt = window.resetAt();
+    if (room >= 0 && previous > 0) {
+      retryAt = window.windowStart().plusMillis(WINDOW_MILLIS - room / previous);
+    }
+    return new MinuteCheck(limit, 0, ceilDiv(used - capacity, WINDOW_MILLIS), retryAt, true);
+  }
+
+  @Override
+  public long available(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    long bucket = MinuteLimiter.bucketOf(window);
+    long weightedPrevious = state.previousIn(bucket) * previousWeight(window, now);
+    long available = Math.floorDiv(limit * WINDOW_MILLIS - weightedPrevious, WINDOW_MILLIS) - state.countIn(bucket);
+    return Math.max(available, 0);
+  }
+
+  @Override
+  public void acquire(MinuteState state, long limit, long cost, QuotaWindow window, Instant now) {
+    state.rollTo(MinuteLimiter.bucketOf(window));
+    state.add(cost);
+  }
+
+  @Override
+  public QuotaWindowStatus status(MinuteState state, long limit, QuotaWindow window, Instant now) {
+    long bucket = MinuteLimiter.bucketOf(window);
+    long used = ceilDiv(state.previousIn(bucket) * previousWeight(window, now), WINDOW_MILLIS)
+        + state.countIn(bucket);
+    return new QuotaWindowStatus(limit, used, Math.max(limit - used, 0), window.resetAt());
+  }
+
+  private long previousWeight(QuotaWindow window, Instant now) {
+    long elapsed = now.toEpochMilli() - window.windowStart().toEpochMilli();
+    return WINDOW_MILLIS - Math.min(Math.max(elapsed, 0), WINDOW_MILLIS);
+  }
+
+  private long ceilDiv(long value, long divisor) {
+    return -Math.floorDiv(-value, divisor);
+  }
+}
@@ -0,0 +1,7 @@
+package com.apipratudo.quota.model;
+
+public enum LimiterStrategy {
+  FIXED_WINDOW,
+  SLIDING_WINDOW,
+  GCRA
+}
@@ -0,0 +1,8 @@
+package com.apipratudo.quota.model;
+
+public record QuotaBatchItem(
+    String requestId,
+    String route,
+    int cost
+) {
+}
@@ -8,6 +8,7 @@ public record QuotaDecision(
     QuotaReason reason,
     long limit,
     long remaining,
-    Instant resetAt
+    Instant resetAt,
+    boolean creditsDepleted
 ) {
 }
@@ -0,0 +1,8 @@
+package com.apipratudo.quota.model;
+
+// refundToken is null when nothing was charged or when the store keeps its own refund record.
+public record QuotaEphemeralDecision(
+    QuotaDecision decision,
+    QuotaRefundToken refundToken
+) {
+}
@@ -0,0 +1,20 @@
+package com.apipratudo.quota.model;
+
+import com.apipratudo.quota.dto.QuotaReason;
+import java.time.Instant;
+
+public record QuotaLease(
+    String leaseId,
+    boolean granted,
+    QuotaReason reason,
+    long units,
+    Instant minuteBucket,
+    String dayBucket,
+    boolean credits,
+    Instant expiresAt,
+    long limit,
+    long remaining,
+    Instant resetAt,
+    boolean creditsDepleted
+) {
+}
@@ -0,0 +1,9 @@
+package com.apipratudo.quota.model;
+
+public record QuotaLeaseSettlement(
+    long returned,
+    long spent
+) {
+
+  public static final QuotaLeaseSettlement NONE = new QuotaLeaseSettlement(0, 0);
+}
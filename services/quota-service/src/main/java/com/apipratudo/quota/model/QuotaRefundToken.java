@@ -0,0 +1,17 @@
+package com.apipratudo.quota.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+// What an ephemeral consume charged, handed to the caller instead of an idempotency record. shardUnits maps the
+// shard index to the units taken from it, or is null when the key document was charged.
+public record QuotaRefundToken(
+    String apiKeyId,
+    Instant minuteBucket,
+    String dayBucket,
+    long cost,
+    long creditsConsumed,
+    Map<String, Long> shardUnits,
+    Instant expiresAt
+) {
+}
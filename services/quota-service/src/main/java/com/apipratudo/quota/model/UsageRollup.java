@@ -0,0 +1,12 @@
+package com.apipratudo.quota.model;
+
+import java.time.Instant;
+
+public record UsageRollup(
+    String apiKeyId,
+    String route,
+    Instant hour,
+    long allowed,
+    long denied
+) {
+}
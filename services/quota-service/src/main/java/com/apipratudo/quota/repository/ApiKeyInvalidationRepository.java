@@ -0,0 +1,13 @@
+package com.apipratudo.quota.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ApiKeyInvalidationRepository {
+
+  // Tells every instance, this one included, to drop these key hashes from its cache.
+  void publish(List<String> apiKeyHashes);
+
+  // Delivers hashes published from now on by any instance; the returned handle stops the delivery.
+  Runnable subscribe(Consumer<List<String>> listener);
+}
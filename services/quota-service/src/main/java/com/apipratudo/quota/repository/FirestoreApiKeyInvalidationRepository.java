@@ -0,0 +1,97 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.config.FirestoreProperties;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Broadcasts key cache evictions through a Firestore collection: every instance keeps a snapshot listener on the
+ * documents written after it started, so an eviction reaches the other instances within the listener latency
+ * (usually well under a second) instead of waiting out the cache TTL.
+ */
+@Repository
+@ConditionalOnBean(Firestore.class)
+public class FirestoreApiKeyInvalidationRepository implements ApiKeyInvalidationRepository {
+
+  private static final Logger log = LoggerFactory.getLogger(FirestoreApiKeyInvalidationRepository.class);
+  // Covers clock skew against the server timestamp; replaying a recent eviction is harmless.
+  private static final Duration LISTEN_LOOKBACK = Duration.ofMinutes(1);
+  private static final Duration RETENTION = Duration.ofHours(1);
+
+  private final Firestore firestore;
+  private final FirestoreProperties properties;
+
+  public FirestoreApiKeyInvalidationRepository(Firestore firestore, FirestoreProperties properties) {
+    this.firestore = firestore;
+    this.properties = properties;
+  }
+
+  @Override
+  public void publish(List<String> apiKeyHashes) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("apiKeyHashes", apiKeyHashes);
+    data.put("createdAt", FieldValue.serverTimestamp());
+    data.put("expiresAt", toTimestamp(Instant.now().plus(RETENTION)));
+    getFuture(collection().add(data), "API key invalidation interrupted", "Failed to publish API key invalidation");
+  }
+
+  @Override
+  public Runnable subscribe(Consumer<List<String>> listener) {
+    ListenerRegistration registration = collection()
+        .whereGreaterThan("createdAt", toTimestamp(Instant.now().minus(LISTEN_LOOKBACK)))
+        .addSnapshotListener((snapshot, error) -> {
+          if (error != null) {
+            log.warn("API key invalidation listener failed error={}", error.getMessage());
+            return;
+          }
+          if (snapshot == null) {
+            return;
+          }
+          for (DocumentChange change : snapshot.getDocumentChanges()) {
+            if (change.getType() != DocumentChange.Type.ADDED) {
+              continue;
+            }
+            Object hashes = change.getDocument().get("apiKeyHashes");
+            if (hashes instanceof List<?> values) {
+              listener.accept(values.stream().map(String::valueOf).toList());
+            }
+          }
+        });
+    return registration::remove;
+  }
+
+  private CollectionReference collection() {
+    return firestore.collection(properties.getCollections().getApiKeyInvalidations());
+  }
+
+  private Timestamp toTimestamp(Instant instant) {
+    return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+  }
+
+  private <T> T getFuture(ApiFuture<T> future, String interruptedMessage, String failedMessage) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(interruptedMessage, e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(failedMessage, e);
+    }
+  }
+}
@@ -10,6 +10,7 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,7 +37,7 @@ public class FirestoreApiKeyRepository implements ApiKeyRepository {
     try {
       firestore.collection(collection())
           .document(apiKey.id())
-          .set(data)
+          .set(data, SetOptions.merge())
           .get();
       return apiKey;
     } catch (InterruptedException e) {
@@ -4,9 +4,19 @@ import com.apipratudo.quota.config.FirestoreProperties;
 import com.apipratudo.quota.config.QuotaProperties;
 import com.apipratudo.quota.dto.ApiKeyLimits;
 import com.apipratudo.quota.dto.QuotaReason;
+import com.apipratudo.quota.limiter.MinuteCheck;
+import com.apipratudo.quota.limiter.MinuteLimiter;
+import com.apipratudo.quota.limiter.MinuteLimiters;
+import com.apipratudo.quota.limiter.MinuteState;
 import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.QuotaBatchItem;
 import com.apipratudo.quota.model.QuotaDecision;
+import com.apipratudo.quota.model.QuotaEphemeralDecision;
+import com.apipratudo.quota.model.QuotaLease;
+import com.apipratudo.quota.model.QuotaLeaseSettlement;
 import com.apipratudo.quota.model.QuotaRefundDecision;
+import com.apipratudo.quota.model.QuotaRefundToken;
 import com.apipratudo.quota.model.QuotaStatus;
 import com.apipratudo.quota.model.QuotaWindow;
 import com.apipratudo.quota.model.QuotaWindowStatus;
@@ -17,14 +27,23 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.stereotype.Repository;
 
@@ -32,21 +51,31 @@ import org.springframework.stereotype.Repository;
 @ConditionalOnBean(Firestore.class)
 public class FirestoreQuotaStore implements QuotaStore {
 
+  private static final Logger log = LoggerFactory.getLogger(FirestoreQuotaStore.class);
+  private static final String COUNTER_SHARDS_COLLECTION = "quota_shards";
+  // Late returns (a refund after the gateway retired the lease) still find the lease for this long after expiry.
+  private static final Duration LEASE_RETURN_GRACE = Duration.ofHours(1);
+
   private final Firestore firestore;
   private final FirestoreProperties properties;
   private final QuotaProperties quotaProperties;
   private final Clock clock;
+  private final MinuteLimiters limiters;
+  private final HotKeyTracker hotKeyTracker;
 
   public FirestoreQuotaStore(
       Firestore firestore,
       FirestoreProperties properties,
       QuotaProperties quotaProperties,
-      Clock clock
+      Clock clock,
+      MinuteLimiters limiters
   ) {
     this.firestore = firestore;
     this.properties = properties;
     this.quotaProperties = quotaProperties;
     this.clock = clock;
+    this.limiters = limiters;
+    this.hotKeyTracker = new HotKeyTracker(clock);
   }
 
   @Override
@@ -57,94 +86,316 @@ public class FirestoreQuotaStore implements QuotaStore {
       int cost,
       QuotaWindows windowsSnapshot
   ) {
+    adjustSharding(apiKey, windowsSnapshot);
     String idempotencyId = idempotencyId(apiKey.id(), requestId);
     Instant now = Instant.now(clock);
-    QuotaWindow minuteWindow = windowsSnapshot.minute();
-    QuotaWindow dayWindow = windowsSnapshot.day();
     DocumentReference idempotencyRef = idempotencyRef(idempotencyId);
     DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
 
-    ApiKeyLimits limits = apiKey.limits();
-    long minuteLimit = limits.requestsPerMinute();
-    long dayLimit = limits.requestsPerDay();
-
     ApiFuture<QuotaDecision> future = firestore.runTransaction(transaction -> {
       DocumentSnapshot idempotencySnapshot = transaction.get(idempotencyRef).get();
       if (idempotencySnapshot.exists() && !isExpired(idempotencySnapshot, now)) {
         return decisionFromSnapshot(idempotencySnapshot);
       }
 
+      Charge charge = charge(transaction, apiKeyRef, apiKey, cost, windowsSnapshot, now);
+      Map<String, Object> idempotencyData = idempotencyData(apiKey, requestId, route, charge.decision(), now, cost,
+          charge.minuteBucket(), charge.dayBucket(), charge.consumed(), charge.creditsConsumed());
+      if (charge.shardUnits() != null) {
+        idempotencyData.put("shardUnits", charge.shardUnits());
+      }
+      transaction.set(idempotencyRef, idempotencyData, SetOptions.merge());
+      return charge.decision();
+    });
+
+    return getFuture(future, "Quota consume interrupted", "Failed to consume quota");
+  }
+
+  @Override
+  public QuotaEphemeralDecision consumeEphemeral(
+      ApiKey apiKey,
+      String requestId,
+      String route,
+      int cost,
+      QuotaWindows windowsSnapshot
+  ) {
+    adjustSharding(apiKey, windowsSnapshot);
+    Instant now = Instant.now(clock);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+
+    // No idempotency document at all: the id is fresh, so there is nothing to replay, and what a refund needs goes
+    // back to the caller in the token.
+    ApiFuture<Charge> future = firestore.runTransaction(
+        transaction -> charge(transaction, apiKeyRef, apiKey, cost, windowsSnapshot, now));
+    Charge charge = getFuture(future, "Quota consume interrupted", "Failed to consume quota");
+    return new QuotaEphemeralDecision(charge.decision(),
+        charge.consumed() ? refundToken(apiKey, cost, charge, now) : null);
+  }
+
+  @Override
+  public QuotaRefundDecision refundEphemeral(ApiKey apiKey, QuotaRefundToken token) {
+    Instant now = Instant.now(clock);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+
+    ApiFuture<Boolean> future = firestore.runTransaction(transaction -> releaseUsage(transaction, apiKey, apiKeyRef,
+        token.minuteBucket(), token.dayBucket(), token.cost(), token.creditsConsumed(), token.shardUnits(), now));
+    getFuture(future, "Quota refund interrupted", "Failed to refund quota");
+    return new QuotaRefundDecision(true, null, null, null, null);
+  }
+
+  private Charge charge(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      ApiKey apiKey,
+      int cost,
+      QuotaWindows windowsSnapshot,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+    int shards = shardCount(apiKeySnapshot);
+    hotKeyTracker.observe(apiKey.id(), shards > 0);
+    long credits = getCreditsRemaining(apiKeySnapshot);
+    if (shards > 0 && credits < cost) {
+      return chargeSharded(transaction, apiKeyRef, apiKey.limits(), cost, windowsSnapshot, shards, credits <= 0,
+          now);
+    }
+
+    CounterState state = counterState(apiKeySnapshot, windowsSnapshot, limiters.forPlan(apiKey.plan()));
+    Charge charge = evaluate(state, apiKey.limits(), cost, windowsSnapshot, now);
+    if (state.dirty) {
+      transaction.set(apiKeyRef, counterUpdates(state, now), SetOptions.merge());
+    }
+    return charge;
+  }
+
+  private CounterState counterState(
+      DocumentSnapshot apiKeySnapshot,
+      QuotaWindows windowsSnapshot,
+      MinuteLimiter limiter
+  ) {
+    Instant minuteBucket = windowsSnapshot.minute().windowStart();
+    String dayBucket = dayBucket(windowsSnapshot.day().windowStart());
+    CounterState state = new CounterState(limiter, minuteBucket, dayBucket);
+    state.minute = minuteState(apiKeySnapshot);
+    state.dayCount = dayBucket.equals(apiKeySnapshot.getString("dayBucket")) ? getLong(apiKeySnapshot, "dayCount") : 0;
+    state.credits = getCreditsRemaining(apiKeySnapshot);
+    return state;
+  }
+
+  private Charge evaluate(
+      CounterState state,
+      ApiKeyLimits limits,
+      int cost,
+      QuotaWindows windowsSnapshot,
+      Instant now
+  ) {
+    QuotaWindow minuteWindow = windowsSnapshot.minute();
+    WindowDecision minute = windowDecision(
+        state.limiter.check(state.minute, limits.requestsPerMinute(), cost, minuteWindow, now));
+    WindowDecision day = buildWindowDecision(windowsSnapshot.day(), limits.requestsPerDay(), state.dayCount, cost);
+
+    if (state.credits >= cost) {
+      if (minute.exceeded()) {
+        QuotaDecision decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, minute.limit(), 0,
+            minute.resetAt(), false);
+        return new Charge(decision, false, state.minuteBucket, null, 0, null);
+      }
+      state.credits = Math.max(state.credits - cost, 0);
+      state.limiter.acquire(state.minute, limits.requestsPerMinute(), cost, minuteWindow, now);
+      state.creditsTouched = true;
+      state.dirty = true;
+      if (state.credits == 0) {
+        state.minute.reset();
+        state.dayCount = 0;
+        state.dayTouched = true;
+      }
+      QuotaDecision decision = new QuotaDecision(true, null, minute.limit(), minute.remaining(), minute.resetAt(),
+          state.credits == 0);
+      return new Charge(decision, true, state.minuteBucket, null, cost, null);
+    }
+
+    if (minute.exceeded() || day.exceeded()) {
+      WindowDecision exceeded = chooseExceeded(minute, day);
+      QuotaDecision decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, exceeded.limit(), 0,
+          exceeded.resetAt(), state.credits <= 0);
+      return new Charge(decision, false, state.minuteBucket, state.dayBucket, 0, null);
+    }
+    WindowDecision selected = chooseMostRestrictive(minute, day);
+    state.limiter.acquire(state.minute, limits.requestsPerMinute(), cost, minuteWindow, now);
+    state.dayCount = day.newCount();
+    state.dayTouched = true;
+    state.dirty = true;
+    QuotaDecision decision = new QuotaDecision(true, null, selected.limit(), selected.remaining(), selected.resetAt(),
+        state.credits <= 0);
+    return new Charge(decision, true, state.minuteBucket, state.dayBucket, 0, null);
+  }
+
+  private Map<String, Object> counterUpdates(CounterState state, Instant now) {
+    Map<String, Object> apiKeyUpdates = new HashMap<>();
+    putMinuteState(apiKeyUpdates, state.minute);
+    if (state.creditsTouched) {
+      apiKeyUpdates.put("credits", Map.of("remaining", state.credits));
+    }
+    if (state.dayTouched) {
+      apiKeyUpdates.put("dayBucket", state.dayBucket);
+      apiKeyUpdates.put("dayCount", state.dayCount);
+    }
+    apiKeyUpdates.put("updatedAt", toTimestamp(now));
+    return apiKeyUpdates;
+  }
+
+  @Override
+  public List<QuotaDecision> consumeBatch(ApiKey apiKey, List<QuotaBatchItem> items, QuotaWindows windowsSnapshot) {
+    Instant now = Instant.now(clock);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+    Map<String, DocumentReference> idempotencyRefs = new LinkedHashMap<>();
+    for (QuotaBatchItem item : items) {
+      String idempotencyId = idempotencyId(apiKey.id(), item.requestId());
+      idempotencyRefs.putIfAbsent(idempotencyId, idempotencyRef(idempotencyId));
+    }
+
+    ApiFuture<List<QuotaDecision>> future = firestore.runTransaction(transaction -> {
+      Map<String, DocumentSnapshot> existing = new HashMap<>();
+      for (DocumentSnapshot snapshot : transaction.getAll(
+          idempotencyRefs.values().toArray(new DocumentReference[0])).get()) {
+        existing.put(snapshot.getId(), snapshot);
+      }
       DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
-      Instant storedMinuteBucket = toInstant(apiKeySnapshot.getTimestamp("minuteBucket"));
-      long storedMinuteCount = getLong(apiKeySnapshot, "minuteCount");
-      String storedDayBucket = apiKeySnapshot.getString("dayBucket");
-      long storedDayCount = getLong(apiKeySnapshot, "dayCount");
-      long storedCredits = getCreditsRemaining(apiKeySnapshot);
-
-      Instant minuteBucket = minuteWindow.windowStart();
-      String dayBucket = dayBucket(dayWindow.windowStart());
-
-      long minuteCount = matchesBucket(storedMinuteBucket, minuteBucket) ? storedMinuteCount : 0;
-      long dayCount = dayBucket.equals(storedDayBucket) ? storedDayCount : 0;
-
-      WindowDecision minute = buildWindowDecision(minuteWindow, minuteLimit, minuteCount, cost);
-      WindowDecision day = buildWindowDecision(dayWindow, dayLimit, dayCount, cost);
-
-      QuotaDecision decision;
-      boolean consumed;
-      boolean useCredits = storedCredits >= cost;
-      long creditsConsumed = 0;
-      if (useCredits) {
-        if (minute.exceeded()) {
-          decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, minute.limit(), 0, minute.resetAt());
-          consumed = false;
-        } else {
-          long remainingCredits = Math.max(storedCredits - cost, 0);
-          creditsConsumed = cost;
-          decision = new QuotaDecision(true, null, minute.limit(), minute.remaining(), minute.resetAt());
-          consumed = true;
-
-          Map<String, Object> apiKeyUpdates = new HashMap<>();
-          apiKeyUpdates.put("minuteBucket", toTimestamp(minuteBucket));
-          apiKeyUpdates.put("minuteCount", minute.newCount());
-          apiKeyUpdates.put("credits", Map.of("remaining", remainingCredits));
-          apiKeyUpdates.put("updatedAt", toTimestamp(now));
-
-          if (remainingCredits == 0) {
-            apiKeyUpdates.put("minuteCount", 0);
-            apiKeyUpdates.put("dayBucket", dayBucket);
-            apiKeyUpdates.put("dayCount", 0);
-          }
+      if (shardCount(apiKeySnapshot) > 0) {
+        return null;
+      }
 
-          transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+      CounterState state = counterState(apiKeySnapshot, windowsSnapshot, limiters.forPlan(apiKey.plan()));
+      Map<String, QuotaDecision> decided = new HashMap<>();
+      Map<String, Map<String, Object>> idempotencyWrites = new LinkedHashMap<>();
+      List<QuotaDecision> decisions = new ArrayList<>();
+      for (QuotaBatchItem item : items) {
+        String idempotencyId = idempotencyId(apiKey.id(), item.requestId());
+        QuotaDecision decision = decided.get(idempotencyId);
+        if (decision == null) {
+          DocumentSnapshot snapshot = existing.get(idempotencyId);
+          if (snapshot != null && snapshot.exists() && !isExpired(snapshot, now)) {
+            decision = decisionFromSnapshot(snapshot);
+          } else {
+            Charge charge = evaluate(state, apiKey.limits(), item.cost(), windowsSnapshot, now);
+            decision = charge.decision();
+            idempotencyWrites.put(idempotencyId, idempotencyData(apiKey, item.requestId(), item.route(), decision,
+                now, item.cost(), charge.minuteBucket(), charge.dayBucket(), charge.consumed(),
+                charge.creditsConsumed()));
+          }
+          decided.put(idempotencyId, decision);
         }
-      } else {
-        if (minute.exceeded() || day.exceeded()) {
-          WindowDecision exceeded = chooseExceeded(minute, day);
-          decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, exceeded.limit(), 0, exceeded.resetAt());
-          consumed = false;
-        } else {
-          WindowDecision selected = chooseMostRestrictive(minute, day);
-          decision = new QuotaDecision(true, null, selected.limit(), selected.remaining(), selected.resetAt());
-          consumed = true;
-
-          Map<String, Object> apiKeyUpdates = new HashMap<>();
-          apiKeyUpdates.put("minuteBucket", toTimestamp(minuteBucket));
-          apiKeyUpdates.put("minuteCount", minute.newCount());
-          apiKeyUpdates.put("dayBucket", dayBucket);
-          apiKeyUpdates.put("dayCount", day.newCount());
-          apiKeyUpdates.put("updatedAt", toTimestamp(now));
-          transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+        decisions.add(decision);
+      }
+
+      if (state.dirty) {
+        transaction.set(apiKeyRef, counterUpdates(state, now), SetOptions.merge());
+      }
+      idempotencyWrites.forEach((idempotencyId, data) ->
+          transaction.set(idempotencyRefs.get(idempotencyId), data, SetOptions.merge()));
+      return decisions;
+    });
+
+    List<QuotaDecision> decisions = getFuture(future, "Quota batch consume interrupted",
+        "Failed to consume quota batch");
+    if (decisions != null) {
+      return decisions;
+    }
+    return QuotaStore.super.consumeBatch(apiKey, items, windowsSnapshot);
+  }
+
+  @Override
+  public List<QuotaRefundDecision> refundBatch(ApiKey apiKey, List<String> requestIds) {
+    Instant now = Instant.now(clock);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+    Map<String, DocumentReference> idempotencyRefs = new LinkedHashMap<>();
+    for (String requestId : requestIds) {
+      String idempotencyId = idempotencyId(apiKey.id(), requestId);
+      idempotencyRefs.putIfAbsent(idempotencyId, idempotencyRef(idempotencyId));
+    }
+
+    ApiFuture<List<QuotaRefundDecision>> future = firestore.runTransaction(transaction -> {
+      Map<String, DocumentSnapshot> entries = new HashMap<>();
+      for (DocumentSnapshot snapshot : transaction.getAll(
+          idempotencyRefs.values().toArray(new DocumentReference[0])).get()) {
+        entries.put(snapshot.getId(), snapshot);
+      }
+      DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+      if (shardCount(apiKeySnapshot) > 0) {
+        return null;
+      }
+
+      MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+      long minuteLimit = apiKey.limits().requestsPerMinute();
+      MinuteState minute = minuteState(apiKeySnapshot);
+      String storedDayBucket = apiKeySnapshot.getString("dayBucket");
+      long dayCount = getLong(apiKeySnapshot, "dayCount");
+      long credits = getCreditsRemaining(apiKeySnapshot);
+      boolean released = false;
+      boolean creditsReturned = false;
+
+      Map<String, QuotaRefundDecision> decided = new HashMap<>();
+      List<QuotaRefundDecision> decisions = new ArrayList<>();
+      for (String requestId : requestIds) {
+        String idempotencyId = idempotencyId(apiKey.id(), requestId);
+        QuotaRefundDecision refund = decided.get(idempotencyId);
+        if (refund == null) {
+          DocumentSnapshot snapshot = entries.get(idempotencyId);
+          if (snapshot == null || !snapshot.exists() || isExpired(snapshot, now)) {
+            refund = new QuotaRefundDecision(false, null, null, null, null);
+          } else {
+            QuotaDecision decision = decisionFromSnapshot(snapshot);
+            boolean refunded = Boolean.TRUE.equals(snapshot.getBoolean("refunded"));
+            boolean consumed = Boolean.TRUE.equals(snapshot.getBoolean("consumed"));
+            refund = new QuotaRefundDecision(refunded || consumed, decision.reason(), decision.limit(),
+                decision.remaining(), decision.resetAt());
+            if (consumed && !refunded) {
+              long cost = getLong(snapshot, "cost");
+              long creditsConsumed = getLong(snapshot, "creditsConsumed");
+              String entryDayBucket = snapshot.getString("dayBucket");
+              if (limiter.release(minute, minuteLimit, cost,
+                  bucketOf(toInstant(snapshot.getTimestamp("minuteBucket"))), now)) {
+                released = true;
+              }
+              if (entryDayBucket != null && entryDayBucket.equals(storedDayBucket)) {
+                dayCount = Math.max(dayCount - cost, 0);
+                released = true;
+              }
+              if (creditsConsumed > 0) {
+                credits += creditsConsumed;
+                creditsReturned = true;
+                released = true;
+              }
+              Map<String, Object> updates = new HashMap<>();
+              updates.put("refunded", true);
+              updates.put("refundedAt", toTimestamp(now));
+              transaction.set(idempotencyRefs.get(idempotencyId), updates, SetOptions.merge());
+            }
+          }
+          decided.put(idempotencyId, refund);
         }
+        decisions.add(refund);
       }
 
-      Map<String, Object> idempotencyData = idempotencyData(apiKey, requestId, route, decision, now, cost,
-          minuteBucket, useCredits ? null : dayBucket, consumed, creditsConsumed);
-      transaction.set(idempotencyRef, idempotencyData, SetOptions.merge());
-      return decision;
+      if (released) {
+        Map<String, Object> apiKeyUpdates = new HashMap<>();
+        putMinuteState(apiKeyUpdates, minute);
+        apiKeyUpdates.put("dayCount", dayCount);
+        if (creditsReturned) {
+          apiKeyUpdates.put("credits", Map.of("remaining", credits));
+        }
+        apiKeyUpdates.put("updatedAt", toTimestamp(now));
+        transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+      }
+      return decisions;
     });
 
-    return getFuture(future, "Quota consume interrupted", "Failed to consume quota");
+    List<QuotaRefundDecision> decisions = getFuture(future, "Quota batch refund interrupted",
+        "Failed to refund quota batch");
+    if (decisions != null) {
+      return decisions;
+    }
+    return QuotaStore.super.refundBatch(apiKey, requestIds);
   }
 
   @Override
@@ -176,42 +427,10 @@ public class FirestoreQuotaStore implements QuotaStore {
       long creditsConsumed = getLong(snapshot, "creditsConsumed");
       Instant entryMinuteBucket = toInstant(snapshot.getTimestamp("minuteBucket"));
       String entryDayBucket = snapshot.getString("dayBucket");
+      Map<?, ?> shardUnits = snapshot.get("shardUnits") instanceof Map<?, ?> map ? map : null;
 
-      DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
-      Instant storedMinuteBucket = toInstant(apiKeySnapshot.getTimestamp("minuteBucket"));
-      long storedMinuteCount = getLong(apiKeySnapshot, "minuteCount");
-      String storedDayBucket = apiKeySnapshot.getString("dayBucket");
-      long storedDayCount = getLong(apiKeySnapshot, "dayCount");
-      long storedCredits = getCreditsRemaining(apiKeySnapshot);
-
-      boolean updated = false;
-      long newMinuteCount = storedMinuteCount;
-      long newDayCount = storedDayCount;
-      long newCredits = storedCredits;
-
-      if (entryMinuteBucket != null && matchesBucket(storedMinuteBucket, entryMinuteBucket)) {
-        newMinuteCount = Math.max(storedMinuteCount - cost, 0);
-        updated = true;
-      }
-      if (entryDayBucket != null && entryDayBucket.equals(storedDayBucket)) {
-        newDayCount = Math.max(storedDayCount - cost, 0);
-        updated = true;
-      }
-      if (creditsConsumed > 0) {
-        newCredits = storedCredits + creditsConsumed;
-        updated = true;
-      }
-
-      if (updated) {
-        Map<String, Object> apiKeyUpdates = new HashMap<>();
-        apiKeyUpdates.put("minuteCount", newMinuteCount);
-        apiKeyUpdates.put("dayCount", newDayCount);
-        if (creditsConsumed > 0) {
-          apiKeyUpdates.put("credits", Map.of("remaining", newCredits));
-        }
-        apiKeyUpdates.put("updatedAt", toTimestamp(now));
-        transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
-      }
+      releaseUsage(transaction, apiKey, apiKeyRef, entryMinuteBucket, entryDayBucket, cost, creditsConsumed,
+          shardUnits, now);
 
       Map<String, Object> updates = new HashMap<>();
       updates.put("refunded", true);
@@ -224,6 +443,138 @@ public class FirestoreQuotaStore implements QuotaStore {
     return getFuture(future, "Quota refund interrupted", "Failed to refund quota");
   }
 
+  @Override
+  public QuotaLease lease(ApiKey apiKey, int units, Duration ttl, QuotaWindows windowsSnapshot) {
+    Instant now = Instant.now(clock);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+    DocumentReference leaseRef = firestore.collection(properties.getCollections().getQuotaLeases()).document();
+    Instant expiresAt = leaseExpiry(now, ttl, windowsSnapshot.minute());
+
+    ApiFuture<QuotaLease> future = firestore.runTransaction(transaction -> {
+      QuotaLease lease = chargeLease(transaction, apiKeyRef, apiKey, leaseRef.getId(), units, windowsSnapshot,
+          expiresAt, now);
+      if (lease.granted()) {
+        transaction.set(leaseRef, leaseData(apiKey, lease, now));
+      }
+      return lease;
+    });
+
+    return getFuture(future, "Quota lease interrupted", "Failed to lease quota");
+  }
+
+  private QuotaLease chargeLease(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      ApiKey apiKey,
+      String leaseId,
+      int units,
+      QuotaWindows windowsSnapshot,
+      Instant expiresAt,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    QuotaWindow minuteWindow = windowsSnapshot.minute();
+    QuotaWindow dayWindow = windowsSnapshot.day();
+    ApiKeyLimits limits = apiKey.limits();
+    long minuteLimit = limits.requestsPerMinute();
+    long dayLimit = limits.requestsPerDay();
+    MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+
+    DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+    MinuteState minute = minuteState(apiKeySnapshot);
+    String storedDayBucket = apiKeySnapshot.getString("dayBucket");
+    long storedDayCount = getLong(apiKeySnapshot, "dayCount");
+    long storedCredits = getCreditsRemaining(apiKeySnapshot);
+
+    int shards = shardCount(apiKeySnapshot);
+    if (shards > 0 && storedCredits <= 0) {
+      return leaseSharded(transaction, apiKeyRef, limits, leaseId, units, windowsSnapshot, shards, expiresAt, now);
+    }
+
+    Instant minuteBucket = minuteWindow.windowStart();
+    String dayBucket = dayBucket(dayWindow.windowStart());
+    long dayCount = dayBucket.equals(storedDayBucket) ? storedDayCount : 0;
+
+    boolean useCredits = storedCredits > 0;
+    long minuteAvailable = limiter.available(minute, minuteLimit, minuteWindow, now);
+    long dayAvailable = Math.max(dayLimit - dayCount, 0);
+    long granted = Math.min(units, minuteAvailable);
+    granted = Math.min(granted, useCredits ? storedCredits : dayAvailable);
+
+    if (granted <= 0) {
+      boolean dayExceeded = !useCredits && dayAvailable <= 0;
+      return new QuotaLease(null, false, QuotaReason.QUOTA_EXCEEDED, 0, minuteBucket,
+          useCredits ? null : dayBucket, useCredits, expiresAt, dayExceeded ? dayLimit : minuteLimit, 0,
+          dayExceeded ? dayWindow.resetAt() : minuteWindow.resetAt(), !useCredits);
+    }
+
+    limiter.acquire(minute, minuteLimit, granted, minuteWindow, now);
+    Map<String, Object> apiKeyUpdates = new HashMap<>();
+    putMinuteState(apiKeyUpdates, minute);
+    apiKeyUpdates.put("updatedAt", toTimestamp(now));
+    if (useCredits) {
+      long remainingCredits = storedCredits - granted;
+      apiKeyUpdates.put("credits", Map.of("remaining", remainingCredits));
+      if (remainingCredits == 0) {
+        minute.reset();
+        putMinuteState(apiKeyUpdates, minute);
+        apiKeyUpdates.put("dayBucket", dayBucket);
+        apiKeyUpdates.put("dayCount", 0);
+      }
+    } else {
+      apiKeyUpdates.put("dayBucket", dayBucket);
+      apiKeyUpdates.put("dayCount", dayCount + granted);
+    }
+    transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+
+    long minuteRemaining = minuteAvailable - granted;
+    long remaining = useCredits ? minuteRemaining : Math.min(minuteRemaining, dayAvailable - granted);
+    return new QuotaLease(leaseId, true, null, granted, minuteBucket, useCredits ? null : dayBucket, useCredits,
+        expiresAt, minuteLimit, remaining, minuteWindow.resetAt(), !useCredits || storedCredits == granted);
+  }
+
+  @Override
+  public QuotaLeaseSettlement returnLease(ApiKey apiKey, String leaseId, long units, long spent) {
+    Instant now = Instant.now(clock);
+    DocumentReference leaseRef = firestore.collection(properties.getCollections().getQuotaLeases()).document(leaseId);
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+
+    ApiFuture<QuotaLeaseSettlement> future = firestore.runTransaction(transaction -> {
+      DocumentSnapshot lease = transaction.get(leaseRef).get();
+      if (!lease.exists() || !apiKey.id().equals(lease.getString("apiKeyId"))) {
+        return QuotaLeaseSettlement.NONE;
+      }
+      long outstanding = getLong(lease, "outstanding");
+      long returned = Math.min(Math.max(units, 0), outstanding);
+      long settled = Math.min(Math.max(spent, 0), outstanding - returned);
+      if (returned + settled == 0) {
+        return QuotaLeaseSettlement.NONE;
+      }
+      if (returned > 0) {
+        boolean credits = Boolean.TRUE.equals(lease.getBoolean("credits"));
+        releaseUsage(transaction, apiKey, apiKeyRef, toInstant(lease.getTimestamp("minuteBucket")),
+            lease.getString("dayBucket"), returned, credits ? returned : 0, null, now);
+      }
+      transaction.update(leaseRef, "outstanding", outstanding - returned - settled, "updatedAt", toTimestamp(now));
+      return new QuotaLeaseSettlement(returned, settled);
+    });
+
+    return getFuture(future, "Quota lease return interrupted", "Failed to return quota lease");
+  }
+
+  private Map<String, Object> leaseData(ApiKey apiKey, QuotaLease lease, Instant now) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("apiKeyId", apiKey.id());
+    data.put("units", lease.units());
+    data.put("outstanding", lease.units());
+    data.put("minuteBucket", toTimestamp(lease.minuteBucket()));
+    data.put("dayBucket", lease.dayBucket());
+    data.put("credits", lease.credits());
+    data.put("leaseExpiresAt", toTimestamp(lease.expiresAt()));
+    data.put("createdAt", toTimestamp(now));
+    data.put("expiresAt", toTimestamp(lease.expiresAt().plus(LEASE_RETURN_GRACE)));
+    return data;
+  }
+
   @Override
   public QuotaStatus status(ApiKey apiKey, QuotaWindows windowsSnapshot) {
     QuotaWindow minuteWindow = windowsSnapshot.minute();
@@ -231,12 +582,7 @@ public class FirestoreQuotaStore implements QuotaStore {
     UsageState usage = currentUsage(apiKey, minuteWindow, dayWindow);
 
     ApiKeyLimits limits = apiKey.limits();
-    QuotaWindowStatus minute = new QuotaWindowStatus(
-        limits.requestsPerMinute(),
-        usage.minuteCount(),
-        Math.max(limits.requestsPerMinute() - usage.minuteCount(), 0),
-        minuteWindow.resetAt()
-    );
+    QuotaWindowStatus minute = usage.minute();
     QuotaWindowStatus day = new QuotaWindowStatus(
         limits.requestsPerDay(),
         usage.dayCount(),
@@ -247,11 +593,409 @@ public class FirestoreQuotaStore implements QuotaStore {
   }
 
   private UsageState currentUsage(ApiKey apiKey, QuotaWindow minuteWindow, QuotaWindow dayWindow) {
+    DocumentSnapshot snapshot = getFuture(apiKeyRef(apiKey.id()).get(), "Quota status interrupted",
+        "Failed to read quota status");
+    long minuteLimit = apiKey.limits().requestsPerMinute();
     Instant minuteBucket = minuteWindow.windowStart();
     String dayBucket = dayBucket(dayWindow.windowStart());
-    long minuteCount = matchesBucket(apiKey.minuteBucket(), minuteBucket) ? apiKey.minuteCount() : 0;
-    long dayCount = dayBucket.equals(apiKey.dayBucket()) ? apiKey.dayCount() : 0;
-    return new UsageState(minuteBucket, minuteCount, dayBucket, dayCount);
+    if (shardCount(snapshot) > 0 && getCreditsRemaining(snapshot) <= 0) {
+      List<QueryDocumentSnapshot> shardSnapshots = getFuture(
+          snapshot.getReference().collection(COUNTER_SHARDS_COLLECTION).get(),
+          "Quota status interrupted", "Failed to read quota status").getDocuments();
+      long minuteCount = 0;
+      long dayCount = 0;
+      for (DocumentSnapshot shardSnapshot : shardSnapshots) {
+        ShardUsage usage = shardUsage(0, shardSnapshot, minuteBucket, dayBucket);
+        minuteCount += usage.minuteCount();
+        dayCount += usage.dayCount();
+      }
+      QuotaWindowStatus minute = new QuotaWindowStatus(minuteLimit, minuteCount,
+          Math.max(minuteLimit - minuteCount, 0), minuteWindow.resetAt());
+      return new UsageState(minute, dayCount);
+    }
+    QuotaWindowStatus minute = limiters.forPlan(apiKey.plan())
+        .status(minuteState(snapshot), minuteLimit, minuteWindow, Instant.now(clock));
+    long dayCount = dayBucket.equals(snapshot.getString("dayBucket")) ? getLong(snapshot, "dayCount") : 0;
+    return new UsageState(minute, dayCount);
+  }
+
+  private void adjustSharding(ApiKey apiKey, QuotaWindows windowsSnapshot) {
+    if (!quotaProperties.isShardingEnabled()
+        || quotaProperties.getCounterShards() <= 1
+        || limiters.forPlan(apiKey.plan()).strategy() != LimiterStrategy.FIXED_WINDOW) {
+      return;
+    }
+    switch (hotKeyTracker.record(apiKey.id(), quotaProperties.getShardingQpsThreshold())) {
+      case SHARD -> switchToShards(apiKey, windowsSnapshot);
+      case MERGE -> mergeShards(apiKey, windowsSnapshot);
+      default -> {
+      }
+    }
+  }
+
+  private void switchToShards(ApiKey apiKey, QuotaWindows windowsSnapshot) {
+    int shards = quotaProperties.getCounterShards();
+    Instant now = Instant.now(clock);
+    Instant minuteBucket = windowsSnapshot.minute().windowStart();
+    String dayBucket = dayBucket(windowsSnapshot.day().windowStart());
+    ApiKeyLimits limits = apiKey.limits();
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+
+    ApiFuture<Integer> future = firestore.runTransaction(transaction -> {
+      DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+      int existing = shardCount(apiKeySnapshot);
+      if (existing > 0 || getCreditsRemaining(apiKeySnapshot) > 0) {
+        return existing;
+      }
+      Instant storedMinuteBucket = toInstant(apiKeySnapshot.getTimestamp("minuteBucket"));
+      long minuteCount = matchesBucket(storedMinuteBucket, minuteBucket) ? getLong(apiKeySnapshot, "minuteCount") : 0;
+      long dayCount = dayBucket.equals(apiKeySnapshot.getString("dayBucket")) ? getLong(apiKeySnapshot, "dayCount") : 0;
+      minuteCount = Math.min(minuteCount, limits.requestsPerMinute());
+      dayCount = Math.min(dayCount, limits.requestsPerDay());
+
+      for (int shard = 0; shard < shards; shard++) {
+        transaction.set(shardRef(apiKeyRef, shard), shardData(minuteBucket, shardSlice(minuteCount, shard, shards),
+            dayBucket, shardSlice(dayCount, shard, shards), now));
+      }
+      Map<String, Object> apiKeyUpdates = new HashMap<>();
+      apiKeyUpdates.put("counterShards", shards);
+      apiKeyUpdates.put("updatedAt", toTimestamp(now));
+      transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+      return shards;
+    });
+
+    try {
+      int active = getFuture(future, "Quota shard switch interrupted", "Failed to switch quota counters to shards");
+      if (active == shards) {
+        log.info("Quota counters sharded apiKeyId={} shards={}", apiKey.id(), shards);
+      }
+    } catch (IllegalStateException ex) {
+      log.warn("Quota shard switch failed apiKeyId={} error={}", apiKey.id(), ex.getMessage());
+    }
+  }
+
+  private void mergeShards(ApiKey apiKey, QuotaWindows windowsSnapshot) {
+    Instant now = Instant.now(clock);
+    Instant minuteBucket = windowsSnapshot.minute().windowStart();
+    String dayBucket = dayBucket(windowsSnapshot.day().windowStart());
+    DocumentReference apiKeyRef = apiKeyRef(apiKey.id());
+    long elapsedSeconds = Math.min(Math.max(Duration.between(minuteBucket, now).getSeconds(), 1), 60);
+    long warmCount = (quotaProperties.getShardingQpsThreshold() * elapsedSeconds + 1) / 2;
+
+    try {
+      // Most keys that cool down were never sharded; a plain read keeps the check off the transaction path.
+      DocumentSnapshot current = getFuture(apiKeyRef.get(), "Quota shard merge interrupted",
+          "Failed to read quota counters");
+      if (shardCount(current) <= 0) {
+        return;
+      }
+      ApiFuture<Integer> future = firestore.runTransaction(transaction -> {
+        DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+        int shards = shardCount(apiKeySnapshot);
+        if (shards <= 0) {
+          return 0;
+        }
+        long minuteCount = 0;
+        long dayCount = 0;
+        for (int shard = 0; shard < shards; shard++) {
+          ShardUsage usage = shardUsage(shard, transaction.get(shardRef(apiKeyRef, shard)).get(), minuteBucket,
+              dayBucket);
+          minuteCount += usage.minuteCount();
+          dayCount += usage.dayCount();
+        }
+        // This instance only saw its own share of the traffic. The shards count everyone's, so a key still at half
+        // the threshold across the fleet stays sharded.
+        if (minuteCount >= warmCount) {
+          return -1;
+        }
+        // The document still holds the counts copied into the shards at the switch (plus any credit charges
+        // since), so take the larger side rather than the sum.
+        Instant storedMinuteBucket = toInstant(apiKeySnapshot.getTimestamp("minuteBucket"));
+        if (matchesBucket(storedMinuteBucket, minuteBucket)) {
+          minuteCount = Math.max(minuteCount, getLong(apiKeySnapshot, "minuteCount"));
+        }
+        if (dayBucket.equals(apiKeySnapshot.getString("dayBucket"))) {
+          dayCount = Math.max(dayCount, getLong(apiKeySnapshot, "dayCount"));
+        }
+
+        for (int shard = 0; shard < shards; shard++) {
+          transaction.delete(shardRef(apiKeyRef, shard));
+        }
+        Map<String, Object> apiKeyUpdates = new HashMap<>();
+        apiKeyUpdates.put("counterShards", 0);
+        apiKeyUpdates.put("minuteBucket", toTimestamp(minuteBucket));
+        apiKeyUpdates.put("minuteCount", minuteCount);
+        apiKeyUpdates.put("dayBucket", dayBucket);
+        apiKeyUpdates.put("dayCount", dayCount);
+        apiKeyUpdates.put("updatedAt", toTimestamp(now));
+        transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+        return shards;
+      });
+      int merged = getFuture(future, "Quota shard merge interrupted", "Failed to merge quota counter shards");
+      if (merged > 0) {
+        log.info("Quota counters merged apiKeyId={} shards={}", apiKey.id(), merged);
+      } else if (merged < 0) {
+        hotKeyTracker.deferMerge(apiKey.id());
+      }
+    } catch (IllegalStateException ex) {
+      log.warn("Quota shard merge failed apiKeyId={} error={}", apiKey.id(), ex.getMessage());
+    }
+  }
+
+  private Charge chargeSharded(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      ApiKeyLimits limits,
+      int cost,
+      QuotaWindows windowsSnapshot,
+      int shards,
+      boolean creditsDepleted,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    QuotaWindow minuteWindow = windowsSnapshot.minute();
+    QuotaWindow dayWindow = windowsSnapshot.day();
+    Instant minuteBucket = minuteWindow.windowStart();
+    String dayBucket = dayBucket(dayWindow.windowStart());
+
+    ShardAllocation allocation = allocateShards(transaction, apiKeyRef, shards, limits, minuteBucket, dayBucket, cost);
+    boolean consumed = allocation.granted() >= cost;
+    QuotaDecision decision;
+    if (consumed) {
+      writeShards(transaction, apiKeyRef, allocation, minuteBucket, dayBucket, now);
+      WindowDecision minute = new WindowDecision(limits.requestsPerMinute(), 0,
+          allocation.estimateRemaining(allocation.minuteRoom(), limits.requestsPerMinute()), 0,
+          minuteWindow.resetAt(), false);
+      WindowDecision day = new WindowDecision(limits.requestsPerDay(), 0,
+          allocation.estimateRemaining(allocation.dayRoom(), limits.requestsPerDay()), 0,
+          dayWindow.resetAt(), false);
+      WindowDecision selected = chooseMostRestrictive(minute, day);
+      decision = new QuotaDecision(true, null, selected.limit(), selected.remaining(), selected.resetAt(),
+          creditsDepleted);
+    } else if (allocation.dayRoom() < cost) {
+      decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, limits.requestsPerDay(), 0, dayWindow.resetAt(),
+          creditsDepleted);
+    } else {
+      decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, limits.requestsPerMinute(), 0,
+          minuteWindow.resetAt(), creditsDepleted);
+    }
+
+    return new Charge(decision, consumed, minuteBucket, dayBucket, 0, consumed ? allocation.shardUnits() : null);
+  }
+
+  private QuotaLease leaseSharded(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      ApiKeyLimits limits,
+      String leaseId,
+      int units,
+      QuotaWindows windowsSnapshot,
+      int shards,
+      Instant expiresAt,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    QuotaWindow minuteWindow = windowsSnapshot.minute();
+    QuotaWindow dayWindow = windowsSnapshot.day();
+    Instant minuteBucket = minuteWindow.windowStart();
+    String dayBucket = dayBucket(dayWindow.windowStart());
+
+    ShardAllocation allocation = allocateShards(transaction, apiKeyRef, shards, limits, minuteBucket, dayBucket, units);
+    if (allocation.granted() <= 0) {
+      boolean dayExceeded = allocation.dayRoom() <= 0;
+      return new QuotaLease(null, false, QuotaReason.QUOTA_EXCEEDED, 0, minuteBucket, dayBucket, false, expiresAt,
+          dayExceeded ? limits.requestsPerDay() : limits.requestsPerMinute(), 0,
+          dayExceeded ? dayWindow.resetAt() : minuteWindow.resetAt(), true);
+    }
+    writeShards(transaction, apiKeyRef, allocation, minuteBucket, dayBucket, now);
+    long remaining = Math.min(
+        allocation.estimateRemaining(allocation.minuteRoom(), limits.requestsPerMinute()),
+        allocation.estimateRemaining(allocation.dayRoom(), limits.requestsPerDay()));
+    return new QuotaLease(leaseId, true, null, allocation.granted(), minuteBucket, dayBucket, false, expiresAt,
+        limits.requestsPerMinute(), remaining, minuteWindow.resetAt(), true);
+  }
+
+  private ShardAllocation allocateShards(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      int shards,
+      ApiKeyLimits limits,
+      Instant minuteBucket,
+      String dayBucket,
+      long wanted
+  ) throws InterruptedException, ExecutionException {
+    List<ShardUsage> taken = new ArrayList<>();
+    long granted = 0;
+    long minuteRoom = 0;
+    long dayRoom = 0;
+    int read = 0;
+    int start = ThreadLocalRandom.current().nextInt(shards);
+    for (int i = 0; i < shards && granted < wanted; i++) {
+      int shard = (start + i) % shards;
+      DocumentSnapshot shardSnapshot = transaction.get(shardRef(apiKeyRef, shard)).get();
+      ShardUsage usage = shardUsage(shard, shardSnapshot, minuteBucket, dayBucket);
+      long shardMinuteRoom = Math.max(shardSlice(limits.requestsPerMinute(), shard, shards) - usage.minuteCount(), 0);
+      long shardDayRoom = Math.max(shardSlice(limits.requestsPerDay(), shard, shards) - usage.dayCount(), 0);
+      minuteRoom += shardMinuteRoom;
+      dayRoom += shardDayRoom;
+      read++;
+      long take = Math.min(Math.min(shardMinuteRoom, shardDayRoom), wanted - granted);
+      if (take > 0) {
+        granted += take;
+        taken.add(new ShardUsage(shard, usage.minuteCount() + take, usage.dayCount() + take, take));
+      }
+    }
+    return new ShardAllocation(taken, granted, minuteRoom - granted, dayRoom - granted, read, shards);
+  }
+
+  private void writeShards(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      ShardAllocation allocation,
+      Instant minuteBucket,
+      String dayBucket,
+      Instant now
+  ) {
+    for (ShardUsage usage : allocation.taken()) {
+      transaction.set(shardRef(apiKeyRef, usage.shard()),
+          shardData(minuteBucket, usage.minuteCount(), dayBucket, usage.dayCount(), now));
+    }
+  }
+
+  private boolean releaseShards(
+      Transaction transaction,
+      DocumentReference apiKeyRef,
+      int shards,
+      Map<?, ?> shardUnits,
+      Instant minuteBucket,
+      String dayBucket,
+      long units,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    Map<Integer, Long> caps = new HashMap<>();
+    if (shardUnits != null) {
+      shardUnits.forEach((shard, taken) -> caps.put(Integer.parseInt(shard.toString()), ((Number) taken).longValue()));
+    } else {
+      for (int shard = 0; shard < shards; shard++) {
+        caps.put(shard, units);
+      }
+    }
+
+    Map<Integer, DocumentSnapshot> snapshots = new HashMap<>();
+    for (Integer shard : caps.keySet()) {
+      snapshots.put(shard, transaction.get(shardRef(apiKeyRef, shard)).get());
+    }
+
+    boolean updated = false;
+    long minuteLeft = units;
+    long dayLeft = units;
+    for (Map.Entry<Integer, DocumentSnapshot> entry : snapshots.entrySet()) {
+      int shard = entry.getKey();
+      long cap = caps.get(shard);
+      ShardUsage usage = shardUsage(shard, entry.getValue(), minuteBucket, dayBucket);
+      long minuteRelease = minuteBucket == null ? 0 : Math.min(Math.min(cap, minuteLeft), usage.minuteCount());
+      long dayRelease = dayBucket == null ? 0 : Math.min(Math.min(cap, dayLeft), usage.dayCount());
+      if (minuteRelease <= 0 && dayRelease <= 0) {
+        continue;
+      }
+      minuteLeft -= minuteRelease;
+      dayLeft -= dayRelease;
+      Map<String, Object> shardUpdates = new HashMap<>();
+      if (minuteRelease > 0) {
+        shardUpdates.put("minuteCount", usage.minuteCount() - minuteRelease);
+      }
+      if (dayRelease > 0) {
+        shardUpdates.put("dayCount", usage.dayCount() - dayRelease);
+      }
+      shardUpdates.put("updatedAt", toTimestamp(now));
+      transaction.set(shardRef(apiKeyRef, shard), shardUpdates, SetOptions.merge());
+      updated = true;
+    }
+    return updated;
+  }
+
+  private ShardUsage shardUsage(int shard, DocumentSnapshot snapshot, Instant minuteBucket, String dayBucket) {
+    if (snapshot == null || !snapshot.exists()) {
+      return new ShardUsage(shard, 0, 0, 0);
+    }
+    Instant storedMinuteBucket = toInstant(snapshot.getTimestamp("minuteBucket"));
+    long minuteCount = matchesBucket(storedMinuteBucket, minuteBucket) ? getLong(snapshot, "minuteCount") : 0;
+    long dayCount = dayBucket != null && dayBucket.equals(snapshot.getString("dayBucket"))
+        ? getLong(snapshot, "dayCount") : 0;
+    return new ShardUsage(shard, minuteCount, dayCount, 0);
+  }
+
+  private Map<String, Object> shardData(
+      Instant minuteBucket,
+      long minuteCount,
+      String dayBucket,
+      long dayCount,
+      Instant now
+  ) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("minuteBucket", toTimestamp(minuteBucket));
+    data.put("minuteCount", minuteCount);
+    data.put("dayBucket", dayBucket);
+    data.put("dayCount", dayCount);
+    data.put("updatedAt", toTimestamp(now));
+    return data;
+  }
+
+  private long shardSlice(long total, int shard, int shards) {
+    return total / shards + (shard < total % shards ? 1 : 0);
+  }
+
+  private int shardCount(DocumentSnapshot apiKeySnapshot) {
+    return (int) getLong(apiKeySnapshot, "counterShards");
+  }
+
+  private boolean releaseUsage(
+      Transaction transaction,
+      ApiKey apiKey,
+      DocumentReference apiKeyRef,
+      Instant minuteBucket,
+      String dayBucket,
+      long units,
+      long creditsReturned,
+      Map<?, ?> shardUnits,
+      Instant now
+  ) throws InterruptedException, ExecutionException {
+    DocumentSnapshot apiKeySnapshot = transaction.get(apiKeyRef).get();
+    int shards = shardCount(apiKeySnapshot);
+    if (creditsReturned <= 0 && (shardUnits != null || shards > 0)) {
+      return releaseShards(transaction, apiKeyRef, shards, shardUnits, minuteBucket, dayBucket, units, now);
+    }
+    MinuteState minute = minuteState(apiKeySnapshot);
+    String storedDayBucket = apiKeySnapshot.getString("dayBucket");
+    long storedDayCount = getLong(apiKeySnapshot, "dayCount");
+    long storedCredits = getCreditsRemaining(apiKeySnapshot);
+
+    boolean updated = limiters.forPlan(apiKey.plan())
+        .release(minute, apiKey.limits().requestsPerMinute(), units, bucketOf(minuteBucket), now);
+    long newDayCount = storedDayCount;
+
+    if (dayBucket != null && dayBucket.equals(storedDayBucket)) {
+      newDayCount = Math.max(storedDayCount - units, 0);
+      updated = true;
+    }
+    if (creditsReturned > 0) {
+      updated = true;
+    }
+
+    if (updated) {
+      Map<String, Object> apiKeyUpdates = new HashMap<>();
+      putMinuteState(apiKeyUpdates, minute);
+      apiKeyUpdates.put("dayCount", newDayCount);
+      if (creditsReturned > 0) {
+        apiKeyUpdates.put("credits", Map.of("remaining", storedCredits + creditsReturned));
+      }
+      apiKeyUpdates.put("updatedAt", toTimestamp(now));
+      transaction.set(apiKeyRef, apiKeyUpdates, SetOptions.merge());
+    }
+    return updated;
+  }
+
+  private Instant leaseExpiry(Instant now, Duration ttl, QuotaWindow minuteWindow) {
+    Instant expiresAt = now.plus(ttl);
+    return expiresAt.isAfter(minuteWindow.resetAt()) ? minuteWindow.resetAt() : expiresAt;
   }
 
   private String idempotencyId(String apiKeyId, String requestId) {
@@ -266,6 +1010,36 @@ public class FirestoreQuotaStore implements QuotaStore {
     return firestore.collection(properties.getCollections().getApiKeys()).document(apiKeyId);
   }
 
+  private DocumentReference shardRef(DocumentReference apiKeyRef, int shard) {
+    return apiKeyRef.collection(COUNTER_SHARDS_COLLECTION).document(Integer.toString(shard));
+  }
+
+  private WindowDecision windowDecision(MinuteCheck check) {
+    return new WindowDecision(check.limit(), 0, check.remaining(), check.overage(), check.resetAt(), check.exceeded());
+  }
+
+  private MinuteState minuteState(DocumentSnapshot apiKeySnapshot) {
+    return new MinuteState(
+        bucketOf(toInstant(apiKeySnapshot.getTimestamp("minuteBucket"))),
+        getLong(apiKeySnapshot, "minuteCount"),
+        getLong(apiKeySnapshot, "previousMinuteCount"),
+        getLong(apiKeySnapshot, "limiterTat")
+    );
+  }
+
+  private void putMinuteState(Map<String, Object> apiKeyUpdates, MinuteState minute) {
+    if (minute.windowStart() != MinuteState.NO_BUCKET) {
+      apiKeyUpdates.put("minuteBucket", toTimestamp(Instant.ofEpochSecond(minute.windowStart())));
+    }
+    apiKeyUpdates.put("minuteCount", minute.count());
+    apiKeyUpdates.put("previousMinuteCount", minute.previousCount());
+    apiKeyUpdates.put("limiterTat", minute.tat());
+  }
+
+  private long bucketOf(Instant minuteBucket) {
+    return minuteBucket == null ? MinuteState.NO_BUCKET : minuteBucket.getEpochSecond();
+  }
+
   private WindowDecision buildWindowDecision(QuotaWindow window, long limit, long current, int cost) {
     long newCount = current + cost;
     long remaining = Math.max(limit - newCount, 0);
@@ -335,6 +1109,18 @@ public class FirestoreQuotaStore implements QuotaStore {
     return data;
   }
 
+  private QuotaRefundToken refundToken(ApiKey apiKey, int cost, Charge charge, Instant now) {
+    Map<String, Long> shardUnits = null;
+    if (charge.shardUnits() != null) {
+      shardUnits = new HashMap<>();
+      for (Map.Entry<String, Object> entry : charge.shardUnits().entrySet()) {
+        shardUnits.put(entry.getKey(), ((Number) entry.getValue()).longValue());
+      }
+    }
+    return new QuotaRefundToken(apiKey.id(), charge.minuteBucket(), charge.dayBucket(), cost,
+        charge.creditsConsumed(), shardUnits, now.plusSeconds(quotaProperties.getEphemeralRefundTtlSeconds()));
+  }
+
   private boolean isExpired(DocumentSnapshot snapshot, Instant now) {
     Timestamp expiresAt = snapshot.getTimestamp("expiresAt");
     if (expiresAt == null) {
@@ -352,7 +1138,8 @@ public class FirestoreQuotaStore implements QuotaStore {
     long remaining = getLong(snapshot, "remaining");
     Timestamp resetAt = snapshot.getTimestamp("resetAt");
     Instant resetAtInstant = toInstant(resetAt);
-    return new QuotaDecision(allowed, reason, limit, remaining, resetAtInstant);
+    // A replay charged nothing, so it says nothing about the key's credits.
+    return new QuotaDecision(allowed, reason, limit, remaining, resetAtInstant, false);
   }
 
   private boolean matchesBucket(Instant current, Instant target) {
@@ -419,10 +1206,67 @@ public class FirestoreQuotaStore implements QuotaStore {
   }
 
   private record UsageState(
-      Instant minuteBucket,
+      QuotaWindowStatus minute,
+      long dayCount
+  ) {
+  }
+
+  private record ShardUsage(
+      int shard,
       long minuteCount,
+      long dayCount,
+      long taken
+  ) {
+  }
+
+  private record ShardAllocation(
+      List<ShardUsage> taken,
+      long granted,
+      long minuteRoom,
+      long dayRoom,
+      int shardsRead,
+      int shards
+  ) {
+
+    long estimateRemaining(long room, long limit) {
+      long estimate = shardsRead >= shards ? room : room * shards / shardsRead;
+      return Math.max(Math.min(estimate, limit), 0);
+    }
+
+    Map<String, Object> shardUnits() {
+      Map<String, Object> units = new HashMap<>();
+      for (ShardUsage usage : taken) {
+        units.put(Integer.toString(usage.shard()), usage.taken());
+      }
+      return units;
+    }
+  }
+
+  private record Charge(
+      QuotaDecision decision,
+      boolean consumed,
+      Instant minuteBucket,
       String dayBucket,
-      long dayCount
+      long creditsConsumed,
+      Map<String, Object> shardUnits
   ) {
   }
+
+  private static final class CounterState {
+    private final MinuteLimiter limiter;
+    private final Instant minuteBucket;
+    private final String dayBucket;
+    private MinuteState minute;
+    private long dayCount;
+    private long credits;
+    private boolean dayTouched;
+    private boolean creditsTouched;
+    private boolean dirty;
+
+    private CounterState(MinuteLimiter limiter, Instant minuteBucket, String dayBucket) {
+      this.limiter = limiter;
+      this.minuteBucket = minuteBucket;
+      this.dayBucket = dayBucket;
+    }
+  }
 }
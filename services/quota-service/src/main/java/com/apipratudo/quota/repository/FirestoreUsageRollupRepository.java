@@ -0,0 +1,110 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.config.FirestoreProperties;
+import com.apipratudo.quota.model.UsageRollup;
+import com.apipratudo.quota.service.HashingUtils;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnBean(Firestore.class)
+public class FirestoreUsageRollupRepository implements UsageRollupRepository {
+
+  private static final int MAX_BATCH_WRITES = 500;
+
+  private final Firestore firestore;
+  private final FirestoreProperties properties;
+
+  public FirestoreUsageRollupRepository(Firestore firestore, FirestoreProperties properties) {
+    this.firestore = firestore;
+    this.properties = properties;
+  }
+
+  @Override
+  public void save(String instanceId, List<UsageRollup> rollups) {
+    Timestamp now = toTimestamp(Instant.now());
+    for (int start = 0; start < rollups.size(); start += MAX_BATCH_WRITES) {
+      WriteBatch batch = firestore.batch();
+      for (UsageRollup rollup : rollups.subList(start, Math.min(start + MAX_BATCH_WRITES, rollups.size()))) {
+        batch.set(collection().document(documentId(instanceId, rollup)), toData(instanceId, rollup, now));
+      }
+      getFuture(batch.commit(), "Usage rollup flush interrupted", "Failed to flush usage rollups");
+    }
+  }
+
+  @Override
+  public List<UsageRollup> find(String apiKeyId, Instant from, Instant to) {
+    List<? extends DocumentSnapshot> documents = getFuture(collection()
+            .whereEqualTo("apiKeyId", apiKeyId)
+            .whereGreaterThanOrEqualTo("hour", toTimestamp(from))
+            .whereLessThan("hour", toTimestamp(to))
+            .get(),
+        "Usage rollup query interrupted", "Failed to read usage rollups").getDocuments();
+    return documents.stream()
+        .map(this::fromSnapshot)
+        .toList();
+  }
+
+  private Map<String, Object> toData(String instanceId, UsageRollup rollup, Timestamp now) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("apiKeyId", rollup.apiKeyId());
+    data.put("route", rollup.route());
+    data.put("hour", toTimestamp(rollup.hour()));
+    data.put("instanceId", instanceId);
+    data.put("allowed", rollup.allowed());
+    data.put("denied", rollup.denied());
+    data.put("updatedAt", now);
+    return data;
+  }
+
+  private UsageRollup fromSnapshot(DocumentSnapshot snapshot) {
+    Timestamp hour = snapshot.getTimestamp("hour");
+    return new UsageRollup(
+        snapshot.getString("apiKeyId"),
+        snapshot.getString("route"),
+        hour == null ? null : Instant.ofEpochSecond(hour.getSeconds(), hour.getNanos()),
+        getLong(snapshot, "allowed"),
+        getLong(snapshot, "denied")
+    );
+  }
+
+  private String documentId(String instanceId, UsageRollup rollup) {
+    return HashingUtils.sha256Hex(instanceId + "|" + rollup.apiKeyId() + "|" + rollup.route() + "|"
+        + rollup.hour().getEpochSecond());
+  }
+
+  private CollectionReference collection() {
+    return firestore.collection(properties.getCollections().getUsageRollups());
+  }
+
+  private long getLong(DocumentSnapshot snapshot, String field) {
+    Long value = snapshot.getLong(field);
+    return value == null ? 0 : value;
+  }
+
+  private Timestamp toTimestamp(Instant instant) {
+    return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+  }
+
+  private <T> T getFuture(ApiFuture<T> future, String interruptedMessage, String failedMessage) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(interruptedMessage, e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(failedMessage, e);
+    }
+  }
+}
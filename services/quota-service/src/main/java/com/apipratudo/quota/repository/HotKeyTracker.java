@@ -0,0 +1,117 @@
+package com.apipratudo.quota.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Per-instance QPS tracker that proposes when a key's counters move to shards and when they move back. A key is
+ * proposed for sharding once it reaches the threshold (at most once per {@link #COOL_DOWN}) and for merging after
+ * {@link #COOL_DOWN} without a second at half the threshold or more, so a key hovering around the threshold doesn't
+ * flap. Only the local rate is known here: the store reports what the key document actually says through
+ * {@link #observe}, and checks the shards' shared counts before acting on a merge.
+ */
+class HotKeyTracker {
+
+  enum Action {
+    NONE,
+    SHARD,
+    MERGE
+  }
+
+  static final Duration COOL_DOWN = Duration.ofMinutes(1);
+
+  private static final Duration IDLE_EXPIRY = Duration.ofMinutes(5);
+  private static final long MAX_TRACKED_KEYS = 100_000;
+
+  private final Cache<String, RateCounter> counters = Caffeine.newBuilder()
+      .expireAfterAccess(IDLE_EXPIRY)
+      .maximumSize(MAX_TRACKED_KEYS)
+      .build();
+  private final Clock clock;
+
+  HotKeyTracker(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Records one request and returns the transition it proposes, if any. A key first seen here counts as possibly
+   * sharded until the store reports otherwise.
+   */
+  Action record(String apiKeyId, long qpsThreshold) {
+    long nowSecond = clock.millis() / 1000;
+    RateCounter counter = counters.get(apiKeyId, id -> new RateCounter(nowSecond));
+    return counter.record(nowSecond, qpsThreshold);
+  }
+
+  /**
+   * Aligns the local view with the key document. A hot instance whose key was merged elsewhere shards it again on
+   * its next hot second; a cool instance learns the key is sharded and may propose the merge.
+   */
+  void observe(String apiKeyId, boolean sharded) {
+    RateCounter counter = counters.getIfPresent(apiKeyId);
+    if (counter != null) {
+      counter.observe(sharded);
+    }
+  }
+
+  /**
+   * The merge was refused because the key is still busy on other instances; wait another cool-down before asking.
+   */
+  void deferMerge(String apiKeyId) {
+    RateCounter counter = counters.getIfPresent(apiKeyId);
+    if (counter != null) {
+      counter.deferMerge(clock.millis() / 1000);
+    }
+  }
+
+  private static final class RateCounter {
+    private long second;
+    private long current;
+    private long previous;
+    private long lastWarmSecond;
+    private long lastShardSecond;
+    private Boolean sharded;
+
+    private RateCounter(long nowSecond) {
+      this.second = nowSecond;
+      this.lastWarmSecond = nowSecond;
+      this.lastShardSecond = nowSecond - COOL_DOWN.toSeconds();
+    }
+
+    synchronized Action record(long nowSecond, long qpsThreshold) {
+      if (nowSecond == second) {
+        current++;
+      } else {
+        previous = nowSecond == second + 1 ? current : 0;
+        second = nowSecond;
+        current = 1;
+      }
+      long rate = Math.max(previous, current);
+      if (rate * 2 >= qpsThreshold) {
+        lastWarmSecond = nowSecond;
+      }
+      if (rate >= qpsThreshold && !Boolean.TRUE.equals(sharded)
+          && nowSecond - lastShardSecond >= COOL_DOWN.toSeconds()) {
+        sharded = true;
+        lastShardSecond = nowSecond;
+        return Action.SHARD;
+      }
+      if (!Boolean.FALSE.equals(sharded) && nowSecond - lastWarmSecond >= COOL_DOWN.toSeconds()) {
+        sharded = false;
+        return Action.MERGE;
+      }
+      return Action.NONE;
+    }
+
+    synchronized void observe(boolean sharded) {
+      this.sharded = sharded;
+    }
+
+    synchronized void deferMerge(long nowSecond) {
+      sharded = true;
+      lastWarmSecond = nowSecond;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.apipratudo.quota.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+final class IdempotencyLedger<V> {
+
+  private final ConcurrentMap<String, Slot<V>> entries = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Long, Queue<String>> buckets = new ConcurrentSkipListMap<>();
+  private final long maxEntries;
+  private final Counter expiredEvictions;
+  private final Counter sizeEvictions;
+
+  IdempotencyLedger(long maxEntries, MeterRegistry meterRegistry, String name) {
+    this.maxEntries = maxEntries;
+    Gauge.builder(name + ".size", entries, Map::size).register(meterRegistry);
+    this.expiredEvictions = Counter.builder(name + ".evictions").tag("cause", "expired").register(meterRegistry);
+    this.sizeEvictions = Counter.builder(name + ".evictions").tag("cause", "size").register(meterRegistry);
+  }
+
+  V get(String key) {
+    Slot<V> slot = entries.get(key);
+    return slot == null ? null : slot.value();
+  }
+
+  void put(String key, V value, Instant expiresAt) {
+    long expirySecond = expiresAt.getEpochSecond();
+    Slot<V> previous = entries.put(key, new Slot<>(value, expirySecond));
+    if (previous == null || previous.expirySecond() != expirySecond) {
+      buckets.computeIfAbsent(expirySecond, second -> new ConcurrentLinkedQueue<>()).add(key);
+    }
+    if (entries.size() > maxEntries) {
+      evictOldest();
+    }
+  }
+
+  void replace(String key, V value) {
+    entries.computeIfPresent(key, (ignored, slot) -> new Slot<>(value, slot.expirySecond()));
+  }
+
+  void remove(String key) {
+    entries.remove(key);
+  }
+
+  V take(String key) {
+    Slot<V> slot = entries.remove(key);
+    return slot == null ? null : slot.value();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  int sweep(Instant now) {
+    long nowSecond = now.getEpochSecond();
+    int removed = 0;
+    Map.Entry<Long, Queue<String>> bucket;
+    while ((bucket = buckets.firstEntry()) != null && bucket.getKey() < nowSecond) {
+      if (buckets.remove(bucket.getKey(), bucket.getValue())) {
+        removed += drain(bucket.getKey(), bucket.getValue());
+      }
+    }
+    expiredEvictions.increment(removed);
+    return removed;
+  }
+
+  private void evictOldest() {
+    while (entries.size() > maxEntries) {
+      Map.Entry<Long, Queue<String>> bucket = buckets.pollFirstEntry();
+      if (bucket == null) {
+        return;
+      }
+      sizeEvictions.increment(drain(bucket.getKey(), bucket.getValue()));
+    }
+  }
+
+  private int drain(long expirySecond, Queue<String> keys) {
+    int removed = 0;
+    for (String key : keys) {
+      Slot<V> slot = entries.get(key);
+      while (slot != null && slot.expirySecond() <= expirySecond) {
+        if (entries.remove(key, slot)) {
+          removed++;
+          break;
+        }
+        slot = entries.get(key);
+      }
+    }
+    return removed;
+  }
+
+  private record Slot<V>(V value, long expirySecond) {
+  }
+}
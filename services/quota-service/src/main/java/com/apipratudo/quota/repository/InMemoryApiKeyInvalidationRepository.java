@@ -0,0 +1,26 @@
+package com.apipratudo.quota.repository;
+
+import com.google.cloud.firestore.Firestore;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnMissingBean(Firestore.class)
+public class InMemoryApiKeyInvalidationRepository implements ApiKeyInvalidationRepository {
+
+  private final List<Consumer<List<String>>> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(List<String> apiKeyHashes) {
+    listeners.forEach(listener -> listener.accept(apiKeyHashes));
+  }
+
+  @Override
+  public Runnable subscribe(Consumer<List<String>> listener) {
+    listeners.add(listener);
+    return () -> listeners.remove(listener);
+  }
+}
@@ -14,24 +14,47 @@ public class InMemoryApiKeyRepository implements ApiKeyRepository {
 
   private final ConcurrentMap<String, ApiKey> byId = new ConcurrentHashMap<>();
   private final ConcurrentMap<String, ApiKey> byHash = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, InMemoryKeyUsage> usage = new ConcurrentHashMap<>();
 
   @Override
   public ApiKey save(ApiKey apiKey) {
-    ApiKey existing = byId.put(apiKey.id(), apiKey);
-    if (existing != null && !existing.apiKeyHash().equals(apiKey.apiKeyHash())) {
-      byHash.remove(existing.apiKeyHash());
+    InMemoryKeyUsage keyUsage = usage(apiKey);
+    synchronized (keyUsage) {
+      keyUsage.load(apiKey);
+      ApiKey existing = byId.put(apiKey.id(), apiKey);
+      if (existing != null && !existing.apiKeyHash().equals(apiKey.apiKeyHash())) {
+        byHash.remove(existing.apiKeyHash());
+      }
+      byHash.put(apiKey.apiKeyHash(), apiKey);
     }
-    byHash.put(apiKey.apiKeyHash(), apiKey);
     return apiKey;
   }
 
   @Override
   public Optional<ApiKey> findById(String id) {
-    return Optional.ofNullable(byId.get(id));
+    return Optional.ofNullable(byId.get(id)).map(this::withUsage);
   }
 
   @Override
   public Optional<ApiKey> findByApiKeyHash(String apiKeyHash) {
-    return Optional.ofNullable(byHash.get(apiKeyHash));
+    return Optional.ofNullable(byHash.get(apiKeyHash)).map(this::withUsage);
+  }
+
+  InMemoryKeyUsage usage(ApiKey apiKey) {
+    InMemoryKeyUsage keyUsage = usage.get(apiKey.id());
+    if (keyUsage != null) {
+      return keyUsage;
+    }
+    return usage.computeIfAbsent(apiKey.id(), id -> new InMemoryKeyUsage(apiKey));
+  }
+
+  private ApiKey withUsage(ApiKey apiKey) {
+    InMemoryKeyUsage keyUsage = usage.get(apiKey.id());
+    if (keyUsage == null) {
+      return apiKey;
+    }
+    synchronized (keyUsage) {
+      return keyUsage.applyTo(apiKey);
+    }
   }
 }
@@ -0,0 +1,49 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.limiter.MinuteState;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.ApiKeyCredits;
+import java.time.Instant;
+import java.time.LocalDate;
+
+final class InMemoryKeyUsage {
+
+  static final long NO_BUCKET = MinuteState.NO_BUCKET;
+
+  final MinuteState minute = MinuteState.empty();
+  long dayBucket;
+  long dayCount;
+  long credits;
+
+  InMemoryKeyUsage(ApiKey apiKey) {
+    load(apiKey);
+  }
+
+  void load(ApiKey apiKey) {
+    minute.load(apiKey.minuteBucket() == null ? NO_BUCKET : apiKey.minuteBucket().getEpochSecond(),
+        apiKey.minuteCount());
+    dayBucket = apiKey.dayBucket() == null ? NO_BUCKET : LocalDate.parse(apiKey.dayBucket()).toEpochDay();
+    dayCount = apiKey.dayCount();
+    credits = apiKey.credits() == null ? 0 : apiKey.credits().remaining();
+  }
+
+  ApiKey applyTo(ApiKey apiKey) {
+    return new ApiKey(
+        apiKey.id(),
+        apiKey.apiKeyHash(),
+        apiKey.name(),
+        apiKey.owner(),
+        apiKey.ownerEmail(),
+        apiKey.orgName(),
+        apiKey.limits(),
+        apiKey.createdAt(),
+        apiKey.status(),
+        apiKey.plan(),
+        new ApiKeyCredits(credits),
+        minute.windowStart() == NO_BUCKET ? null : Instant.ofEpochSecond(minute.windowStart()),
+        minute.count(),
+        dayBucket == NO_BUCKET ? null : LocalDate.ofEpochDay(dayBucket).toString(),
+        dayCount
+    );
+  }
+}
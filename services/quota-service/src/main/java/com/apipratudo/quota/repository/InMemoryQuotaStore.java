@@ -3,41 +3,75 @@ package com.apipratudo.quota.repository;
 import com.apipratudo.quota.config.QuotaProperties;
 import com.apipratudo.quota.dto.ApiKeyLimits;
 import com.apipratudo.quota.dto.QuotaReason;
+import com.apipratudo.quota.limiter.MinuteCheck;
+import com.apipratudo.quota.limiter.MinuteLimiter;
+import com.apipratudo.quota.limiter.MinuteLimiters;
 import com.apipratudo.quota.model.ApiKey;
-import com.apipratudo.quota.model.ApiKeyCredits;
 import com.apipratudo.quota.model.QuotaDecision;
+import com.apipratudo.quota.model.QuotaLease;
+import com.apipratudo.quota.model.QuotaLeaseSettlement;
 import com.apipratudo.quota.model.QuotaRefundDecision;
 import com.apipratudo.quota.model.QuotaStatus;
 import com.apipratudo.quota.model.QuotaWindow;
 import com.apipratudo.quota.model.QuotaWindowStatus;
 import com.apipratudo.quota.model.QuotaWindows;
 import com.google.cloud.firestore.Firestore;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 
 @Repository
 @ConditionalOnMissingBean(Firestore.class)
 public class InMemoryQuotaStore implements QuotaStore {
 
+  private static final Logger log = LoggerFactory.getLogger(InMemoryQuotaStore.class);
+  private static final long SECONDS_PER_DAY = 86400;
+  // Late returns (a refund after the gateway retired the lease) still find it for this long after expiry.
+  private static final Duration LEASE_RETURN_GRACE = Duration.ofHours(1);
+
   private final Clock clock;
   private final QuotaProperties properties;
-  private final ApiKeyRepository apiKeyRepository;
-  private final ConcurrentMap<String, LedgerEntry> ledger = new ConcurrentHashMap<>();
-
-  public InMemoryQuotaStore(Clock clock, QuotaProperties properties, ApiKeyRepository apiKeyRepository) {
+  private final InMemoryApiKeyRepository apiKeyRepository;
+  private final MinuteLimiters limiters;
+  private final IdempotencyLedger<LedgerEntry> ledger;
+  private final ConcurrentMap<String, LeaseEntry> leases = new ConcurrentHashMap<>();
+
+  public InMemoryQuotaStore(
+      Clock clock,
+      QuotaProperties properties,
+      InMemoryApiKeyRepository apiKeyRepository,
+      MinuteLimiters limiters,
+      MeterRegistry meterRegistry
+  ) {
     this.clock = clock;
     this.properties = properties;
     this.apiKeyRepository = apiKeyRepository;
+    this.limiters = limiters;
+    this.ledger = new IdempotencyLedger<>(properties.getLedgerMaxEntries(), meterRegistry, "quota.ledger");
+  }
+
+  @Scheduled(fixedDelayString = "${app.quota.ledger-sweep-interval-ms:1000}")
+  public void sweepLedger() {
+    Instant now = Instant.now(clock);
+    int removed = ledger.sweep(now);
+    if (removed > 0) {
+      log.debug("Quota ledger swept removed={} size={}", removed, ledger.size());
+    }
+    leases.values().removeIf(lease -> lease.purgeAt.isBefore(now));
   }
 
   @Override
-  public synchronized QuotaDecision consume(
+  public QuotaDecision consume(
       ApiKey apiKey,
       String requestId,
       String route,
@@ -46,200 +80,235 @@ public class InMemoryQuotaStore implements QuotaStore {
   ) {
     Instant now = Instant.now(clock);
     String idempotencyKey = idempotencyKey(apiKey.id(), requestId);
-    LedgerEntry existing = ledger.get(idempotencyKey);
-    if (existing != null) {
-      if (existing.expiresAt().isAfter(now)) {
-        return existing.decision();
-      }
-      ledger.remove(idempotencyKey);
-    }
-
     ApiKeyLimits limits = apiKey.limits();
     QuotaWindow minuteWindow = windowsSnapshot.minute();
     QuotaWindow dayWindow = windowsSnapshot.day();
-
-    UsageState usage = currentUsage(apiKey, minuteWindow, dayWindow);
-
-    WindowDecision minute = evaluateWindow(minuteWindow, limits.requestsPerMinute(), usage.minuteCount(), cost);
-    WindowDecision day = evaluateWindow(dayWindow, limits.requestsPerDay(), usage.dayCount(), cost);
-
-    QuotaDecision decision;
-    boolean consumed;
-    long creditsRemaining = apiKey.credits() == null ? 0 : apiKey.credits().remaining();
-    long creditsConsumed = 0;
-    if (creditsRemaining >= cost) {
-      if (minute.exceeded()) {
-        decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, minute.limit(), 0, minute.resetAt());
-        consumed = false;
-      } else {
-        long newCredits = Math.max(creditsRemaining - cost, 0);
-        creditsConsumed = cost;
-        decision = new QuotaDecision(true, null, minute.limit(), minute.remaining(), minute.resetAt());
-        consumed = true;
-        Instant minuteBucket = usage.minuteBucket();
-        String dayBucket = usage.dayBucket();
-        long minuteCount = minute.newCount();
-        long dayCount = apiKey.dayCount();
-
-        if (newCredits == 0) {
-          minuteCount = 0;
-          dayCount = 0;
+    long minuteBucket = minuteBucket(minuteWindow);
+    long dayBucket = dayBucket(dayWindow);
+    MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+
+    InMemoryKeyUsage usage = apiKeyRepository.usage(apiKey);
+    synchronized (usage) {
+      LedgerEntry existing = ledger.get(idempotencyKey);
+      if (existing != null) {
+        if (existing.expiresAt().isAfter(now)) {
+          return existing.decision();
         }
-
-        ApiKey updated = new ApiKey(
-            apiKey.id(),
-            apiKey.apiKeyHash(),
-            apiKey.name(),
-            apiKey.owner(),
-            apiKey.ownerEmail(),
-            apiKey.orgName(),
-            apiKey.limits(),
-            apiKey.createdAt(),
-            apiKey.status(),
-            apiKey.plan(),
-            new ApiKeyCredits(newCredits),
-            minuteBucket,
-            minuteCount,
-            dayBucket,
-            dayCount
-        );
-        apiKeyRepository.save(updated);
+        ledger.remove(idempotencyKey);
       }
-    } else {
-      if (minute.exceeded() || day.exceeded()) {
-        WindowDecision exceeded = chooseExceeded(minute, day);
-        decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, exceeded.limit(), 0, exceeded.resetAt());
-        consumed = false;
+
+      long dayCount = usage.dayBucket == dayBucket ? usage.dayCount : 0;
+      WindowDecision minute = windowDecision(
+          limiter.check(usage.minute, limits.requestsPerMinute(), cost, minuteWindow, now));
+      WindowDecision day = evaluateWindow(dayWindow, limits.requestsPerDay(), dayCount, cost);
+
+      QuotaDecision decision;
+      boolean consumed;
+      long creditsRemaining = usage.credits;
+      long creditsConsumed = 0;
+      if (creditsRemaining >= cost) {
+        if (minute.exceeded()) {
+          decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, minute.limit(), 0, minute.resetAt(),
+              false);
+          consumed = false;
+        } else {
+          long newCredits = Math.max(creditsRemaining - cost, 0);
+          creditsConsumed = cost;
+          decision = new QuotaDecision(true, null, minute.limit(), minute.remaining(), minute.resetAt(),
+              newCredits == 0);
+          consumed = true;
+          usage.credits = newCredits;
+          limiter.acquire(usage.minute, limits.requestsPerMinute(), cost, minuteWindow, now);
+          usage.dayBucket = dayBucket;
+          if (newCredits == 0) {
+            usage.minute.reset();
+            usage.dayCount = 0;
+          }
+        }
       } else {
-        WindowDecision selected = chooseMostRestrictive(minute, day);
-        decision = new QuotaDecision(true, null, selected.limit(), selected.remaining(), selected.resetAt());
-        consumed = true;
-        ApiKey updated = new ApiKey(
-            apiKey.id(),
-            apiKey.apiKeyHash(),
-            apiKey.name(),
-            apiKey.owner(),
-            apiKey.ownerEmail(),
-            apiKey.orgName(),
-            apiKey.limits(),
-            apiKey.createdAt(),
-            apiKey.status(),
-            apiKey.plan(),
-            apiKey.credits(),
-            usage.minuteBucket(),
-            minute.newCount(),
-            usage.dayBucket(),
-            day.newCount()
-        );
-        apiKeyRepository.save(updated);
+        if (minute.exceeded() || day.exceeded()) {
+          WindowDecision exceeded = chooseExceeded(minute, day);
+          decision = new QuotaDecision(false, QuotaReason.QUOTA_EXCEEDED, exceeded.limit(), 0, exceeded.resetAt(),
+              creditsRemaining <= 0);
+          consumed = false;
+        } else {
+          WindowDecision selected = chooseMostRestrictive(minute, day);
+          decision = new QuotaDecision(true, null, selected.limit(), selected.remaining(), selected.resetAt(),
+              creditsRemaining <= 0);
+          consumed = true;
+          limiter.acquire(usage.minute, limits.requestsPerMinute(), cost, minuteWindow, now);
+          usage.dayBucket = dayBucket;
+          usage.dayCount = day.newCount();
+        }
       }
-    }
 
-    Instant expiresAt = now.plusSeconds(properties.getIdempotencyTtlSeconds());
-    ledger.put(idempotencyKey, new LedgerEntry(decision, expiresAt, usage.minuteBucket(),
-        creditsRemaining > 0 ? null : usage.dayBucket(), cost, consumed, false, creditsConsumed));
-    return decision;
+      Instant expiresAt = now.plusSeconds(properties.getIdempotencyTtlSeconds());
+      ledger.put(idempotencyKey, new LedgerEntry(decision, expiresAt, minuteBucket,
+          creditsRemaining > 0 ? InMemoryKeyUsage.NO_BUCKET : dayBucket, cost, consumed, false, creditsConsumed),
+          expiresAt);
+      return decision;
+    }
   }
 
   @Override
-  public synchronized QuotaRefundDecision refund(ApiKey apiKey, String requestId) {
+  public QuotaRefundDecision refund(ApiKey apiKey, String requestId) {
     Instant now = Instant.now(clock);
     String idempotencyKey = idempotencyKey(apiKey.id(), requestId);
-    LedgerEntry entry = ledger.get(idempotencyKey);
-    if (entry == null || entry.expiresAt().isBefore(now)) {
-      return new QuotaRefundDecision(false, null, null, null, null);
-    }
-    if (entry.refunded()) {
-      return new QuotaRefundDecision(true, entry.decision().reason(), entry.decision().limit(),
-          entry.decision().remaining(), entry.decision().resetAt());
-    }
-    if (!entry.consumed()) {
-      return new QuotaRefundDecision(false, entry.decision().reason(), entry.decision().limit(),
-          entry.decision().remaining(), entry.decision().resetAt());
+    InMemoryKeyUsage usage = apiKeyRepository.usage(apiKey);
+    synchronized (usage) {
+      LedgerEntry entry = ledger.get(idempotencyKey);
+      if (entry == null || entry.expiresAt().isBefore(now)) {
+        return new QuotaRefundDecision(false, null, null, null, null);
+      }
+      if (entry.refunded()) {
+        return new QuotaRefundDecision(true, entry.decision().reason(), entry.decision().limit(),
+            entry.decision().remaining(), entry.decision().resetAt());
+      }
+      if (!entry.consumed()) {
+        return new QuotaRefundDecision(false, entry.decision().reason(), entry.decision().limit(),
+            entry.decision().remaining(), entry.decision().resetAt());
+      }
+
+      releaseUsage(apiKey, usage, entry.minuteBucket(), entry.dayBucket(), entry.cost(), entry.creditsConsumed(), now);
+      ledger.replace(idempotencyKey, entry.withRefunded());
+      return new QuotaRefundDecision(true, null, null, null, null);
     }
+  }
+
+  @Override
+  public QuotaLease lease(ApiKey apiKey, int units, Duration ttl, QuotaWindows windowsSnapshot) {
+    Instant now = Instant.now(clock);
+    ApiKeyLimits limits = apiKey.limits();
+    QuotaWindow minuteWindow = windowsSnapshot.minute();
+    QuotaWindow dayWindow = windowsSnapshot.day();
+    long dayBucket = dayBucket(dayWindow);
+    Instant expiresAt = leaseExpiry(now, ttl, minuteWindow);
+    String dayBucketName = LocalDate.ofEpochDay(dayBucket).toString();
+    MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+
+    InMemoryKeyUsage usage = apiKeyRepository.usage(apiKey);
+    synchronized (usage) {
+      long dayCount = usage.dayBucket == dayBucket ? usage.dayCount : 0;
+      long creditsRemaining = usage.credits;
+      boolean useCredits = creditsRemaining > 0;
+
+      long minuteAvailable = limiter.available(usage.minute, limits.requestsPerMinute(), minuteWindow, now);
+      long dayAvailable = Math.max(limits.requestsPerDay() - dayCount, 0);
+      long granted = Math.min(units, minuteAvailable);
+      granted = Math.min(granted, useCredits ? creditsRemaining : dayAvailable);
+
+      if (granted <= 0) {
+        boolean dayExceeded = !useCredits && dayAvailable <= 0;
+        QuotaWindow exceeded = dayExceeded ? dayWindow : minuteWindow;
+        long limit = dayExceeded ? limits.requestsPerDay() : limits.requestsPerMinute();
+        return new QuotaLease(null, false, QuotaReason.QUOTA_EXCEEDED, 0, minuteWindow.windowStart(),
+            useCredits ? null : dayBucketName, useCredits, expiresAt, limit, 0, exceeded.resetAt(), !useCredits);
+      }
+
+      limiter.acquire(usage.minute, limits.requestsPerMinute(), granted, minuteWindow, now);
+      if (useCredits) {
+        usage.credits = creditsRemaining - granted;
+        if (usage.credits == 0) {
+          usage.minute.reset();
+          usage.dayCount = 0;
+        }
+      } else {
+        usage.dayBucket = dayBucket;
+        usage.dayCount = dayCount + granted;
+      }
+
+      String leaseId = UUID.randomUUID().toString();
+      leases.put(leaseId, new LeaseEntry(apiKey.id(), minuteBucket(minuteWindow),
+          useCredits ? InMemoryKeyUsage.NO_BUCKET : dayBucket, useCredits, granted,
+          expiresAt.plus(LEASE_RETURN_GRACE)));
 
-    ApiKey updated = updateUsageForRefund(apiKey, entry);
-    if (updated != null) {
-      apiKeyRepository.save(updated);
+      long minuteRemaining = minuteAvailable - granted;
+      long remaining = useCredits ? minuteRemaining : Math.min(minuteRemaining, dayAvailable - granted);
+      return new QuotaLease(leaseId, true, null, granted, minuteWindow.windowStart(),
+          useCredits ? null : dayBucketName, useCredits, expiresAt, limits.requestsPerMinute(), remaining,
+          minuteWindow.resetAt(), usage.credits <= 0);
     }
+  }
 
-    LedgerEntry refunded = entry.withRefunded();
-    ledger.put(idempotencyKey, refunded);
-    return new QuotaRefundDecision(true, null, null, null, null);
+  @Override
+  public QuotaLeaseSettlement returnLease(ApiKey apiKey, String leaseId, long units, long spent) {
+    LeaseEntry lease = leases.get(leaseId);
+    if (lease == null || !lease.apiKeyId.equals(apiKey.id())) {
+      return QuotaLeaseSettlement.NONE;
+    }
+    InMemoryKeyUsage usage = apiKeyRepository.usage(apiKey);
+    synchronized (usage) {
+      long returned = Math.min(Math.max(units, 0), lease.outstanding);
+      long settled = Math.min(Math.max(spent, 0), lease.outstanding - returned);
+      lease.outstanding -= returned + settled;
+      if (returned > 0) {
+        releaseUsage(apiKey, usage, lease.minuteBucket, lease.dayBucket, returned, lease.credits ? returned : 0,
+            Instant.now(clock));
+      }
+      return new QuotaLeaseSettlement(returned, settled);
+    }
   }
 
   @Override
-  public synchronized QuotaStatus status(ApiKey apiKey, QuotaWindows windowsSnapshot) {
+  public QuotaStatus status(ApiKey apiKey, QuotaWindows windowsSnapshot) {
+    Instant now = Instant.now(clock);
     ApiKeyLimits limits = apiKey.limits();
-
     QuotaWindow minuteWindow = windowsSnapshot.minute();
     QuotaWindow dayWindow = windowsSnapshot.day();
+    long dayBucket = dayBucket(dayWindow);
+    MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+
+    QuotaWindowStatus minute;
+    long dayCount;
+    InMemoryKeyUsage usage = apiKeyRepository.usage(apiKey);
+    synchronized (usage) {
+      minute = limiter.status(usage.minute, limits.requestsPerMinute(), minuteWindow, now);
+      dayCount = usage.dayBucket == dayBucket ? usage.dayCount : 0;
+    }
 
-    UsageState usage = currentUsage(apiKey, minuteWindow, dayWindow);
-
-    QuotaWindowStatus minute = new QuotaWindowStatus(
-        limits.requestsPerMinute(),
-        usage.minuteCount(),
-        Math.max(limits.requestsPerMinute() - usage.minuteCount(), 0),
-        minuteWindow.resetAt()
-    );
     QuotaWindowStatus day = new QuotaWindowStatus(
         limits.requestsPerDay(),
-        usage.dayCount(),
-        Math.max(limits.requestsPerDay() - usage.dayCount(), 0),
+        dayCount,
+        Math.max(limits.requestsPerDay() - dayCount, 0),
         dayWindow.resetAt()
     );
     return new QuotaStatus(minute, day);
   }
 
-  private UsageState currentUsage(ApiKey apiKey, QuotaWindow minuteWindow, QuotaWindow dayWindow) {
-    Instant minuteBucket = minuteWindow.windowStart();
-    String dayBucket = dayBucket(dayWindow.windowStart());
-    long minuteCount = matchesBucket(apiKey.minuteBucket(), minuteBucket) ? apiKey.minuteCount() : 0;
-    long dayCount = dayBucket.equals(apiKey.dayBucket()) ? apiKey.dayCount() : 0;
-    return new UsageState(minuteBucket, minuteCount, dayBucket, dayCount);
+  private void releaseUsage(
+      ApiKey apiKey,
+      InMemoryKeyUsage usage,
+      long minuteBucket,
+      long dayBucket,
+      long units,
+      long creditsReturned,
+      Instant now
+  ) {
+    MinuteLimiter limiter = limiters.forPlan(apiKey.plan());
+    limiter.release(usage.minute, apiKey.limits().requestsPerMinute(), units, minuteBucket, now);
+    if (dayBucket != InMemoryKeyUsage.NO_BUCKET && usage.dayBucket == dayBucket) {
+      usage.dayCount = Math.max(usage.dayCount - units, 0);
+    }
+    if (creditsReturned > 0) {
+      usage.credits += creditsReturned;
+    }
   }
 
-  private ApiKey updateUsageForRefund(ApiKey apiKey, LedgerEntry entry) {
-    long minuteCount = apiKey.minuteCount();
-    long dayCount = apiKey.dayCount();
-    long creditsRemaining = apiKey.credits() == null ? 0 : apiKey.credits().remaining();
-    boolean updated = false;
+  private long minuteBucket(QuotaWindow minuteWindow) {
+    return minuteWindow.windowStart().getEpochSecond();
+  }
 
-    if (matchesBucket(apiKey.minuteBucket(), entry.minuteBucket())) {
-      minuteCount = Math.max(minuteCount - entry.cost(), 0);
-      updated = true;
-    }
-    if (entry.dayBucket() != null && entry.dayBucket().equals(apiKey.dayBucket())) {
-      dayCount = Math.max(dayCount - entry.cost(), 0);
-      updated = true;
-    }
-    if (entry.creditsConsumed() > 0) {
-      creditsRemaining += entry.creditsConsumed();
-      updated = true;
-    }
+  private long dayBucket(QuotaWindow dayWindow) {
+    return Math.floorDiv(dayWindow.windowStart().getEpochSecond(), SECONDS_PER_DAY);
+  }
 
-    if (!updated) {
-      return null;
-    }
+  private Instant leaseExpiry(Instant now, Duration ttl, QuotaWindow minuteWindow) {
+    Instant expiresAt = now.plus(ttl);
+    return expiresAt.isAfter(minuteWindow.resetAt()) ? minuteWindow.resetAt() : expiresAt;
+  }
 
-    return new ApiKey(
-        apiKey.id(),
-        apiKey.apiKeyHash(),
-        apiKey.name(),
-        apiKey.owner(),
-        apiKey.ownerEmail(),
-        apiKey.orgName(),
-        apiKey.limits(),
-        apiKey.createdAt(),
-        apiKey.status(),
-        apiKey.plan(),
-        new ApiKeyCredits(creditsRemaining),
-        apiKey.minuteBucket(),
-        minuteCount,
-        apiKey.dayBucket(),
-        dayCount
-    );
+  private WindowDecision windowDecision(MinuteCheck check) {
+    return new WindowDecision(check.limit(), 0, check.remaining(), check.overage(), check.resetAt(), check.exceeded());
   }
 
   private WindowDecision evaluateWindow(QuotaWindow window, long limit, long current, int cost) {
@@ -276,26 +345,35 @@ public class InMemoryQuotaStore implements QuotaStore {
     return first.resetAt().isBefore(second.resetAt()) ? first : second;
   }
 
-  private boolean matchesBucket(Instant current, Instant target) {
-    if (current == null || target == null) {
-      return false;
-    }
-    return current.equals(target);
-  }
-
-  private String dayBucket(Instant dayWindowStart) {
-    return LocalDate.ofInstant(dayWindowStart, ZoneOffset.UTC).toString();
-  }
-
   private String idempotencyKey(String apiKeyId, String requestId) {
     return apiKeyId + ":" + requestId;
   }
 
+  private static final class LeaseEntry {
+    private final String apiKeyId;
+    private final long minuteBucket;
+    private final long dayBucket;
+    private final boolean credits;
+    private final Instant purgeAt;
+    // Guarded by the key's usage monitor.
+    private long outstanding;
+
+    private LeaseEntry(String apiKeyId, long minuteBucket, long dayBucket, boolean credits, long outstanding,
+        Instant purgeAt) {
+      this.apiKeyId = apiKeyId;
+      this.minuteBucket = minuteBucket;
+      this.dayBucket = dayBucket;
+      this.credits = credits;
+      this.outstanding = outstanding;
+      this.purgeAt = purgeAt;
+    }
+  }
+
   private record LedgerEntry(
       QuotaDecision decision,
       Instant expiresAt,
-      Instant minuteBucket,
-      String dayBucket,
+      long minuteBucket,
+      long dayBucket,
       int cost,
       boolean consumed,
       boolean refunded,
@@ -316,12 +394,4 @@ public class InMemoryQuotaStore implements QuotaStore {
       boolean exceeded
   ) {
   }
-
-  private record UsageState(
-      Instant minuteBucket,
-      long minuteCount,
-      String dayBucket,
-      long dayCount
-  ) {
-  }
 }
@@ -0,0 +1,32 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.model.UsageRollup;
+import com.google.cloud.firestore.Firestore;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnMissingBean(Firestore.class)
+public class InMemoryUsageRollupRepository implements UsageRollupRepository {
+
+  private final ConcurrentMap<String, UsageRollup> rollups = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(String instanceId, List<UsageRollup> batch) {
+    for (UsageRollup rollup : batch) {
+      rollups.put(instanceId + "|" + rollup.apiKeyId() + "|" + rollup.route() + "|" + rollup.hour(), rollup);
+    }
+  }
+
+  @Override
+  public List<UsageRollup> find(String apiKeyId, Instant from, Instant to) {
+    return rollups.values().stream()
+        .filter(rollup -> rollup.apiKeyId().equals(apiKeyId))
+        .filter(rollup -> !rollup.hour().isBefore(from) && rollup.hour().isBefore(to))
+        .toList();
+  }
+}
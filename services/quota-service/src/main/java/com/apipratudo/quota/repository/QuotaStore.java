@@ -1,16 +1,56 @@
 package com.apipratudo.quota.repository;
 
 import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.QuotaBatchItem;
 import com.apipratudo.quota.model.QuotaDecision;
+import com.apipratudo.quota.model.QuotaEphemeralDecision;
+import com.apipratudo.quota.model.QuotaLease;
+import com.apipratudo.quota.model.QuotaLeaseSettlement;
 import com.apipratudo.quota.model.QuotaRefundDecision;
+import com.apipratudo.quota.model.QuotaRefundToken;
 import com.apipratudo.quota.model.QuotaStatus;
 import com.apipratudo.quota.model.QuotaWindows;
+import java.time.Duration;
+import java.util.List;
 
 public interface QuotaStore {
 
   QuotaDecision consume(ApiKey apiKey, String requestId, String route, int cost, QuotaWindows windows);
 
+  // Server-generated request id: nobody can replay it, so only a refund within the same request must work. A store
+  // may skip the idempotency record and return a refund token instead; without one the refund goes by requestId.
+  default QuotaEphemeralDecision consumeEphemeral(ApiKey apiKey, String requestId, String route, int cost,
+      QuotaWindows windows) {
+    return new QuotaEphemeralDecision(consume(apiKey, requestId, route, cost, windows), null);
+  }
+
   QuotaRefundDecision refund(ApiKey apiKey, String requestId);
 
+  // Releases what a token from consumeEphemeral describes. The token is verified by the caller and carries no
+  // refunded flag, so each one must be sent once.
+  default QuotaRefundDecision refundEphemeral(ApiKey apiKey, QuotaRefundToken token) {
+    return new QuotaRefundDecision(false, null, null, null, null);
+  }
+
+  // Items of one key, evaluated in order; a repeated requestId gets the decision of its first occurrence.
+  default List<QuotaDecision> consumeBatch(ApiKey apiKey, List<QuotaBatchItem> items, QuotaWindows windows) {
+    return items.stream()
+        .map(item -> consume(apiKey, item.requestId(), item.route(), item.cost(), windows))
+        .toList();
+  }
+
+  default List<QuotaRefundDecision> refundBatch(ApiKey apiKey, List<String> requestIds) {
+    return requestIds.stream()
+        .map(requestId -> refund(apiKey, requestId))
+        .toList();
+  }
+
   QuotaStatus status(ApiKey apiKey, QuotaWindows windows);
+
+  // Granted units are charged up front, so status over-reports by at most one outstanding lease.
+  QuotaLease lease(ApiKey apiKey, int units, Duration ttl, QuotaWindows windows);
+
+  // Gives back unused units and settles spent ones. Both are capped at what the lease still has outstanding, so a
+  // repeated or inflated return never releases more than was granted; an unknown lease settles nothing.
+  QuotaLeaseSettlement returnLease(ApiKey apiKey, String leaseId, long units, long spent);
 }
@@ -0,0 +1,14 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.model.UsageRollup;
+import java.time.Instant;
+import java.util.List;
+
+public interface UsageRollupRepository {
+
+  // Stores absolute per-instance totals, so re-sending the same rollups is harmless.
+  void save(String instanceId, List<UsageRollup> rollups);
+
+  // Returns one entry per instance and (route, hour); callers merge them.
+  List<UsageRollup> find(String apiKeyId, Instant from, Instant to);
+}
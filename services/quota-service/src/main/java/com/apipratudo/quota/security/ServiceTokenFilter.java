@@ -47,7 +47,7 @@ public class ServiceTokenFilter extends OncePerRequestFilter {
     String path = request.getRequestURI();
 
     if (path.startsWith("/v1/quota/")) {
-      if (path.equals("/v1/quota/status")) {
+      if (path.equals("/v1/quota/status") || path.equals("/v1/quota/usage")) {
         if (!tokenService.isAdmin(request) && !tokenService.isInternal(request)
             && !StringUtils.hasText(request.getHeader(API_KEY_HEADER))) {
           unauthorized(response, "Missing or invalid X-Api-Key or admin/internal token");
@@ -0,0 +1,108 @@
+package com.apipratudo.quota.service;
+
+import com.apipratudo.quota.config.ApiKeyCacheProperties;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.repository.ApiKeyInvalidationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Key lookups cached per instance. Evictions are also broadcast through {@link ApiKeyInvalidationRepository}, so a
+ * revoke or rotate on one instance reaches the others within the listener latency; the TTL only bounds staleness
+ * when the broadcast itself fails.
+ */
+@Component
+public class ApiKeyCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ApiKeyCache.class);
+
+  private final boolean enabled;
+  private final Cache<String, Optional<ApiKey>> cache;
+  private final ApiKeyInvalidationRepository invalidations;
+  private Runnable unsubscribe;
+
+  public ApiKeyCache(
+      ApiKeyCacheProperties properties,
+      MeterRegistry meterRegistry,
+      ApiKeyInvalidationRepository invalidations
+  ) {
+    this.enabled = properties.isEnabled();
+    this.invalidations = invalidations;
+    long ttlNanos = TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+    long negativeTtlNanos = TimeUnit.SECONDS.toNanos(properties.getNegativeTtlSeconds());
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.getMaxSize())
+        .expireAfter(new Expiry<String, Optional<ApiKey>>() {
+          @Override
+          public long expireAfterCreate(String key, Optional<ApiKey> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Optional<ApiKey> value, long currentTime,
+              long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, Optional<ApiKey> value, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "apiKeyCache");
+  }
+
+  public Optional<ApiKey> get(String apiKeyHash, Function<String, Optional<ApiKey>> loader) {
+    if (!enabled) {
+      return loader.apply(apiKeyHash);
+    }
+    return cache.get(apiKeyHash, loader);
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    if (enabled) {
+      unsubscribe = invalidations.subscribe(cache::invalidateAll);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (unsubscribe != null) {
+      unsubscribe.run();
+    }
+  }
+
+  public void invalidate(String... apiKeyHashes) {
+    List<String> hashes = Arrays.stream(apiKeyHashes)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList();
+    if (hashes.isEmpty()) {
+      return;
+    }
+    cache.invalidateAll(hashes);
+    try {
+      invalidations.publish(hashes);
+    } catch (RuntimeException ex) {
+      log.warn("API key invalidation broadcast failed keys={} error={}", hashes.size(), ex.getMessage());
+    }
+  }
+}
@@ -36,15 +36,18 @@ public class ApiKeyService {
   private final PlanProperties planProperties;
   private final KeyCreationRepository keyCreationRepository;
   private final KeyCreationProperties keyCreationProperties;
+  private final ApiKeyCache apiKeyCache;
 
   public ApiKeyService(
       ApiKeyRepository repository,
       Clock clock,
       PlanProperties planProperties,
       KeyCreationRepository keyCreationRepository,
-      KeyCreationProperties keyCreationProperties
+      KeyCreationProperties keyCreationProperties,
+      ApiKeyCache apiKeyCache
   ) {
     this.repository = repository;
+    this.apiKeyCache = apiKeyCache;
     this.clock = clock;
     this.planProperties = planProperties;
     this.keyCreationRepository = keyCreationRepository;
@@ -77,6 +80,7 @@ public class ApiKeyService {
         0
     );
     repository.save(model);
+    apiKeyCache.invalidate(model.apiKeyHash());
 
     return new ApiKeyCreateResponse(id, apiKey, request.name(), request.owner(), request.ownerEmail(),
         StringUtils.hasText(request.orgName()) ? request.orgName() : request.owner(), plan, limits, now,
@@ -125,6 +129,7 @@ public class ApiKeyService {
         0
     );
     repository.save(model);
+    apiKeyCache.invalidate(model.apiKeyHash());
 
     return new CreateFreeKeyResponse(id, apiKey, email, org, plan, limits, now, model.credits());
   }
@@ -160,6 +165,7 @@ public class ApiKeyService {
         apiKey.dayCount()
     );
     repository.save(updated);
+    apiKeyCache.invalidate(apiKey.apiKeyHash(), updated.apiKeyHash());
     return new ApiKeyRotateResponse(apiKey.id(), newKey);
   }
 
@@ -184,6 +190,7 @@ public class ApiKeyService {
         apiKey.dayCount()
     );
     repository.save(updated);
+    apiKeyCache.invalidate(updated.apiKeyHash());
     Plan plan = derivePlan(updated);
     ApiKeyLimits limits = effectiveLimits(updated, plan);
     return new ApiKeyResponse(updated.id(), updated.name(), updated.owner(), updated.ownerEmail(), updated.orgName(),
@@ -216,6 +223,7 @@ public class ApiKeyService {
         0
     );
     repository.save(updated);
+    apiKeyCache.invalidate(updated.apiKeyHash());
     Plan plan = derivePlan(updated);
     return new AddCreditsResponse(updated.id(), toAdd, updatedRemaining, plan);
   }
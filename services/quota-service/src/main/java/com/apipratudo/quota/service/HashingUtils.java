@@ -6,24 +6,35 @@ import java.security.NoSuchAlgorithmException;
 
 public final class HashingUtils {
 
-  private HashingUtils() {
-  }
-
-  public static String sha256Hex(String value) {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
     try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
-      return toHex(hash);
+      return MessageDigest.getInstance("SHA-256");
     } catch (NoSuchAlgorithmException e) {
       throw new IllegalStateException("SHA-256 not available", e);
     }
+  });
+
+  private HashingUtils() {
+  }
+
+  public static String sha256Hex(String value) {
+    return toHex(sha256(value));
+  }
+
+  private static byte[] sha256(String value) {
+    MessageDigest digest = SHA_256.get();
+    digest.reset();
+    return digest.digest(value.getBytes(StandardCharsets.UTF_8));
   }
 
   private static String toHex(byte[] bytes) {
-    StringBuilder builder = new StringBuilder(bytes.length * 2);
-    for (byte b : bytes) {
-      builder.append(String.format("%02x", b));
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      int b = bytes[i] & 0xff;
+      chars[i * 2] = HEX[b >>> 4];
+      chars[i * 2 + 1] = HEX[b & 0x0f];
     }
-    return builder.toString();
+    return new String(chars);
   }
 }
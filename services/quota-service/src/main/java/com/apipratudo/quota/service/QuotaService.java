@@ -1,27 +1,50 @@
 package com.apipratudo.quota.service;
 
+import com.apipratudo.quota.dto.QuotaConsumeBatchRequest;
+import com.apipratudo.quota.dto.QuotaConsumeBatchResponse;
 import com.apipratudo.quota.dto.QuotaConsumeRequest;
 import com.apipratudo.quota.dto.QuotaConsumeResponse;
+import com.apipratudo.quota.dto.QuotaLeaseRequest;
+import com.apipratudo.quota.dto.QuotaLeaseResponse;
+import com.apipratudo.quota.dto.QuotaLeaseReturnRequest;
+import com.apipratudo.quota.dto.QuotaLeaseReturnResponse;
 import com.apipratudo.quota.dto.QuotaReason;
+import com.apipratudo.quota.dto.QuotaRefundBatchRequest;
+import com.apipratudo.quota.dto.QuotaRefundBatchResponse;
 import com.apipratudo.quota.dto.QuotaRefundRequest;
 import com.apipratudo.quota.dto.QuotaRefundResponse;
 import com.apipratudo.quota.dto.QuotaStatusResponse;
 import com.apipratudo.quota.dto.QuotaUsage;
+import com.apipratudo.quota.dto.QuotaUsageSeriesResponse;
 import com.apipratudo.quota.dto.ApiKeyLimits;
 import com.apipratudo.quota.error.ResourceNotFoundException;
 import com.apipratudo.quota.config.PlanProperties;
+import com.apipratudo.quota.config.QuotaProperties;
 import com.apipratudo.quota.model.ApiKey;
 import com.apipratudo.quota.model.ApiKeyStatus;
 import com.apipratudo.quota.model.Plan;
+import com.apipratudo.quota.model.QuotaBatchItem;
 import com.apipratudo.quota.model.QuotaDecision;
+import com.apipratudo.quota.model.QuotaEphemeralDecision;
+import com.apipratudo.quota.model.QuotaLease;
+import com.apipratudo.quota.model.QuotaLeaseSettlement;
 import com.apipratudo.quota.model.QuotaRefundDecision;
+import com.apipratudo.quota.model.QuotaRefundToken;
 import com.apipratudo.quota.model.QuotaStatus;
 import com.apipratudo.quota.model.QuotaWindows;
 import com.apipratudo.quota.repository.ApiKeyRepository;
 import com.apipratudo.quota.repository.QuotaStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Service
 public class QuotaService {
@@ -30,32 +53,94 @@ public class QuotaService {
   private final QuotaStore quotaStore;
   private final QuotaWindowCalculator windowCalculator;
   private final PlanProperties planProperties;
+  private final QuotaProperties quotaProperties;
+  private final ApiKeyCache apiKeyCache;
+  private final UsageRollupService usageRollups;
+  private final RefundTokenCodec refundTokenCodec;
 
   public QuotaService(
       ApiKeyRepository apiKeyRepository,
       QuotaStore quotaStore,
       QuotaWindowCalculator windowCalculator,
-      PlanProperties planProperties
+      PlanProperties planProperties,
+      QuotaProperties quotaProperties,
+      ApiKeyCache apiKeyCache,
+      UsageRollupService usageRollups,
+      RefundTokenCodec refundTokenCodec
   ) {
     this.apiKeyRepository = apiKeyRepository;
+    this.apiKeyCache = apiKeyCache;
+    this.usageRollups = usageRollups;
+    this.refundTokenCodec = refundTokenCodec;
     this.quotaStore = quotaStore;
     this.windowCalculator = windowCalculator;
     this.planProperties = planProperties;
+    this.quotaProperties = quotaProperties;
   }
 
   public QuotaConsumeResult consume(QuotaConsumeRequest request) {
     int cost = request.cost() == null ? 1 : request.cost();
     Optional<ApiKey> apiKey = findActiveApiKey(request.apiKey());
     if (apiKey.isEmpty()) {
-      QuotaConsumeResponse response = new QuotaConsumeResponse(false, QuotaReason.INVALID_KEY, null, null, null,
-          null, null, null, null, null, null, null);
-      return new QuotaConsumeResult(HttpStatus.UNAUTHORIZED, response);
+      return invalidKeyConsumeResult();
     }
 
     ApiKey model = withDerivedPlan(apiKey.get());
     QuotaWindows windows = windowCalculator.currentWindows();
-    QuotaDecision decision = quotaStore.consume(model, request.requestId(), request.route(), cost, windows);
+    QuotaDecision decision;
+    String refundToken = null;
+    if (Boolean.TRUE.equals(request.ephemeral())) {
+      QuotaEphemeralDecision ephemeral =
+          quotaStore.consumeEphemeral(model, request.requestId(), request.route(), cost, windows);
+      decision = ephemeral.decision();
+      refundToken = refundTokenCodec.encode(ephemeral.refundToken());
+    } else {
+      decision = quotaStore.consume(model, request.requestId(), request.route(), cost, windows);
+    }
+    forgetPlanIfDepleted(model, decision.creditsDepleted());
+    usageRollups.record(model.id(), request.route(), decision.allowed());
+    QuotaUsage usage = isQuotaExceeded(decision) ? toUsage(quotaStore.status(model, windows)) : null;
+    return toConsumeResult(model, decision, usage, refundToken);
+  }
+
+  public QuotaConsumeBatchResponse consumeBatch(QuotaConsumeBatchRequest request) {
+    List<QuotaConsumeRequest> items = request.items();
+    QuotaConsumeBatchResponse.Item[] results = new QuotaConsumeBatchResponse.Item[items.size()];
+    QuotaWindows windows = windowCalculator.currentWindows();
+    groupByApiKey(items, QuotaConsumeRequest::apiKey).forEach((apiKeyValue, indexes) -> {
+      Optional<ApiKey> apiKey = findActiveApiKey(apiKeyValue);
+      if (apiKey.isEmpty()) {
+        for (int index : indexes) {
+          results[index] = toBatchItem(items.get(index).requestId(), invalidKeyConsumeResult());
+        }
+        return;
+      }
 
+      ApiKey model = withDerivedPlan(apiKey.get());
+      List<QuotaBatchItem> batch = indexes.stream()
+          .map(index -> toBatchItem(items.get(index)))
+          .toList();
+      List<QuotaDecision> decisions = quotaStore.consumeBatch(model, batch, windows);
+      forgetPlanIfDepleted(model, decisions.stream().anyMatch(QuotaDecision::creditsDepleted));
+      QuotaUsage usage = decisions.stream().anyMatch(this::isQuotaExceeded)
+          ? toUsage(quotaStore.status(model, windows))
+          : null;
+      for (int i = 0; i < indexes.size(); i++) {
+        int index = indexes.get(i);
+        usageRollups.record(model.id(), items.get(index).route(), decisions.get(i).allowed());
+        results[index] = toBatchItem(items.get(index).requestId(),
+            toConsumeResult(model, decisions.get(i), usage, null));
+      }
+    });
+    return new QuotaConsumeBatchResponse(List.of(results));
+  }
+
+  private QuotaConsumeResult toConsumeResult(
+      ApiKey model,
+      QuotaDecision decision,
+      QuotaUsage usage,
+      String refundToken
+  ) {
     if (decision.allowed()) {
       QuotaConsumeResponse response = new QuotaConsumeResponse(
           true,
@@ -69,14 +154,13 @@ public class QuotaService {
           model.limits(),
           null,
           null,
-          model.credits()
+          model.credits(),
+          refundToken
       );
       return new QuotaConsumeResult(HttpStatus.OK, response);
     }
 
-    if (decision.reason() == QuotaReason.QUOTA_EXCEEDED) {
-      QuotaStatus status = quotaStore.status(model, windows);
-      QuotaUsage usage = toUsage(status);
+    if (isQuotaExceeded(decision)) {
       QuotaConsumeResponse response = new QuotaConsumeResponse(
           false,
           decision.reason(),
@@ -89,7 +173,8 @@ public class QuotaService {
           model.limits(),
           usage,
           new QuotaConsumeResponse.UpgradeHint("/v1/keys/upgrade", "POST"),
-          model.credits()
+          model.credits(),
+          null
       );
       return new QuotaConsumeResult(HttpStatus.PAYMENT_REQUIRED, response);
     }
@@ -106,11 +191,30 @@ public class QuotaService {
         model.limits(),
         null,
         null,
-        model.credits()
+        model.credits(),
+        null
     );
     return new QuotaConsumeResult(HttpStatus.TOO_MANY_REQUESTS, response);
   }
 
+  private QuotaConsumeResult invalidKeyConsumeResult() {
+    QuotaConsumeResponse response = new QuotaConsumeResponse(false, QuotaReason.INVALID_KEY, null, null, null,
+        null, null, null, null, null, null, null, null);
+    return new QuotaConsumeResult(HttpStatus.UNAUTHORIZED, response);
+  }
+
+  private boolean isQuotaExceeded(QuotaDecision decision) {
+    return !decision.allowed() && decision.reason() == QuotaReason.QUOTA_EXCEEDED;
+  }
+
+  private QuotaBatchItem toBatchItem(QuotaConsumeRequest request) {
+    return new QuotaBatchItem(request.requestId(), request.route(), request.cost() == null ? 1 : request.cost());
+  }
+
+  private QuotaConsumeBatchResponse.Item toBatchItem(String requestId, QuotaConsumeResult result) {
+    return new QuotaConsumeBatchResponse.Item(requestId, result.status().value(), result.response());
+  }
+
   public QuotaRefundResult refund(QuotaRefundRequest request) {
     Optional<ApiKey> apiKey = findActiveApiKey(request.apiKey());
     if (apiKey.isEmpty()) {
@@ -118,15 +222,119 @@ public class QuotaService {
       return new QuotaRefundResult(HttpStatus.UNAUTHORIZED, response);
     }
 
-    QuotaRefundDecision decision = quotaStore.refund(apiKey.get(), request.requestId());
-    QuotaRefundResponse response = new QuotaRefundResponse(
+    ApiKey model = withDerivedPlan(apiKey.get());
+    QuotaRefundDecision decision;
+    if (StringUtils.hasText(request.refundToken())) {
+      Optional<QuotaRefundToken> token = refundTokenCodec.decode(request.refundToken(), model.id());
+      decision = token.isPresent()
+          ? quotaStore.refundEphemeral(model, token.get())
+          : new QuotaRefundDecision(false, null, null, null, null);
+    } else {
+      decision = quotaStore.refund(model, request.requestId());
+    }
+    return new QuotaRefundResult(HttpStatus.OK, toRefundResponse(decision));
+  }
+
+  public QuotaRefundBatchResponse refundBatch(QuotaRefundBatchRequest request) {
+    List<QuotaRefundRequest> items = request.items();
+    QuotaRefundBatchResponse.Item[] results = new QuotaRefundBatchResponse.Item[items.size()];
+    groupByApiKey(items, QuotaRefundRequest::apiKey).forEach((apiKeyValue, indexes) -> {
+      Optional<ApiKey> apiKey = findActiveApiKey(apiKeyValue);
+      if (apiKey.isEmpty()) {
+        QuotaRefundResponse response = new QuotaRefundResponse(false, QuotaReason.INVALID_KEY, null, null, null);
+        for (int index : indexes) {
+          results[index] = new QuotaRefundBatchResponse.Item(items.get(index).requestId(),
+              HttpStatus.UNAUTHORIZED.value(), response);
+        }
+        return;
+      }
+
+      List<String> requestIds = indexes.stream()
+          .map(index -> items.get(index).requestId())
+          .toList();
+      List<QuotaRefundDecision> decisions = quotaStore.refundBatch(withDerivedPlan(apiKey.get()), requestIds);
+      for (int i = 0; i < indexes.size(); i++) {
+        results[indexes.get(i)] = new QuotaRefundBatchResponse.Item(requestIds.get(i), HttpStatus.OK.value(),
+            toRefundResponse(decisions.get(i)));
+      }
+    });
+    return new QuotaRefundBatchResponse(List.of(results));
+  }
+
+  private QuotaRefundResponse toRefundResponse(QuotaRefundDecision decision) {
+    return new QuotaRefundResponse(
         decision.refunded(),
         decision.reason(),
         decision.limit(),
         decision.remaining(),
         decision.resetAt()
     );
-    return new QuotaRefundResult(HttpStatus.OK, response);
+  }
+
+  private <T> Map<String, List<Integer>> groupByApiKey(List<T> items, Function<T, String> apiKey) {
+    Map<String, List<Integer>> indexesByApiKey = new LinkedHashMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      indexesByApiKey.computeIfAbsent(apiKey.apply(items.get(i)), key -> new ArrayList<>()).add(i);
+    }
+    return indexesByApiKey;
+  }
+
+  public QuotaLeaseResult lease(QuotaLeaseRequest request) {
+    Optional<ApiKey> apiKey = findActiveApiKey(request.apiKey());
+    if (apiKey.isEmpty()) {
+      QuotaLeaseResponse response = new QuotaLeaseResponse(null, false, QuotaReason.INVALID_KEY, 0, null, null,
+          false, null, null, null, null, null);
+      return new QuotaLeaseResult(HttpStatus.UNAUTHORIZED, response);
+    }
+
+    ApiKey model = withDerivedPlan(apiKey.get());
+    int requested = request.units() == null ? quotaProperties.getLeaseMaxUnits() : request.units();
+    int units = Math.min(requested, quotaProperties.getLeaseMaxUnits());
+    Duration ttl = Duration.ofSeconds(quotaProperties.getLeaseTtlSeconds());
+    QuotaLease lease = quotaStore.lease(model, units, ttl, windowCalculator.currentWindows());
+    forgetPlanIfDepleted(model, lease.creditsDepleted());
+    QuotaLeaseResponse response = new QuotaLeaseResponse(
+        lease.leaseId(),
+        lease.granted(),
+        lease.reason(),
+        lease.units(),
+        lease.minuteBucket(),
+        lease.dayBucket(),
+        lease.credits(),
+        lease.expiresAt(),
+        lease.limit(),
+        lease.remaining(),
+        lease.resetAt(),
+        model.plan()
+    );
+    return new QuotaLeaseResult(HttpStatus.OK, response);
+  }
+
+  public QuotaLeaseReturnResult returnLease(QuotaLeaseReturnRequest request) {
+    Optional<ApiKey> apiKey = findApiKey(request.apiKey());
+    if (apiKey.isEmpty()) {
+      return new QuotaLeaseReturnResult(HttpStatus.UNAUTHORIZED, new QuotaLeaseReturnResponse(false, 0, 0));
+    }
+
+    ApiKey model = withDerivedPlan(apiKey.get());
+    Map<String, Long> spent = request.spent() == null ? Map.of() : request.spent();
+    long reported = spent.values().stream()
+        .mapToLong(calls -> calls == null ? 0 : Math.max(calls, 0))
+        .sum();
+    QuotaLeaseSettlement settlement = quotaStore.returnLease(model, request.leaseId(), request.units(), reported);
+    recordLeasedSpend(model.id(), spent, settlement.spent());
+    return new QuotaLeaseReturnResult(HttpStatus.OK,
+        new QuotaLeaseReturnResponse(true, settlement.returned(), settlement.spent()));
+  }
+
+  // Only what the lease accepted as spent goes into the rollups; an over-report is cut off in route order.
+  private void recordLeasedSpend(String apiKeyId, Map<String, Long> spent, long accepted) {
+    long left = accepted;
+    for (Map.Entry<String, Long> entry : spent.entrySet()) {
+      long calls = Math.min(entry.getValue() == null ? 0 : Math.max(entry.getValue(), 0), left);
+      usageRollups.record(apiKeyId, entry.getKey(), true, calls);
+      left -= calls;
+    }
   }
 
   public QuotaStatusResponse status(String apiKeyValue) {
@@ -147,6 +355,16 @@ public class QuotaService {
     );
   }
 
+  public QuotaUsageSeriesResponse usage(String apiKeyValue, Instant from, Instant to, String route) {
+    ApiKey apiKey = findApiKey(apiKeyValue)
+        .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
+    List<QuotaUsageSeriesResponse.Point> points = usageRollups.series(apiKey.id(), from, to, route).stream()
+        .map(rollup -> new QuotaUsageSeriesResponse.Point(rollup.hour(), rollup.route(), rollup.allowed(),
+            rollup.denied()))
+        .toList();
+    return new QuotaUsageSeriesResponse(apiKey.id(), points);
+  }
+
   private QuotaUsage toUsage(QuotaStatus status) {
     return new QuotaUsage(
         new QuotaUsage.WindowStatus(
@@ -165,14 +383,21 @@ public class QuotaService {
   }
 
   private Optional<ApiKey> findActiveApiKey(String apiKeyValue) {
-    String apiKeyHash = HashingUtils.sha256Hex(apiKeyValue);
-    return apiKeyRepository.findByApiKeyHash(apiKeyHash)
+    return findApiKey(apiKeyValue)
         .filter(apiKey -> apiKey.status() == ApiKeyStatus.ACTIVE);
   }
 
   private Optional<ApiKey> findApiKey(String apiKeyValue) {
     String apiKeyHash = HashingUtils.sha256Hex(apiKeyValue);
-    return apiKeyRepository.findByApiKeyHash(apiKeyHash);
+    return apiKeyCache.get(apiKeyHash, apiKeyRepository::findByApiKeyHash);
+  }
+
+  // The plan comes from the cached key's credits. Once the store reports the credits gone, drop the entry (here and
+  // on the other instances) so the next call loads FREE limits instead of keeping PREMIUM ones until the TTL.
+  private void forgetPlanIfDepleted(ApiKey model, boolean creditsDepleted) {
+    if (creditsDepleted && model.plan() == Plan.PREMIUM) {
+      apiKeyCache.invalidate(model.apiKeyHash());
+    }
   }
 
   private ApiKey withDerivedPlan(ApiKey apiKey) {
@@ -214,4 +439,10 @@ public class QuotaService {
 
   public record QuotaRefundResult(HttpStatus status, QuotaRefundResponse response) {
   }
+
+  public record QuotaLeaseResult(HttpStatus status, QuotaLeaseResponse response) {
+  }
+
+  public record QuotaLeaseReturnResult(HttpStatus status, QuotaLeaseReturnResponse response) {
+  }
 }
@@ -0,0 +1,138 @@
+package com.apipratudo.quota.service;
+
+import com.apipratudo.quota.config.SecurityProperties;
+import com.apipratudo.quota.model.QuotaRefundToken;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Turns a {@link QuotaRefundToken} into the opaque string handed to the gateway and back. The payload is signed
+ * with HMAC-SHA256 under the internal token, so any instance can verify it and a caller can't widen what a refund
+ * releases. Without an internal token no refund token is issued.
+ */
+@Component
+public class RefundTokenCodec {
+
+  private static final String VERSION = "1";
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ThreadLocal<Mac> mac;
+  private final Clock clock;
+
+  public RefundTokenCodec(SecurityProperties securityProperties, Clock clock) {
+    String secret = securityProperties.getInternalToken();
+    this.mac = StringUtils.hasText(secret) ? ThreadLocal.withInitial(() -> newMac(secret)) : null;
+    this.clock = clock;
+  }
+
+  public String encode(QuotaRefundToken token) {
+    if (token == null || mac == null) {
+      return null;
+    }
+    StringJoiner payload = new StringJoiner("|")
+        .add(VERSION)
+        .add(token.apiKeyId())
+        .add(Long.toString(token.expiresAt().getEpochSecond()))
+        .add(token.minuteBucket() == null ? "" : Long.toString(token.minuteBucket().getEpochSecond()))
+        .add(token.dayBucket() == null ? "" : token.dayBucket())
+        .add(Long.toString(token.cost()))
+        .add(Long.toString(token.creditsConsumed()))
+        .add(shardUnits(token.shardUnits()));
+    byte[] bytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+    return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+  }
+
+  /**
+   * Returns the token when the signature holds, it was issued for {@code apiKeyId} and it hasn't expired.
+   */
+  public Optional<QuotaRefundToken> decode(String value, String apiKeyId) {
+    if (mac == null || !StringUtils.hasText(value)) {
+      return Optional.empty();
+    }
+    int dot = value.indexOf('.');
+    if (dot < 0) {
+      return Optional.empty();
+    }
+    try {
+      byte[] bytes = DECODER.decode(value.substring(0, dot));
+      byte[] signature = DECODER.decode(value.substring(dot + 1));
+      if (!MessageDigest.isEqual(sign(bytes), signature)) {
+        return Optional.empty();
+      }
+      String[] fields = new String(bytes, StandardCharsets.UTF_8).split("\\|", -1);
+      if (fields.length != 8 || !VERSION.equals(fields[0]) || !fields[1].equals(apiKeyId)) {
+        return Optional.empty();
+      }
+      Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+      if (!expiresAt.isAfter(Instant.now(clock))) {
+        return Optional.empty();
+      }
+      return Optional.of(new QuotaRefundToken(
+          fields[1],
+          fields[3].isEmpty() ? null : Instant.ofEpochSecond(Long.parseLong(fields[3])),
+          fields[4].isEmpty() ? null : fields[4],
+          Long.parseLong(fields[5]),
+          Long.parseLong(fields[6]),
+          parseShardUnits(fields[7]),
+          expiresAt
+      ));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private byte[] sign(byte[] payload) {
+    Mac hmac = mac.get();
+    hmac.reset();
+    return hmac.doFinal(payload);
+  }
+
+  private String shardUnits(Map<String, Long> shardUnits) {
+    if (shardUnits == null) {
+      return "";
+    }
+    StringJoiner joiner = new StringJoiner(",");
+    shardUnits.forEach((shard, units) -> joiner.add(shard + ":" + units));
+    return joiner.toString();
+  }
+
+  private Map<String, Long> parseShardUnits(String value) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    Map<String, Long> shardUnits = new LinkedHashMap<>();
+    for (String entry : value.split(",")) {
+      int colon = entry.indexOf(':');
+      if (colon < 0) {
+        throw new IllegalArgumentException("Malformed shard units");
+      }
+      shardUnits.put(Integer.toString(Integer.parseInt(entry.substring(0, colon))),
+          Long.parseLong(entry.substring(colon + 1)));
+    }
+    return shardUnits;
+  }
+
+  private static Mac newMac(String secret) {
+    try {
+      Mac hmac = Mac.getInstance(ALGORITHM);
+      hmac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+      return hmac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(ALGORITHM + " not available", e);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.apipratudo.quota.service;
+
+import com.apipratudo.quota.config.UsageRollupProperties;
+import com.apipratudo.quota.model.UsageRollup;
+import com.apipratudo.quota.repository.UsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per (key, route, hour) call counters. Each instance accumulates in memory and periodically writes its absolute
+ * totals under its own instance id, so a retried or repeated flush never double counts and a crash loses at most the
+ * calls recorded since the last successful flush. Routes are reduced to a template first, so concrete ids in the
+ * path ({@code GET /v1/cep/01001-000}) don't open a new counter per value.
+ */
+@Service
+public class UsageRollupService {
+
+  private static final Logger log = LoggerFactory.getLogger(UsageRollupService.class);
+  private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+  private static final String ID_PLACEHOLDER = "{id}";
+  // Numbers (also dotted/dashed, like CEP or CPF), UUIDs and long tokens that carry a digit.
+  private static final Pattern ID_SEGMENT = Pattern.compile(
+      "(?=.*\\d)[\\d.-]+"
+          + "|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"
+          + "|(?=.*\\d)[A-Za-z0-9_-]{16,}");
+
+  private final UsageRollupRepository repository;
+  private final UsageRollupProperties properties;
+  private final Clock clock;
+  private final String instanceId = UUID.randomUUID().toString();
+  private final ConcurrentMap<RollupKey, RollupCell> cells = new ConcurrentHashMap<>();
+
+  public UsageRollupService(UsageRollupRepository repository, UsageRollupProperties properties, Clock clock) {
+    this.repository = repository;
+    this.properties = properties;
+    this.clock = clock;
+  }
+
+  public void record(String apiKeyId, String route, boolean allowed) {
+    record(apiKeyId, route, allowed, 1);
+  }
+
+  public void record(String apiKeyId, String route, boolean allowed, long calls) {
+    if (!properties.isEnabled() || calls <= 0) {
+      return;
+    }
+    Instant hour = Instant.now(clock).truncatedTo(ChronoUnit.HOURS);
+    RollupKey rollupKey = new RollupKey(apiKeyId, routeTemplate(route), hour);
+    RollupCell cell = cells.computeIfAbsent(rollupKey, key -> new RollupCell());
+    (allowed ? cell.allowed : cell.denied).add(calls);
+  }
+
+  @Scheduled(fixedDelayString = "${app.usage-rollup.flush-interval-ms:10000}")
+  public synchronized void flush() {
+    Instant staleBefore = Instant.now(clock).truncatedTo(ChronoUnit.HOURS).minus(1, ChronoUnit.HOURS);
+    Map<RollupCell, UsageRollup> pending = new LinkedHashMap<>();
+    cells.forEach((key, cell) -> {
+      long allowed = cell.allowed.sum();
+      long denied = cell.denied.sum();
+      if (allowed != cell.flushedAllowed || denied != cell.flushedDenied) {
+        pending.put(cell, new UsageRollup(key.apiKeyId(), key.route(), key.hour(), allowed, denied));
+      } else if (key.hour().isBefore(staleBefore)) {
+        cells.remove(key, cell);
+      }
+    });
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    try {
+      repository.save(instanceId, new ArrayList<>(pending.values()));
+    } catch (RuntimeException ex) {
+      log.warn("Usage rollup flush failed rollups={} error={}", pending.size(), ex.getMessage());
+      return;
+    }
+    pending.forEach((cell, rollup) -> {
+      cell.flushedAllowed = rollup.allowed();
+      cell.flushedDenied = rollup.denied();
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  public List<UsageRollup> series(String apiKeyId, Instant from, Instant to, String route) {
+    Instant end = to == null ? Instant.now(clock).truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS) : to;
+    Instant start = from == null ? end.minus(DEFAULT_RANGE) : from.truncatedTo(ChronoUnit.HOURS);
+    if (!start.isBefore(end)) {
+      throw new IllegalArgumentException("from must be before to");
+    }
+    if (Duration.between(start, end).toHours() > properties.getMaxRangeHours()) {
+      throw new IllegalArgumentException("Range exceeds " + properties.getMaxRangeHours() + " hours");
+    }
+
+    String template = route == null ? null : routeTemplate(route);
+    Map<RollupKey, UsageRollup> merged = new LinkedHashMap<>();
+    for (UsageRollup rollup : repository.find(apiKeyId, start, end)) {
+      if (template != null && !template.equals(rollup.route())) {
+        continue;
+      }
+      merged.merge(new RollupKey(apiKeyId, rollup.route(), rollup.hour()), rollup, (left, right) ->
+          new UsageRollup(apiKeyId, left.route(), left.hour(), left.allowed() + right.allowed(),
+              left.denied() + right.denied()));
+    }
+    return merged.values().stream()
+        .sorted(Comparator.comparing(UsageRollup::hour).thenComparing(UsageRollup::route))
+        .toList();
+  }
+
+  static String routeTemplate(String route) {
+    if (route == null) {
+      return "";
+    }
+    int query = route.indexOf('?');
+    String[] segments = (query < 0 ? route : route.substring(0, query)).split("/", -1);
+    for (int i = 1; i < segments.length; i++) {
+      if (ID_SEGMENT.matcher(segments[i]).matches()) {
+        segments[i] = ID_PLACEHOLDER;
+      }
+    }
+    return String.join("/", segments);
+  }
+
+  private record RollupKey(String apiKeyId, String route, Instant hour) {
+  }
+
+  private static final class RollupCell {
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private long flushedAllowed;
+    private long flushedDenied;
+  }
+}
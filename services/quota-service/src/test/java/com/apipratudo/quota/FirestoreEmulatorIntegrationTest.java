@@ -0,0 +1,199 @@
+package com.apipratudo.quota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.config.FirestoreProperties;
+import com.apipratudo.quota.config.QuotaProperties;
+import com.apipratudo.quota.dto.ApiKeyLimits;
+import com.apipratudo.quota.limiter.MinuteLimiters;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.ApiKeyStatus;
+import com.apipratudo.quota.model.Plan;
+import com.apipratudo.quota.model.QuotaEphemeralDecision;
+import com.apipratudo.quota.model.QuotaLease;
+import com.apipratudo.quota.model.QuotaLeaseSettlement;
+import com.apipratudo.quota.model.QuotaRefundDecision;
+import com.apipratudo.quota.model.QuotaWindows;
+import com.apipratudo.quota.repository.FirestoreQuotaStore;
+import com.apipratudo.quota.repository.QuotaStore;
+import com.apipratudo.quota.service.HashingUtils;
+import com.apipratudo.quota.service.QuotaWindowCalculator;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+    "app.firestore.enabled=true",
+    "app.firestore.project-id=emulator-test",
+    "app.firestore.collections.api-keys=api_keys_test",
+    "app.firestore.collections.idempotency-quota=idempotency_quota_test",
+    "app.firestore.collections.quota-leases=quota_leases_test"
+})
+@EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
+class FirestoreEmulatorIntegrationTest {
+
+  @Autowired
+  private Firestore firestore;
+
+  @Autowired
+  private QuotaStore quotaStore;
+
+  @Autowired
+  private FirestoreProperties firestoreProperties;
+
+  @Autowired
+  private QuotaProperties quotaProperties;
+
+  @Autowired
+  private MinuteLimiters limiters;
+
+  @Autowired
+  private QuotaWindowCalculator windowCalculator;
+
+  @Autowired
+  private Clock clock;
+
+  @Test
+  @Timeout(10)
+  void ephemeralConsumeWritesNoIdempotencyDocAndIsRefundedByToken() throws Exception {
+    ApiKey apiKey = apiKey(5, 100);
+    String requestId = UUID.randomUUID().toString();
+    QuotaWindows windows = windowCalculator.currentWindows();
+
+    QuotaEphemeralDecision charged = quotaStore.consumeEphemeral(apiKey, requestId, "GET /v1/cep/{id}", 1, windows);
+    assertThat(charged.decision().allowed()).isTrue();
+    assertThat(charged.refundToken()).isNotNull();
+    assertThat(quotaStore.status(apiKey, windows).minute().used()).isEqualTo(1);
+    assertThat(idempotencyDoc(apiKey, requestId).exists()).isFalse();
+
+    QuotaStore otherInstance = new FirestoreQuotaStore(firestore, firestoreProperties, quotaProperties, clock,
+        limiters);
+    QuotaRefundDecision refund = otherInstance.refundEphemeral(apiKey, charged.refundToken());
+    assertThat(refund.refunded()).isTrue();
+    assertThat(quotaStore.status(apiKey, windows).minute().used()).isZero();
+    assertThat(quotaStore.status(apiKey, windows).day().used()).isZero();
+  }
+
+  @Test
+  @Timeout(10)
+  void deniedEphemeralConsumeHasNoRefundToken() throws Exception {
+    ApiKey apiKey = apiKey(1, 100);
+    QuotaWindows windows = windowCalculator.currentWindows();
+    assertThat(quotaStore.consumeEphemeral(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows)
+        .decision().allowed()).isTrue();
+
+    String deniedRequestId = UUID.randomUUID().toString();
+    QuotaEphemeralDecision denied =
+        quotaStore.consumeEphemeral(apiKey, deniedRequestId, "GET /v1/cep/{id}", 1, windows);
+    assertThat(denied.decision().allowed()).isFalse();
+    assertThat(denied.refundToken()).isNull();
+    assertThat(idempotencyDoc(apiKey, deniedRequestId).exists()).isFalse();
+    assertThat(quotaStore.status(apiKey, windows).minute().used()).isEqualTo(1);
+  }
+
+  @Test
+  @Timeout(10)
+  void leaseReturnsAreCappedAtTheOutstandingUnits() {
+    ApiKey apiKey = apiKey(10, 100);
+    QuotaWindows windows = windowCalculator.currentWindows();
+    QuotaLease lease = quotaStore.lease(apiKey, 4, Duration.ofSeconds(10), windows);
+    assertThat(lease.granted()).isTrue();
+    assertThat(lease.leaseId()).isNotBlank();
+
+    assertThat(quotaStore.returnLease(apiKey, lease.leaseId(), 1, 2))
+        .isEqualTo(new QuotaLeaseSettlement(1, 2));
+    assertThat(quotaStore.returnLease(apiKey, lease.leaseId(), 50, 0))
+        .isEqualTo(new QuotaLeaseSettlement(1, 0));
+    assertThat(quotaStore.returnLease(apiKey, lease.leaseId(), 1, 1)).isEqualTo(QuotaLeaseSettlement.NONE);
+    assertThat(quotaStore.returnLease(apiKey(10, 100), lease.leaseId(), 1, 0))
+        .isEqualTo(QuotaLeaseSettlement.NONE);
+
+    assertThat(quotaStore.status(apiKey, windows).minute().used()).isEqualTo(2);
+  }
+
+  @Test
+  @Timeout(10)
+  void shardedCountersMergeBackOnceTheKeyCoolsDown() throws Exception {
+    QuotaProperties shardingProperties = new QuotaProperties();
+    shardingProperties.setShardingEnabled(true);
+    shardingProperties.setCounterShards(4);
+    shardingProperties.setShardingQpsThreshold(3);
+    QuotaRolloverTest.MutableClock storeClock = new QuotaRolloverTest.MutableClock(Instant.now(), ZoneOffset.UTC);
+    QuotaStore store = new FirestoreQuotaStore(firestore, firestoreProperties, shardingProperties, storeClock,
+        limiters);
+    ApiKey apiKey = apiKey(100, 1000);
+    QuotaWindows windows = windowCalculator.currentWindows();
+    DocumentReference apiKeyRef = firestore.collection(firestoreProperties.getCollections().getApiKeys())
+        .document(apiKey.id());
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(store.consume(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows).allowed())
+          .isTrue();
+    }
+    assertThat(apiKeyRef.get().get().getLong("counterShards")).isEqualTo(4);
+
+    storeClock.setInstant(storeClock.instant().plus(Duration.ofMinutes(2)));
+    assertThat(store.consume(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows).allowed())
+        .isTrue();
+
+    assertThat(apiKeyRef.get().get().getLong("counterShards")).isZero();
+    assertThat(apiKeyRef.collection("quota_shards").get().get().isEmpty()).isTrue();
+    assertThat(store.status(apiKey, windows).minute().used()).isEqualTo(4);
+    assertThat(store.status(apiKey, windows).day().used()).isEqualTo(4);
+  }
+
+  @Test
+  @Timeout(30)
+  void coolInstanceDoesNotMergeAKeyThatIsBusyElsewhere() throws Exception {
+    QuotaProperties shardingProperties = new QuotaProperties();
+    shardingProperties.setShardingEnabled(true);
+    shardingProperties.setCounterShards(4);
+    shardingProperties.setShardingQpsThreshold(3);
+    QuotaStore hot = new FirestoreQuotaStore(firestore, firestoreProperties, shardingProperties, clock, limiters);
+    QuotaRolloverTest.MutableClock coolClock = new QuotaRolloverTest.MutableClock(Instant.now(), ZoneOffset.UTC);
+    QuotaStore cool = new FirestoreQuotaStore(firestore, firestoreProperties, shardingProperties, coolClock,
+        limiters);
+    ApiKey apiKey = apiKey(1000, 10000);
+    QuotaWindows windows = windowCalculator.currentWindows();
+    DocumentReference apiKeyRef = firestore.collection(firestoreProperties.getCollections().getApiKeys())
+        .document(apiKey.id());
+
+    assertThat(cool.consume(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows).allowed())
+        .isTrue();
+    // Half the threshold over a full minute: 90 units in the current bucket.
+    for (int i = 0; i < 90; i++) {
+      hot.consume(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows);
+    }
+    assertThat(apiKeyRef.get().get().getLong("counterShards")).isEqualTo(4);
+
+    coolClock.setInstant(coolClock.instant().plus(Duration.ofMinutes(2)));
+    assertThat(cool.consume(apiKey, UUID.randomUUID().toString(), "GET /v1/cep/{id}", 1, windows).allowed())
+        .isTrue();
+
+    assertThat(apiKeyRef.get().get().getLong("counterShards")).isEqualTo(4);
+  }
+
+  private ApiKey apiKey(int requestsPerMinute, int requestsPerDay) {
+    String id = UUID.randomUUID().toString();
+    return new ApiKey(id, HashingUtils.sha256Hex(id), "client", "owner", null, null,
+        new ApiKeyLimits(requestsPerMinute, requestsPerDay), Instant.now(), ApiKeyStatus.ACTIVE, Plan.FREE, null,
+        null, 0, null, 0);
+  }
+
+  private DocumentSnapshot idempotencyDoc(ApiKey apiKey, String requestId) throws Exception {
+    return firestore.collection(firestoreProperties.getCollections().getIdempotencyQuota())
+        .document(HashingUtils.sha256Hex(apiKey.id() + ":" + requestId))
+        .get()
+        .get();
+  }
+}
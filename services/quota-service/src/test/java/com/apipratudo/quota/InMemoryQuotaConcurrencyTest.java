@@ -0,0 +1,124 @@
+package com.apipratudo.quota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.config.PlanProperties;
+import com.apipratudo.quota.config.QuotaProperties;
+import com.apipratudo.quota.dto.ApiKeyLimits;
+import com.apipratudo.quota.limiter.MinuteLimiters;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.ApiKeyCredits;
+import com.apipratudo.quota.model.ApiKeyStatus;
+import com.apipratudo.quota.model.Plan;
+import com.apipratudo.quota.model.QuotaStatus;
+import com.apipratudo.quota.model.QuotaWindows;
+import com.apipratudo.quota.repository.InMemoryApiKeyRepository;
+import com.apipratudo.quota.repository.InMemoryQuotaStore;
+import com.apipratudo.quota.service.QuotaWindowCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InMemoryQuotaConcurrencyTest {
+
+  private static final int THREADS = 16;
+
+  private final Clock clock = Clock.fixed(Instant.parse("2024-03-01T12:00:10Z"), ZoneOffset.UTC);
+  private final InMemoryApiKeyRepository repository = new InMemoryApiKeyRepository();
+  private final InMemoryQuotaStore store = new InMemoryQuotaStore(clock, new QuotaProperties(), repository,
+      new MinuteLimiters(new PlanProperties()), new SimpleMeterRegistry());
+  private final QuotaWindows windows = new QuotaWindowCalculator(clock).currentWindows();
+
+  @Test
+  void concurrentConsumesNeverExceedLimit() throws Exception {
+    ApiKey apiKey = repository.save(apiKey("hot", 1000, 100000));
+    AtomicInteger allowed = new AtomicInteger();
+
+    runConcurrently(thread -> {
+      for (int i = 0; i < 200; i++) {
+        if (store.consume(apiKey, "req-" + thread + "-" + i, "GET /v1/x", 1, windows).allowed()) {
+          allowed.incrementAndGet();
+        }
+      }
+    });
+
+    QuotaStatus status = store.status(apiKey, windows);
+    assertThat(allowed.get()).isEqualTo(1000);
+    assertThat(status.minute().used()).isEqualTo(1000);
+    assertThat(status.day().used()).isEqualTo(1000);
+  }
+
+  @Test
+  void concurrentDuplicatesAreCountedOnce() throws Exception {
+    ApiKey apiKey = repository.save(apiKey("dup", 100, 1000));
+
+    runConcurrently(thread -> {
+      for (int i = 0; i < 50; i++) {
+        store.consume(apiKey, "req-" + i, "GET /v1/x", 1, windows);
+        store.refund(apiKey, "req-" + i);
+      }
+    });
+
+    QuotaStatus status = store.status(apiKey, windows);
+    assertThat(status.minute().used()).isZero();
+    assertThat(status.day().used()).isZero();
+  }
+
+  @Test
+  void keysAreAccountedIndependently() throws Exception {
+    List<ApiKey> keys = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      keys.add(repository.save(apiKey("key-" + i, 100, 1000)));
+    }
+
+    runConcurrently(thread -> {
+      ApiKey apiKey = keys.get(thread);
+      for (int i = 0; i < 150; i++) {
+        store.consume(apiKey, "req-" + i, "GET /v1/x", 1, windows);
+      }
+    });
+
+    for (ApiKey apiKey : keys) {
+      assertThat(store.status(apiKey, windows).minute().used()).isEqualTo(100);
+      assertThat(repository.findById(apiKey.id()).orElseThrow().minuteCount()).isEqualTo(100);
+    }
+  }
+
+  private void runConcurrently(ThreadTask task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      futures.add(executor.submit(() -> {
+        start.await();
+        task.run(thread);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+  }
+
+  private ApiKey apiKey(String id, int perMinute, int perDay) {
+    return new ApiKey(id, "hash-" + id, id, "owner", null, null, new ApiKeyLimits(perMinute, perDay),
+        Instant.now(clock), ApiKeyStatus.ACTIVE, Plan.FREE, new ApiKeyCredits(0), null, 0, null, 0);
+  }
+
+  private interface ThreadTask {
+    void run(int thread) throws Exception;
+  }
+}
@@ -23,7 +23,8 @@ class LocalApiKeySeederTest {
         "wh-test",
         "req-" + UUID.randomUUID(),
         "GET /v1/webhooks",
-        1
+        1,
+        false
     );
 
     QuotaService.QuotaConsumeResult result = quotaService.consume(request);
@@ -37,7 +38,8 @@ class LocalApiKeySeederTest {
         "dev-test",
         "req-" + UUID.randomUUID(),
         "GET /v1/webhooks",
-        1
+        1,
+        false
     );
 
     QuotaService.QuotaConsumeResult result = quotaService.consume(request);
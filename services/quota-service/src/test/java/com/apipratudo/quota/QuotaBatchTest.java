@@ -0,0 +1,148 @@
+package com.apipratudo.quota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuotaBatchTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void batchConsumeReturnsPerItemDecisionsInOrder() throws Exception {
+    String apiKey = createApiKey(2, 10);
+    String first = "req-" + UUID.randomUUID();
+
+    consumeBatch(List.of(
+        consumeItem(apiKey, first),
+        consumeItem("invalid-key", "req-" + UUID.randomUUID()),
+        consumeItem(apiKey, first),
+        consumeItem(apiKey, "req-" + UUID.randomUUID()),
+        consumeItem(apiKey, "req-" + UUID.randomUUID())
+    ))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(5))
+        .andExpect(jsonPath("$.items[0].requestId").value(first))
+        .andExpect(jsonPath("$.items[0].status").value(200))
+        .andExpect(jsonPath("$.items[0].result.allowed").value(true))
+        .andExpect(jsonPath("$.items[1].status").value(401))
+        .andExpect(jsonPath("$.items[1].result.reason").value("INVALID_KEY"))
+        .andExpect(jsonPath("$.items[2].status").value(200))
+        .andExpect(jsonPath("$.items[2].result.remaining").value(1))
+        .andExpect(jsonPath("$.items[3].status").value(200))
+        .andExpect(jsonPath("$.items[4].status").value(402))
+        .andExpect(jsonPath("$.items[4].result.reason").value("QUOTA_EXCEEDED"))
+        .andExpect(jsonPath("$.items[4].result.usage.minute.used").value(2));
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isEqualTo(2);
+  }
+
+  @Test
+  void batchRefundReleasesConsumedItems() throws Exception {
+    String apiKey = createApiKey(5, 5);
+    String first = "req-" + UUID.randomUUID();
+    String second = "req-" + UUID.randomUUID();
+    String unknown = "req-" + UUID.randomUUID();
+
+    consumeBatch(List.of(consumeItem(apiKey, first), consumeItem(apiKey, second)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[1].result.allowed").value(true));
+
+    mockMvc.perform(post("/v1/quota/refund:batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(Map.of("items", List.of(
+                Map.of("apiKey", apiKey, "requestId", first),
+                Map.of("apiKey", apiKey, "requestId", second),
+                Map.of("apiKey", apiKey, "requestId", unknown)
+            )))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].result.refunded").value(true))
+        .andExpect(jsonPath("$.items[1].result.refunded").value(true))
+        .andExpect(jsonPath("$.items[2].result.refunded").value(false));
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isEqualTo(0);
+    assertThat(status.get("usage").get("day").get("used").asLong()).isEqualTo(0);
+  }
+
+  @Test
+  void batchRequiresInternalToken() throws Exception {
+    mockMvc.perform(post("/v1/quota/consume:batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(Map.of("items", List.of(
+                consumeItem("any-key", "req-" + UUID.randomUUID()))))))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private Map<String, Object> consumeItem(String apiKey, String requestId) {
+    return Map.of(
+        "apiKey", apiKey,
+        "requestId", requestId,
+        "route", "GET /v1/webhooks",
+        "cost", 1
+    );
+  }
+
+  private ResultActions consumeBatch(List<Map<String, Object>> items) throws Exception {
+    return mockMvc.perform(post("/v1/quota/consume:batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .header("X-Internal-Token", "test-internal")
+        .content(objectMapper.writeValueAsString(Map.of("items", items))));
+  }
+
+  private String createApiKey(int requestsPerMinute, int requestsPerDay) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of(
+        "name", "client-" + UUID.randomUUID(),
+        "owner", "owner-" + UUID.randomUUID(),
+        "limits", Map.of(
+            "requestsPerMinute", requestsPerMinute,
+            "requestsPerDay", requestsPerDay
+        )
+    ));
+
+    MvcResult result = mockMvc.perform(post("/v1/api-keys")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Admin-Token", "test-admin")
+            .content(body))
+        .andExpect(status().isCreated())
+        .andReturn();
+
+    JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+    return json.get("apiKey").asText();
+  }
+
+  private JsonNode quotaStatus(String apiKey) throws Exception {
+    MvcResult result = mockMvc.perform(get("/v1/quota/status")
+            .header("X-Api-Key", apiKey))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+}
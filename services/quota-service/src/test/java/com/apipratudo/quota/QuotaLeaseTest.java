@@ -0,0 +1,178 @@
+package com.apipratudo.quota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuotaLeaseTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void leaseChargesWindowUpFrontAndReturnRestoresUnusedUnits() throws Exception {
+    String apiKey = createApiKey(10, 100);
+
+    JsonNode first = lease(apiKey, 6);
+    assertThat(first.get("granted").asBoolean()).isTrue();
+    assertThat(first.get("units").asLong()).isEqualTo(6);
+    assertThat(first.get("expiresAt").isNull()).isFalse();
+    assertThat(first.get("leaseId").asText()).isNotBlank();
+
+    JsonNode second = lease(apiKey, 10);
+    assertThat(second.get("granted").asBoolean()).isTrue();
+    assertThat(second.get("units").asLong()).isEqualTo(4);
+
+    JsonNode exhausted = lease(apiKey, 1);
+    assertThat(exhausted.get("granted").asBoolean()).isFalse();
+    assertThat(exhausted.get("reason").asText()).isEqualTo("QUOTA_EXCEEDED");
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isEqualTo(10);
+    assertThat(status.get("usage").get("day").get("used").asLong()).isEqualTo(10);
+
+    assertThat(returnLease(apiKey, 3, second).get("units").asLong()).isEqualTo(3);
+
+    JsonNode afterReturn = quotaStatus(apiKey);
+    assertThat(afterReturn.get("usage").get("minute").get("used").asLong()).isEqualTo(7);
+    assertThat(afterReturn.get("usage").get("day").get("used").asLong()).isEqualTo(7);
+  }
+
+  @Test
+  void returnsAreCappedAtTheOutstandingUnits() throws Exception {
+    String apiKey = createApiKey(10, 100);
+    JsonNode lease = lease(apiKey, 4);
+
+    JsonNode inflated = returnLease(apiKey, 50, lease);
+    assertThat(inflated.get("units").asLong()).isEqualTo(4);
+    JsonNode repeated = returnLease(apiKey, 4, lease);
+    assertThat(repeated.get("units").asLong()).isZero();
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isZero();
+    assertThat(status.get("usage").get("day").get("used").asLong()).isZero();
+
+    JsonNode other = lease(apiKey, 4);
+    JsonNode settled = returnLease(apiKey, 1, other, Map.of("GET /v1/cep/{id}", 2L));
+    assertThat(settled.get("units").asLong()).isEqualTo(1);
+    assertThat(settled.get("spent").asLong()).isEqualTo(2);
+    JsonNode afterSpend = returnLease(apiKey, 5, other);
+    assertThat(afterSpend.get("units").asLong()).isEqualTo(1);
+    assertThat(quotaStatus(apiKey).get("usage").get("minute").get("used").asLong()).isEqualTo(2);
+  }
+
+  @Test
+  void returnsForUnknownOrForeignLeasesReleaseNothing() throws Exception {
+    String apiKey = createApiKey(10, 100);
+    String otherKey = createApiKey(10, 100);
+    JsonNode lease = lease(apiKey, 4);
+
+    ObjectNode forged = lease.deepCopy();
+    forged.put("leaseId", UUID.randomUUID().toString());
+    assertThat(returnLease(apiKey, 4, forged).get("units").asLong()).isZero();
+    assertThat(returnLease(otherKey, 4, lease).get("units").asLong()).isZero();
+
+    assertThat(quotaStatus(apiKey).get("usage").get("minute").get("used").asLong()).isEqualTo(4);
+  }
+
+  @Test
+  void leaseWithUnknownKeyReturns401() throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of("apiKey", "unknown-" + UUID.randomUUID(), "units", 5));
+
+    mockMvc.perform(post("/v1/quota/lease")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(body))
+        .andExpect(status().isUnauthorized())
+        .andExpect(jsonPath("$.granted").value(false))
+        .andExpect(jsonPath("$.reason").value("INVALID_KEY"));
+  }
+
+  private JsonNode lease(String apiKey, int units) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of("apiKey", apiKey, "units", units));
+
+    MvcResult result = mockMvc.perform(post("/v1/quota/lease")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+
+  private JsonNode returnLease(String apiKey, long units, JsonNode lease) throws Exception {
+    return returnLease(apiKey, units, lease, Map.of());
+  }
+
+  private JsonNode returnLease(String apiKey, long units, JsonNode lease, Map<String, Long> spent) throws Exception {
+    Map<String, Object> payload = new HashMap<>();
+    payload.put("apiKey", apiKey);
+    payload.put("leaseId", lease.get("leaseId").asText());
+    payload.put("units", units);
+    payload.put("spent", spent);
+
+    MvcResult result = mockMvc.perform(post("/v1/quota/lease/return")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(payload)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.returned").value(true))
+        .andReturn();
+
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+
+  private JsonNode quotaStatus(String apiKey) throws Exception {
+    MvcResult result = mockMvc.perform(get("/v1/quota/status")
+            .header("X-Api-Key", apiKey))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+
+  private String createApiKey(int requestsPerMinute, int requestsPerDay) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of(
+        "name", "client-" + UUID.randomUUID(),
+        "owner", "owner-" + UUID.randomUUID(),
+        "limits", Map.of(
+            "requestsPerMinute", requestsPerMinute,
+            "requestsPerDay", requestsPerDay
+        )
+    ));
+
+    MvcResult result = mockMvc.perform(post("/v1/api-keys")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Admin-Token", "test-admin")
+            .content(body))
+        .andExpect(status().isCreated())
+        .andReturn();
+
+    JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+    return json.get("apiKey").asText();
+  }
+}
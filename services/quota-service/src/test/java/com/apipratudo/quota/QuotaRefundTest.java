@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -51,6 +52,42 @@ class QuotaRefundTest {
     assertThat(status.get("usage").get("day").get("used").asLong()).isEqualTo(0);
   }
 
+  @Test
+  void ephemeralConsumeCanBeRefunded() throws Exception {
+    String apiKey = createApiKey(2, 2);
+    String requestId = "req-" + UUID.randomUUID();
+
+    consume(apiKey, requestId, true)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.allowed").value(true));
+
+    refund(apiKey, requestId)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.refunded").value(true));
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isEqualTo(0);
+    assertThat(status.get("usage").get("day").get("used").asLong()).isEqualTo(0);
+  }
+
+  @Test
+  void refundWithAnInvalidTokenReleasesNothing() throws Exception {
+    String apiKey = createApiKey(2, 2);
+    String requestId = "req-" + UUID.randomUUID();
+
+    consume(apiKey, requestId, true)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.refundToken").doesNotExist());
+
+    refund(apiKey, requestId, "bm90LXNpZ25lZA.c2lnbmF0dXJl")
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.refunded").value(false));
+
+    JsonNode status = quotaStatus(apiKey);
+    assertThat(status.get("usage").get("minute").get("used").asLong()).isEqualTo(1);
+    assertThat(status.get("usage").get("day").get("used").asLong()).isEqualTo(1);
+  }
+
   @Test
   void refundWithoutConsumptionIsNoOp() throws Exception {
     String apiKey = createApiKey(1, 1);
@@ -87,11 +124,17 @@ class QuotaRefundTest {
   }
 
   private org.springframework.test.web.servlet.ResultActions consume(String apiKey, String requestId) throws Exception {
+    return consume(apiKey, requestId, false);
+  }
+
+  private org.springframework.test.web.servlet.ResultActions consume(String apiKey, String requestId,
+      boolean ephemeral) throws Exception {
     String body = objectMapper.writeValueAsString(Map.of(
         "apiKey", apiKey,
         "requestId", requestId,
         "route", "GET /v1/webhooks",
-        "cost", 1
+        "cost", 1,
+        "ephemeral", ephemeral
     ));
 
     return mockMvc.perform(post("/v1/quota/consume")
@@ -101,10 +144,16 @@ class QuotaRefundTest {
   }
 
   private org.springframework.test.web.servlet.ResultActions refund(String apiKey, String requestId) throws Exception {
-    String body = objectMapper.writeValueAsString(Map.of(
-        "apiKey", apiKey,
-        "requestId", requestId
-    ));
+    return refund(apiKey, requestId, null);
+  }
+
+  private org.springframework.test.web.servlet.ResultActions refund(String apiKey, String requestId,
+      String refundToken) throws Exception {
+    Map<String, Object> fields = new HashMap<>(Map.of("apiKey", apiKey, "requestId", requestId));
+    if (refundToken != null) {
+      fields.put("refundToken", refundToken);
+    }
+    String body = objectMapper.writeValueAsString(fields);
 
     return mockMvc.perform(post("/v1/quota/refund")
         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,182 @@
+package com.apipratudo.quota;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.apipratudo.quota.service.UsageRollupService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QuotaUsageRollupTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private UsageRollupService usageRollupService;
+
+  @Test
+  void usageIsRolledUpPerRouteAndHour() throws Exception {
+    String apiKey = createApiKey(3, 100);
+    consume(apiKey, "GET /v1/cep/{cep}");
+    consume(apiKey, "GET /v1/cep/{cep}");
+    consume(apiKey, "POST /v1/webhooks");
+    consume(apiKey, "POST /v1/webhooks");
+
+    usageRollupService.flush();
+    usageRollupService.flush();
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(2))
+        .andExpect(jsonPath("$.points[0].route").value("GET /v1/cep/{cep}"))
+        .andExpect(jsonPath("$.points[0].allowed").value(2))
+        .andExpect(jsonPath("$.points[0].denied").value(0))
+        .andExpect(jsonPath("$.points[1].route").value("POST /v1/webhooks"))
+        .andExpect(jsonPath("$.points[1].allowed").value(1))
+        .andExpect(jsonPath("$.points[1].denied").value(1));
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey)
+            .param("route", "POST /v1/webhooks"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(1));
+  }
+
+  @Test
+  void concreteIdsAreRolledUpUnderTheRouteTemplate() throws Exception {
+    String apiKey = createApiKey(10, 100);
+    consume(apiKey, "GET /v1/cep/01001-000");
+    consume(apiKey, "GET /v1/cep/20040-020");
+    consume(apiKey, "GET /v1/cobrancas/" + UUID.randomUUID() + "/status");
+    consume(apiKey, "GET /v1/cobrancas/" + UUID.randomUUID() + "/status");
+
+    usageRollupService.flush();
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(2))
+        .andExpect(jsonPath("$.points[0].route").value("GET /v1/cep/{id}"))
+        .andExpect(jsonPath("$.points[0].allowed").value(2))
+        .andExpect(jsonPath("$.points[1].route").value("GET /v1/cobrancas/{id}/status"))
+        .andExpect(jsonPath("$.points[1].allowed").value(2));
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey)
+            .param("route", "GET /v1/cep/99999-999"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(1))
+        .andExpect(jsonPath("$.points[0].allowed").value(2));
+  }
+
+  @Test
+  void leasedSpendIsRecordedWhenTheLeaseIsReturned() throws Exception {
+    String apiKey = createApiKey(10, 100);
+    MvcResult leased = mockMvc.perform(post("/v1/quota/lease")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(Map.of("apiKey", apiKey, "units", 5))))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode lease = objectMapper.readTree(leased.getResponse().getContentAsString());
+
+    Map<String, Object> payload = new HashMap<>();
+    payload.put("apiKey", apiKey);
+    payload.put("leaseId", lease.get("leaseId").asText());
+    payload.put("units", 1);
+    payload.put("spent", Map.of("GET /v1/megasena/2650", 3, "GET /v1/megasena/2651", 1));
+    mockMvc.perform(post("/v1/quota/lease/return")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(payload)))
+        .andExpect(status().isOk());
+
+    usageRollupService.flush();
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(1))
+        .andExpect(jsonPath("$.points[0].route").value("GET /v1/megasena/{id}"))
+        .andExpect(jsonPath("$.points[0].allowed").value(4))
+        .andExpect(jsonPath("$.points[0].denied").value(0));
+  }
+
+  @Test
+  void usageRejectsInvalidRange() throws Exception {
+    String apiKey = createApiKey(3, 100);
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey)
+            .param("from", "2024-03-02T00:00:00Z")
+            .param("to", "2024-03-01T00:00:00Z"))
+        .andExpect(status().isBadRequest());
+
+    mockMvc.perform(get("/v1/quota/usage")
+            .header("X-Api-Key", apiKey)
+            .param("from", "not-a-date"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void usageRequiresApiKeyOrToken() throws Exception {
+    mockMvc.perform(get("/v1/quota/usage"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  private void consume(String apiKey, String route) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of(
+        "apiKey", apiKey,
+        "requestId", "req-" + UUID.randomUUID(),
+        "route", route,
+        "cost", 1
+    ));
+
+    mockMvc.perform(post("/v1/quota/consume")
+        .contentType(MediaType.APPLICATION_JSON)
+        .header("X-Internal-Token", "test-internal")
+        .content(body));
+  }
+
+  private String createApiKey(int requestsPerMinute, int requestsPerDay) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of(
+        "name", "client-" + UUID.randomUUID(),
+        "owner", "owner-" + UUID.randomUUID(),
+        "limits", Map.of(
+            "requestsPerMinute", requestsPerMinute,
+            "requestsPerDay", requestsPerDay
+        )
+    ));
+
+    MvcResult result = mockMvc.perform(post("/v1/api-keys")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Admin-Token", "test-admin")
+            .content(body))
+        .andExpect(status().isCreated())
+        .andReturn();
+
+    JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+    return json.get("apiKey").asText();
+  }
+}
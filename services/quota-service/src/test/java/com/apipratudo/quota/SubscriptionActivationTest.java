@@ -56,6 +56,71 @@ class SubscriptionActivationTest {
     assertThat(json.get("credits").get("remaining").asLong()).isEqualTo(50000);
   }
 
+  @Test
+  void exhaustingCreditsFallsBackToFreeLimitsOnTheNextConsume() throws Exception {
+    String apiKey = createApiKey(5, 10);
+    addCredits(apiKey, 2);
+
+    JsonNode first = consume(apiKey);
+    assertThat(first.get("plan").asText()).isEqualTo("PREMIUM");
+    assertThat(first.get("limit").asLong()).isEqualTo(600);
+    consume(apiKey);
+
+    JsonNode afterExhaustion = consume(apiKey);
+    assertThat(afterExhaustion.get("plan").asText()).isEqualTo("FREE");
+    assertThat(afterExhaustion.get("limits").get("requestsPerMinute").asInt()).isEqualTo(5);
+    assertThat(afterExhaustion.get("limits").get("requestsPerDay").asInt()).isEqualTo(10);
+    assertThat(afterExhaustion.get("credits").get("remaining").asLong()).isZero();
+  }
+
+  @Test
+  void leaseThatDrainsCreditsFallsBackToFreeLimits() throws Exception {
+    String apiKey = createApiKey(5, 10);
+    addCredits(apiKey, 3);
+
+    JsonNode lease = lease(apiKey, 10);
+    assertThat(lease.get("plan").asText()).isEqualTo("PREMIUM");
+    assertThat(lease.get("units").asLong()).isEqualTo(3);
+
+    JsonNode next = lease(apiKey, 10);
+    assertThat(next.get("plan").asText()).isEqualTo("FREE");
+    assertThat(next.get("units").asLong()).isEqualTo(5);
+  }
+
+  private void addCredits(String apiKey, long credits) throws Exception {
+    mockMvc.perform(post("/v1/credits/add")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(Map.of("apiKey", apiKey, "credits", credits))))
+        .andExpect(status().isOk());
+  }
+
+  private JsonNode consume(String apiKey) throws Exception {
+    String body = objectMapper.writeValueAsString(Map.of(
+        "apiKey", apiKey,
+        "requestId", UUID.randomUUID().toString(),
+        "route", "GET /v1/webhooks",
+        "cost", 1
+    ));
+    MvcResult result = mockMvc.perform(post("/v1/quota/consume")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(body))
+        .andExpect(status().isOk())
+        .andReturn();
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+
+  private JsonNode lease(String apiKey, int units) throws Exception {
+    MvcResult result = mockMvc.perform(post("/v1/quota/lease")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-Internal-Token", "test-internal")
+            .content(objectMapper.writeValueAsString(Map.of("apiKey", apiKey, "units", units))))
+        .andExpect(status().isOk())
+        .andReturn();
+    return objectMapper.readTree(result.getResponse().getContentAsString());
+  }
+
   private String createApiKey(int requestsPerMinute, int requestsPerDay) throws Exception {
     String body = objectMapper.writeValueAsString(Map.of(
         "name", "client-" + UUID.randomUUID(),
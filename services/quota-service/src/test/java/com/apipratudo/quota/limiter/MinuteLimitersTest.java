@@ -0,0 +1,105 @@
+package com.apipratudo.quota.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.config.PlanProperties;
+import com.apipratudo.quota.model.LimiterStrategy;
+import com.apipratudo.quota.model.Plan;
+import com.apipratudo.quota.model.QuotaWindow;
+import com.apipratudo.quota.model.QuotaWindowStatus;
+import com.apipratudo.quota.model.QuotaWindowType;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+
+class MinuteLimitersTest {
+
+  private static final long LIMIT = 10;
+  private static final Instant BEFORE_BOUNDARY = Instant.parse("2024-03-01T12:00:59.500Z");
+  private static final Instant AFTER_BOUNDARY = Instant.parse("2024-03-01T12:01:00.500Z");
+
+  private final PlanProperties planProperties = new PlanProperties();
+  private final MinuteLimiters limiters = new MinuteLimiters(planProperties);
+
+  @Test
+  void fixedWindowAllowsDoubleBurstAcrossBoundary() {
+    MinuteLimiter limiter = limiters.forStrategy(LimiterStrategy.FIXED_WINDOW);
+    MinuteState state = drain(limiter, MinuteState.empty(), BEFORE_BOUNDARY);
+
+    assertThat(admitted(limiter, state, AFTER_BOUNDARY)).isEqualTo(LIMIT);
+  }
+
+  @Test
+  void slidingWindowCarriesPreviousMinuteAcrossBoundary() {
+    MinuteLimiter limiter = limiters.forStrategy(LimiterStrategy.SLIDING_WINDOW);
+    MinuteState state = drain(limiter, MinuteState.empty(), BEFORE_BOUNDARY);
+
+    assertThat(admitted(limiter, state, AFTER_BOUNDARY)).isZero();
+    MinuteCheck denied = limiter.check(state, LIMIT, 1, window(AFTER_BOUNDARY), AFTER_BOUNDARY);
+    assertThat(denied.exceeded()).isTrue();
+    assertThat(denied.resetAt()).isEqualTo(Instant.parse("2024-03-01T12:01:06Z"));
+
+    Instant halfway = Instant.parse("2024-03-01T12:01:30.500Z");
+    QuotaWindowStatus status = limiter.status(state, LIMIT, window(halfway), halfway);
+    assertThat(status.used()).isEqualTo(5);
+    assertThat(status.remaining()).isEqualTo(5);
+  }
+
+  @Test
+  void gcraSpreadsRefillOverTheMinute() {
+    MinuteLimiter limiter = limiters.forStrategy(LimiterStrategy.GCRA);
+    MinuteState state = drain(limiter, MinuteState.empty(), BEFORE_BOUNDARY);
+
+    assertThat(admitted(limiter, state, AFTER_BOUNDARY)).isZero();
+    MinuteCheck denied = limiter.check(state, LIMIT, 1, window(AFTER_BOUNDARY), AFTER_BOUNDARY);
+    assertThat(denied.resetAt()).isEqualTo(Instant.parse("2024-03-01T12:01:05.500Z"));
+
+    Instant sixSecondsLater = BEFORE_BOUNDARY.plusSeconds(6);
+    assertThat(limiter.available(state, LIMIT, window(sixSecondsLater), sixSecondsLater)).isEqualTo(1);
+  }
+
+  @Test
+  void gcraReleaseGivesUnitsBack() {
+    MinuteLimiter limiter = limiters.forStrategy(LimiterStrategy.GCRA);
+    QuotaWindow window = window(BEFORE_BOUNDARY);
+    MinuteState state = drain(limiter, MinuteState.empty(), BEFORE_BOUNDARY);
+
+    assertThat(limiter.release(state, LIMIT, 2, MinuteLimiter.bucketOf(window), BEFORE_BOUNDARY)).isTrue();
+
+    assertThat(limiter.available(state, LIMIT, window, BEFORE_BOUNDARY)).isEqualTo(2);
+    assertThat(state.count()).isEqualTo(LIMIT - 2);
+  }
+
+  @Test
+  void strategyIsSelectedPerPlan() {
+    planProperties.getPremium().setLimiter(LimiterStrategy.GCRA);
+
+    assertThat(limiters.forPlan(Plan.PREMIUM).strategy()).isEqualTo(LimiterStrategy.GCRA);
+    assertThat(limiters.forPlan(Plan.FREE).strategy()).isEqualTo(LimiterStrategy.FIXED_WINDOW);
+  }
+
+  private MinuteState drain(MinuteLimiter limiter, MinuteState state, Instant now) {
+    for (int i = 0; i < LIMIT; i++) {
+      assertThat(limiter.check(state, LIMIT, 1, window(now), now).exceeded()).isFalse();
+      limiter.acquire(state, LIMIT, 1, window(now), now);
+    }
+    return state;
+  }
+
+  private long admitted(MinuteLimiter limiter, MinuteState state, Instant now) {
+    long admitted = 0;
+    for (int i = 0; i < LIMIT * 2; i++) {
+      if (limiter.check(state, LIMIT, 1, window(now), now).exceeded()) {
+        continue;
+      }
+      limiter.acquire(state, LIMIT, 1, window(now), now);
+      admitted++;
+    }
+    return admitted;
+  }
+
+  private QuotaWindow window(Instant now) {
+    Instant start = now.truncatedTo(ChronoUnit.MINUTES);
+    return new QuotaWindow(QuotaWindowType.MINUTE, start, start.plus(1, ChronoUnit.MINUTES));
+  }
+}
@@ -0,0 +1,150 @@
+package com.apipratudo.quota.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.repository.HotKeyTracker.Action;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class HotKeyTrackerTest {
+
+  private static final long THRESHOLD = 4;
+
+  private final SteppingClock clock = new SteppingClock(Instant.parse("2024-03-01T12:00:00Z"));
+  private final HotKeyTracker tracker = new HotKeyTracker(clock);
+
+  @Test
+  void shardsOnceWhenTheKeyReachesTheThreshold() {
+    assertThat(burst(3)).isEqualTo(Action.NONE);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.SHARD);
+    assertThat(burst(10)).isEqualTo(Action.NONE);
+  }
+
+  @Test
+  void mergesOnceAfterTheKeyStaysCool() {
+    burst(4);
+
+    clock.advanceSeconds(30);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+    clock.advanceSeconds(1);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+  }
+
+  @Test
+  void trafficAtHalfTheThresholdKeepsTheShards() {
+    burst(4);
+
+    for (int i = 0; i < 3; i++) {
+      clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds() - 1);
+      assertThat(burst(2)).isEqualTo(Action.NONE);
+    }
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+  }
+
+  @Test
+  void shardsAgainWhenAMergedKeyHeatsUp() {
+    burst(4);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+
+    clock.advanceSeconds(1);
+    assertThat(burst(4)).isEqualTo(Action.SHARD);
+  }
+
+  @Test
+  void keyFirstSeenCoolGetsOneMergeCheck() {
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+  }
+
+  @Test
+  void hotInstanceShardsAgainWhenTheKeyWasMergedElsewhere() {
+    assertThat(burst(4)).isEqualTo(Action.SHARD);
+    clock.advanceSeconds(30);
+    assertThat(burst(4)).isEqualTo(Action.NONE);
+
+    tracker.observe("key", false);
+    clock.advanceSeconds(30);
+    assertThat(burst(4)).isEqualTo(Action.SHARD);
+  }
+
+  @Test
+  void shardingIsProposedAtMostOncePerCoolDown() {
+    assertThat(burst(4)).isEqualTo(Action.SHARD);
+    tracker.observe("key", false);
+
+    clock.advanceSeconds(1);
+    assertThat(burst(4)).isEqualTo(Action.NONE);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds() - 1);
+    assertThat(burst(4)).isEqualTo(Action.SHARD);
+  }
+
+  @Test
+  void coolInstanceProposesTheMergeOnlyForKeysItSawSharded() {
+    tracker.record("key", THRESHOLD);
+    tracker.observe("key", false);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+
+    tracker.observe("key", true);
+    clock.advanceSeconds(1);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+  }
+
+  @Test
+  void deferredMergeWaitsAnotherCoolDown() {
+    tracker.record("key", THRESHOLD);
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds());
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+
+    tracker.deferMerge("key");
+    clock.advanceSeconds(HotKeyTracker.COOL_DOWN.toSeconds() - 1);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.NONE);
+    clock.advanceSeconds(1);
+    assertThat(tracker.record("key", THRESHOLD)).isEqualTo(Action.MERGE);
+  }
+
+  private Action burst(int requests) {
+    Action last = Action.NONE;
+    for (int i = 0; i < requests; i++) {
+      last = tracker.record("key", THRESHOLD);
+    }
+    return last;
+  }
+
+  private static final class SteppingClock extends Clock {
+    private Instant instant;
+
+    SteppingClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    void advanceSeconds(long seconds) {
+      instant = instant.plusSeconds(seconds);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
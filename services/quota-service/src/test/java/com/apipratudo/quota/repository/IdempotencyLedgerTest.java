@@ -0,0 +1,57 @@
+package com.apipratudo.quota.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyLedgerTest {
+
+  private static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void sweepRemovesOnlyExpiredEntries() {
+    IdempotencyLedger<String> ledger = new IdempotencyLedger<>(100, meterRegistry, "test.ledger");
+    ledger.put("a", "A", NOW.plusSeconds(1));
+    ledger.put("b", "B", NOW.plusSeconds(5));
+    ledger.put("c", "C", NOW.plusSeconds(10));
+
+    assertThat(ledger.sweep(NOW.plusSeconds(6))).isEqualTo(2);
+
+    assertThat(ledger.get("a")).isNull();
+    assertThat(ledger.get("b")).isNull();
+    assertThat(ledger.get("c")).isEqualTo("C");
+    assertThat(meterRegistry.get("test.ledger.size").gauge().value()).isEqualTo(1);
+    assertThat(meterRegistry.get("test.ledger.evictions").tag("cause", "expired").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void reinsertedKeyKeepsNewExpiry() {
+    IdempotencyLedger<String> ledger = new IdempotencyLedger<>(100, meterRegistry, "test.ledger");
+    ledger.put("a", "old", NOW.plusSeconds(1));
+    ledger.remove("a");
+    ledger.put("a", "new", NOW.plusSeconds(30));
+    ledger.replace("a", "refunded");
+
+    ledger.sweep(NOW.plusSeconds(10));
+
+    assertThat(ledger.get("a")).isEqualTo("refunded");
+  }
+
+  @Test
+  void hardCapEvictsOldestFirst() {
+    IdempotencyLedger<String> ledger = new IdempotencyLedger<>(3, meterRegistry, "test.ledger");
+    for (int i = 0; i < 5; i++) {
+      ledger.put("k" + i, "v" + i, NOW.plusSeconds(i + 1));
+    }
+
+    assertThat(ledger.size()).isEqualTo(3);
+    assertThat(ledger.get("k0")).isNull();
+    assertThat(ledger.get("k1")).isNull();
+    assertThat(ledger.get("k4")).isEqualTo("v4");
+    assertThat(meterRegistry.get("test.ledger.evictions").tag("cause", "size").counter().count()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,104 @@
+package com.apipratudo.quota.repository;
+
+import com.apipratudo.quota.config.PlanProperties;
+import com.apipratudo.quota.config.QuotaProperties;
+import com.apipratudo.quota.dto.ApiKeyLimits;
+import com.apipratudo.quota.limiter.MinuteLimiters;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.ApiKeyCredits;
+import com.apipratudo.quota.model.ApiKeyStatus;
+import com.apipratudo.quota.model.Plan;
+import com.apipratudo.quota.model.QuotaDecision;
+import com.apipratudo.quota.model.QuotaWindows;
+import com.apipratudo.quota.service.QuotaWindowCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InMemoryQuotaStoreBenchmark {
+
+  private static final int KEYS = 64;
+
+  @State(Scope.Benchmark)
+  public static class StoreState {
+    final Clock clock = Clock.systemUTC();
+    final ApiKey[] keys = new ApiKey[KEYS];
+    final AtomicInteger threadIds = new AtomicInteger();
+    InMemoryQuotaStore store;
+    QuotaWindows windows;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      InMemoryApiKeyRepository repository = new InMemoryApiKeyRepository();
+      store = new InMemoryQuotaStore(clock, new QuotaProperties(), repository,
+          new MinuteLimiters(new PlanProperties()), new SimpleMeterRegistry());
+      for (int i = 0; i < KEYS; i++) {
+        keys[i] = repository.save(new ApiKey("bench-" + i, "hash-" + i, "bench", "bench", null, null,
+            new ApiKeyLimits(Integer.MAX_VALUE, Integer.MAX_VALUE), Instant.now(clock), ApiKeyStatus.ACTIVE,
+            Plan.FREE, new ApiKeyCredits(0), null, 0, null, 0));
+      }
+      windows = new QuotaWindowCalculator(clock).currentWindows();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    int keyIndex;
+    String prefix;
+    long sequence;
+
+    @Setup
+    public void setUp(StoreState storeState) {
+      int id = storeState.threadIds.getAndIncrement();
+      keyIndex = id % KEYS;
+      prefix = "t" + id + "-";
+    }
+
+    String nextRequestId() {
+      return prefix + sequence++;
+    }
+  }
+
+  @Benchmark
+  public QuotaDecision consumeDistinctKeys(StoreState storeState, ThreadState threadState) {
+    return storeState.store.consume(storeState.keys[threadState.keyIndex], threadState.nextRequestId(), "GET /v1/x", 1,
+        storeState.windows);
+  }
+
+  @Benchmark
+  public QuotaDecision consumeSharedKey(StoreState storeState, ThreadState threadState) {
+    return storeState.store.consume(storeState.keys[0], threadState.nextRequestId(), "GET /v1/x", 1,
+        storeState.windows);
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (int threads : new int[] {1, 2, 4, 8, 16, 32}) {
+      Options options = new OptionsBuilder()
+          .include(InMemoryQuotaStoreBenchmark.class.getSimpleName())
+          .threads(threads)
+          .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.apipratudo.quota.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.config.ApiKeyCacheProperties;
+import com.apipratudo.quota.model.ApiKey;
+import com.apipratudo.quota.model.ApiKeyStatus;
+import com.apipratudo.quota.repository.InMemoryApiKeyInvalidationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ApiKeyCacheTest {
+
+  private final InMemoryApiKeyInvalidationRepository invalidations = new InMemoryApiKeyInvalidationRepository();
+
+  @Test
+  void invalidationOnOneInstanceEvictsTheOthers() {
+    ApiKeyCache first = newCache();
+    ApiKeyCache second = newCache();
+    AtomicInteger loads = new AtomicInteger();
+
+    assertThat(second.get("hash-a", hash -> load(loads, ApiKeyStatus.ACTIVE))).isPresent();
+    assertThat(second.get("hash-a", hash -> load(loads, ApiKeyStatus.SUSPENDED)).get().status())
+        .isEqualTo(ApiKeyStatus.ACTIVE);
+    assertThat(loads).hasValue(1);
+
+    first.invalidate("hash-a", null);
+
+    assertThat(second.get("hash-a", hash -> load(loads, ApiKeyStatus.SUSPENDED)).get().status())
+        .isEqualTo(ApiKeyStatus.SUSPENDED);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void shutdownStopsListening() {
+    ApiKeyCache first = newCache();
+    ApiKeyCache second = newCache();
+    AtomicInteger loads = new AtomicInteger();
+    second.get("hash-a", hash -> load(loads, ApiKeyStatus.ACTIVE));
+
+    second.shutdown();
+    first.invalidate("hash-a");
+
+    assertThat(second.get("hash-a", hash -> load(loads, ApiKeyStatus.SUSPENDED)).get().status())
+        .isEqualTo(ApiKeyStatus.ACTIVE);
+  }
+
+  private ApiKeyCache newCache() {
+    ApiKeyCache cache = new ApiKeyCache(new ApiKeyCacheProperties(), new SimpleMeterRegistry(), invalidations);
+    cache.subscribe();
+    return cache;
+  }
+
+  private Optional<ApiKey> load(AtomicInteger loads, ApiKeyStatus status) {
+    loads.incrementAndGet();
+    return Optional.of(new ApiKey("id-a", "hash-a", "client", "owner", null, null, null, null, status, null, null,
+        null, 0, null, 0));
+  }
+}
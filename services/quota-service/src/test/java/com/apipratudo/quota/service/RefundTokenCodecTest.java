@@ -0,0 +1,72 @@
+package com.apipratudo.quota.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.apipratudo.quota.config.SecurityProperties;
+import com.apipratudo.quota.model.QuotaRefundToken;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RefundTokenCodecTest {
+
+  private static final Instant NOW = Instant.parse("2024-03-01T12:00:30Z");
+
+  private final QuotaRefundToken token = new QuotaRefundToken("key-1", Instant.parse("2024-03-01T12:00:00Z"),
+      "2024-03-01", 2, 2, Map.of("0", 1L, "3", 1L), NOW.plusSeconds(300));
+
+  @Test
+  void roundTripsOnAnotherInstanceWithTheSameSecret() {
+    String encoded = codec("secret", NOW).encode(token);
+
+    assertThat(codec("secret", NOW.plusSeconds(10)).decode(encoded, "key-1")).contains(token);
+  }
+
+  @Test
+  void roundTripsATokenWithoutDayBucketOrShards() {
+    QuotaRefundToken credits = new QuotaRefundToken("key-1", Instant.parse("2024-03-01T12:00:00Z"), null, 1, 1,
+        null, NOW.plusSeconds(300));
+    RefundTokenCodec codec = codec("secret", NOW);
+
+    assertThat(codec.decode(codec.encode(credits), "key-1")).contains(credits);
+  }
+
+  @Test
+  void rejectsATamperedPayload() {
+    RefundTokenCodec codec = codec("secret", NOW);
+    String encoded = codec.encode(token);
+    QuotaRefundToken wider = new QuotaRefundToken("key-1", token.minuteBucket(), token.dayBucket(), 50, 50,
+        token.shardUnits(), token.expiresAt());
+    String forged = codec.encode(wider).split("\\.")[0] + "." + encoded.split("\\.")[1];
+
+    assertThat(codec.decode(forged, "key-1")).isEmpty();
+    assertThat(codec.decode("not-a-token", "key-1")).isEmpty();
+    assertThat(codec.decode("%%%.%%%", "key-1")).isEmpty();
+  }
+
+  @Test
+  void rejectsAnotherSecretAnotherKeyOrAnExpiredToken() {
+    String encoded = codec("secret", NOW).encode(token);
+
+    assertThat(codec("other", NOW).decode(encoded, "key-1")).isEmpty();
+    assertThat(codec("secret", NOW).decode(encoded, "key-2")).isEmpty();
+    assertThat(codec("secret", NOW.plus(Duration.ofMinutes(5))).decode(encoded, "key-1")).isEmpty();
+  }
+
+  @Test
+  void issuesNoTokenWithoutAnInternalToken() {
+    RefundTokenCodec codec = codec(null, NOW);
+
+    assertThat(codec.encode(token)).isNull();
+    assertThat(codec.decode(codec("secret", NOW).encode(token), "key-1")).isEmpty();
+  }
+
+  private RefundTokenCodec codec(String secret, Instant now) {
+    SecurityProperties properties = new SecurityProperties();
+    properties.setInternalToken(secret);
+    return new RefundTokenCodec(properties, Clock.fixed(now, ZoneOffset.UTC));
+  }
+}
@@ -2,8 +2,11 @@ package com.apipratudo.supersete.controller;
 
 import com.apipratudo.supersete.dto.SuperseteResultadoOficialResponse;
 import com.apipratudo.supersete.logging.TraceIdUtils;
+import com.apipratudo.supersete.service.SuperseteDateParser;
 import com.apipratudo.supersete.service.SuperseteResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class SuperseteResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public SuperseteResultadoOficialResponse obterResultadoSupersete(HttpServletRequest request) {
+  public ResponseEntity<SuperseteResultadoOficialResponse> obterResultadoSupersete(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    SuperseteResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = SuperseteDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }
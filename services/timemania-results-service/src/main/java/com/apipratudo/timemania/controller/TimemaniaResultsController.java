@@ -2,8 +2,11 @@ package com.apipratudo.timemania.controller;
 
 import com.apipratudo.timemania.dto.TimemaniaResultadoOficialResponse;
 import com.apipratudo.timemania.logging.TraceIdUtils;
+import com.apipratudo.timemania.service.TimemaniaDateParser;
 import com.apipratudo.timemania.service.TimemaniaResultsService;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,8 +22,13 @@ public class TimemaniaResultsController {
   }
 
   @GetMapping("/resultado-oficial")
-  public TimemaniaResultadoOficialResponse obterResultadoTimemania(HttpServletRequest request) {
+  public ResponseEntity<TimemaniaResultadoOficialResponse> obterResultadoTimemania(HttpServletRequest request) {
     String traceId = TraceIdUtils.resolveTraceId(request);
-    return service.obterResultadoOficial(traceId);
+    TimemaniaResultadoOficialResponse response = service.obterResultadoOficial(traceId);
+    Instant lastModified = TimemaniaDateParser.drawInstant(response.dataApuracao());
+    if (lastModified == null) {
+      return ResponseEntity.ok(response);
+    }
+    return ResponseEntity.ok().lastModified(lastModified).body(response);
   }
 }